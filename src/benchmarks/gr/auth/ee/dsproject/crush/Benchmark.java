@@ -0,0 +1,59 @@
+package benchmarks.gr.auth.ee.dsproject.crush;
+
+
+/**
+ * Benchmark is a single operation measured by a BenchmarkRunner.
+ *
+ * In order to be used it should be subclassed and implement run(), which
+ * does the operation once. Inputs of the operation should be prepared in
+ * setUp(), so they are not measured. Every call to run() is given its
+ * invocation number, so it may cycle through a corpus of inputs.
+ *
+ * The result of every invocation should be reduced to a long and returned,
+ * so the JIT cannot eliminate the operation as dead code. Reducing should
+ * be cheap and allocate nothing, e.g. the size of a returned set or the
+ * raw bits of a returned double.
+ *
+ * Public constructors defined in Benchmark:
+ * -public Benchmark(String name)
+ *
+ * Public methods defined in Benchmark:
+ * -public String getName()
+ * -public void setUp()
+ * -public abstract long run(int invocation)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public abstract class Benchmark {
+
+//==== Private instance variables ====
+
+	private final String name;
+
+
+//==== Public Constructors ====
+
+	public Benchmark(String name) {
+		this.name = name;
+	}
+
+
+//==== Public Methods ====
+
+	public String getName() { return name; }
+
+	/**
+	 * Prepares the inputs of the operation. It is called once, before any
+	 * invocation of run().
+	 */
+	public void setUp() {}
+
+	/**
+	 * Does the operation once.
+	 *
+	 * @param invocation The number of the invocation, starting from 0.
+	 * @return A value derived from the result of the operation.
+	 */
+	public abstract long run(int invocation);
+}
@@ -0,0 +1,155 @@
+package benchmarks.gr.auth.ee.dsproject.crush;
+
+
+/**
+ * BenchmarkResult keeps the measurements of a Benchmark, as taken by a
+ * BenchmarkRunner.
+ *
+ * Throughput is measured on every iteration, and its mean and standard
+ * deviation over all the iterations are kept. Average time and allocation
+ * are computed over all the invocations of all the measured iterations.
+ * When the JVM cannot measure the memory allocated by a thread, allocation
+ * values are negative.
+ *
+ * A BenchmarkResult is immutable.
+ *
+ * Public constructors defined in BenchmarkResult:
+ * -public BenchmarkResult(String name, double[] throughputs, long invocations,
+ * 		long nanos, long allocatedBytes, long gcCount, long gcMillis)
+ *
+ * Public methods defined in BenchmarkResult:
+ * -public String getName()
+ * -public double getThroughput()
+ * -public double getThroughputDeviation()
+ * -public double getAverageTime()
+ * -public double getAllocationPerInvocation()
+ * -public double getAllocationRate()
+ * -public long getGcCount()
+ * -public long getGcMillis()
+ * -public static String header()
+ * -public String toString()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class BenchmarkResult {
+
+//==== Private Constants ====
+
+	private static final String FORMAT = "%-48s %14s %12s %12s %12s %8s%n";
+
+
+//==== Private instance variables ====
+
+	private final String name;
+
+	private final double throughput;
+
+	private final double throughputDeviation;
+
+	private final double averageTime;
+
+	private final double allocationPerInvocation;
+
+	private final double allocationRate;
+
+	private final long gcCount;
+
+	private final long gcMillis;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new BenchmarkResult out of raw measurements.
+	 *
+	 * @param name The name of the benchmark.
+	 * @param throughputs The invocations per second of every measured iteration.
+	 * @param invocations The number of invocations of all measured iterations.
+	 * @param nanos The time all measured iterations took, in nanoseconds.
+	 * @param allocatedBytes The bytes allocated by all measured iterations,
+	 * 						 or a negative value when unknown.
+	 * @param gcCount The number of garbage collections during measurement.
+	 * @param gcMillis The time spent on garbage collections during measurement.
+	 */
+	public BenchmarkResult(String name, double[] throughputs, long invocations,
+						   long nanos, long allocatedBytes, long gcCount, long gcMillis)
+	{
+		this.name = name;
+
+		double sum = 0;
+		for (double t : throughputs) sum += t;
+		throughput = sum / throughputs.length;
+
+		double squares = 0;
+		for (double t : throughputs) squares += (t - throughput) * (t - throughput);
+		throughputDeviation = throughputs.length > 1 ? Math.sqrt(squares / (throughputs.length - 1)) : 0;
+
+		averageTime = (double) nanos / invocations;
+
+		if (allocatedBytes >= 0) {
+			allocationPerInvocation = (double) allocatedBytes / invocations;
+			allocationRate = allocatedBytes / (nanos / 1e9) / (1 << 20);
+		} else {
+			allocationPerInvocation = -1;
+			allocationRate = -1;
+		}
+
+		this.gcCount = gcCount;
+		this.gcMillis = gcMillis;
+	}
+
+
+//==== Public Getters ====
+
+	public String getName() { return name; }
+
+	/**
+	 * Get the mean throughput, in invocations per second.
+	 */
+	public double getThroughput() { return throughput; }
+
+	public double getThroughputDeviation() { return throughputDeviation; }
+
+	/**
+	 * Get the average time of an invocation, in nanoseconds.
+	 */
+	public double getAverageTime() { return averageTime; }
+
+	/**
+	 * Get the bytes allocated by an invocation, or -1 when unknown.
+	 */
+	public double getAllocationPerInvocation() { return allocationPerInvocation; }
+
+	/**
+	 * Get the allocation rate, in MB per second, or -1 when unknown.
+	 */
+	public double getAllocationRate() { return allocationRate; }
+
+	public long getGcCount() { return gcCount; }
+
+	public long getGcMillis() { return gcMillis; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Get the header of the table the results are printed into.
+	 */
+	public static String header() {
+		return String.format(FORMAT, "Benchmark", "ops/s", "ns/op", "B/op", "MB/s", "gc");
+	}
+
+	/**
+	 * Get the result as a row of the table header() starts.
+	 */
+	@Override
+	public String toString() {
+		return String.format(FORMAT, name,
+				String.format("%.1f +- %.0f%%", throughput, 100 * throughputDeviation / throughput),
+				String.format("%.1f", averageTime),
+				allocationPerInvocation < 0 ? "n/a" : String.format("%.1f", allocationPerInvocation),
+				allocationRate < 0 ? "n/a" : String.format("%.1f", allocationRate),
+				gcCount + "/" + gcMillis + "ms");
+	}
+}
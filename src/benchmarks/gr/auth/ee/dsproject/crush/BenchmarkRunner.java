@@ -0,0 +1,222 @@
+package benchmarks.gr.auth.ee.dsproject.crush;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+
+/**
+ * BenchmarkRunner measures Benchmark objects, in the way JMH does for
+ * its throughput, average time and GC profiler modes.
+ *
+ * Every benchmark is first run for a number of warmup iterations, so its
+ * code gets compiled, and then for a number of measured iterations, each
+ * one of a fixed duration. Invocations are run in batches, sized so a
+ * batch takes long enough for timing it not to matter, and the time is
+ * only checked between batches.
+ *
+ * Memory allocated by the measuring thread is taken out of the
+ * ThreadMXBean of the JVM, when it supports it, e.g. on HotSpot. Time
+ * spent on garbage collections is taken out of the GarbageCollectorMXBean
+ * objects of the JVM.
+ *
+ * Benchmarks are run on the calling thread, one after the other, so a
+ * BenchmarkRunner should not be used by many threads at once.
+ *
+ * Constants defined in BenchmarkRunner:
+ * -public static final int DEFAULT_WARMUP_ITERATIONS = 3
+ * -public static final int DEFAULT_ITERATIONS = 5
+ * -public static final long DEFAULT_ITERATION_MILLIS = 1000
+ *
+ * Public constructors defined in BenchmarkRunner:
+ * -public BenchmarkRunner()
+ * -public BenchmarkRunner(int warmupIterations, int iterations, long iterationMillis)
+ *
+ * Public methods defined in BenchmarkRunner:
+ * -public BenchmarkResult run(Benchmark benchmark)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class BenchmarkRunner {
+
+//==== Public Constants ====
+
+	public static final int DEFAULT_WARMUP_ITERATIONS = 3;
+
+	public static final int DEFAULT_ITERATIONS = 5;
+
+	public static final long DEFAULT_ITERATION_MILLIS = 1000;
+
+
+//==== Private Constants ====
+
+	/**
+	 * The least time a batch of invocations should take, in nanoseconds.
+	 */
+	private static final long BATCH_NANOS = 100000;
+
+
+//==== Private instance variables ====
+
+	private final int warmupIterations;
+
+	private final int iterations;
+
+	private final long iterationNanos;
+
+	/**
+	 * Values returned by benchmarks are folded into it, so they are never
+	 * eliminated as dead code.
+	 */
+	private volatile long sink;
+
+	private int invocation;
+
+
+//==== Public Constructors ====
+
+	public BenchmarkRunner() {
+		this(DEFAULT_WARMUP_ITERATIONS, DEFAULT_ITERATIONS, DEFAULT_ITERATION_MILLIS);
+	}
+
+	/**
+	 * Create a new BenchmarkRunner.
+	 *
+	 * @param warmupIterations The number of iterations that are not measured.
+	 * @param iterations The number of measured iterations, at least 1.
+	 * @param iterationMillis The duration of every iteration, in milliseconds.
+	 */
+	public BenchmarkRunner(int warmupIterations, int iterations, long iterationMillis) {
+		this.warmupIterations = Math.max(0, warmupIterations);
+		this.iterations = Math.max(1, iterations);
+		this.iterationNanos = iterationMillis * 1000000L;
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Sets up and measures the given benchmark.
+	 *
+	 * @param benchmark The benchmark to be measured.
+	 * @return The measurements of the benchmark.
+	 */
+	public BenchmarkResult run(Benchmark benchmark) {
+		benchmark.setUp();
+		invocation = 0;
+
+		int batch = calibrate(benchmark);
+
+		for (int i = 0; i < warmupIterations; i++) runIteration(benchmark, batch);
+
+		double[] throughputs = new double[iterations];
+		long invocations = 0;
+		long nanos = 0;
+
+		long allocated = allocatedBytes();
+		long gcCount = gcCount();
+		long gcMillis = gcMillis();
+
+		for (int i = 0; i < iterations; i++) {
+			long start = System.nanoTime();
+			long n = runIteration(benchmark, batch);
+			long elapsed = System.nanoTime() - start;
+
+			throughputs[i] = n / (elapsed / 1e9);
+			invocations += n;
+			nanos += elapsed;
+		}
+
+		long allocatedAfter = allocatedBytes();
+
+		return new BenchmarkResult(benchmark.getName(), throughputs, invocations, nanos,
+				allocated < 0 ? -1 : allocatedAfter - allocated,
+				gcCount() - gcCount, gcMillis() - gcMillis);
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Finds the number of invocations a batch should have, by doubling it
+	 * until a batch takes at least BATCH_NANOS.
+	 */
+	private int calibrate(Benchmark benchmark) {
+		int batch = 1;
+
+		while (batch < (1 << 20)) {
+			long start = System.nanoTime();
+			runBatch(benchmark, batch);
+
+			if (System.nanoTime() - start >= BATCH_NANOS) break;
+			batch *= 2;
+		}
+
+		return batch;
+	}
+
+	/**
+	 * Runs batches of invocations until the duration of an iteration has
+	 * passed.
+	 *
+	 * @return The number of invocations run.
+	 */
+	private long runIteration(Benchmark benchmark, int batch) {
+		long end = System.nanoTime() + iterationNanos;
+		long n = 0;
+
+		do {
+			runBatch(benchmark, batch);
+			n += batch;
+		} while (System.nanoTime() < end);
+
+		return n;
+	}
+
+	private void runBatch(Benchmark benchmark, int batch) {
+		long result = 0;
+
+		for (int i = 0; i < batch; i++) result ^= benchmark.run(invocation++);
+
+		sink ^= result;
+	}
+
+	/**
+	 * Get the bytes allocated so far by the current thread, or -1 if the
+	 * JVM cannot tell.
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+
+			if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+				return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+
+		return -1;
+	}
+
+	private static long gcCount() {
+		long count = 0;
+
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+
+		return count;
+	}
+
+	private static long gcMillis() {
+		long millis = 0;
+
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += Math.max(0, gc.getCollectionTime());
+		}
+
+		return millis;
+	}
+}
@@ -0,0 +1,254 @@
+package benchmarks.gr.auth.ee.dsproject.crush;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.board.Tile;
+import gr.auth.ee.dsproject.crush.heuristics.HeuristicsEngine;
+import gr.auth.ee.dsproject.crush.heuristics.SliderMathModel;
+import gr.auth.ee.dsproject.crush.node.Node;
+import gr.auth.ee.dsproject.crush.player.CandiesRemovedHeuristic;
+import gr.auth.ee.dsproject.crush.player.DistanceFromTopHeuristic;
+import gr.auth.ee.dsproject.crush.player.MinMaxPlayer;
+import gr.auth.ee.dsproject.crush.player.MoveContext;
+import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+
+
+/**
+ * CrushBenchmarks is the suite of benchmarks of the hot paths of the
+ * search and the evaluation of moves, all run on a PositionCorpus of the
+ * default seed:
+ * -BoardUtils.findAllNPles(), on Board and on HeadlessBoard, on the
+ *  positions just after every available move has been swapped.
+ * -BoardUtils.findTilesThatCrush(), on the same color tiles adjacent to
+ *  the two tiles of every available move, after the swap.
+ * -CandiesRemovedHeuristic.evaluate() of every available move.
+ * -HeuristicsEngine.evaluate() of the heuristics of HeuristicPlayer,
+ *  and Node.doHeuristicEvaluation(), which evaluates them compiled.
+ * -SliderMathModel.calculateWeights(), which processes the scales of
+ *  the model.
+ * -Node.createChildren() of every position.
+ * -MinMaxPlayer.getNextMove() of every position, for depths 1 to
+ *  MINIMAX_DEPTH.
+ *
+ * It can be run from the command line as:
+ * CrushBenchmarks [filter] [warmupIterations] [iterations] [iterationMillis]
+ * where only the benchmarks whose names contain the filter regex are run.
+ *
+ * Public methods defined in CrushBenchmarks:
+ * -public static ArrayList<Benchmark> createAll(PositionCorpus corpus)
+ * -public static void main(String[] args)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class CrushBenchmarks {
+
+//==== Public Static Methods ====
+
+	/**
+	 * Creates all the benchmarks of the suite, on the given corpus.
+	 */
+	public static ArrayList<Benchmark> createAll(final PositionCorpus corpus) {
+		ArrayList<Benchmark> benchmarks = new ArrayList<>();
+
+		final int moveCount = corpus.getMoveCount();
+
+		// Boards of every available move just after the swap.
+		final Board[] swapped = new Board[moveCount];
+		final HeadlessBoard[] headlessSwapped = new HeadlessBoard[moveCount];
+
+		for (int m = 0; m < moveCount; m++) {
+			int[] cords = corpus.getMoveCords(m);
+
+			swapped[m] = CrushUtilities.boardAfterFirstMove(corpus.getBoard(corpus.getMovePosition(m)),
+															corpus.getMove(m));
+
+			headlessSwapped[m] = new HeadlessBoard(corpus.getHeadlessBoard(corpus.getMovePosition(m)));
+			headlessSwapped[m].swap(cords[0], cords[1], cords[2], cords[3]);
+		}
+
+		benchmarks.add(new Benchmark("BoardUtils.findAllNPles(Board)") {
+			@Override
+			public long run(int i) {
+				return BoardUtils.findAllNPles(swapped[i % moveCount]).size();
+			}
+		});
+
+		benchmarks.add(new Benchmark("BoardUtils.findAllNPles(HeadlessBoard)") {
+			private final long[] marks = new long[headlessSwapped[0].getCols()];
+
+			@Override
+			public long run(int i) {
+				return BoardUtils.findAllNPles(headlessSwapped[i % moveCount], marks);
+			}
+		});
+
+		benchmarks.add(new Benchmark("BoardUtils.findTilesThatCrush") {
+			private final ArrayList<Set<Tile>> adjacent = new ArrayList<>();
+
+			@Override
+			public void setUp() {
+				for (int m = 0; m < moveCount; m++) {
+					int[] cords = corpus.getMoveCords(m);
+					Set<Tile> tiles = new HashSet<>();
+
+					for (int t = 0; t < 4; t += 2) {
+						Tile tile = swapped[m].giveTileAt(cords[t], cords[t + 1]);
+
+						tiles.add(tile);
+						tiles.addAll(BoardUtils.findAdjacentSameColorTiles(swapped[m], tile, 2));
+					}
+
+					adjacent.add(tiles);
+				}
+			}
+
+			@Override
+			public long run(int i) {
+				return BoardUtils.findTilesThatCrush(adjacent.get(i % moveCount)).size();
+			}
+		});
+
+		final PlayerMove[] playerMoves = new PlayerMove[moveCount];
+
+		for (int m = 0; m < moveCount; m++) {
+			int[] cords = corpus.getMoveCords(m);
+			HeadlessBoard board = corpus.getHeadlessBoard(corpus.getMovePosition(m));
+
+			playerMoves[m] = new PlayerMove(board.giveTileAt(cords[0], cords[1]),
+											board.giveTileAt(cords[2], cords[3]));
+		}
+
+		benchmarks.add(new Benchmark("CandiesRemovedHeuristic.evaluate") {
+			private final CandiesRemovedHeuristic heuristic = new CandiesRemovedHeuristic();
+			private final MoveContext context = new MoveContext();
+
+			@Override
+			public long run(int i) {
+				int m = i % moveCount;
+
+				context.set(corpus.getHeadlessBoard(corpus.getMovePosition(m)), playerMoves[m]);
+
+				return Double.doubleToRawLongBits(heuristic.evaluate(context));
+			}
+		});
+
+		benchmarks.add(new Benchmark("HeuristicsEngine.evaluate") {
+			private final CandiesRemovedHeuristic removed = new CandiesRemovedHeuristic();
+			private final DistanceFromTopHeuristic distance = new DistanceFromTopHeuristic();
+			private final HeuristicsEngine engine = new HeuristicsEngine(new SliderMathModel(2.0));
+
+			@Override
+			public void setUp() {
+				engine.add(removed, SliderMathModel.VERY_HIGH);
+				engine.add(distance, SliderMathModel.VERY_LOW);
+			}
+
+			@Override
+			public long run(int i) {
+				int m = i % moveCount;
+				HeadlessBoard board = corpus.getHeadlessBoard(corpus.getMovePosition(m));
+
+				removed.setBoard(board);
+				removed.setPlayerMove(playerMoves[m]);
+				distance.setBoard(board);
+				distance.setMove(playerMoves[m]);
+
+				return Double.doubleToRawLongBits(engine.evaluate());
+			}
+		});
+
+		benchmarks.add(new Benchmark("Node.doHeuristicEvaluation") {
+			private final MoveContext context = new MoveContext();
+
+			@Override
+			public long run(int i) {
+				int m = i % moveCount;
+
+				context.set(corpus.getHeadlessBoard(corpus.getMovePosition(m)), playerMoves[m]);
+
+				return Double.doubleToRawLongBits(Node.doHeuristicEvaluation(context));
+			}
+		});
+
+		benchmarks.add(new Benchmark("SliderMathModel.calculateWeights") {
+			private final SliderMathModel model = new SliderMathModel(2.0);
+			private final Set<Integer> scales = new HashSet<>();
+
+			@Override
+			public void setUp() {
+				scales.add(SliderMathModel.VERY_HIGH);
+				scales.add(SliderMathModel.VERY_LOW);
+			}
+
+			@Override
+			public long run(int i) {
+				return model.calculateWeights(scales).size();
+			}
+		});
+
+		benchmarks.add(new Benchmark("Node.createChildren") {
+			@Override
+			public long run(int i) {
+				Node node = new Node(null, corpus.getHeadlessBoard(i % corpus.size()), null);
+				node.createChildren();
+
+				return node.getChildren().size();
+			}
+		});
+
+		for (int depth = 1; depth <= MinMaxPlayer.MINIMAX_DEPTH; depth++) {
+			final int searchDepth = depth;
+
+			benchmarks.add(new Benchmark("MinMaxPlayer.getNextMove depth " + depth) {
+				private final MinMaxPlayer player = new MinMaxPlayer(1, 0, 1);
+
+				@Override
+				public void setUp() {
+					player.setSearchDepth(searchDepth);
+				}
+
+				@Override
+				public long run(int i) {
+					int p = i % corpus.size();
+
+					return player.getNextMove(corpus.getAvailableMoves(p), corpus.getBoard(p))[0];
+				}
+			});
+		}
+
+		return benchmarks;
+	}
+
+	public static void main(String[] args) {
+		// Boards are Swing components, though they are never shown.
+		System.setProperty("java.awt.headless", "true");
+
+		Pattern filter = Pattern.compile(args.length > 0 ? args[0] : "");
+
+		BenchmarkRunner runner = new BenchmarkRunner(
+				args.length > 1 ? Integer.parseInt(args[1]) : BenchmarkRunner.DEFAULT_WARMUP_ITERATIONS,
+				args.length > 2 ? Integer.parseInt(args[2]) : BenchmarkRunner.DEFAULT_ITERATIONS,
+				args.length > 3 ? Long.parseLong(args[3]) : BenchmarkRunner.DEFAULT_ITERATION_MILLIS);
+
+		PositionCorpus corpus = new PositionCorpus();
+
+		System.out.println(String.format("Corpus: seed %d, %d positions, %d moves, %d rows",
+				PositionCorpus.DEFAULT_SEED, corpus.size(), corpus.getMoveCount(),
+				PositionCorpus.DEFAULT_ROWS));
+		System.out.print(BenchmarkResult.header());
+
+		for (Benchmark benchmark : createAll(corpus)) {
+			if (!filter.matcher(benchmark.getName()).find()) continue;
+
+			System.out.print(runner.run(benchmark));
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package benchmarks.gr.auth.ee.dsproject.crush;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.tournament.Game;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+
+
+/**
+ * PositionCorpus is a fixed set of positions benchmarks are run on, so
+ * measurements of different versions of the code are comparable.
+ *
+ * Positions are boards created out of a Random of a fixed seed, in the
+ * same way games of a tournament are, so the same seed always gives the
+ * same positions. Boards with no available moves are skipped. Every
+ * position is kept both as a Board and as a HeadlessBoard, along with its
+ * available moves. All the available moves of all the positions are also
+ * numbered in a single sequence, so benchmarks of moves may cycle through
+ * them.
+ *
+ * Positions are shared by all benchmarks, so they should never be modified.
+ *
+ * Constants defined in PositionCorpus:
+ * -public static final long DEFAULT_SEED = 2017
+ * -public static final int DEFAULT_SIZE = 16
+ * -public static final int DEFAULT_ROWS = 100
+ *
+ * Public constructors defined in PositionCorpus:
+ * -public PositionCorpus()
+ * -public PositionCorpus(long seed, int size, int rows)
+ *
+ * Public methods defined in PositionCorpus:
+ * -public int size()
+ * -public Board getBoard(int position)
+ * -public HeadlessBoard getHeadlessBoard(int position)
+ * -public ArrayList<int[]> getAvailableMoves(int position)
+ * -public int getMoveCount()
+ * -public int getMovePosition(int move)
+ * -public int[] getMove(int move)
+ * -public int[] getMoveCords(int move)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class PositionCorpus {
+
+//==== Public Constants ====
+
+	public static final long DEFAULT_SEED = 2017;
+
+	public static final int DEFAULT_SIZE = 16;
+
+	public static final int DEFAULT_ROWS = 100;
+
+
+//==== Private instance variables ====
+
+	private final Board[] boards;
+
+	private final HeadlessBoard[] headlessBoards;
+
+	private final ArrayList<ArrayList<int[]>> availableMoves = new ArrayList<>();
+
+	/**
+	 * Position of every move of the sequence of all moves.
+	 */
+	private final int[] movePositions;
+
+	/**
+	 * Every move of the sequence of all moves, in the form of [x, y, direction].
+	 */
+	private final int[][] moves;
+
+
+//==== Public Constructors ====
+
+	public PositionCorpus() {
+		this(DEFAULT_SEED, DEFAULT_SIZE, DEFAULT_ROWS);
+	}
+
+	/**
+	 * Create a new PositionCorpus.
+	 *
+	 * @param seed The seed the colors of all positions come out of.
+	 * @param size The number of positions.
+	 * @param rows The number of rows of every board, including the playable ones.
+	 */
+	public PositionCorpus(long seed, int size, int rows) {
+		Random random = new Random(seed);
+
+		boards = new Board[size];
+		headlessBoards = new HeadlessBoard[size];
+
+		int count = 0;
+
+		for (int i = 0; i < size; i++) {
+			ArrayList<int[]> available;
+
+			do {
+				boards[i] = Game.createBoard(random, rows);
+				available = CrushUtilities.getAvailableMoves(boards[i]);
+			} while (available.isEmpty());
+
+			headlessBoards[i] = HeadlessBoard.fromBoard(boards[i]);
+			availableMoves.add(available);
+			count += available.size();
+		}
+
+		movePositions = new int[count];
+		moves = new int[count][];
+
+		for (int i = 0, m = 0; i < size; i++) {
+			for (int[] move : availableMoves.get(i)) {
+				movePositions[m] = i;
+				moves[m++] = move;
+			}
+		}
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Get the number of positions.
+	 */
+	public int size() { return boards.length; }
+
+	public Board getBoard(int position) { return boards[position]; }
+
+	public HeadlessBoard getHeadlessBoard(int position) { return headlessBoards[position]; }
+
+	public ArrayList<int[]> getAvailableMoves(int position) { return availableMoves.get(position); }
+
+	/**
+	 * Get the number of available moves of all positions.
+	 */
+	public int getMoveCount() { return moves.length; }
+
+	/**
+	 * Get the position the given move of the sequence of all moves is
+	 * available on.
+	 */
+	public int getMovePosition(int move) { return movePositions[move]; }
+
+	/**
+	 * Get the given move of the sequence of all moves, in the form of
+	 * [x, y, direction].
+	 */
+	public int[] getMove(int move) { return moves[move]; }
+
+	/**
+	 * Get the given move of the sequence of all moves, in the form of
+	 * [x1, y1, x2, y2].
+	 */
+	public int[] getMoveCords(int move) { return CrushUtilities.calculateNextMove(moves[move]); }
+}
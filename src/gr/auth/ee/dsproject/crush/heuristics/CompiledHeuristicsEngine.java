@@ -0,0 +1,150 @@
+package gr.auth.ee.dsproject.crush.heuristics;
+
+import java.util.List;
+
+
+/**
+ * CompiledHeuristicsEngine is an immutable version of HeuristicsEngine,
+ * created by HeuristicsCompiler, that evaluates reusable heuristics on
+ * any number of inputs.
+ * 
+ * The overall score is composed exactly as HeuristicsEngine.evaluate()
+ * does, i.e. the average score of every group of equally weighted
+ * heuristics multiplied by the weight of the group. Though groups and
+ * their weights are frozen upon compilation into primitive arrays, so
+ * evaluating an input neither asks the math model for the weights nor
+ * allocates any memory.
+ * 
+ * Since it keeps no state that changes, a single CompiledHeuristicsEngine
+ * can be shared among threads, as long as its heuristics can.
+ * 
+ * Public methods defined in CompiledHeuristicsEngine:
+ * -public int getNumberOfHeuristics()
+ * -public int getNumberOfGroups()
+ * -public double getGroupWeight(int group)
+ * -public ReusableHeuristic<? super T> getHeuristic(int i)
+ * -public int getGroupOf(int i)
+ * -public double evaluate(T input)
+ * -public double evaluate(T input, double[] scores, long[] nanos)
+ * 
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public final class CompiledHeuristicsEngine<T> {
+	
+    // ==== Instance Variables ====
+	
+	// All the heuristics, group after group.
+	private final ReusableHeuristic<? super T>[] heuristics;
+	
+	// Index of heuristics after the last heuristic of every group.
+	private final int[] groupEnds;
+	
+	// Weight of every group, as calculated by the math model.
+	private final double[] groupWeights;
+	
+	
+    // ==== Package-private Constructors ====
+	
+	@SuppressWarnings("unchecked")
+	CompiledHeuristicsEngine(List<ReusableHeuristic<? super T>> heuristics, 
+							 int[] groupEnds, double[] groupWeights) 
+	{
+		this.heuristics = heuristics.toArray(
+				(ReusableHeuristic<? super T>[]) new ReusableHeuristic<?>[heuristics.size()]);
+		this.groupEnds = groupEnds.clone();
+		this.groupWeights = groupWeights.clone();
+	}
+	
+	
+	// ==== Getter Methods ====
+	
+	public int getNumberOfHeuristics() { return heuristics.length; }
+	
+	public int getNumberOfGroups() { return groupEnds.length; }
+	
+	/**
+	 * Get the weight of the given group. Groups are kept in ascending
+	 * order of their scales.
+	 */
+	public double getGroupWeight(int group) { return groupWeights[group]; }
+	
+	/**
+	 * Get the given heuristic. Heuristics are kept group after group.
+	 */
+	public ReusableHeuristic<? super T> getHeuristic(int i) { return heuristics[i]; }
+	
+	/**
+	 * Get the group the given heuristic belongs to.
+	 */
+	public int getGroupOf(int i) {
+		int g = 0;
+		while (groupEnds[g] <= i) g++;
+		
+		return g;
+	}
+	
+	
+	// ==== Public Methods ====
+	
+	/**
+	 * Evaluates all the heuristics on the given input and composes the
+	 * final score out of them all, in the same way HeuristicsEngine does.
+	 * 
+	 * @param input The input every heuristic is evaluated on.
+	 * @return The weighted sum of the average score of every group.
+	 */
+	public double evaluate(T input) {
+		double overall = 0;
+		int start = 0;
+		
+		for (int g = 0; g < groupEnds.length; g++) {
+			double partialOverall = 0;
+			
+			for (int i = start; i < groupEnds[g]; i++) {
+				partialOverall += heuristics[i].evaluate(input);
+			}
+			
+			overall += (partialOverall / (groupEnds[g] - start)) * groupWeights[g];
+			start = groupEnds[g];
+		}
+		
+		return overall;
+	}
+	
+	/**
+	 * Evaluates the given input exactly as evaluate(input) does, while
+	 * keeping the score of every heuristic and the time it took.
+	 * 
+	 * It is meant for sampling single evaluations, since reading the
+	 * clock around every heuristic costs a lot more than most of them.
+	 * 
+	 * @param input The input every heuristic is evaluated on.
+	 * @param scores Array of getNumberOfHeuristics() elements at least,
+	 * 				 where the score of every heuristic is kept.
+	 * @param nanos Array of getNumberOfHeuristics() elements at least,
+	 * 				where the time of every heuristic is kept, in nanoseconds.
+	 * @return The weighted sum of the average score of every group.
+	 */
+	public double evaluate(T input, double[] scores, long[] nanos) {
+		double overall = 0;
+		int start = 0;
+		
+		for (int g = 0; g < groupEnds.length; g++) {
+			double partialOverall = 0;
+			
+			for (int i = start; i < groupEnds[g]; i++) {
+				long begin = System.nanoTime();
+				scores[i] = heuristics[i].evaluate(input);
+				nanos[i] = System.nanoTime() - begin;
+				
+				partialOverall += scores[i];
+			}
+			
+			overall += (partialOverall / (groupEnds[g] - start)) * groupWeights[g];
+			start = groupEnds[g];
+		}
+		
+		return overall;
+	}
+}
@@ -0,0 +1,132 @@
+package gr.auth.ee.dsproject.crush.heuristics;
+
+import gr.auth.ee.dsproject.crush.util.FlightEvent;
+
+
+/**
+ * EvaluationSampler evaluates inputs on a CompiledHeuristicsEngine and,
+ * once every period evaluations, reports the score and the time of every
+ * heuristic of the evaluation to Java Flight Recorder, as a
+ * HeuristicEvaluation event per heuristic.
+ *
+ * Timing every single evaluation would cost more than most heuristics
+ * do, so only the sampled ones are timed. The rest cost a counter
+ * increment more than evaluating on the engine directly, and so do the
+ * sampled ones when the event is not enabled on any recording. Scores
+ * are always the same as the ones of the engine.
+ *
+ * An EvaluationSampler keeps its own counter and scratch space, so it
+ * should be used by a single thread. Any number of samplers may share
+ * the same engine.
+ *
+ * Constants defined in EvaluationSampler:
+ * -public static final int DEFAULT_PERIOD = 1024
+ * -public static final FlightEvent EVENT
+ *
+ * Public constructors defined in EvaluationSampler:
+ * -public EvaluationSampler(CompiledHeuristicsEngine<T> engine)
+ * -public EvaluationSampler(CompiledHeuristicsEngine<T> engine, int period)
+ *
+ * Public methods defined in EvaluationSampler:
+ * -public CompiledHeuristicsEngine<T> getEngine()
+ * -public int getPeriod()
+ * -public double evaluate(T input)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class EvaluationSampler<T> {
+
+//==== Public Constants ====
+
+	public static final int DEFAULT_PERIOD = 1024;
+
+	/**
+	 * The event of a single heuristic of a sampled evaluation.
+	 */
+	public static final FlightEvent EVENT = new FlightEvent(
+			"gr.auth.ee.dsproject.crush.HeuristicEvaluation", "Heuristic Evaluation",
+			"Score and time of a heuristic of a sampled evaluation")
+			.addField(String.class, "heuristic", "Heuristic")
+			.addField(int.class, "group", "Group")
+			.addField(double.class, "score", "Score")
+			.addTimespanField("time", "Time")
+			.register();
+
+
+//==== Private instance variables ====
+
+	private final CompiledHeuristicsEngine<T> engine;
+
+	private final int period;
+
+	/**
+	 * Evaluations left until the next sampled one.
+	 */
+	private int countdown;
+
+	private final double[] scores;
+
+	private final long[] nanos;
+
+
+//==== Public Constructors ====
+
+	public EvaluationSampler(CompiledHeuristicsEngine<T> engine) {
+		this(engine, DEFAULT_PERIOD);
+	}
+
+	/**
+	 * Create a new EvaluationSampler.
+	 *
+	 * @param engine The engine inputs are evaluated on.
+	 * @param period One out of this many evaluations is sampled.
+	 * @throws IllegalArgumentException When period is not positive.
+	 */
+	public EvaluationSampler(CompiledHeuristicsEngine<T> engine, int period) {
+		if (period < 1) throw new IllegalArgumentException("period should be positive");
+
+		this.engine = engine;
+		this.period = period;
+
+		countdown = period;
+		scores = new double[engine.getNumberOfHeuristics()];
+		nanos = new long[engine.getNumberOfHeuristics()];
+	}
+
+
+//==== Public Getters ====
+
+	public CompiledHeuristicsEngine<T> getEngine() { return engine; }
+
+	public int getPeriod() { return period; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Evaluates the given input on the engine, reporting the evaluation
+	 * to Flight Recorder when it is sampled.
+	 *
+	 * @param input The input every heuristic is evaluated on.
+	 * @return The same score as the one of engine.evaluate(input).
+	 */
+	public double evaluate(T input) {
+		if (--countdown > 0) return engine.evaluate(input);
+
+		countdown = period;
+
+		if (!EVENT.isEnabled()) return engine.evaluate(input);
+
+		double overall = engine.evaluate(input, scores, nanos);
+
+		// Events are only begun once the evaluation is over, since their
+		// times are kept into their fields.
+		for (int i = 0; i < scores.length; i++) {
+			EVENT.commit(EVENT.begin(), engine.getHeuristic(i).getClass().getSimpleName(),
+						 engine.getGroupOf(i), scores[i], nanos[i]);
+		}
+
+		return overall;
+	}
+}
@@ -0,0 +1,113 @@
+package gr.auth.ee.dsproject.crush.heuristics;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * HeuristicsCompiler collects reusable heuristics grouped by their weight
+ * scales, the same way HeuristicsEngine does for Heuristic objects, and
+ * compiles them into a CompiledHeuristicsEngine.
+ * 
+ * Compilation validates the scales and asks the math model for their
+ * weights only once, so the compiled engine never has to do it again.
+ * 
+ * A common use can be considered the following one:
+ * 	HeuristicsCompiler<MyInput> compiler = new HeuristicsCompiler<>(new MyMathModel());
+ *  compiler.add(heur1, MyMathModel.High);
+ *  compiler.add(heur2, MyMathModel.Low);
+ *  CompiledHeuristicsEngine<MyInput> engine = compiler.compile();
+ *  double score = engine.evaluate(input);
+ * 
+ * Public constructors defined in HeuristicsCompiler:
+ * -public HeuristicsCompiler(HeuristicsMathModel model)
+ * 
+ * Public methods defined in HeuristicsCompiler:
+ * -public HeuristicsCompiler<T> add(ReusableHeuristic<? super T> heur, Integer weight)
+ * -public CompiledHeuristicsEngine<T> compile() throws IllegalWeightRuntimeException
+ * 
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class HeuristicsCompiler<T> {
+	
+    // ==== Instance Variables ====
+	
+	// The model to be used for calculating weights.
+	private final HeuristicsMathModel model;
+	
+	// Heuristics grouped by their weights, in ascending order of weights,
+	// which is the order HeuristicsEngine evaluates the groups of small
+	// scale values.
+	private final TreeMap<Integer, ArrayList<ReusableHeuristic<? super T>>> weightedHeuristics;
+	
+	
+    // ==== Public Constructors ====
+	
+	public HeuristicsCompiler(HeuristicsMathModel model) {
+		this.model = model;
+		this.weightedHeuristics = new TreeMap<>();
+	}
+	
+	
+	// ==== Public Methods ====
+	
+	/**
+	 * Adds a new ReusableHeuristic whose importance is defined by weight
+	 * parameter.
+	 * 
+	 * Appropriate values for weight are defined by HeuristicMathModel.
+	 * They are checked upon compile().
+	 * 
+	 * @return This compiler, so calls can be chained.
+	 */
+	public HeuristicsCompiler<T> add(ReusableHeuristic<? super T> heur, Integer weight) {
+		ArrayList<ReusableHeuristic<? super T>> heurList = weightedHeuristics.get(weight);
+		
+		if (heurList == null) {
+			heurList = new ArrayList<>();
+			weightedHeuristics.put(weight, heurList);
+		}
+		
+		heurList.add(heur);
+		
+		return this;
+	}
+	
+	/**
+	 * Freezes the heuristics added so far into a new CompiledHeuristicsEngine.
+	 * 
+	 * Weights of all groups are calculated here by the math model, so an
+	 * IllegalWeightRuntimeException is thrown when a scale not defined by
+	 * the model has been used. Heuristics added after compilation do not
+	 * affect the returned engine.
+	 * 
+	 * @return An immutable engine that evaluates the added heuristics.
+	 */
+	public CompiledHeuristicsEngine<T> compile() {
+		Map<Integer, Double> weights = model.calculateWeights(weightedHeuristics.keySet());
+		
+		int groups = weightedHeuristics.size();
+		int total = 0;
+		for (ArrayList<ReusableHeuristic<? super T>> group : weightedHeuristics.values()) {
+			total += group.size();
+		}
+		
+		ArrayList<ReusableHeuristic<? super T>> heuristics = new ArrayList<>(total);
+		int[] groupEnds = new int[groups];
+		double[] groupWeights = new double[groups];
+		
+		int g = 0;
+		for (Map.Entry<Integer, ArrayList<ReusableHeuristic<? super T>>> group : 
+			 weightedHeuristics.entrySet()) 
+		{
+			heuristics.addAll(group.getValue());
+			groupEnds[g] = heuristics.size();
+			groupWeights[g] = weights.get(group.getKey());
+			g++;
+		}
+		
+		return new CompiledHeuristicsEngine<T>(heuristics, groupEnds, groupWeights);
+	}
+}
@@ -0,0 +1,28 @@
+package gr.auth.ee.dsproject.crush.heuristics;
+
+
+/**
+ * ReusableHeuristic provides a way to create heuristics that are given
+ * their input upon evaluation, instead of keeping it themselves.
+ * 
+ * Unlike Heuristic objects, which are created for a single input, a
+ * ReusableHeuristic is created once and then evaluates any number of 
+ * inputs. Implementations should keep no state that changes between
+ * evaluations, so a single instance can be shared among threads. Any
+ * scratch space needed should be provided by the input itself.
+ * 
+ * Public methods defined in ReusableHeuristic:
+ * -public double evaluate(T input)
+ * 
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public interface ReusableHeuristic<T> {
+	
+	/**
+	 * Evaluates the given input and returns a double between 0 and the
+	 * range of the heuristic, according to how well the evaluated criteria
+	 * scored.
+	 */
+	double evaluate(T input);
+}
@@ -1,14 +1,21 @@
 package gr.auth.ee.dsproject.crush.node;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
-import gr.auth.ee.dsproject.crush.board.Board;
 import gr.auth.ee.dsproject.crush.board.CrushUtilities;
-import gr.auth.ee.dsproject.crush.heuristics.HeuristicsEngine;
+import gr.auth.ee.dsproject.crush.heuristics.CompiledHeuristicsEngine;
+import gr.auth.ee.dsproject.crush.heuristics.EvaluationSampler;
+import gr.auth.ee.dsproject.crush.heuristics.HeuristicsCompiler;
 import gr.auth.ee.dsproject.crush.heuristics.SliderMathModel;
 import gr.auth.ee.dsproject.crush.player.CandiesRemovedHeuristic;
 import gr.auth.ee.dsproject.crush.player.DistanceFromTopHeuristic;
+import gr.auth.ee.dsproject.crush.player.MoveContext;
 import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+import gr.auth.ee.dsproject.crush.util.MoveSimulator;
 
 
 /**
@@ -16,41 +23,80 @@ import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
  * needed in an a tree representing the state of 
  * a ThmmyCrush Board.
  * 
+ * The state of every node is kept in a HeadlessBoard, so the
+ * tree can be expanded without creating any Swing component.
+ * 
+ * Children can either be created all at once by createChildren(), or
+ * one by one, as they are visited, by the iterator childIterator()
+ * returns. The latter simulates a move only when its child is actually
+ * requested, so a search that cuts off after a few children does not
+ * pay for the rest of them.
+ * 
+ * Moves are evaluated by a single compiled heuristics engine, shared
+ * among all nodes and threads. Moves evaluated without a MoveContext are
+ * evaluated on a context kept for every thread, so evaluating a move
+ * allocates no memory either way, apart from the first evaluation of
+ * every thread on boards of new dimensions.
+ * 
  * 
  * Public constructors defined in Node:
  * -public Node()
  * -public Node(Node parent)
- * -public Node(Node parent, Board board)
- * -public Node(Node parent, Board board, PlayerMove move)
+ * -public Node(Node parent, HeadlessBoard board)
+ * -public Node(Node parent, HeadlessBoard board, PlayerMove move)
  * 
  * Public methods defined in Node:
  * -public Node getParent()
  * -public ArrayList<Node> getChildren()
- * -public Board getNodeBoard()
+ * -public HeadlessBoard getNodeBoard()
  * -public int getNodeDepth()
  * -public PlayerMove getNodeMove()
  * -public double getNodeEvaluation()
  * -public void setParent(Node parent)
  * -public void setChildren(ArrayList<Node> children)
- * -public void setNodeBoard(Board nodeBoard)
+ * -public void setNodeBoard(HeadlessBoard nodeBoard)
  * -public void setNodeDepth(int nodeDepth)
  * -public void setNodeMove(PlayerMove nodeMove)
  * -public void setNodeEvaluation(double nodeEvaluation)
  * -public void addChild(Node child) throws NullNodeRuntimeException
  * -public void createChildren()
+ * -public Iterator<Node> childIterator()
  * -public double evaluate(boolean negative)
  * 
- * Private methods defined in Node:
- * -private double doHeuristicEvaluation(Board board, PlayerMove move)
+ * Static public methods defined in Node:
+ * -public static double doHeuristicEvaluation(HeadlessBoard board, PlayerMove move)
+ * -public static double doHeuristicEvaluation(MoveContext context)
+ * -public static EvaluationSampler<MoveContext> createEvaluationSampler()
  * 
  * Exceptions defined in Node:
  * -public static class NullNodeRuntimeException extends RuntimeException
  * 
  * @author Dimitrios Karageorgiou
- * @version 0.3
+ * @version 0.8
  */
 public class Node {
 	
+//==== Private Constants ====
+	
+	/**
+	 * The engine every move is evaluated by. Heuristics keep no state
+	 * of their own, so it is safe to be shared.
+	 */
+	private static final CompiledHeuristicsEngine<MoveContext> EVALUATOR = 
+			new HeuristicsCompiler<MoveContext>(new SliderMathModel(1.7))
+				.add(new CandiesRemovedHeuristic(), SliderMathModel.VERY_HIGH)
+				.add(new DistanceFromTopHeuristic(), SliderMathModel.VERY_LOW)
+				.compile();
+	
+	/**
+	 * The context of every thread, moves evaluated without a context are
+	 * evaluated on.
+	 */
+	private static final ThreadLocal<MoveContext> CONTEXTS = new ThreadLocal<MoveContext>() {
+		@Override
+		protected MoveContext initialValue() { return new MoveContext(); }
+	};
+	
 //==== Private instance variables ====
 	
 	/**
@@ -75,9 +121,9 @@ public class Node {
 	private PlayerMove nodeMove;
 	
 	/**
-	 * The Board object associated with this node.
+	 * The HeadlessBoard object associated with this node.
 	 */
-	private Board nodeBoard;
+	private HeadlessBoard nodeBoard;
 	
 	/**
 	 * The evaluation score this node's move has.
@@ -113,7 +159,7 @@ public class Node {
 	 * 				 the tree.
 	 * @param board The board associated with this node.
 	 */
-	public Node(Node parent, Board board) {
+	public Node(Node parent, HeadlessBoard board) {
 		this();
 		this.parent = parent;
 		this.nodeBoard = board;
@@ -126,12 +172,12 @@ public class Node {
 	 *  
 	 * @param parent A Node object representing the previous state. For
 	 * 				 root nodes it may be null.
-	 * @param board A Board object representing the current state of
+	 * @param board A HeadlessBoard object representing the current state of
 	 * 				the game.
 	 * @param move A PlayerMove object representing the move which lead
 	 * 			   to current state. For root nodes it may be null.
 	 */
-	public Node(Node parent, Board board, PlayerMove move) {
+	public Node(Node parent, HeadlessBoard board, PlayerMove move) {
 		this();
 		this.parent = parent;
 		this.nodeBoard = board;
@@ -160,9 +206,9 @@ public class Node {
 	/**
 	 * Get the board of this node.
 	 * 
-	 * @return The Board object associated with this node.
+	 * @return The HeadlessBoard object associated with this node.
 	 */
-	public Board getNodeBoard() { return this.nodeBoard; }
+	public HeadlessBoard getNodeBoard() { return this.nodeBoard; }
 	
 	/**
 	 * Get the depth of this node in the tree.
@@ -209,10 +255,10 @@ public class Node {
 	/**
 	 * Sets given board as the board of this node.
 	 * 
-	 * @param nodeBoard The Board object to be set as the board of
+	 * @param nodeBoard The HeadlessBoard object to be set as the board of
 	 * 					this node. 
 	 */
-	public void setNodeBoard(Board nodeBoard) { this.nodeBoard = nodeBoard; }
+	public void setNodeBoard(HeadlessBoard nodeBoard) { this.nodeBoard = nodeBoard; }
 	
 	/**
 	 * Sets given depth as the depth of this node.
@@ -272,19 +318,26 @@ public class Node {
      */
     public void createChildren() {
     	
-    	for (int[] dirMove : CrushUtilities.getAvailableMoves(nodeBoard)) {
-    		
-    		// Convert old style move of [x, y, direction] to PlayerMove object.
-    		int[] cordsMove = CrushUtilities.calculateNextMove(dirMove);
-    		PlayerMove move = new PlayerMove(
-    				nodeBoard.giveTileAt(cordsMove[0], cordsMove[1]),
-    				nodeBoard.giveTileAt(cordsMove[2], cordsMove[3])
-    		);
-    		
-    		Board afterMoveBoard = CrushUtilities.boardAfterFullMove(nodeBoard, dirMove);
-    		
-    		addChild(new Node(this, afterMoveBoard, move));
-    	}
+    	Iterator<Node> it = childIterator();
+    	while (it.hasNext()) it.next();
+    }
+    
+    /**
+     * Returns an iterator over the children of the current node, that
+     * creates every child only when it is requested.
+     * 
+     * Available moves of the board of current node are found once, when
+     * the iterator is created. Every call to next() simulates the next of
+     * them on a copy of the board, creates its child node in the same way
+     * createChildren() does and adds it to the children of current node.
+     * So, when the iteration stops early, e.g. due to a cutoff, the rest of
+     * the moves are never simulated.
+     * 
+     * @return An iterator over the children of current node, in the order
+     * 		   BoardUtils.getAvailableMoves() finds their moves.
+     */
+    public Iterator<Node> childIterator() {
+    	return new LazyChildIterator();
     }
 	
 	/**
@@ -324,11 +377,14 @@ public class Node {
 	}
 
 	
-//==== Private methods ====
+//==== Public Static Methods ====
 	
 	/**
      * Does a heuristic evaluation of the given move, based on the
-     * given board.
+     * given board. The board is not modified.
+     * 
+     * It is the same evaluation evaluate() does for the move of a node,
+     * available to searches that do not create a node for every state.
      * 
      * Evaluation is done using the following heuristics:
      *   -CandiesRemovedHeuristic
@@ -338,16 +394,87 @@ public class Node {
      * @param move The move to be evaluated.
      * @return A double representing how good the move is.
      */
-    private double doHeuristicEvaluation(Board board, PlayerMove move) {
-    	
-    	HeuristicsEngine engine = new HeuristicsEngine(new SliderMathModel(1.7));
+    public static double doHeuristicEvaluation(HeadlessBoard board, PlayerMove move) {
+    	MoveContext context = CONTEXTS.get();
+    	context.set(board, move);
     	
-    	engine.add(new CandiesRemovedHeuristic(move, board), SliderMathModel.VERY_HIGH);
-    	engine.add(new DistanceFromTopHeuristic(move, board), SliderMathModel.VERY_LOW);
-    	
-    	return engine.evaluate();
+    	return EVALUATOR.evaluate(context);
     }
     
+    /**
+     * Does the same heuristic evaluation doHeuristicEvaluation(board, move)
+     * does, for the move and the board of the given context. 
+     * 
+     * Searches that evaluate many moves should reuse a single context, so
+     * no memory is allocated for any evaluation.
+     * 
+     * @param context The move to be evaluated, set along with its board.
+     * @return A double representing how good the move is.
+     */
+    public static double doHeuristicEvaluation(MoveContext context) {
+    	return EVALUATOR.evaluate(context);
+    }
+    
+    /**
+     * Creates a sampler that does the same evaluation as 
+     * doHeuristicEvaluation(context), while sampling evaluations for
+     * Java Flight Recorder. Every thread should use its own sampler.
+     */
+    public static EvaluationSampler<MoveContext> createEvaluationSampler() {
+    	return new EvaluationSampler<MoveContext>(EVALUATOR);
+    }
+    
+	
+//==== Private Inner Classes ====
+	
+	/**
+	 * Iterator that creates the children of the node one by one.
+	 */
+	private class LazyChildIterator implements Iterator<Node> {
+		
+		private final ArrayList<int[]> moves = BoardUtils.getAvailableMoves(nodeBoard);
+		
+		/**
+		 * Created along with the first child, then it plays the moves of
+		 * all the rest.
+		 */
+		private MoveSimulator simulator;
+		
+		private int next = 0;
+		
+		@Override
+		public boolean hasNext() { return next < moves.size(); }
+		
+		@Override
+		public Node next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			
+			if (simulator == null) {
+				simulator = new MoveSimulator(nodeBoard.getCols(), nodeBoard.getPRows());
+			}
+			
+			int[] dirMove = moves.get(next++);
+			
+			// Convert old style move of [x, y, direction] to PlayerMove object.
+			int[] cordsMove = CrushUtilities.calculateNextMove(dirMove);
+			PlayerMove move = new PlayerMove(
+					nodeBoard.giveTileAt(cordsMove[0], cordsMove[1]),
+					nodeBoard.giveTileAt(cordsMove[2], cordsMove[3])
+			);
+			
+			HeadlessBoard afterMoveBoard = new HeadlessBoard(nodeBoard);
+			simulator.playMove(afterMoveBoard, dirMove);
+			
+			Node child = new Node(Node.this, afterMoveBoard, move);
+			addChild(child);
+			
+			return child;
+		}
+		
+		@Override
+		public void remove() { throw new UnsupportedOperationException(); }
+	}
+	
 	
 //==== Exceptions defined in Node ====
 	
@@ -4,11 +4,12 @@ import java.util.HashSet;
 import java.util.Set;
 
 import gr.auth.ee.dsproject.crush.heuristics.Heuristic;
+import gr.auth.ee.dsproject.crush.heuristics.ReusableHeuristic;
 import gr.auth.ee.dsproject.crush.board.Board;
-import gr.auth.ee.dsproject.crush.board.CrushUtilities;
 import gr.auth.ee.dsproject.crush.board.Tile;
 import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
-import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+import gr.auth.ee.dsproject.crush.util.MoveSimulator;
 
 
 /**
@@ -23,6 +24,15 @@ import gr.auth.ee.dsproject.crush.util.BoardUtils;
  * independently like following:
  * "double score = heur.evaluate();"
  * 
+ * All evaluation is done on a HeadlessBoard. When a Board is provided,
+ * it is converted to a HeadlessBoard once, upon setting it.
+ * 
+ * It can also be used as a ReusableHeuristic, by passing a MoveContext
+ * to evaluate(MoveContext). In that case, the move and the board set
+ * on the heuristic are not used, so a single empty instance can be 
+ * shared among all the contexts to be evaluated. Either way, the move is
+ * simulated by a MoveContext, only once.
+ * 
  * Score of evaluate() method is defined in the following way:
  * -4.0 points for the first 6 candies
  * -2.0 points for the following 8 candies
@@ -30,23 +40,48 @@ import gr.auth.ee.dsproject.crush.util.BoardUtils;
  * -50.0/remaining_candies for the following candies remaining.   
  * To a total of a 100.0 score. 
  * 
+ * Candies past the first 24 are scored relative to the tiles of SCORE_ROWS
+ * rows of the board, no matter how many lookahead rows the evaluated board
+ * keeps, so a move scores the same on every copy of a board.
+ * 
+ * Constants defined in CandiesRemovedHeuristic:
+ * -public static final int SCORE_ROWS = 45
+ * 
  * Public constructors defined in CandiesRemovedHeuristic:
  * -public CandiesRemovedHeuristic()
  * -public CandiesRemovedHeuristic(PlayerMove move, Board board)
+ * -public CandiesRemovedHeuristic(PlayerMove move, HeadlessBoard board)
  * 
  * Public methods defined in CandiesRemovedHeuristic:
  * -public void setBoard(Board board)
+ * -public void setBoard(HeadlessBoard board)
  * -public void setPlayerMove(PlayerMove move)
  * -public Board getBoard()
+ * -public HeadlessBoard getHeadlessBoard()
  * -public PlayerMove getPlayerMove()
  * -public double evaluate()
+ * -public double evaluate(MoveContext context)
  * -public Set<Tile> initialCandiesRemoved()
- * -public int countChainedCandiesRemoved(Board currentBoard)																			   
+ * -public int countChainedCandiesRemoved(Board currentBoard)
+ * -public int countChainedCandiesRemoved(HeadlessBoard currentBoard)
+ * -public int getChainedLevels()
+ * -public int getChainedRemovedOnLevel(int level)
  * 
  * @author Dimitrios Karageorgiou
- * @version 0.3
+ * @version 0.8
  */
-public class CandiesRemovedHeuristic extends Heuristic {
+public class CandiesRemovedHeuristic extends Heuristic 
+									 implements ReusableHeuristic<MoveContext> 
+{
+	
+// ==== Public Constants ====
+	
+	/**
+	 * The number of rows of the board candies past the first 24 are scored
+	 * relative to. It is the number of rows minimax used to search on.
+	 */
+	public static final int SCORE_ROWS = 45;
+	
 	
 // ==== Instance Variables ====
 	
@@ -56,10 +91,30 @@ public class CandiesRemovedHeuristic extends Heuristic {
 	private PlayerMove move;
 	
 	/**
-	 * The board where provided player's move should take effect.
+	 * The board where provided player's move should take effect, if
+	 * one has been provided as a Board object.
 	 */
 	private Board board;
 	
+	/**
+	 * The board where provided player's move should take effect, on which
+	 * all evaluation is done.
+	 */
+	private HeadlessBoard headless;
+	
+	/**
+	 * The single working buffer chained crushes are counted on, keeping 
+	 * only the playable area, and the simulator that counts them.
+	 */
+	private HeadlessBoard chainBoard;
+	private MoveSimulator chainSimulator;
+	
+	/**
+	 * The context the move is played on, so it is simulated only once, 
+	 * no matter how many of the public methods are called.
+	 */
+	private MoveContext context;
+	
 	
 // ==== Public Constructors ====
 	
@@ -78,7 +133,20 @@ public class CandiesRemovedHeuristic extends Heuristic {
 	 */
 	public CandiesRemovedHeuristic(PlayerMove move, Board board) {
 		this.move = move;
-		this.board = board;
+		setBoard(board);
+	}
+	
+	/**
+	 * Create a new CandiesRemovedHeuristic with a player's move
+	 * and the headless board this move is going to have an effect.
+	 * 
+	 * @param move The move the heuristic will evaluate. 
+	 * @param board The board on which this move is going to be
+	 * 				evaluated.
+	 */
+	public CandiesRemovedHeuristic(PlayerMove move, HeadlessBoard board) {
+		this.move = move;
+		setBoard(board);
 	}
 	
 	
@@ -90,14 +158,32 @@ public class CandiesRemovedHeuristic extends Heuristic {
 	 * 
 	 * @param board The board where the move will be evaluated.
 	 */
-	public void setBoard(Board board) { this.board = board; }
+	public void setBoard(Board board) { 
+		setBoard(board != null ? HeadlessBoard.fromBoard(board) : null);
+		this.board = board;
+	}
+	
+	/**
+	 * Set the headless board of the CandiesRemovedHeuristic, where the 
+	 * move is going to be evaluated.
+	 * 
+	 * @param board The board where the move will be evaluated.
+	 */
+	public void setBoard(HeadlessBoard board) {
+		this.board = null;
+		this.headless = board;
+		this.context = null;
+	}
 	
 	/**
 	 * Set the move which is going to be evaluated.
 	 * 
 	 * @param move The move to be evaluated.
 	 */
-	public void setPlayerMove(PlayerMove move) { this.move = move; }
+	public void setPlayerMove(PlayerMove move) { 
+		this.move = move; 
+		this.context = null;
+	}
 		
 	
 // ==== Public Getters ====
@@ -106,10 +192,19 @@ public class CandiesRemovedHeuristic extends Heuristic {
 	 * Get the board currently associated with this CandiesRemovedHeuristic
 	 * object. 
 	 * 
-	 * @return Board associated with this object.
+	 * @return Board associated with this object, or null if a HeadlessBoard 
+	 * 		   has been provided instead.
 	 */
 	public Board getBoard() { return board; }
 	
+	/**
+	 * Get the headless board currently associated with this 
+	 * CandiesRemovedHeuristic object. 
+	 * 
+	 * @return HeadlessBoard associated with this object.
+	 */
+	public HeadlessBoard getHeadlessBoard() { return headless; }
+	
 	/**
 	 * Get the move currently associated with this CandiesRemovedHeuristic
 	 * object. 
@@ -139,43 +234,21 @@ public class CandiesRemovedHeuristic extends Heuristic {
 	 * @return A score between 0 and 100.0 based on the removed tiles.  
 	 */
 	public double evaluate() {
-		double score = 0;
-		int overallCandiesRemoved = 0;
-		
-		// Calculate the tiles removed directly by player's move.
-		overallCandiesRemoved += initialCandiesRemoved().size();
-		
-		// Calculate the tiles removed by chained moves.
-		overallCandiesRemoved += countChainedCandiesRemoved(
-				CrushUtilities.boardAfterFirstCrush(board, move.toDirArray())
-		);
-		
-		if (overallCandiesRemoved > 6) {
-			score += 6.0 * 4.0;
-		} else if (overallCandiesRemoved > 0) {
-			score += ((double) overallCandiesRemoved) * 4.0;
-		}
-		overallCandiesRemoved -= 6;
-		
-		if (overallCandiesRemoved > 8) {
-			score += 8.0 * 2.0;
-		} else if (overallCandiesRemoved > 0) {
-			score += ((double) overallCandiesRemoved) * 2.0;
-		}
-		overallCandiesRemoved -= 8;
-		
-		if (overallCandiesRemoved > 10) {
-			score += 10.0 * 1.0;
-		} else if (overallCandiesRemoved > 0) {
-			score += ((double) overallCandiesRemoved) * 1.0;
-		}
-		overallCandiesRemoved -= 10;
-		
-		if (overallCandiesRemoved > 0) {
-			score += ((double) overallCandiesRemoved) * (50.0 / ((double) board.getRows() * board.getCols()));
-		}
-		
-		return score;
+		return evaluate(getContext());
+	}
+	
+	/**
+	 * Calculates the same score evaluate() does, for the move and the
+	 * board of the given context. The tiles removed directly by the move
+	 * and by the chained moves that follow are taken from the single
+	 * simulation the context does.
+	 * 
+	 * @param context The move to be evaluated, along with its board.
+	 * @return A score between 0 and 100.0 based on the removed tiles.
+	 */
+	@Override
+	public double evaluate(MoveContext context) {
+		return score(context.getTotalRemoved(), context.getBoard());
 	}
 		
 	/**
@@ -187,72 +260,47 @@ public class CandiesRemovedHeuristic extends Heuristic {
 	 * @return Set of candies on board object defined by instance
 	 * variable board to be removed after move. The two tiles that
 	 * switch position during a move, are contained unchanged and
-	 * with their original cords they have before move.
+	 * with their original cords they have before move. When only
+	 * a HeadlessBoard has been provided, the returned tiles are
+	 * detached tiles created by it.
 	 */
 	public Set<Tile> initialCandiesRemoved() {
-		// Get a copy of the real board object, and play the move on it,
-		// but without any crushes.
-		Board boardJustBeforeCrush = CrushUtilities.cloneBoard(board);
+		// Marks of the context should never be modified, so use a copy.
+		long[] marks = getContext().getInitialCrushes().clone();
 		
-		boardJustBeforeCrush = CrushUtilities.boardAfterFirstMove(
-				boardJustBeforeCrush, move.toDirArray()
-		);
+		int x1 = move.getX1();
+		int y1 = move.getY1();
+		int x2 = move.getX2();
+		int y2 = move.getY2();
 		
-		// Place here all tiles possible to be removed from copied board.
-		Set<Tile> tilesForRemoval = new HashSet<>();
-				
-		// Get the tiles that exist at cords specified by move on copied board, 
-		// after the move has taken place.
-		Tile[] afterMoveTiles = {
-				boardJustBeforeCrush.giveTileAt(move.getX1(), move.getY1()),
-				boardJustBeforeCrush.giveTileAt(move.getX2(), move.getY2())
-		};
+		boolean firstCrushes = (marks[x1] & (1L << y1)) != 0;
+		boolean secondCrushes = (marks[x2] & (1L << y2)) != 0;
 		
-		for (Tile t : afterMoveTiles) {
-			// Find all the same color tiles around the current one.
-			Set<Tile> curTiles = BoardUtils.findAdjacentSameColorTiles(boardJustBeforeCrush, t, 2);
-			
-			tilesForRemoval.addAll(curTiles);
-			tilesForRemoval.add(t);  // The beginning tile is also an one possible for removal.
+		// If only one of the tiles at move's cords crushes, then it is the
+		// tile that came from the other cords. So, use the remaining cords 
+		// to match the removed tile on the real board. 
+		if (firstCrushes != secondCrushes) {
+			marks[x1] ^= 1L << y1;
+			marks[x2] ^= 1L << y2;
 		}
 		
-		// Finally find which of the adjacent tiles on copied board form 
-		// at least a 3-in-a-row to crush.
-		tilesForRemoval = BoardUtils.findTilesThatCrush(tilesForRemoval);
-		
-		// And now find the actual tile objects of the real board,
-		// that corresponds to the ones in the copy. This is the set
-		// to be returned.
+		// Match the tiles to the ones on the real board.
 		Set<Tile> removedOnActualBoard = new HashSet<>();
 		
-		// If the first tile after move doesn't have adjacent tiles,
-		// remove the second tile, in order to use the remaining cords
-		// to match the removed tiles on the real board. Do the opposite
-		// for the second tile.
-		if(tilesForRemoval.contains(afterMoveTiles[0]) && 
-		   !tilesForRemoval.contains(afterMoveTiles[1])) 
-		{		
-			tilesForRemoval.add(afterMoveTiles[1]);
-			tilesForRemoval.remove(afterMoveTiles[0]);
-		} 
-		else if (tilesForRemoval.contains(afterMoveTiles[1]) &&
-				 !tilesForRemoval.contains(afterMoveTiles[0])) 
-		{
-			tilesForRemoval.add(afterMoveTiles[0]);
-			tilesForRemoval.remove(afterMoveTiles[1]);
-		}
-		
-		// Match the tiles to the ones on the real board.
-		for (Tile t : tilesForRemoval) {
-			removedOnActualBoard.add(board.giveTileAt(t.getX(), t.getY()));
+		for (int x = 0; x < marks.length; x++) {
+			for (long m = marks[x]; m != 0; m &= m - 1) {
+				int y = Long.numberOfTrailingZeros(m);
+				
+				if (board != null) removedOnActualBoard.add(board.giveTileAt(x, y));
+				else removedOnActualBoard.add(headless.giveTileAt(x, y));
+			}
 		}
 		
 		return removedOnActualBoard;
 	}
 	
 	/**
-	 * Recursively count the number of candies removed from the board
-	 * by chained moves.
+	 * Count the number of candies removed from the board by chained moves.
 	 * 
 	 * Normally, countChainedCandiesRemoved method should be called with
 	 * the state of the board just after the initial removal of candies 
@@ -268,19 +316,105 @@ public class CandiesRemovedHeuristic extends Heuristic {
 	 */
 	public int countChainedCandiesRemoved(Board board) 
 	{
-		// Find the tiles that can be removed from the board, i.e. they crush. 
-	    Set<Tile> tilesForRemoval = BoardUtils.findAllNPles(board);
-		 
-		board = CrushUtilities.boardAfterDeletingNples(board, board.getPRows());
+		return countChainedCandiesRemoved(HeadlessBoard.fromBoard(board));
+	}
+	
+	/**
+	 * Count the number of candies removed from the board by chained moves,
+	 * in the same way countChainedCandiesRemoved(Board) does.
+	 * 
+	 * Only the playable area of the board is taken into account, so tiles
+	 * that fall into it during the chain are of UNKNOWN color. The chain is
+	 * played iteratively on a single working buffer, that is reused by 
+	 * every call, and every level rescans only the columns the previous one
+	 * disturbed. The tiles removed on every level are available by 
+	 * getChainedLevels() and getChainedRemovedOnLevel() until the next call.
+	 * 
+	 * @param currentBoard A board object representing the state just after
+	 * 					   the actual player's move has been done. It is 
+	 * 					   not modified.
+	 * @return The overall number of candies removed by chained moves.
+	 */
+	public int countChainedCandiesRemoved(HeadlessBoard board) 
+	{
+		int cols = board.getCols();
+		int pRows = board.getPRows();
+		
+		if (chainBoard == null || chainBoard.getCols() != cols || chainBoard.getPRows() != pRows) {
+			chainBoard = new HeadlessBoard(cols, pRows, pRows);
+			chainSimulator = new MoveSimulator(cols, pRows);
+		}
+		
+		for (int x = 0; x < cols; x++) {
+			for (int y = 0; y < pRows; y++) chainBoard.setColor(x, y, board.getColor(x, y));
+		}
+		
+		return chainSimulator.crushAll(chainBoard);
+	}
+	
+	/**
+	 * Get the number of levels the last countChainedCandiesRemoved() call
+	 * found, i.e. the number of times tiles crushed.
+	 */
+	public int getChainedLevels() { 
+		return chainSimulator != null ? chainSimulator.getLevels() : 0; 
+	}
+	
+	/**
+	 * Get the number of tiles removed on the given level of the last 
+	 * countChainedCandiesRemoved() call, where 0 is the first level.
+	 */
+	public int getChainedRemovedOnLevel(int level) { 
+		return chainSimulator != null ? chainSimulator.getRemovedOnLevel(level) : 0; 
+	}
+	
+	
+// ==== Private Methods ====
+	
+	/**
+	 * Calculates the score of a move that removes the given number of
+	 * candies, in the way evaluate() defines.
+	 */
+	private static double score(int overallCandiesRemoved, HeadlessBoard board) {
+		double score = 0;
+		
+		if (overallCandiesRemoved > 6) {
+			score += 6.0 * 4.0;
+		} else if (overallCandiesRemoved > 0) {
+			score += ((double) overallCandiesRemoved) * 4.0;
+		}
+		overallCandiesRemoved -= 6;
 		
-		// If at least a 3-in-a-row existed, there is a possibility that new
-		// chained moves have become available. Upon no removal, no chained
-		// moves are possible since board hasn't changed at all.
-		if (tilesForRemoval.size() > 2) {
-			return tilesForRemoval.size() + countChainedCandiesRemoved(board);
-		} else {
-			return 0;
+		if (overallCandiesRemoved > 8) {
+			score += 8.0 * 2.0;
+		} else if (overallCandiesRemoved > 0) {
+			score += ((double) overallCandiesRemoved) * 2.0;
 		}
+		overallCandiesRemoved -= 8;
+		
+		if (overallCandiesRemoved > 10) {
+			score += 10.0 * 1.0;
+		} else if (overallCandiesRemoved > 0) {
+			score += ((double) overallCandiesRemoved) * 1.0;
+		}
+		overallCandiesRemoved -= 10;
+		
+		if (overallCandiesRemoved > 0) {
+			score += ((double) overallCandiesRemoved) * 
+					 (50.0 / ((double) SCORE_ROWS * board.getCols()));
+		}
+		
+		return score;
+	}
+	
+	/**
+	 * Get the context of the move and the board of the heuristic, creating
+	 * it when they have changed.
+	 */
+	private MoveContext getContext() {
+		if (context == null) context = new MoveContext(headless, move);
+		
+		return context;
 	}
 	
 // ==== Unused Code ====
@@ -1,8 +1,10 @@
 package gr.auth.ee.dsproject.crush.player;
 
 import gr.auth.ee.dsproject.crush.heuristics.Heuristic;
+import gr.auth.ee.dsproject.crush.heuristics.ReusableHeuristic;
 import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
 import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
 
 
 /**
@@ -16,23 +18,34 @@ import gr.auth.ee.dsproject.crush.board.Board;
  * It is smaller for moves closest to the top, and greater for moves
  * closest to the bottom of the board.
  * 
+ * It can also be used as a ReusableHeuristic, by passing a MoveContext
+ * to evaluate(MoveContext), which ignores the move and the board set
+ * on the heuristic.
+ * 
  * Public constructors defined in DistanceFromTopHeuristic:
  * -public DistanceFromTopHeuristic()
  * -public DistanceFromTopHeuristic(PlayerMove move, Board board)
+ * -public DistanceFromTopHeuristic(PlayerMove move, HeadlessBoard board)
  * 
  * Public methods defined in DistanceFromTopHeuristic:
  * -public void setMove(PlayerMove move)
  * -public void setBoard(Board board)
+ * -public void setBoard(HeadlessBoard board)
  * -public PlayerMove getMove()
  * -public Board getBoard()
+ * -public HeadlessBoard getHeadlessBoard()
  * -public double evaluate()
+ * -public double evaluate(MoveContext context)
  * 
  * @author Dimitrios Karageorgiou
- * @version 0.3
+ * @version 0.5
  */
-public class DistanceFromTopHeuristic extends Heuristic {
+public class DistanceFromTopHeuristic extends Heuristic 
+									  implements ReusableHeuristic<MoveContext> 
+{
 	PlayerMove move;
-	Board board;	
+	Board board;
+	HeadlessBoard headless;
 	
 	
 // ==== Public Constructors ====
@@ -51,7 +64,19 @@ public class DistanceFromTopHeuristic extends Heuristic {
 	 */
 	public DistanceFromTopHeuristic(PlayerMove move, Board board) {
 		this.move = move;
-		this.board = board;
+		setBoard(board);
+	}
+	
+	/**
+	 * Create a new DistanceFromTopHeuristic object by providing a move
+	 * and a headless board object.
+	 * 
+	 * @param move The move to be evaluated.
+	 * @param board The board on which the move is going to be evaluated.
+	 */
+	public DistanceFromTopHeuristic(PlayerMove move, HeadlessBoard board) {
+		this.move = move;
+		setBoard(board);
 	}
 	
 	
@@ -69,7 +94,22 @@ public class DistanceFromTopHeuristic extends Heuristic {
 	 * 
 	 * @param board Board object to be used for move's evaluation.
 	 */
-	public void setBoard(Board board) { this.board = board; }
+	public void setBoard(Board board) { 
+		this.board = board;
+		
+		// Only the dimensions of the board are ever needed.
+		this.headless = board != null ? HeadlessBoard.fromBoard(board, 0) : null;
+	}
+	
+	/**
+	 * Set headless board on which the move is going to be evaluated.
+	 * 
+	 * @param board HeadlessBoard object to be used for move's evaluation.
+	 */
+	public void setBoard(HeadlessBoard board) {
+		this.board = null;
+		this.headless = board;
+	}
 	
 
 // ==== Public Getters ====
@@ -88,6 +128,13 @@ public class DistanceFromTopHeuristic extends Heuristic {
 	 */
 	public Board getBoard() { return this.board; }
 	
+	/**
+	 * Get the headless board currently associated with this heuristic.
+	 * 
+	 * @return HeadlessBoard object currently associated with this heuristic.
+	 */
+	public HeadlessBoard getHeadlessBoard() { return this.headless; }
+	
 	
 // ==== Public Methods ====
 	
@@ -111,8 +158,22 @@ public class DistanceFromTopHeuristic extends Heuristic {
 		if (move.getY1() > move.getY2()) greaterY = move.getY1(); 
 		else greaterY = move.getY2();
 				
-		return (100.0 / (double) board.getPRows()) * 
-			   (board.getPRows() - (double) greaterY - 1.0);
+		return (100.0 / (double) headless.getPRows()) * 
+			   (headless.getPRows() - (double) greaterY - 1.0);
+	}
+	
+	/**
+	 * Evaluates the move of the given context on its board, in the same
+	 * way evaluate() does.
+	 * 
+	 * @return A score between 0.0 and less than 100.0.
+	 */
+	@Override
+	public double evaluate(MoveContext context) {
+		int greaterY = Math.max(context.getY1(), context.getY2());
+		int pRows = context.getBoard().getPRows();
+		
+		return (100.0 / (double) pRows) * (pRows - (double) greaterY - 1.0);
 	}
 
 }
@@ -8,16 +8,33 @@ import gr.auth.ee.dsproject.crush.board.Board;
 import gr.auth.ee.dsproject.crush.heuristics.*;
 import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
 import gr.auth.ee.dsproject.crush.board.Tile;
+import gr.auth.ee.dsproject.crush.search.SearchEvents;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
 
 
 public class HeuristicPlayer implements AbstractPlayer
 {
     // TODO Fill the class code.
 
+    /**
+     * The engine every move is evaluated by, compiled once for all players.
+     */
+    private static final CompiledHeuristicsEngine<MoveContext> EVALUATOR =
+    		new HeuristicsCompiler<MoveContext>(new SliderMathModel(2.0))
+    			.add(new CandiesRemovedHeuristic(), SliderMathModel.VERY_HIGH)
+    			.add(new DistanceFromTopHeuristic(), SliderMathModel.VERY_LOW)
+    			.compile();
+
     int score;
     int id;
     String name;
 
+    /**
+     * Evaluates the moves on EVALUATOR, sampling them for Flight Recorder.
+     * A player is only asked for moves by a single thread at a time.
+     */
+    private final EvaluationSampler<MoveContext> sampler = new EvaluationSampler<>(EVALUATOR);
+
     public HeuristicPlayer (Integer pid)
     {
         id = pid;
@@ -63,18 +80,31 @@ public class HeuristicPlayer implements AbstractPlayer
     @Override
     public int[] getNextMove(ArrayList<int[]> availableMoves, Board board)
     {
-        int[] move = availableMoves.get(findBestMoveIndex(availableMoves, board));
+        Object event = SearchEvents.MOVE.begin();
+
+        int[] move = CrushUtilities.calculateNextMove(
+                availableMoves.get(findBestMoveIndex(availableMoves, board)));
 
-        return CrushUtilities.calculateNextMove(move);
+        // Every available move is evaluated once, with no search below it.
+        SearchEvents.MOVE.commit(event, getName(), SearchEvents.getBoardId(board), 1,
+                                 SearchEvents.formatMove(move), (long) availableMoves.size());
+
+        return move;
     }
 
     int findBestMoveIndex (ArrayList<int[]> availableMoves, Board board)
     {	
 	    double max = 0.0;
 	    int max_i = 0;
+	    
+	    // Convert the board only once, for all moves to be evaluated on it.
+	    HeadlessBoard headless = HeadlessBoard.fromBoard(board);
+	    
+	    // A single context is reused for evaluating every move.
+	    MoveContext context = new MoveContext();
 	  
 	    for (int i = 0; i < availableMoves.size(); i++) {
-		   	double moveScore = moveEvaluation(availableMoves.get(i), board);
+		   	double moveScore = moveEvaluation(availableMoves.get(i), headless, context);
 		  		  	
 		  	if (moveScore > max) {
 		  		max = moveScore;
@@ -100,20 +130,28 @@ public class HeuristicPlayer implements AbstractPlayer
      * @return A value between 0.0 and less than 100.0 indicating how good a move is.
      * 		 Greater values mean better moves.	
      */
-    double moveEvaluation (int[] move, Board board)
+    double moveEvaluation (int[] move, HeadlessBoard board)
+    {
+	    return moveEvaluation(move, board, new MoveContext());
+    }
+    
+    /**
+     * Evaluates the given move in the same way moveEvaluation(move, board)
+     * does, reusing the given context.
+     * 
+     * The heuristics are compiled once into EVALUATOR, so no engine is
+     * created for any move.
+     */
+    double moveEvaluation (int[] move, HeadlessBoard board, MoveContext context)
     {
-	    HeuristicsEngine engine = new HeuristicsEngine(new SliderMathModel(2.0));
-	  	  
 	    int[] dirMove = CrushUtilities.calculateNextMove(move);
 	    
 	    Tile tile1 = board.giveTileAt(dirMove[0], dirMove[1]);
 	    Tile tile2 = board.giveTileAt(dirMove[2], dirMove[3]);
-	    PlayerMove pMove = new PlayerMove(tile1, tile2);
-	  
-	    engine.add(new CandiesRemovedHeuristic(pMove, board), SliderMathModel.VERY_HIGH);
-	    engine.add(new DistanceFromTopHeuristic(pMove, board), SliderMathModel.VERY_LOW);
+	    
+	    context.set(board, new PlayerMove(tile1, tile2));
 	  
-	    return engine.evaluate();
+	    return sampler.evaluate(context);
     }
 
   
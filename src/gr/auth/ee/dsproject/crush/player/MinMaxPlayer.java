@@ -1,26 +1,198 @@
 package gr.auth.ee.dsproject.crush.player;
 
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import gr.auth.ee.dsproject.crush.board.Board;
-import gr.auth.ee.dsproject.crush.board.CrushUtilities;
 import gr.auth.ee.dsproject.crush.defplayers.AbstractPlayer;
+import gr.auth.ee.dsproject.crush.heuristics.EvaluationSampler;
 import gr.auth.ee.dsproject.crush.node.Node;
 import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.search.MoveOrderer;
+import gr.auth.ee.dsproject.crush.search.SearchEvents;
+import gr.auth.ee.dsproject.crush.search.SearchListener;
+import gr.auth.ee.dsproject.crush.search.SearchStats;
+import gr.auth.ee.dsproject.crush.search.TranspositionTable;
+import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+import gr.auth.ee.dsproject.crush.util.IntMoveList;
+import gr.auth.ee.dsproject.crush.util.MoveGenerator;
+import gr.auth.ee.dsproject.crush.util.MoveSimulator;
+import gr.auth.ee.dsproject.crush.util.PackedMove;
+import gr.auth.ee.dsproject.crush.util.UndoRecord;
+import gr.auth.ee.dsproject.crush.util.ZobristHash;
 
 
 /**
  * A player that uses minimax algorithm with AB pruning on
  * a heuristics based evaluate function.
  * 
- * Depth of minimax algorithm is defined in MINIMAX_DEPTH
- * constant of this class.
+ * By default, depth of minimax algorithm is defined in MINIMAX_DEPTH
+ * constant of this class. It may be changed by setSearchDepth().
+ * 
+ * When a time budget is given, either to the constructor or by the 
+ * minimaxTimeBudget property of boardConfig.properties, the search is
+ * done by iterative deepening instead. Depths 1, 2, 3, ... are searched
+ * one after the other, until the budget runs out or the search depth is
+ * reached, and the best move of the deepest completed iteration is 
+ * played. The search depth is then MAX_SEARCH_DEPTH, unless changed by
+ * setSearchDepth(). Every iteration searches the moves of the root in the order
+ * of the evaluations the previous one found for them.
+ * 
+ * Values of searched states are kept into a transposition table, so
+ * states reached again through different sequences of moves, either on
+ * the same or on a later iteration, are not searched again. The table
+ * only provides values of states searched to the same depth, so the 
+ * played move is always the same as without it. Keys of states are kept
+ * up to date by the simulator of every searcher, while moves are made and
+ * unmade, so no board is hashed as a whole below the root.
+ * 
+ * The table is kept from move to move as well. The board of every move
+ * is looked up among the boards the previous move and the replies of the
+ * opponent to it lead to, by HeadlessBoard.matches(). When found, states
+ * are keyed by their consumed counts relative to the board the table was 
+ * started for, as the states of the previous search were, so the ones 
+ * already searched under the reply the opponent played are recognized. 
+ * Otherwise, the table is cleared. Values of the previous search may only
+ * differ from the ones of a new search for states whose search reached 
+ * past the lookahead rows the previous board knew.
+ * 
+ * Moves of every state but the root are searched in the order a 
+ * MoveOrderer defines, i.e. the best move of the transposition table,
+ * the killer moves of the ply and then the rest by the runs they create
+ * and their history scores. Since only the evaluations of the children
+ * of the root are compared for picking the move, while deeper states
+ * only affect the cutoffs, the played move does not depend on this
+ * ordering. Moves of the root are kept in their original order, so
+ * moves of equal evaluations are picked the same way.
+ * 
+ * The search takes into account all the lookahead rows of the board.
+ * They are kept once, as the refill streams of the columns, which all
+ * boards of the search share, so the search sees every tile the actual
+ * board knows, with no copying cost.
+ * 
+ * Below the root, moves are only handled encoded by PackedMove and kept
+ * into IntMoveList objects, one for every depth, as found by the
+ * MoveGenerator of every searcher, so searching a state creates no
+ * objects. PlayerMove objects are only created for the moves
+ * of the root, which are kept on the tree.
+ * 
+ * When a parallelism greater than 1 is given, either to the constructor 
+ * or by the minimaxParallelism property of boardConfig.properties, the 
+ * moves of the root are split among that many threads of a ForkJoinPool.
+ * Every thread searches on its own copy of the board, while they all share
+ * the transposition table. No state is shared otherwise, as the search
+ * uses neither Board objects nor the global id counters of CrushUtilities.
+ * A move of the root is only pruned by moves before it, so the played
+ * move is the same as the one of the sequential search of the same depth.
+ * 
+ * Two search algorithms are available, selected by setAlgorithm() or by
+ * the minimaxAlgorithm property of boardConfig.properties:
+ * -ALPHA_BETA: The original minimax search, where every state is only
+ *  pruned by the bound of its parent.
+ * -PVS: A Principal Variation Search (NegaScout) in negamax form. The 
+ *  window of every state is derived from the one of its parent, shifted
+ *  by the evaluation of the move between them, so bounds are propagated
+ *  down the whole path. The first move of every state is searched with
+ *  the full window and the rest with a null window, only to prove they
+ *  are not better. Moves that fail to be proven so are searched again
+ *  with the full window. Moves of the root are proven against the best
+ *  of the moves before them, ties included, so PVS picks the same move 
+ *  as ALPHA_BETA, while it visits a lot less states.
+ * 
+ * While deepening, every iteration from the third one on searches with 
+ * an aspiration window around the value of the root two iterations 
+ * before. Values of consecutive iterations swing widely, since the last
+ * move of every iteration is of the player on odd depths and of the 
+ * opponent on even ones, while iterations of the same parity mostly agree.
+ * The window bounds the root moves of either algorithm from below and 
+ * the states of PVS from both sides. When the value of the root falls 
+ * outside the window, the iteration is searched again with the failed 
+ * side widened to the next half-width of the schedule, or unbounded
+ * once the schedule is exhausted. The schedule is given by
+ * setAspirationWindows() or the minimaxAspirationWindows property of 
+ * boardConfig.properties, as a comma separated list of half-widths. 
+ * An empty schedule turns aspiration windows off. A value inside the 
+ * window is exact, so the move picked is the one of the unbounded search.
+ * 
+ * When pondering is turned on, by setPondering() or the minimaxPondering
+ * property of boardConfig.properties, the player keeps searching on a
+ * background thread after returning its move, while the opponent thinks.
+ * It simulates its move, then every reply of the opponent, the ones of
+ * the best heuristic evaluations first, and searches the board every 
+ * reply leads to, exactly as it would search it on its next move. Next 
+ * move, pondering is stopped and the incoming board is looked up among
+ * the pondered ones, by HeadlessBoard.matches(). On a fixed depth, the
+ * move found while pondering is returned at once. Otherwise, deepening
+ * goes on from the depth pondering reached. The search of a pondered 
+ * board may only differ from the search of the actual one when it reaches
+ * the tiles that refilled the top of the columns after the simulated 
+ * moves, which the player could not know while pondering. Boards which
+ * cannot be keyed relative to the origin of the transposition table are
+ * not pondered, and no Flight Recorder iteration events are committed
+ * for the pondered ones.
+ * 
+ * When a quiescence budget is given, by setQuiescenceNodes() or the 
+ * minimaxQuiescenceNodes property of boardConfig.properties, leaves are
+ * not trusted as they are when their board is left volatile, i.e. when
+ * the player to move on it has big moves, the ones that create a run of
+ * 4 or more or two runs at once. The horizon takes every state to be 
+ * worth the same, so a volatile leaf is valued by how much its best big 
+ * move exceeds its best quiet move, minus the value of the board the big
+ * move leads to for the opponent, found the same way, or 0 when no big
+ * move is better. Quiescence goes on until no big move is left, 
+ * MAX_QUIESCENCE_PLIES is reached or the budget of the leaf, in evaluated
+ * moves, is spent. Every leaf gets the whole budget, so its value only 
+ * depends on its board and both algorithms still pick the same moves.
+ * Big moves are told by the runs their swap creates, without simulating 
+ * them, so moves that only cascade are never extended, though cascades
+ * are part of the evaluations of the extended ones.
+ * 
+ * Quiescence is experimental and off by default. In self play against
+ * the same depth without it, it has not won clearly more games, while it
+ * makes the search several times slower. The usual stand-pat of 0 is not
+ * used, since every move scores positively and it credits volatile 
+ * leaves with a whole extra move, which loses most games.
+ * 
+ * Statistics of the search of every move, i.e. the nodes visited, the 
+ * cutoffs of every ply, the probes of the transposition table, the time
+ * spent on evaluating and simulating moves etc, are given to the 
+ * SearchListener objects added to the player. They are only collected
+ * while there is any listener, so no time is spent on them otherwise.
+ * 
+ * Every move and every iteration of its search are also emitted as Java
+ * Flight Recorder events, as defined in SearchEvents, along with samples
+ * of the heuristic evaluations. Statistics are collected as well while
+ * any of these events is enabled on a recording, for their node counts.
  * 
  * Constants defined in MinMaxPlayer:
  * -public static final int MINIMAX_DEPTH = 4
+ * -public static final int MAX_SEARCH_DEPTH = 20
+ * -public static final String TIME_BUDGET_PROPERTY = "minimaxTimeBudget"
+ * -public static final String PARALLELISM_PROPERTY = "minimaxParallelism"
+ * -public static final String ALGORITHM_PROPERTY = "minimaxAlgorithm"
+ * -public static final int ALPHA_BETA = 0
+ * -public static final int PVS = 1
+ * -public static final String ASPIRATION_PROPERTY = "minimaxAspirationWindows"
+ * -public static final String PONDERING_PROPERTY = "minimaxPondering"
+ * -public static final String QUIESCENCE_PROPERTY = "minimaxQuiescenceNodes"
+ * -public static final int MAX_QUIESCENCE_PLIES = 8
  * 
  * Public constructors defined in MinMaxPlayer:
  * -public MinMaxPlayer(Integer pid)
+ * -public MinMaxPlayer(Integer pid, long timeBudget)
+ * -public MinMaxPlayer(Integer pid, long timeBudget, int parallelism)
  * 
  * Public methods defined in MinMaxPlayer:
  * -public String getName()
@@ -29,35 +201,366 @@ import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
  * -public void setScore(int score)
  * -public void setId(int id)
  * -public void setName(String name)
+ * -public long getTimeBudget()
+ * -public int getParallelism()
+ * -public int getLastSearchDepth()
+ * -public int getSearchDepth()
+ * -public void setSearchDepth(int depth) throws IllegalArgumentException
+ * -public int getAlgorithm()
+ * -public void setAlgorithm(int algorithm) throws IllegalArgumentException
+ * -public double[] getAspirationWindows()
+ * -public void setAspirationWindows(double... halfWidths) throws IllegalArgumentException
+ * -public boolean isPondering()
+ * -public void setPondering(boolean pondering)
+ * -public int getQuiescenceNodes()
+ * -public void setQuiescenceNodes(int nodes) throws IllegalArgumentException
+ * -public SearchStats getLastSearchStats()
+ * -public void addSearchListener(SearchListener listener)
+ * -public void removeSearchListener(SearchListener listener)
  * -public int[] getNextMove(ArrayList<int[]> availableMoves, Board board)
  * 
  * @author Dimitrios Karageorgiou
- * @version 0.3
+ * @version 1.9
  */
 public class MinMaxPlayer implements AbstractPlayer {
 
 //==== Public Constants ====
 	
 	/**
-	 * Defines the depth of minimax algorithm.
+	 * Defines the depth of minimax algorithm, when no time budget is given.
 	 */
 	public static final int MINIMAX_DEPTH = 4;
 	
+	/**
+	 * Defines the maximum depth iterative deepening may reach.
+	 */
+	public static final int MAX_SEARCH_DEPTH = 20;
+	
+	/**
+	 * The property of boardConfig.properties which defines the time budget
+	 * for every move, in milliseconds.
+	 */
+	public static final String TIME_BUDGET_PROPERTY = "minimaxTimeBudget";
+	
+	/**
+	 * The property of boardConfig.properties which defines the number of
+	 * threads the search uses.
+	 */
+	public static final String PARALLELISM_PROPERTY = "minimaxParallelism";
+	
+	/**
+	 * The property of boardConfig.properties which defines the search
+	 * algorithm, either "alphabeta" or "pvs".
+	 */
+	public static final String ALGORITHM_PROPERTY = "minimaxAlgorithm";
+	
+	/**
+	 * Minimax search with alpha-beta pruning by the bound of the parent.
+	 */
+	public static final int ALPHA_BETA = 0;
+	
+	/**
+	 * Principal Variation Search, in negamax form.
+	 */
+	public static final int PVS = 1;
+	
+	/**
+	 * The property of boardConfig.properties which defines the schedule of
+	 * the half-widths of aspiration windows, as a comma separated list.
+	 */
+	public static final String ASPIRATION_PROPERTY = "minimaxAspirationWindows";
+	
+	/**
+	 * The property of boardConfig.properties which turns pondering on, 
+	 * when "true".
+	 */
+	public static final String PONDERING_PROPERTY = "minimaxPondering";
+	
+	/**
+	 * The property of boardConfig.properties which defines the budget of
+	 * the quiescence search of every leaf, in evaluated moves. Quiescence
+	 * is experimental, so it is off unless the property is set.
+	 */
+	public static final String QUIESCENCE_PROPERTY = "minimaxQuiescenceNodes";
+	
+	/**
+	 * The maximum number of plies quiescence searches past a leaf.
+	 */
+	public static final int MAX_QUIESCENCE_PLIES = 8;
+	
+	
+//==== Private Constants ====
+	
+	/**
+	 * Half-widths of aspiration windows used unless defined otherwise.
+	 */
+	private static final double[] DEFAULT_ASPIRATION_WINDOWS = { 2, 8, 32 };
+	
+	/**
+	 * Seconds the pondering thread is kept alive while idle.
+	 */
+	private static final long PONDER_KEEP_ALIVE = 1;
+	
+	/**
+	 * The width of the null windows of PVS. It is far wider than the
+	 * rounding errors of shifting windows by evaluations, though far 
+	 * narrower than any difference of evaluations that matters.
+	 */
+	private static final double NULL_WINDOW = 1e-9;
+	
+	/**
+	 * The least pre-score of a move quiescence searches, i.e. a run of 4
+	 * or two runs of 3.
+	 */
+	private static final int BIG_MOVE_SCORE = 4;
+	
 	
 //==== Instance Variables ====
 	
     int score;
     int id;
     String name;
+    
+    /**
+     * The board of the current move, including all its lookahead rows.
+     */
+    private HeadlessBoard rootBoard;
+    
+    /**
+     * One searcher for every thread the search uses.
+     */
+    private Searcher[] searchers;
+    
+    /**
+     * Runs the searchers, when more than one are used.
+     */
+    private ForkJoinPool pool;
+    
+    /**
+     * Keys of the states of the search board.
+     */
+    private ZobristHash zobrist;
+    
+    /**
+     * Values of already searched states of the current and, when the
+     * current board derives from theirs, of the previous moves.
+     */
+    private final TranspositionTable table;
+    
+    /**
+     * The tiles every column of the current search board has consumed since
+     * the board the transposition table was started for. Keys of states are
+     * computed relative to that board.
+     */
+    private int[] consumedBase;
+    
+    /**
+     * The algorithm and the quiescence budget the entries of the 
+     * transposition table were searched with.
+     */
+    private int tableAlgorithm;
+    private int tableQuiescenceNodes;
+    
+    /**
+     * The board of the last move, the move returned for it and the consumed
+     * base of its search, or null before the first move.
+     */
+    private HeadlessBoard lastBoard;
+    private int[] lastMove;
+    private int[] lastBase;
+    
+    /**
+     * The number of threads the search uses.
+     */
+    private final int parallelism;
+    
+    /**
+     * Time budget for every move in milliseconds. When not positive, the
+     * search is done to a fixed depth of MINIMAX_DEPTH.
+     */
+    private final long timeBudget;
+    
+    /**
+     * The System.nanoTime() after which the current iteration is aborted.
+     * Pondering is stopped by moving it to the past, from another thread.
+     */
+    private volatile long deadline;
+    
+    /**
+     * The depth up to which the current search is completed, regardless
+     * the deadline. Deeper iterations are aborted once it has passed.
+     */
+    private int guaranteedDepth;
+    
+    /**
+     * The depth of the search when no time budget is given, or the deepest
+     * iteration of iterative deepening otherwise.
+     */
+    private int searchDepth;
+    
+    /**
+     * The search algorithm, ALPHA_BETA or PVS.
+     */
+    private int algorithm = ALPHA_BETA;
+    
+    /**
+     * Half-widths of the aspiration windows of every iteration, in the
+     * order they are tried.
+     */
+    private double[] aspirationWindows = DEFAULT_ASPIRATION_WINDOWS.clone();
+    
+    /**
+     * The budget of the quiescence search of every leaf, in evaluated 
+     * moves, or 0 for trusting leaves as they are.
+     */
+    private int quiescenceNodes;
+    
+    /**
+     * The depth of the current iteration.
+     */
+    private int iterationDepth;
+    
+    /**
+     * The depth of the last completed search.
+     */
+    private int lastSearchDepth;
+    
+    /**
+     * The depth of the last completed iteration of the current search.
+     */
+    private int completedDepth;
+    
+    /**
+     * The number of iterations started for the last move.
+     */
+    private int iterations;
+    
+    /**
+     * Listeners notified of the statistics of every move.
+     */
+    private final ArrayList<SearchListener> listeners = new ArrayList<>();
+    
+    /**
+     * Statistics of the last move, or null if they were not collected.
+     */
+    private SearchStats lastSearchStats;
+    
+    /**
+     * The id Flight Recorder events refer to the board of the current move by.
+     */
+    private int boardId;
+    
+    /**
+     * Whether the player ponders after every move.
+     */
+    private boolean pondering;
+    
+    /**
+     * Runs the pondering on a single daemon thread, created when needed.
+     */
+    private ThreadPoolExecutor ponderExecutor;
+    
+    /**
+     * The pondering started after the last move, or null.
+     */
+    private Future<?> ponderTask;
+    
+    /**
+     * Guards ponderCancelled along with the deadlines set by pondering.
+     */
+    private final Object ponderLock = new Object();
+    
+    /**
+     * Set when the pondering should stop.
+     */
+    private boolean ponderCancelled;
+    
+    /**
+     * Set while the searchers search a board of pondering, which may never
+     * be played.
+     */
+    private boolean ponderSearch;
+    
+    /**
+     * The moves found by pondering after the last move, one for every
+     * board the expected replies of the opponent lead to.
+     */
+    private final ArrayList<PonderedMove> ponderedMoves = new ArrayList<>();
 
     
 //==== Public Constructors ====
     
     public MinMaxPlayer(Integer pid) {
+    	this(pid, loadProperties());
+    }
+    
+    /**
+     * Create a new MinMaxPlayer configured by the given properties of
+     * boardConfig.properties, so the file is only read once.
+     */
+    private MinMaxPlayer(Integer pid, Properties properties) {
+    	this(pid, readProperty(properties, TIME_BUDGET_PROPERTY, 0), 
+    		 (int) readProperty(properties, PARALLELISM_PROPERTY, 1));
+    	
+    	if ("pvs".equalsIgnoreCase(readProperty(properties, ALGORITHM_PROPERTY))) algorithm = PVS;
+    	
+    	pondering = "true".equalsIgnoreCase(readProperty(properties, PONDERING_PROPERTY));
+    	
+    	try {
+    		setQuiescenceNodes((int) readProperty(properties, QUIESCENCE_PROPERTY, 0));
+    	} catch (IllegalArgumentException e) {
+    		// Keep quiescence off, as for any invalid property.
+    	}
+    	
+    	String windows = readProperty(properties, ASPIRATION_PROPERTY);
+    	
+    	if (windows != null) {
+    		try {
+    			setAspirationWindows(parseAspirationWindows(windows));
+    		} catch (IllegalArgumentException e) {
+    			// Keep the default schedule, as for any invalid property.
+    		}
+    	}
+    }
+    
+    /**
+     * Create a new MinMaxPlayer that searches by iterative deepening for
+     * the given time on every move.
+     * 
+     * @param pid The id of the player.
+     * @param timeBudget The time budget for every move, in milliseconds.
+     * 					 When not positive, the search is done to a fixed
+     * 					 depth of MINIMAX_DEPTH.
+     */
+    public MinMaxPlayer(Integer pid, long timeBudget) {
+    	this(pid, timeBudget, 1);
+    }
+    
+    /**
+     * Create a new MinMaxPlayer that searches the moves of the root on
+     * the given number of threads.
+     * 
+     * @param pid The id of the player.
+     * @param timeBudget The time budget for every move, in milliseconds.
+     * 					 When not positive, the search is done to a fixed
+     * 					 depth of MINIMAX_DEPTH.
+     * @param parallelism The number of threads the search uses. When 1,
+     * 					  the search runs on the calling thread.
+     * @throws IllegalArgumentException When parallelism is not positive.
+     */
+    public MinMaxPlayer(Integer pid, long timeBudget, int parallelism) {
+    	
+    	if (parallelism < 1) throw new IllegalArgumentException("parallelism should be positive");
     	
     	name = "MinMax";
     	id = pid;
         score = 0;
+        
+        this.timeBudget = timeBudget;
+        this.parallelism = parallelism;
+        searchDepth = timeBudget > 0 ? MAX_SEARCH_DEPTH : MINIMAX_DEPTH;
+        
+        table = new TranspositionTable();
     }
 
     
@@ -69,6 +572,52 @@ public class MinMaxPlayer implements AbstractPlayer {
 
     public int getScore() { return score; }
     
+    /**
+     * Get the time budget for every move in milliseconds, or a non positive
+     * value when the search is done to a fixed depth.
+     */
+    public long getTimeBudget() { return timeBudget; }
+    
+    /**
+     * Get the number of threads the search uses.
+     */
+    public int getParallelism() { return parallelism; }
+    
+    /**
+     * Get the depth of the deepest search completed for the last move.
+     */
+    public int getLastSearchDepth() { return lastSearchDepth; }
+    
+    /**
+     * Get the depth of the search when no time budget is given, or the
+     * deepest iteration of iterative deepening otherwise.
+     */
+    public int getSearchDepth() { return searchDepth; }
+    
+    /**
+     * Get the search algorithm, ALPHA_BETA or PVS.
+     */
+    public int getAlgorithm() { return algorithm; }
+    
+    /**
+     * Get a copy of the half-widths of the aspiration windows, in the order
+     * they are tried, or an empty array when they are not used.
+     */
+    public double[] getAspirationWindows() { return aspirationWindows.clone(); }
+    
+    /**
+     * Get whether the player ponders on the replies of the opponent.
+     */
+    public boolean isPondering() { return pondering; }
+    
+    public int getQuiescenceNodes() { return quiescenceNodes; }
+    
+    /**
+     * Get the statistics of the search of the last move, or null if no
+     * listener was added to the player while it was searched.
+     */
+    public SearchStats getLastSearchStats() { return lastSearchStats; }
+    
     
 //==== Public Setters ====
     
@@ -77,6 +626,100 @@ public class MinMaxPlayer implements AbstractPlayer {
     public void setId(int id) { this.id = id; }
 
     public void setName(String name) { this.name = name; }
+    
+    /**
+     * Sets the depth of the search when no time budget is given, or the
+     * deepest iteration of iterative deepening otherwise.
+     * 
+     * @param depth The depth, between 1 and MAX_SEARCH_DEPTH.
+     * @throws IllegalArgumentException When depth is out of range.
+     */
+    public void setSearchDepth(int depth) {
+    	if (depth < 1 || depth > MAX_SEARCH_DEPTH) {
+    		throw new IllegalArgumentException("depth should be between 1 and MAX_SEARCH_DEPTH");
+    	}
+    	
+    	searchDepth = depth;
+    }
+    
+    /**
+     * Sets the search algorithm used for the next moves.
+     * 
+     * @param algorithm ALPHA_BETA or PVS.
+     * @throws IllegalArgumentException When algorithm is neither of them.
+     */
+    public void setAlgorithm(int algorithm) {
+    	if (algorithm != ALPHA_BETA && algorithm != PVS) {
+    		throw new IllegalArgumentException("algorithm should be ALPHA_BETA or PVS");
+    	}
+    	
+    	this.algorithm = algorithm;
+    }
+    
+    /**
+     * Sets the schedule of the aspiration windows used while deepening.
+     * Every iteration is first searched with a window of the first 
+     * half-width around the value of the one two iterations before. The side of the 
+     * window the value fails on is then widened to every next half-width,
+     * until the value falls inside or the schedule is exhausted.
+     * 
+     * @param halfWidths Positive, ascending half-widths, or none for 
+     * 					 searching every iteration unbounded.
+     * @throws IllegalArgumentException When halfWidths is null, or any of
+     * 									them is not positive or not greater
+     * 									than the one before it.
+     */
+    public void setAspirationWindows(double... halfWidths) {
+    	if (halfWidths == null) throw new IllegalArgumentException("halfWidths should not be null");
+    	
+    	for (int i = 0; i < halfWidths.length; i++) {
+    		if (!(halfWidths[i] > 0) || (i > 0 && halfWidths[i] <= halfWidths[i - 1])) {
+    			throw new IllegalArgumentException("halfWidths should be positive and ascending");
+    		}
+    	}
+    	
+    	aspirationWindows = halfWidths.clone();
+    }
+    
+    /**
+     * Turns pondering on or off, for the next moves. Turning it off stops
+     * any pondering in progress and drops what it has found.
+     */
+    public void setPondering(boolean pondering) {
+    	this.pondering = pondering;
+    	
+    	if (!pondering) {
+    		stopPondering();
+    		ponderedMoves.clear();
+    	}
+    }
+    
+    /**
+     * Sets the budget of the quiescence search of every leaf, for the next
+     * moves. Quiescence is experimental, as it has not been shown to win 
+     * more games than searching without it.
+     * 
+     * @param nodes The moves quiescence may evaluate under every leaf, or
+     * 				0 for turning quiescence off.
+     * @throws IllegalArgumentException When nodes is negative.
+     */
+    public void setQuiescenceNodes(int nodes) {
+    	if (nodes < 0) throw new IllegalArgumentException("nodes should not be negative");
+    	
+    	quiescenceNodes = nodes;
+    }
+    
+    /**
+     * Adds a listener to be notified of the statistics of the search of
+     * every next move.
+     */
+    public void addSearchListener(SearchListener listener) {
+    	listeners.add(listener);
+    }
+    
+    public void removeSearchListener(SearchListener listener) {
+    	listeners.remove(listener);
+    }
 
     
 //==== Public Methods ====
@@ -87,7 +730,7 @@ public class MinMaxPlayer implements AbstractPlayer {
      * a minimax algorithm based on a heuristic evaluation function.
      * 
      * Depth of minimax algoritmh is defined by MINIMAX_DEPTH
-     * constant in MinMaxPlayer class.
+     * constant in MinMaxPlayer class, unless changed by setSearchDepth().
      * 
      * @param availableMoves The currently available moves for the
      * 						 player to play on the given board, in
@@ -101,45 +744,734 @@ public class MinMaxPlayer implements AbstractPlayer {
      */
     public int[] getNextMove(ArrayList<int[]> availableMoves, Board board) {
     	
-    	// Create the root node representing current state of board.
-    	// This is the initial state for minimax.
-    	Node root = new Node(null, CrushUtilities.cloneBoard(board, 45), null);
+    	// The opponent has played, so whatever it was expected to play, the
+    	// searchers are needed for the actual board.
+    	stopPondering();
     	
-    	// Create the minimax tree to the depth defined by MINIMAX_DEPTH constant.
-    	createMinimaxTree(root, MINIMAX_DEPTH, -Double.MAX_VALUE, Double.MAX_VALUE, true);
+    	Object moveEvent = SearchEvents.MOVE.begin();
+    	boardId = SearchEvents.getBoardId(board);
     	
-    	// Return the highest scoring move out of minimax tree.
-    	return findBestMove(root).toCordsArray();
-    }   
-
-   
-//==== Private Methods ====
-        
-    /**
-     * Creates a memory optimized A-B pruned minimax tree under 
-     * the root node, which should only be used for accessing root
-     * node's evaluation, its children evaluations and its children moves.
-     * It returns the evaluation of the current state for specified 
-     * player, maximizing or minimizing
-     * 
-     * The evaluations are as expected formed by searching until the given
-     * depth. Though all nodes after first level are discarded. Thus,
-     * memory consumption scales linear with depth instead of
-     * exponentially.
-     * 
-     * Root node should contain at least the board of the initial state.
+    	// Nothing is measured unless someone listens or records.
+    	boolean collecting = !listeners.isEmpty() || moveEvent != null || SearchEvents.ITERATION.isEnabled();
+    	long start = 0, allocated = 0, gcCount = 0, gcMillis = 0;
+    	
+    	if (collecting) {
+    		start = System.nanoTime();
+    		allocated = SearchStats.getThreadAllocatedBytes();
+    		gcCount = SearchStats.getJvmGcCount();
+    		gcMillis = SearchStats.getJvmGcMillis();
+    	}
+    	
+    	// Every searcher runs on its own copy of the board, where moves
+    	// are made and unmade while going down and up the tree.
+    	// Lookahead rows are shared by all the boards of the search, as
+    	// immutable refill streams, so keeping all of them costs nothing
+    	// while searching.
+    	rootBoard = HeadlessBoard.fromBoard(board);
+    	PonderedMove pondered = findPonderedMove(rootBoard);
+    	
+    	if (searchers == null || searchers[0].board.getRows() != rootBoard.getRows()) {
+    		createSearchers();
+    	}
+    	
+    	boolean reused = prepareTable(pondered != null ? pondered.board : findDerivedBoard(rootBoard));
+    	for (Searcher searcher : searchers) searcher.reset(rootBoard, collecting);
+    	
+    	IntMoveList rootMoves = new IntMoveList();
+    	BoardUtils.getAvailableMoves(rootBoard, rootMoves);
+    	
+    	deadline = System.nanoTime() + timeBudget * 1000000L;
+    	
+    	if (timeBudget <= 0) guaranteedDepth = searchDepth;
+    	else guaranteedDepth = pondered == null ? 1 : pondered.depth;
+    	
+    	PlayerMove bestMove = search(rootMoves, pondered);
+    	lastSearchDepth = completedDepth;
+    	
+    	if (searchers[0].stats != null) {
+    		if (pondered != null) searchers[0].stats.addPonderHit();
+    		if (reused) searchers[0].stats.addTableReuse();
+    	}
+    	
+    	lastSearchStats = null;
+    	
+    	if (collecting) {
+    		SearchStats stats = new SearchStats();
+    		for (Searcher searcher : searchers) stats.add(searcher.stats);
+    		
+    		long allocatedAfter = SearchStats.getThreadAllocatedBytes();
+    		
+    		stats.recordMove(lastSearchDepth, iterations, System.nanoTime() - start,
+    						 allocated < 0 ? -1 : allocatedAfter - allocated,
+    						 SearchStats.getJvmGcCount() - gcCount, SearchStats.getJvmGcMillis() - gcMillis);
+    		
+    		lastSearchStats = stats;
+    		for (SearchListener listener : listeners) listener.moveSearched(stats);
+    	}
+    	
+    	int[] move = bestMove.toCordsArray();
+    	
+    	SearchEvents.MOVE.commit(moveEvent, name, boardId, lastSearchDepth, SearchEvents.formatMove(move),
+    							 lastSearchStats == null ? 0 : lastSearchStats.getNodes());
+    	
+    	lastBoard = rootBoard;
+    	lastMove = move;
+    	lastBase = consumedBase;
+    	
+    	if (pondering) startPondering(move);
+    	
+    	return move;
+    }   
+
+   
+//==== Private Methods ====
+    
+    /**
+     * Searches the root board, either to the fixed depth or by iterative
+     * deepening, depending on the time budget. The deadline and the 
+     * guaranteed depth of the search should have been set.
+     * 
+     * @param rootMoves The available moves on the search board.
+     * @param pondered The move pondering found for the root board, or null.
+     * @return The move that player should play, or null if the search was
+     * 		   aborted before completing any iteration.
+     * @throws SearchTimeoutRuntimeException When a search of fixed depth
+     * 										 is aborted.
+     */
+    private PlayerMove search(IntMoveList rootMoves, PonderedMove pondered) {
+    	
+    	if (timeBudget <= 0 && pondered != null && pondered.depth == searchDepth) {
+    		completedDepth = searchDepth;
+    		iterations = 0;
+    		
+    		return pondered.move;
+    	}
+    	
+    	if (timeBudget > 0) return iterativeDeepening(rootMoves, pondered);
+    	
+    	// Create the root node representing current state of board.
+    	// This is the initial state for minimax.
+    	Node root = new Node(null, rootBoard, null);
+    	
+    	// Create the minimax tree to the depth of the search.
+    	iterationDepth = searchDepth;
+    	iterations = 1;
+    	
+    	Object iterationEvent = beginIteration();
+    	long nodes = countNodes();
+    	
+    	createMinimaxTree(root, rootMoves, searchDepth, -Double.MAX_VALUE, Double.MAX_VALUE, true);
+    	completedDepth = searchDepth;
+    	
+    	// Return the highest scoring move out of minimax tree.
+    	PlayerMove bestMove = findBestMove(root);
+    	
+    	commitIteration(iterationEvent, nodes, bestMove);
+    	
+    	return bestMove;
+    }
+    
+    /**
+     * Searches by iterative deepening, until the deadline passes, and
+     * returns the best move of the deepest completed iteration.
+     * 
+     * Iterations up to the guaranteed depth are always completed, regardless
+     * the deadline, so there is always a move to be returned, unless it is
+     * 0. Every next iteration searches the root moves in descending order
+     * of the evaluations the previous one found for them, within aspiration
+     * windows. 
+     * 
+     * @param rootMoves The available moves on the search board.
+     * @param pondered The move pondering found for the root board, or null.
+     * 				   When given, deepening goes on from its depth.
+     * @return The move that player should play, or null if no iteration
+     * 		   was completed.
+     */
+    private PlayerMove iterativeDeepening(IntMoveList rootMoves, PonderedMove pondered) {
+    	
+    	PlayerMove bestMove = pondered == null ? null : pondered.move;
+    	completedDepth = pondered == null ? 0 : pondered.depth;
+    	iterations = 0;
+    	
+    	// Roots of the last two iterations, the last one first.
+    	Node root = null;
+    	Node previous = null;
+    	
+    	for (int depth = completedDepth + 1; depth <= searchDepth; depth++) {
+    		iterationDepth = depth;
+    		iterations++;
+    		for (Searcher searcher : searchers) searcher.horizonReached = false;
+    		
+    		Object iterationEvent = beginIteration();
+    		long nodes = countNodes();
+    		
+    		try {
+    			Node searched = searchIteration(rootMoves, depth, previous);
+    			previous = root;
+    			root = searched;
+    		} catch (SearchTimeoutRuntimeException e) {
+    			// Moves made by the aborted iteration are never unmade, but
+    			// boards of searchers are not used again for this search.
+    			commitIteration(iterationEvent, nodes, null);
+    			break;
+    		}
+    		
+    		bestMove = findBestMove(root);
+    		completedDepth = depth;
+    		
+    		commitIteration(iterationEvent, nodes, bestMove);
+    		
+    		// When no leaf left any state unexplored, deeper iterations
+    		// are going to search the exact same tree.
+    		if (!isHorizonReached()) break;
+    		
+    		orderByEvaluation(rootMoves, root);
+    	}
+    	
+    	return bestMove;
+    }
+    
+    /**
+     * Searches a single iteration of iterative deepening within aspiration
+     * windows around the value of the root of the given iteration. 
+     * Whenever the value of the root falls on a side of the window, that
+     * side is widened to the next half-width of the schedule and the
+     * iteration is searched again.
+     * 
+     * Alpha-beta carries the max bound to every maximizing state as is, 
+     * while evaluations below the root are relative to their parents. So,
+     * only PVS is bounded from above.
+     * 
+     * @param rootMoves The available moves on the search board.
+     * @param depth The depth of the iteration.
+     * @param previous The root of the iteration two iterations before, or 
+     * 				   null for the first two, which are searched unbounded.
+     * @return The root of the searched tree.
+     * @throws SearchTimeoutRuntimeException When the time budget runs out.
+     */
+    private Node searchIteration(IntMoveList rootMoves, int depth, Node previous) {
+    	
+    	double center = previous == null ? 0 : previous.getNodeEvaluation();
+    	boolean aspiring = previous != null && aspirationWindows.length > 0;
+    	
+    	// Index of the half-width of every side, or the length of the
+    	// schedule when that side is unbounded.
+    	int low = aspiring ? 0 : aspirationWindows.length;
+    	int high = aspiring && algorithm == PVS ? 0 : aspirationWindows.length;
+    	
+    	while (true) {
+    		double min = low < aspirationWindows.length ? 
+    				center - aspirationWindows[low] : -Double.MAX_VALUE;
+    		double max = high < aspirationWindows.length ? 
+    				center + aspirationWindows[high] : Double.MAX_VALUE;
+    		
+    		Node root = new Node(null, rootBoard, null);
+    		double value = createMinimaxTree(root, rootMoves, depth, min, max, true);
+    		
+    		if (value <= min && min != -Double.MAX_VALUE) low++;
+    		else if (value >= max && max != Double.MAX_VALUE) high++;
+    		else return root;
+    		
+    		if (searchers[0].stats != null) searchers[0].stats.addAspirationResearch();
+    	}
+    }
+    
+    /**
+     * Sorts in place the given root moves in descending order of the 
+     * evaluations of the children of the given root, which should have
+     * been created by searching these moves in the given order. Moves of
+     * equal evaluations keep their relative order.
+     * 
+     * @param rootMoves The moves searched under the root.
+     * @param root The root of the searched tree.
+     */
+    private void orderByEvaluation(IntMoveList rootMoves, Node root) {
+    	
+    	double[] evaluations = new double[rootMoves.size()];
+    	
+    	for (int i = 0; i < evaluations.length; i++) {
+    		evaluations[i] = root.getChildren().get(i).getNodeEvaluation();
+    	}
+    	
+    	sortByEvaluation(rootMoves, evaluations);
+    }
+    
+    /**
+     * Sorts in place the given moves in descending order of the given
+     * evaluations, one for every move, which are sorted along with them.
+     * Moves of equal evaluations keep their relative order.
+     */
+    private static void sortByEvaluation(IntMoveList moves, double[] evaluations) {
+    	
+    	// Insertion sort, since it is stable and a board has a few tens
+    	// of moves at most.
+    	for (int i = 1; i < evaluations.length; i++) {
+    		double evaluation = evaluations[i];
+    		int move = moves.get(i);
+    		int j = i - 1;
+    		
+    		while (j >= 0 && Double.compare(evaluations[j], evaluation) < 0) {
+    			evaluations[j + 1] = evaluations[j];
+    			moves.set(j + 1, moves.get(j));
+    			j--;
+    		}
+    		
+    		evaluations[j + 1] = evaluation;
+    		moves.set(j + 1, move);
+    	}
+    }
+    
+    /**
+     * Begins the Flight Recorder event of the current iteration.
+     * 
+     * @return The begun event, or null if events are not recorded or
+     * 		   the searched board is one of pondering.
+     */
+    private Object beginIteration() {
+    	return ponderSearch ? null : SearchEvents.ITERATION.begin();
+    }
+    
+    /**
+     * Commits the Flight Recorder event of the current iteration.
+     * 
+     * @param event The event begun along with the iteration, or null.
+     * @param nodes The nodes visited before the iteration.
+     * @param bestMove The best move of the iteration, or null if it was aborted.
+     */
+    private void commitIteration(Object event, long nodes, PlayerMove bestMove) {
+    	if (event == null) return;
+    	
+    	SearchEvents.ITERATION.commit(event, name, boardId, iterationDepth, bestMove != null,
+    			SearchEvents.formatMove(bestMove == null ? null : bestMove.toCordsArray()),
+    			countNodes() - nodes);
+    }
+    
+    /**
+     * Get the nodes visited by all the searchers for the current move, or 
+     * 0 if statistics are not collected.
+     */
+    private long countNodes() {
+    	long nodes = 0;
+    	
+    	for (Searcher searcher : searchers) {
+    		if (searcher.stats != null) nodes += searcher.stats.getNodes();
+    	}
+    	
+    	return nodes;
+    }
+    
+    /**
+     * Reads the value of the given property out of the given properties.
+     * 
+     * @param properties The properties of boardConfig.properties.
+     * @param property The name of the property.
+     * @param defaultValue The value returned when the property is not defined.
+     * @return The value of the property, or defaultValue if it is not
+     * 		   defined or it is not a number.
+     */
+    private static long readProperty(Properties properties, String property, long defaultValue) {
+    	String value = readProperty(properties, property);
+    	
+    	try {
+    		return value == null ? defaultValue : Long.parseLong(value);
+    	} catch (NumberFormatException e) {
+    		return defaultValue;
+    	}
+    }
+    
+    /**
+     * Starts pondering on the replies of the opponent to the given move,
+     * on the current root board, in the background.
+     * 
+     * @param move The move returned for the root board, in the form of
+     * 			   [x1, y1, x2, y2] int array.
+     */
+    private void startPondering(final int[] move) {
+    	ponderedMoves.clear();
+    	
+    	if (ponderExecutor == null) {
+    		ponderExecutor = new ThreadPoolExecutor(1, 1, PONDER_KEEP_ALIVE, TimeUnit.SECONDS,
+    												new LinkedBlockingQueue<Runnable>(),
+    												new ThreadFactory() {
+    			@Override
+    			public Thread newThread(Runnable runnable) {
+    				Thread thread = new Thread(runnable, "MinMaxPlayer-" + id + "-ponder");
+    				thread.setDaemon(true);
+    				
+    				return thread;
+    			}
+    		});
+    		
+    		// Players of finished games should leave no thread behind.
+    		ponderExecutor.allowCoreThreadTimeOut(true);
+    	}
+    	
+    	synchronized (ponderLock) {
+    		ponderCancelled = false;
+    	}
+    	
+    	final HeadlessBoard board = rootBoard;
+    	
+    	ponderTask = ponderExecutor.submit(new Runnable() {
+    		@Override
+    		public void run() {
+    			ponder(board, move);
+    		}
+    	});
+    }
+    
+    /**
+     * Stops the pondering in progress, if any, and waits for it to finish,
+     * so the searchers are free to be used again. The moves it has found
+     * are kept.
+     */
+    private void stopPondering() {
+    	if (ponderTask == null) return;
+    	
+    	synchronized (ponderLock) {
+    		ponderCancelled = true;
+    		deadline = Long.MIN_VALUE;
+    	}
+    	
+    	awaitPondering();
+    }
+    
+    /**
+     * Waits for the pondering in progress, if any, to finish by itself,
+     * after searching every expected board. Tests use it to let pondering
+     * complete before the opponent replies.
+     */
+    void awaitPondering() {
+    	if (ponderTask == null) return;
+    	
+    	boolean interrupted = false;
+    	
+    	try {
+    		while (true) {
+    			try {
+    				ponderTask.get();
+    				break;
+    			} catch (InterruptedException e) {
+    				// Searchers cannot be used until the pondering finishes.
+    				interrupted = true;
+    			} catch (ExecutionException e) {
+    				if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+    				throw new RuntimeException(e.getCause());
+    			}
+    		}
+    	} finally {
+    		ponderTask = null;
+    		if (interrupted) Thread.currentThread().interrupt();
+    	}
+    }
+    
+    /**
+     * Searches the boards the replies of the opponent to the given move
+     * lead to, the ones of the best heuristic evaluations first, until all
+     * of them have been searched or the pondering is cancelled. The move 
+     * found for every board is kept into ponderedMoves.
+     * 
+     * @param board The board the move was returned for.
+     * @param move The move, in the form of [x1, y1, x2, y2] int array.
+     */
+    private void ponder(HeadlessBoard board, int[] move) {
+    	Searcher searcher = searchers[0];
+    	
+    	// All the expected boards are keyed relative to the origin of the
+    	// table, which is set once for the whole pondering.
+    	if (!isTableReusable()) {
+    		clearTable();
+    		lastBase = new int[board.getCols()];
+    	}
+    	
+    	HeadlessBoard afterMove = new HeadlessBoard(board);
+    	searcher.simulator.playMove(afterMove, move[0], move[1], move[2], move[3]);
+    	
+    	IntMoveList replies = new IntMoveList();
+    	searcher.generator.generate(afterMove, replies);
+    	orderByHeuristic(afterMove, replies, searcher);
+    	
+    	IntMoveList rootMoves = new IntMoveList();
+    	
+    	for (int i = 0; i < replies.size(); i++) {
+    		int reply = replies.get(i);
+    		
+    		HeadlessBoard expected = new HeadlessBoard(afterMove);
+    		searcher.simulator.playMove(expected, PackedMove.getX(reply), PackedMove.getY(reply),
+    									PackedMove.getX2(reply), PackedMove.getY2(reply));
+    		
+    		// A board with no available moves is replaced by the game.
+    		BoardUtils.getAvailableMoves(expected, rootMoves);
+    		if (rootMoves.size() == 0) continue;
+    		
+    		// A board too far from the origin is left for its own search.
+    		int[] base = deriveBase(expected);
+    		if (base == null) continue;
+    		
+    		synchronized (ponderLock) {
+    			if (ponderCancelled) return;
+    			
+    			// Every board is given the time budget of an actual move, while
+    			// boards of fixed depth are searched until cancelled.
+    			deadline = timeBudget > 0 ? System.nanoTime() + timeBudget * 1000000L : Long.MAX_VALUE;
+    		}
+    		
+    		rootBoard = expected;
+    		consumedBase = base;
+    		for (Searcher s : searchers) s.reset(expected, false);
+    		guaranteedDepth = 0;
+    		
+    		PlayerMove found;
+    		ponderSearch = true;
+    		
+    		try {
+    			found = search(rootMoves, null);
+    		} catch (SearchTimeoutRuntimeException e) {
+    			return;
+    		} finally {
+    			ponderSearch = false;
+    		}
+    		
+    		if (found != null) ponderedMoves.add(new PonderedMove(expected, found, completedDepth));
+    	}
+    }
+    
+    /**
+     * Looks up the given board among the boards the last move and every 
+     * reply of the opponent to it lead to.
+     * 
+     * @return The matching board, as derived from the board of the last 
+     * 		   move, or null if none matches.
+     */
+    private HeadlessBoard findDerivedBoard(HeadlessBoard board) {
+    	if (lastBoard == null) return null;
+    	
+    	Searcher searcher = searchers[0];
+    	
+    	HeadlessBoard afterMove = new HeadlessBoard(lastBoard);
+    	searcher.simulator.playMove(afterMove, lastMove[0], lastMove[1], lastMove[2], lastMove[3]);
+    	
+    	// An invalid reply is skipped by the game.
+    	if (afterMove.matches(board)) return afterMove;
+    	
+    	IntMoveList replies = new IntMoveList();
+    	searcher.generator.generate(afterMove, replies);
+    	
+    	for (int i = 0; i < replies.size(); i++) {
+    		int reply = replies.get(i);
+    		
+    		HeadlessBoard derived = new HeadlessBoard(afterMove);
+    		searcher.simulator.playMove(derived, PackedMove.getX(reply), PackedMove.getY(reply),
+    									PackedMove.getX2(reply), PackedMove.getY2(reply));
+    		
+    		if (derived.matches(board)) return derived;
+    	}
+    	
+    	return null;
+    }
+    
+    /**
+     * Prepares the transposition table for searching the root board, which
+     * should match the given board. Entries of previous searches are kept
+     * when the given board derives from the board of the last move, so 
+     * states of the root board can be keyed relative to the board the table
+     * was started for. Otherwise, the table is cleared and started for the
+     * root board.
+     * 
+     * @param derived A board derived from the board of the last move that
+     * 				  matches the root board, or null.
+     * @return True if entries of previous searches are kept.
+     */
+    private boolean prepareTable(HeadlessBoard derived) {
+    	int[] base = derived != null && isTableReusable() ? deriveBase(derived) : null;
+    	boolean reused = base != null;
+    	
+    	if (!reused) {
+    		clearTable();
+    		base = new int[rootBoard.getCols()];
+    	}
+    	
+    	consumedBase = base;
+    	
+    	return reused;
+    }
+    
+    /**
+     * Get whether entries of the transposition table were stored by a 
+     * search of the current algorithm and quiescence budget, relative to 
+     * the consumed base of the last move.
+     */
+    private boolean isTableReusable() {
+    	return lastBase != null && tableAlgorithm == algorithm && tableQuiescenceNodes == quiescenceNodes;
+    }
+    
+    /**
+     * Get the consumed base of the given board, derived from the board of 
+     * the last move, relative to the origin of the transposition table.
+     * 
+     * @return The consumed base, or null if states of the board cannot be
+     * 		   keyed relative to the origin of the table.
+     */
+    private int[] deriveBase(HeadlessBoard derived) {
+    	int[] base = new int[derived.getCols()];
+    	
+    	for (int x = 0; x < base.length; x++) {
+    		base[x] = lastBase[x] + derived.getConsumed(x);
+    		
+    		// Keys only tell apart consumed counts of up to twice the rows.
+    		if (base[x] > derived.getRows()) return null;
+    	}
+    	
+    	return base;
+    }
+    
+    /**
+     * Clears the transposition table, for searches of the current algorithm
+     * and quiescence budget.
+     */
+    private void clearTable() {
+    	table.clear();
+    	tableAlgorithm = algorithm;
+    	tableQuiescenceNodes = quiescenceNodes;
+    }
+    
+    /**
+     * Get the move pondering found for the given board, or null if the 
+     * board was not expected.
+     */
+    private PonderedMove findPonderedMove(HeadlessBoard board) {
+    	for (PonderedMove pondered : ponderedMoves) {
+    		if (pondered.board.matches(board)) return pondered;
+    	}
+    	
+    	return null;
+    }
+    
+    /**
+     * Sorts in place the given moves of the given board in descending order
+     * of their heuristic evaluations, as found by the given searcher. Moves
+     * of equal evaluations keep their relative order.
+     */
+    private void orderByHeuristic(HeadlessBoard board, IntMoveList moves, Searcher searcher) {
+    	
+    	double[] evaluations = new double[moves.size()];
+    	
+    	for (int i = 0; i < evaluations.length; i++) {
+    		searcher.context.set(board, moves.get(i));
+    		evaluations[i] = searcher.sampler.evaluate(searcher.context);
+    	}
+    	
+    	sortByEvaluation(moves, evaluations);
+    }
+    
+    /**
+     * Parses a comma separated list of half-widths of aspiration windows.
+     * 
+     * @throws NumberFormatException When any of them is not a number.
+     */
+    private static double[] parseAspirationWindows(String windows) {
+    	if (windows.isEmpty()) return new double[0];
+    	
+    	String[] values = windows.split(",");
+    	double[] halfWidths = new double[values.length];
+    	
+    	for (int i = 0; i < values.length; i++) halfWidths[i] = Double.parseDouble(values[i].trim());
+    	
+    	return halfWidths;
+    }
+    
+    /**
+     * Reads the value of the given property out of the given properties.
+     * 
+     * @param properties The properties of boardConfig.properties.
+     * @param property The name of the property.
+     * @return The trimmed value of the property, or null if it is not
+     * 		   defined.
+     */
+    private static String readProperty(Properties properties, String property) {
+    	String value = properties.getProperty(property);
+    	
+    	return value == null ? null : value.trim();
+    }
+    
+    /**
+     * Loads the properties of boardConfig.properties.
+     * 
+     * @return The loaded properties, or no properties at all if the file
+     * 		   cannot be read.
+     */
+    private static Properties loadProperties() {
+    	Properties boardProperties = new Properties();
+    	
+    	try (FileInputStream in = new FileInputStream("boardConfig.properties")) {
+    		boardProperties.load(in);
+    	} catch (IOException e) {
+    		// Every property keeps its default value.
+    		return new Properties();
+    	}
+    	
+    	return boardProperties;
+    }
+    
+    /**
+     * Creates the searchers, the Zobrist keys and, when needed, the pool
+     * of threads, for boards of the dimensions of the root board.
+     */
+    private void createSearchers() {
+    	// Consumed counts are relative to the board the transposition table
+    	// was started for, which may be up to a whole board behind.
+    	zobrist = new ZobristHash(rootBoard.getCols(), rootBoard.getPRows(), 2 * rootBoard.getRows());
+    	
+    	// Keys of previous searches are no longer valid.
+    	lastBase = null;
+    	
+    	searchers = new Searcher[parallelism];
+    	for (int i = 0; i < parallelism; i++) searchers[i] = new Searcher(rootBoard);
+    	
+    	if (parallelism > 1 && pool == null) pool = new ForkJoinPool(parallelism);
+    }
+    
+    /**
+     * Checks whether any searcher has left unexplored states under the
+     * leaves of the current iteration.
+     */
+    private boolean isHorizonReached() {
+    	for (Searcher searcher : searchers) {
+    		if (searcher.horizonReached) return true;
+    	}
+    	
+    	return false;
+    }
+        
+    /**
+     * Creates a memory optimized A-B pruned minimax tree under 
+     * the root node, which should only be used for accessing root
+     * node's evaluation, its children evaluations and its children moves.
+     * It returns the evaluation of the current state for specified 
+     * player, maximizing or minimizing
+     * 
+     * The evaluations are as expected formed by searching until the given
+     * depth. Though only the children of the root node are created and
+     * they do not keep any board. States deeper in the tree are visited
+     * by making and unmaking moves on the search board, so memory 
+     * consumption does not depend on the number of visited states.
+     * 
+     * Root node should contain the search board of the initial state.
      * 
      * It should normally be called with min and max arguments of
      * -Double.MAX_VALUE and Double.MAX_VALUE accordingly. Though
      * they can be set to any best matching value and are the 
-     * initial values used for A-B pruning.
+     * initial values used for A-B pruning. When the evaluation is not
+     * inside them, it is only a bound, no better than the one it fails on.
      * 
      * Maximizing defines if the current state should be checked from
      * player's perspective, i.e. maximizing, or enemy's perspective,
      * i.e. minimizing. Maximizing player considers greater values better,
      * when minimizing player considers lower values better.
      * 
-     * @param n The root node for the tree to be created.
+     * @param root The root node for the tree to be created.
+     * @param rootMoves The available moves on the search board, encoded by
+     * 					PackedMove, in the order they should be searched.
      * @param depth The depth to which the tree will be created.
      * @param min The minimum evaluation value that is considered valid.
      * @param max The maximum evaluation value that is considered valid.
@@ -147,80 +1479,194 @@ public class MinMaxPlayer implements AbstractPlayer {
      * 					 false for getting evaluation for enemy's perspective.	
      * @return The evaluation of the current state for given player.
      */
-    private double createMinimaxTree(Node n, int depth, double min, 
-    								 double max, boolean maximizing) 
-    {    	
-    	// Find the evaluation of current state. Since this method is going
-    	// to run one more time than depth, the evaluation here is the
-    	// opposite than maximizing. This happens because the first call
-    	// is the root node, and for every move it's effect is calculated
-    	// on the next run. 
-    	n.evaluate(maximizing);
-    	    	
-    	// If current node is not a leaf, then evaluate its children,
-    	// and form the overall evaluation by using the ones from deeper
-    	// levels.
-    	if (depth != 0) {
-    		n.createChildren();
+    private double createMinimaxTree(Node root, IntMoveList rootMoves, int depth,  
+    								 double min, double max, boolean maximizing) 
+    {
+    	// No move lead to the root state, so its own evaluation is 0.
+    	root.evaluate(maximizing);
+    	
+    	if (rootMoves.size() == 0) {
+    		// If known available moves on the board have been 
+			// depleted and no further search can be done, then
+			// do a fixed evaluation for the future moves that
+			// may exist on the actual board.
+    		if (maximizing)	root.setNodeEvaluation(root.getNodeEvaluation() + doFixedEvaluation(depth));
+    		else root.setNodeEvaluation(root.getNodeEvaluation() - doFixedEvaluation(depth));
     		
-    		if (n.getChildren().size() == 0 ) {
-    			// If known available moves on the board have been 
-    			// depleted and no further search can be done, then
-    			// do a fixed evaluation for the future moves that
-    			// may exist on the actual board.
-
-//    			System.out.println("No moves found");
-    			
-    			if (maximizing)	n.setNodeEvaluation(n.getNodeEvaluation() + doFixedEvaluation(depth));
-        		else n.setNodeEvaluation(n.getNodeEvaluation() - doFixedEvaluation(depth));
-    			
-    			return n.getNodeEvaluation();
-    		}
+    		return root.getNodeEvaluation();
+    	}
+    	
+    	PlayerMove[] moves = new PlayerMove[rootMoves.size()];
+    	double[] evals = new double[rootMoves.size()];
+    	
+    	if (parallelism > 1) searchInParallel(rootMoves, moves, evals, depth, min, max, maximizing);
+    	else searchInSequence(rootMoves, moves, evals, depth, min, max, maximizing);
+    	
+    	double best = maximizing ? -Double.MAX_VALUE : Double.MAX_VALUE;
+    	
+    	for (int i = 0; i < moves.length; i++) {
+    		// Keep on the tree only the children of the root, along with
+    		// their moves and evaluations.
+    		Node child = new Node(root, null, moves[i]);
+    		child.setNodeEvaluation(evals[i]);
+    		root.addChild(child);
+    		
+    		best = maximizing ? Math.max(best, evals[i]) : Math.min(best, evals[i]);
+    	}
+    	
+    	root.setNodeEvaluation(root.getNodeEvaluation() + best);
+    	
+    	return root.getNodeEvaluation();
+    }
+    
+    /**
+     * Searches the given moves of the root one after the other, on the
+     * calling thread.
+     * 
+     * Every move is searched with the best evaluation of the moves before
+     * it as the bound for A-B pruning.
+     * 
+     * @param rootMoves The moves of the root, in the order they should be
+     * 					searched.
+     * @param moves Array where the PlayerMove of every root move is kept.
+     * @param evals Array where the evaluation of every root move is kept.
+     * @param depth The depth of the tree.
+     * @param min The minimum evaluation value that is considered valid.
+     * @param max The maximum evaluation value that is considered valid.
+     * @param maximizing True when the root is checked from player's perspective.
+     */
+    private void searchInSequence(IntMoveList rootMoves, PlayerMove[] moves, double[] evals,
+    							  int depth, double min, double max, boolean maximizing)
+    {
+    	Searcher searcher = searchers[0];
+    	double best = maximizing ? -Double.MAX_VALUE : Double.MAX_VALUE;
+    	
+    	for (int i = 0; i < moves.length; i++) {
+    		moves[i] = searcher.toPlayerMove(rootMoves.get(i));
+    		evals[i] = searcher.searchRootMove(rootMoves.get(i), depth - 1, best, min, max, maximizing);
     		
-    		if (maximizing) {
-    			double cMax = -Double.MAX_VALUE;
-    			
-    			for (Node child : n.getChildren()) {
-    				double eval = createMinimaxTree(child, depth - 1, cMax, max, false);
-    				
-    				cMax = Math.max(cMax, eval);
+    		best = maximizing ? Math.max(best, evals[i]) : Math.min(best, evals[i]);
+    	}
+    }
+    
+    /**
+     * Searches the given moves of the root on the threads of the pool.
+     * Every thread uses its own searcher and takes the next move not
+     * searched yet, until all the moves have been searched.
+     * 
+     * Every move is searched with the best evaluation of the already
+     * searched moves before it as the bound for A-B pruning. Evaluations
+     * of moves after it are never used, even if they are known, so a move
+     * is only cut off when a previous one is at least as good. Thus, the
+     * first of the best moves keeps its exact evaluation and it is picked 
+     * exactly as in a sequential search.
+     * 
+     * @param rootMoves The moves of the root, in the order they should be
+     * 					searched.
+     * @param moves Array where the PlayerMove of every root move is kept.
+     * @param evals Array where the evaluation of every root move is kept.
+     * @param depth The depth of the tree.
+     * @param min The minimum evaluation value that is considered valid.
+     * @param max The maximum evaluation value that is considered valid.
+     * @param maximizing True when the root is checked from player's perspective.
+     * @throws SearchTimeoutRuntimeException When any searcher runs out of time.
+     */
+    private void searchInParallel(final IntMoveList rootMoves, final PlayerMove[] moves,
+    							  final double[] evals, final int depth, final double min,
+    							  final double max, final boolean maximizing)
+    {
+    	final boolean[] searched = new boolean[moves.length];
+    	final AtomicInteger next = new AtomicInteger();
+    	
+    	ArrayList<Callable<Void>> tasks = new ArrayList<>();
+    	
+    	for (final Searcher searcher : searchers) {
+    		tasks.add(new Callable<Void>() {
+    			@Override
+    			public Void call() {
+    				// Allocations of the pool threads are not seen by the
+    				// thread of the move, so every task counts its own.
+    				long allocated = searcher.stats != null ? SearchStats.getThreadAllocatedBytes() : -1;
     				
-    				if ((n.getNodeEvaluation() + eval) >= max) {
-    					cMax = eval;
-    					break;
+    				try {
+    					searchMoves();
+    				} finally {
+    					if (allocated >= 0) {
+    						searcher.stats.addAllocatedBytes(SearchStats.getThreadAllocatedBytes() - allocated);
+    					}
     				}
-        		}
-    			
-    			n.setNodeEvaluation(n.getNodeEvaluation() + cMax);
-    			
-    		} else {
-    			double cMin = Double.MAX_VALUE;
-    			
-    			for (Node child : n.getChildren()) {
-    				double eval = createMinimaxTree(child, depth - 1, cMin, max, true);
-    				
-    				cMin = Math.min(cMin, eval);
     				
-    				if ((n.getNodeEvaluation() + eval) <= min) {
-    					cMin = eval;
-    					break;
-    				}	
-        		}
+    				return null;
+    			}
     			
-    			n.setNodeEvaluation(n.getNodeEvaluation() + cMin);    			
-    		}
+    			private void searchMoves() {
+    				for (int i = next.getAndIncrement(); i < moves.length; i = next.getAndIncrement()) {
+    					PlayerMove move = searcher.toPlayerMove(rootMoves.get(i));
+    					double best = maximizing ? -Double.MAX_VALUE : Double.MAX_VALUE;
+    					
+    					synchronized (evals) {
+    						for (int j = 0; j < i; j++) {
+    							if (!searched[j]) continue;
+    							best = maximizing ? Math.max(best, evals[j]) : Math.min(best, evals[j]);
+    						}
+    					}
+    					
+    					double eval = searcher.searchRootMove(rootMoves.get(i), depth - 1, 
+    														  best, min, max, maximizing);
+    					
+    					synchronized (evals) {
+    						moves[i] = move;
+    						evals[i] = eval;
+    						searched[i] = true;
+    					}
+    				}
+    			}
+    		});
     	}
     	
-    	// Release from memory all the node that will never used again.
-    	// It essentially leaves the tree only with root node and its
-    	// children, and they also got their board states removed, but
-    	// it makes ram consumption to scale linear with depth instead
-    	// of exponentially.
-    	n.setNodeBoard(null);
-    	if (depth < MINIMAX_DEPTH - 1) n.setChildren(null);
-    	
-    	return n.getNodeEvaluation();
+    	for (Future<Void> result : pool.invokeAll(tasks)) {
+    		try {
+    			result.get();
+    		} catch (InterruptedException e) {
+    			Thread.currentThread().interrupt();
+    			throw new SearchTimeoutRuntimeException();
+    		} catch (ExecutionException e) {
+    			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+    			throw new RuntimeException(e.getCause());
+    		}
+    	}
+    }
+    
+    /**
+     * Checks whether the value of the given entry can be used in place of
+     * searching its state, under a move of the given evaluation. Exact 
+     * values can always be used. Bounds can only be used when they would
+     * cause the same cutoff as searching the state would.
+     */
+    private static boolean isUsable(TranspositionTable.Entry entry, double evaluation,
+    								double min, double max)
+    {
+    	switch (entry.getBound()) {
+    	case TranspositionTable.EXACT: return true;
+    	case TranspositionTable.LOWER_BOUND: return evaluation + entry.getValue() >= max;
+    	case TranspositionTable.UPPER_BOUND: return evaluation + entry.getValue() <= min;
+    	default: return false;
+    	}
     }
+    
+    /**
+     * Checks whether the value of the given entry of PVS can be used in
+     * place of searching its state, with the given window of the state.
+     */
+    private static boolean isUsable(TranspositionTable.Entry entry, double alpha, double beta) {
+    	switch (entry.getBound()) {
+    	case TranspositionTable.EXACT: return true;
+    	case TranspositionTable.LOWER_BOUND: return entry.getValue() >= beta;
+    	case TranspositionTable.UPPER_BOUND: return entry.getValue() <= alpha;
+    	default: return false;
+    	}
+    }
+    
        
     /**
      * Find the move that lead to the highest evaluated branch
@@ -263,4 +1709,724 @@ public class MinMaxPlayer implements AbstractPlayer {
     	if (remainingDepth <= 1) return 20.0;
     	else return 12.0;
     }    
-}
\ No newline at end of file
+    
+    
+//==== Private Inner Classes ====
+    
+    /**
+     * Searcher keeps everything a single thread needs for searching, i.e.
+     * its own copy of the board, where moves are made and unmade, along
+     * with the simulator, the move generator, the undo records and the move
+     * orderer used on it.
+     * The transposition table and the Zobrist keys of the player are shared
+     * among all searchers.
+     */
+    private class Searcher {
+    	
+    	private final HeadlessBoard board;
+    	
+    	private final MoveSimulator simulator;
+    	
+    	private final MoveGenerator generator;
+    	
+    	/**
+    	 * The records needed for unmaking the moves, one for every depth.
+    	 */
+    	private final UndoRecord[] undoStack;
+    	
+    	/**
+    	 * The lists the available moves of the searched states are kept
+    	 * into, one for every depth.
+    	 */
+    	private final IntMoveList[] moveStack;
+    	
+    	/**
+    	 * The undo records and the lists of moves of quiescence, one 
+    	 * for every ply past the leaf.
+    	 */
+    	private final UndoRecord[] quiescenceUndoStack;
+    	private final IntMoveList[] quiescenceMoveStack;
+    	
+    	/**
+    	 * Pre-scores of the moves of quiescence being sorted.
+    	 */
+    	private int[] moveScores = new int[64];
+    	
+    	/**
+    	 * The moves the quiescence search of the current leaf may still evaluate.
+    	 */
+    	private int quiescenceLeft;
+    	
+    	private final MoveOrderer orderer;
+    	
+    	/**
+    	 * Reused for every heuristic evaluation of a move.
+    	 */
+    	private final MoveContext context;
+    	
+    	/**
+    	 * Evaluates the moves, sampling them for Flight Recorder.
+    	 */
+    	private final EvaluationSampler<MoveContext> sampler;
+    	
+    	/**
+    	 * Reused for every probe of the transposition table.
+    	 */
+    	private final TranspositionTable.Entry entry;
+    	
+    	/**
+    	 * Set when the current iteration has left unexplored states under
+    	 * its leaves, thus a deeper iteration may reach further states.
+    	 */
+    	private boolean horizonReached;
+    	
+    	/**
+    	 * Statistics of the current move, or null when they are not collected.
+    	 */
+    	private SearchStats stats;
+    	
+    	/**
+    	 * Create a new Searcher for boards of the dimensions of given one.
+    	 */
+    	private Searcher(HeadlessBoard rootBoard) {
+    		board = new HeadlessBoard(rootBoard);
+    		simulator = new MoveSimulator(board.getCols(), board.getPRows());
+    		generator = new MoveGenerator(board.getCols(), board.getPRows());
+    		
+    		undoStack = new UndoRecord[MAX_SEARCH_DEPTH + 1];
+    		for (int i = 0; i < undoStack.length; i++) {
+    			undoStack[i] = new UndoRecord(board.getCols());
+    		}
+    		
+    		moveStack = new IntMoveList[MAX_SEARCH_DEPTH + 1];
+    		for (int i = 0; i < moveStack.length; i++) moveStack[i] = new IntMoveList();
+    		
+    		quiescenceUndoStack = new UndoRecord[MAX_QUIESCENCE_PLIES + 1];
+    		for (int i = 0; i < quiescenceUndoStack.length; i++) {
+    			quiescenceUndoStack[i] = new UndoRecord(board.getCols());
+    		}
+    		
+    		quiescenceMoveStack = new IntMoveList[MAX_QUIESCENCE_PLIES];
+    		for (int i = 0; i < quiescenceMoveStack.length; i++) {
+    			quiescenceMoveStack[i] = new IntMoveList();
+    		}
+    		
+    		orderer = new MoveOrderer(board.getCols(), board.getPRows(), MAX_SEARCH_DEPTH);
+    		context = new MoveContext();
+    		sampler = Node.createEvaluationSampler();
+    		entry = new TranspositionTable.Entry();
+    	}
+    	
+    	/**
+    	 * Prepares the searcher for searching a new move on the given board.
+    	 * The consumed base of the transposition table should have been set.
+    	 * 
+    	 * @param collecting True if statistics of the move should be collected.
+    	 */
+    	private void reset(HeadlessBoard rootBoard, boolean collecting) {
+    		board.copyFrom(rootBoard);
+    		simulator.startHashing(board, zobrist, consumedBase);
+    		orderer.newSearch();
+    		
+    		if (!collecting) stats = null;
+    		else if (stats == null) stats = new SearchStats();
+    		else stats.reset();
+    	}
+    	
+    	/**
+    	 * Evaluates the state the given move leads to, by searching the
+    	 * states under it until the given depth. It works exactly like
+    	 * createMinimaxTree() does for a child node with the given move, 
+    	 * but without creating the node.
+    	 * 
+    	 * The move is evaluated on the current state of the board of the
+    	 * searcher, then it is made on it and finally, after its children have been
+    	 * searched, unmade. So, the board is left unchanged.
+    	 * 
+    	 * @param move The move which leads to the state to be evaluated,
+    	 * 			   encoded by PackedMove.
+    	 * @param depth The depth to which the states under the move will be
+    	 * 				searched.
+    	 * @param min The minimum evaluation value that is considered valid.
+    	 * @param max The maximum evaluation value that is considered valid.
+    	 * @param maximizing True for getting evaluation for player's perspective,
+    	 * 					 false for getting evaluation for enemy's perspective.
+    	 * @return The evaluation of the state the move leads to.
+    	 */
+    	private double searchMove(int move, int depth, double min,
+    							  double max, boolean maximizing)
+    	{
+    		// Find the evaluation of current move. Since the state it leads
+    		// to is checked for the opponent of the one who played the move,
+    		// the evaluation here is the opposite than maximizing.
+    		long start = 0;
+    		if (stats != null) {
+    			stats.addNode();
+    			start = System.nanoTime();
+    		}
+    		
+    		context.set(board, move);
+    		double h = sampler.evaluate(context);
+    		double evaluation = maximizing ? -h : h;
+    		
+    		if (stats != null) stats.addEvaluationTime(System.nanoTime() - start);
+    	
+    		// Leaves only carry the evaluation of the move that lead to them,
+    		// unless big moves are left on them.
+    		if (depth == 0) {
+    			if (stats != null) stats.addLeaf();
+    			horizonReached = true;
+    			
+    			if (quiescenceNodes == 0) return evaluation;
+    			
+    			double quiescence = quiesceLeaf(move);
+    			return maximizing ? evaluation + quiescence : evaluation - quiescence;
+    		}
+    	
+    		// Abort any iteration past the guaranteed ones, when out of time.
+    		if (iterationDepth > guaranteedDepth && System.nanoTime() > deadline) {
+    			throw new SearchTimeoutRuntimeException();
+    		}
+    	
+    		if (stats != null) start = System.nanoTime();
+    		
+    		UndoRecord undo = undoStack[depth];
+    		simulator.makeMove(board, PackedMove.getX(move), PackedMove.getY(move), 
+    						   PackedMove.getX2(move), PackedMove.getY2(move), undo);
+    		
+    		if (stats != null) stats.addSimulationTime(System.nanoTime() - start);
+    	
+    		// The value of a state does not include the evaluation of the move
+    		// that lead to it, so it is the same regardless the path it was 
+    		// reached through.
+    		long key = getKey(maximizing);
+    		int hashMove = TranspositionTable.NO_MOVE;
+    	
+    		boolean hit = table.probe(key, entry);
+    		if (stats != null) stats.addProbe(hit);
+    		
+    		if (hit) {
+    			if (entry.getDepth() == depth && isUsable(entry, evaluation, min, max)) {
+    				unmakeMove(undo);
+    				if (stats != null) stats.addTableCutoff();
+    			
+    				// The state may be a leaf or not, so consider it unexplored.
+    				horizonReached = true;
+    				return evaluation + entry.getValue();
+    			}
+    		
+    			hashMove = entry.getBestMove();
+    		}
+    	
+    		IntMoveList moves = moveStack[depth];
+    		generator.generate(board, moves);
+    	
+    		int ply = iterationDepth - depth;
+    		orderer.order(board, moves, ply, maximizing, hashMove);
+    		
+    		if (stats != null) {
+    			if (moves.size() == 0) stats.addLeaf();
+    			else stats.addExpanded(moves.size());
+    		}
+    	
+    		double value;
+    		int bound = TranspositionTable.EXACT;
+    		int bestMove = TranspositionTable.NO_MOVE;
+    	
+    		if (moves.size() == 0) {
+    			// If known available moves on the board have been 
+    			// depleted and no further search can be done, then
+    			// do a fixed evaluation for the future moves that
+    			// may exist on the actual board.
+    			value = maximizing ? doFixedEvaluation(depth) : -doFixedEvaluation(depth);
+    		
+    		} else if (maximizing) {
+    			double cMax = -Double.MAX_VALUE;
+    		
+    			for (int i = 0; i < moves.size(); i++) {
+    				int next = moves.get(i);
+    				double eval = searchMove(next, depth - 1, cMax, max, false);
+    			
+    				if (eval > cMax || bestMove == TranspositionTable.NO_MOVE) bestMove = next;
+    				cMax = Math.max(cMax, eval);
+    			
+    				if ((evaluation + eval) >= max) {
+    					cMax = eval;
+    					bound = TranspositionTable.LOWER_BOUND;
+    					orderer.recordCutoff(next, ply, depth, maximizing);
+    					if (stats != null) stats.addCutoff(ply);
+    					break;
+    				}
+    			}
+    		
+    			value = cMax;
+    		
+    		} else {
+    			double cMin = Double.MAX_VALUE;
+    		
+    			for (int i = 0; i < moves.size(); i++) {
+    				int next = moves.get(i);
+    				double eval = searchMove(next, depth - 1, cMin, max, true);
+    			
+    				if (eval < cMin || bestMove == TranspositionTable.NO_MOVE) bestMove = next;
+    				cMin = Math.min(cMin, eval);
+    			
+    				if ((evaluation + eval) <= min) {
+    					cMin = eval;
+    					bound = TranspositionTable.UPPER_BOUND;
+    					orderer.recordCutoff(next, ply, depth, maximizing);
+    					if (stats != null) stats.addCutoff(ply);
+    					break;
+    				}
+    			}
+    		
+    			value = cMin;
+    		}
+    	
+    		if (bestMove != TranspositionTable.NO_MOVE && bound == TranspositionTable.EXACT) {
+    			orderer.recordBest(bestMove, depth, maximizing);
+    		}
+    		table.store(key, depth, bound, value, bestMove);
+    	
+    		evaluation += value;
+    	
+    		unmakeMove(undo);
+    	
+    		return evaluation;
+    	}
+    	
+    	/**
+    	 * Get the key of the current state of the board of the searcher, as
+    	 * the simulator keeps it while moves are made and unmade, when 
+    	 * searched by the given side.
+    	 */
+    	private long getKey(boolean maximizing) {
+    		long key = simulator.getKey();
+    		
+    		return maximizing ? key ^ zobrist.getSideKey() : key;
+    	}
+    	
+    	/**
+    	 * Unmakes the move of the given record on the board of the searcher,
+    	 * timing it when statistics are collected.
+    	 */
+    	private void unmakeMove(UndoRecord undo) {
+    		if (stats == null) {
+    			simulator.unmakeMove(board, undo);
+    			return;
+    		}
+    		
+    		long start = System.nanoTime();
+    		simulator.unmakeMove(board, undo);
+    		stats.addSimulationTime(System.nanoTime() - start);
+    	}
+    
+    	/**
+    	 * Evaluates the state the given move of the root leads to, with the
+    	 * algorithm of the player.
+    	 * 
+    	 * @param move The move of the root, encoded by PackedMove.
+    	 * @param depth The depth to which the states under the move will be
+    	 * 				searched.
+    	 * @param best The best evaluation of the moves of the root searched
+    	 * 			   before this one.
+    	 * @param min The minimum evaluation value that is considered valid.
+    	 * @param max The maximum evaluation value that is considered valid.
+    	 * @param maximizing True when the root is checked from player's perspective.
+    	 * @return The evaluation of the state the move leads to. When the 
+    	 * 		   move is not better than best, it may be a bound of it, no
+    	 * 		   better than best. Outside min and max, it may be a bound
+    	 * 		   of the one it fails on.
+    	 */
+    	private double searchRootMove(int move, int depth, double best, double min, 
+    								  double max, boolean maximizing)
+    	{
+    		if (algorithm == ALPHA_BETA) {
+    			return searchMove(move, depth, maximizing ? Math.max(best, min) : best, max, !maximizing);
+    		}
+    		
+    		// PVS values are from the perspective of the player of the root.
+    		double sign = maximizing ? 1 : -1;
+    		double alpha = maximizing ? Math.max(best, min) : -Math.min(best, max);
+    		double beta = maximizing ? max : -min;
+    		
+    		if (sign * best == -Double.MAX_VALUE) {
+    			return sign * searchPvs(move, depth, alpha, beta, !maximizing);
+    		}
+    		
+    		// Only a move better than the best one would be picked, so moves
+    		// proven no better than it are never searched again.
+    		double value = searchPvs(move, depth, alpha, alpha + NULL_WINDOW, !maximizing);
+    		
+    		// Windows are shifted by evaluations on the way down, so a move
+    		// failing low may come back a few ulps above alpha. It is taken 
+    		// as no better than the best move, so it is never picked.
+    		if (value < alpha + NULL_WINDOW) return sign * Math.min(value, alpha);
+    		
+    		if (value < beta) {
+    			if (stats != null) stats.addResearch();
+    			value = searchPvs(move, depth, alpha, beta, !maximizing);
+    			
+    			if (value < alpha + NULL_WINDOW) value = Math.min(value, alpha);
+    		}
+    		
+    		return sign * value;
+    	}
+    	
+    	/**
+    	 * Evaluates the state the given move leads to by a fail-soft 
+    	 * Principal Variation Search in negamax form, until the given depth.
+    	 * 
+    	 * Values are taken from the perspective of the player of the move,
+    	 * i.e. the heuristic evaluation of the move minus the value of the
+    	 * state for the player to move on it. So, the value of the move 
+    	 * for the player of the root is the same as searchMove() finds, 
+    	 * negated for the moves of the opponent.
+    	 * 
+    	 * The value is exact when it lies inside the window. Otherwise it
+    	 * is an upper bound when no greater than alpha or a lower bound when
+    	 * no less than beta. A null window, of NULL_WINDOW width, only tells 
+    	 * whether the value is greater than alpha or not.
+    	 * 
+    	 * Like searchMove(), it leaves the board of the searcher unchanged.
+    	 * 
+    	 * @param move The move which leads to the state to be evaluated,
+    	 * 			   encoded by PackedMove.
+    	 * @param depth The depth to which the states under the move will be
+    	 * 				searched.
+    	 * @param alpha The value the player of the move is already assured of.
+    	 * @param beta The value the opponent of the player of the move is 
+    	 * 			   already assured of, from the perspective of the player.
+    	 * @param maximizing True when the player of the root is to move on the
+    	 * 					 state the move leads to.
+    	 * @return The value of the move for its player.
+    	 */
+    	private double searchPvs(int move, int depth, double alpha, double beta, boolean maximizing) {
+    		long start = 0;
+    		if (stats != null) {
+    			stats.addNode();
+    			start = System.nanoTime();
+    		}
+    		
+    		context.set(board, move);
+    		double h = sampler.evaluate(context);
+    		
+    		if (stats != null) stats.addEvaluationTime(System.nanoTime() - start);
+    		
+    		if (depth == 0) {
+    			if (stats != null) stats.addLeaf();
+    			horizonReached = true;
+    			
+    			return quiescenceNodes == 0 ? h : h - quiesceLeaf(move);
+    		}
+    		
+    		if (iterationDepth > guaranteedDepth && System.nanoTime() > deadline) {
+    			throw new SearchTimeoutRuntimeException();
+    		}
+    		
+    		if (stats != null) start = System.nanoTime();
+    		
+    		UndoRecord undo = undoStack[depth];
+    		simulator.makeMove(board, PackedMove.getX(move), PackedMove.getY(move), 
+    						   PackedMove.getX2(move), PackedMove.getY2(move), undo);
+    		
+    		if (stats != null) stats.addSimulationTime(System.nanoTime() - start);
+    		
+    		// The window of the state, for the player to move on it, shifted
+    		// by the evaluation of the move that lead to it. Rounding should
+    		// never close the window.
+    		double stateAlpha = h - beta;
+    		double stateBeta = Math.max(h - alpha, Math.nextUp(stateAlpha));
+    		
+    		long key = getKey(maximizing);
+    		int hashMove = TranspositionTable.NO_MOVE;
+    		
+    		boolean hit = table.probe(key, entry);
+    		if (stats != null) stats.addProbe(hit);
+    		
+    		if (hit) {
+    			if (entry.getDepth() == depth && isUsable(entry, stateAlpha, stateBeta)) {
+    				unmakeMove(undo);
+    				if (stats != null) stats.addTableCutoff();
+    				
+    				horizonReached = true;
+    				return h - entry.getValue();
+    			}
+    			
+    			hashMove = entry.getBestMove();
+    		}
+    		
+    		IntMoveList moves = moveStack[depth];
+    		generator.generate(board, moves);
+    		
+    		int ply = iterationDepth - depth;
+    		orderer.order(board, moves, ply, maximizing, hashMove);
+    		
+    		if (stats != null) {
+    			if (moves.size() == 0) stats.addLeaf();
+    			else stats.addExpanded(moves.size());
+    		}
+    		
+    		double value;
+    		int bound = TranspositionTable.EXACT;
+    		int bestMove = TranspositionTable.NO_MOVE;
+    		
+    		if (moves.size() == 0) {
+    			// Future moves of the actual board are assumed to be in favor
+    			// of the player to move.
+    			value = doFixedEvaluation(depth);
+    			
+    		} else {
+    			value = -Double.MAX_VALUE;
+    			double a = stateAlpha;
+    			
+    			for (int i = 0; i < moves.size(); i++) {
+    				int next = moves.get(i);
+    				double eval;
+    				
+    				if (i == 0) {
+    					eval = searchPvs(next, depth - 1, a, stateBeta, !maximizing);
+    				} else {
+    					eval = searchPvs(next, depth - 1, a, a + NULL_WINDOW, !maximizing);
+    					
+    					if (eval > a && eval < stateBeta) {
+    						if (stats != null) stats.addResearch();
+    						eval = searchPvs(next, depth - 1, a, stateBeta, !maximizing);
+    					}
+    				}
+    				
+    				if (eval > value || bestMove == TranspositionTable.NO_MOVE) bestMove = next;
+    				value = Math.max(value, eval);
+    				
+    				if (value >= stateBeta) {
+    					bound = TranspositionTable.LOWER_BOUND;
+    					orderer.recordCutoff(next, ply, depth, maximizing);
+    					if (stats != null) stats.addCutoff(ply);
+    					break;
+    				}
+    				
+    				a = Math.max(a, value);
+    			}
+    			
+    			if (value <= stateAlpha) bound = TranspositionTable.UPPER_BOUND;
+    		}
+    		
+    		if (bestMove != TranspositionTable.NO_MOVE && bound == TranspositionTable.EXACT) {
+    			orderer.recordBest(bestMove, depth, maximizing);
+    		}
+    		table.store(key, depth, bound, value, bestMove);
+    		
+    		unmakeMove(undo);
+    		
+    		return h - value;
+    	}
+    	
+    	/**
+    	 * Finds the value of the board the given move leads to, for the 
+    	 * player to move on it, by searching its big moves against its best
+    	 * quiet one, within the quiescence budget. The context of the 
+    	 * searcher should have been set to the move, on the board of the
+    	 * searcher.
+    	 * 
+    	 * @param move The move which leads to the leaf, encoded by PackedMove.
+    	 * @return The value of the leaf for the player to move on it, no 
+    	 * 		   less than 0.
+    	 */
+    	private double quiesceLeaf(int move) {
+    		
+    		// The context has already simulated the move, so quiet leaves 
+    		// are told without making it.
+    		IntMoveList moves = quiescenceMoveStack[0];
+    		int big = findQuiescenceMoves(context.getBoardAfterMove(), moves);
+    		
+    		if (big == 0 || big == moves.size()) return 0;
+    		
+    		long start = 0;
+    		if (stats != null) start = System.nanoTime();
+    		
+    		UndoRecord undo = quiescenceUndoStack[0];
+    		simulator.makeMove(board, PackedMove.getX(move), PackedMove.getY(move), 
+    						   PackedMove.getX2(move), PackedMove.getY2(move), undo);
+    		
+    		if (stats != null) stats.addSimulationTime(System.nanoTime() - start);
+    		
+    		quiescenceLeft = quiescenceNodes;
+    		double value = quiesceMoves(0, big);
+    		
+    		unmakeMove(undo);
+    		
+    		return value;
+    	}
+    	
+    	/**
+    	 * Finds the value of the state of the board of the searcher for the
+    	 * player to move on it, in negamax form, within the budget. 
+    	 * 
+    	 * Values are taken relative to the best quiet move of the state, as
+    	 * the horizon takes the value of every state to be the same. So, 
+    	 * quiet moves are only evaluated, while every big move is valued by
+    	 * how much its evaluation exceeds the one of the best quiet move, 
+    	 * minus the value of the state it leads to for the opponent. Like 
+    	 * searchMove(), it leaves the board of the searcher unchanged.
+    	 * 
+    	 * @param ply The ply of quiescence of the state, whose moves should
+    	 * 			  have been found already.
+    	 * @param big The number of big moves, which come first.
+    	 * @return The value of the best big move, or 0 if no big move is better
+    	 * 		   than the best quiet one or the budget runs out before the
+    	 * 		   quiet moves are evaluated.
+    	 */
+    	private double quiesceMoves(int ply, int big) {
+    		IntMoveList moves = quiescenceMoveStack[ply];
+    		UndoRecord undo = quiescenceUndoStack[ply + 1];
+    		
+    		double quiet = -Double.MAX_VALUE;
+    		
+    		for (int i = big; i < moves.size(); i++) {
+    			if (quiescenceLeft == 0) return 0;
+    			quiet = Math.max(quiet, evaluateQuiescenceMove(moves.get(i)));
+    		}
+    		
+    		double value = 0;
+    		
+    		for (int i = 0; i < big && quiescenceLeft > 0; i++) {
+    			int next = moves.get(i);
+    			double eval = evaluateQuiescenceMove(next) - quiet;
+    			
+    			// Values of states are never negative, so the move cannot 
+    			// be better than the best one so far.
+    			if (eval <= value) continue;
+    			
+    			if (ply + 1 < MAX_QUIESCENCE_PLIES && quiescenceLeft > 0) {
+    				IntMoveList replies = quiescenceMoveStack[ply + 1];
+    				int bigReplies = findQuiescenceMoves(context.getBoardAfterMove(), replies);
+    				
+    				if (bigReplies > 0 && bigReplies < replies.size()) {
+    					long start = 0;
+    					if (stats != null) start = System.nanoTime();
+    					
+    					simulator.makeMove(board, PackedMove.getX(next), PackedMove.getY(next), 
+    									   PackedMove.getX2(next), PackedMove.getY2(next), undo);
+    					
+    					if (stats != null) stats.addSimulationTime(System.nanoTime() - start);
+    					
+    					eval -= quiesceMoves(ply + 1, bigReplies);
+    					unmakeMove(undo);
+    				}
+    			}
+    			
+    			value = Math.max(value, eval);
+    		}
+    		
+    		return value;
+    	}
+    	
+    	/**
+    	 * Evaluates the given move on the board of the searcher, out of the
+    	 * quiescence budget, leaving the context set to it.
+    	 */
+    	private double evaluateQuiescenceMove(int move) {
+    		quiescenceLeft--;
+    		
+    		long start = 0;
+    		if (stats != null) {
+    			stats.addQuiescenceNode();
+    			start = System.nanoTime();
+    		}
+    		
+    		context.set(board, move);
+    		double h = sampler.evaluate(context);
+    		
+    		if (stats != null) stats.addEvaluationTime(System.nanoTime() - start);
+    		
+    		return h;
+    	}
+    	
+    	/**
+    	 * Finds the moves of the given board for quiescence, i.e. the big 
+    	 * ones first, in descending order of their pre-scores, and then the
+    	 * quiet ones. Moves of equal pre-scores are kept in the order of the
+    	 * generator, so the moves searched within the budget only depend on
+    	 * the board.
+    	 * 
+    	 * @param board The board whose moves should be found.
+    	 * @param moves The list the moves are put into, encoded by PackedMove.
+    	 * @return The number of big moves.
+    	 */
+    	private int findQuiescenceMoves(HeadlessBoard board, IntMoveList moves) {
+    		generator.generate(board, moves);
+    		
+    		int n = moves.size();
+    		if (n > moveScores.length) moveScores = new int[Math.max(n, 2 * moveScores.length)];
+    		
+    		int big = 0;
+    		
+    		// Insertion sort, where all quiet moves count as equal.
+    		for (int i = 0; i < n; i++) {
+    			int move = moves.get(i);
+    			int score = MoveOrderer.getPreScore(board, move);
+    			if (score < BIG_MOVE_SCORE) score = 0;
+    			else big++;
+    			
+    			int j = i - 1;
+    			
+    			while (j >= 0 && moveScores[j] < score) {
+    				moveScores[j + 1] = moveScores[j];
+    				moves.set(j + 1, moves.get(j));
+    				j--;
+    			}
+    			
+    			moveScores[j + 1] = score;
+    			moves.set(j + 1, move);
+    		}
+    		
+    		return big;
+    	}
+    	
+    	/**
+    	 * Converts a move encoded by PackedMove to a PlayerMove object with
+    	 * the tiles of the board of the searcher. Only moves of the root are
+    	 * converted, since only these are kept on the tree.
+    	 */
+    	private PlayerMove toPlayerMove(int move) {
+    		return new PlayerMove(
+    				board.giveTileAt(PackedMove.getX(move), PackedMove.getY(move)),
+    				board.giveTileAt(PackedMove.getX2(move), PackedMove.getY2(move))
+    		);
+    	}
+    }
+    
+    
+    /**
+     * The move pondering found for a board an expected reply of the 
+     * opponent leads to.
+     */
+    private static class PonderedMove {
+    	
+    	private final HeadlessBoard board;
+    	
+    	private final PlayerMove move;
+    	
+    	/**
+    	 * The depth of the deepest iteration completed for the board.
+    	 */
+    	private final int depth;
+    	
+    	private PonderedMove(HeadlessBoard board, PlayerMove move, int depth) {
+    		this.board = board;
+    		this.move = move;
+    		this.depth = depth;
+    	}
+    }
+    
+    
+//==== Exceptions defined in MinMaxPlayer ====
+    
+    /**
+     * An exception thrown for aborting a search iteration, when the time
+     * budget has run out.
+     */
+    private static class SearchTimeoutRuntimeException extends RuntimeException {
+    	private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,310 @@
+package gr.auth.ee.dsproject.crush.player;
+
+import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+import gr.auth.ee.dsproject.crush.util.MoveSimulator;
+import gr.auth.ee.dsproject.crush.util.PackedMove;
+
+
+/**
+ * MoveContext is the input reusable heuristics evaluate a move on, i.e.
+ * the board the move is going to be played on, the move itself and
+ * everything that playing the move on the board results to.
+ *
+ * Results are computed lazily, the first time any heuristic asks for
+ * them, and then kept until the context is set to another move. So, no
+ * matter how many heuristics evaluate a move, it is swapped and simulated
+ * at most once. Results provided are:
+ * -The board just after the two tiles have been swapped, before anything
+ *  crushes.
+ * -The tiles that crush directly because of the swap.
+ * -The board after the move and all the cascades it caused.
+ * -The number of cascade levels and the tiles removed on every one.
+ *
+ * Moves may be given either as PlayerMove objects or encoded by
+ * PackedMove. The PlayerMove of an encoded move is only created when
+ * getMove() is called, so searches that only pass encoded moves never
+ * create any.
+ *
+ * A MoveContext is meant to be created once and then set to every
+ * (board, move) pair to be evaluated. The boards and the simulator it
+ * uses are only allocated again when the dimensions of the board change,
+ * so evaluating a move through a MoveContext allocates no memory. Even
+ * then, only their playable areas are allocated, since they share the
+ * refill streams of the boards they are copied from.
+ *
+ * Boards and marks returned by a MoveContext are owned by it and should
+ * never be modified. A MoveContext is not thread safe, so every
+ * evaluating thread should use its own one.
+ *
+ * Public constructors defined in MoveContext:
+ * -public MoveContext()
+ * -public MoveContext(HeadlessBoard board, PlayerMove move)
+ *
+ * Public methods defined in MoveContext:
+ * -public void set(HeadlessBoard board, PlayerMove move) throws NullBoardRuntimeException
+ * -public void set(HeadlessBoard board, int move) throws NullBoardRuntimeException
+ * -public HeadlessBoard getBoard()
+ * -public PlayerMove getMove()
+ * -public int getX1()
+ * -public int getY1()
+ * -public int getX2()
+ * -public int getY2()
+ * -public HeadlessBoard getBoardAfterSwap()
+ * -public long[] getInitialCrushes()
+ * -public int getInitialCrushCount()
+ * -public HeadlessBoard getBoardAfterMove()
+ * -public int getLevels()
+ * -public int getRemovedOnLevel(int level)
+ * -public int getTotalRemoved()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.4
+ */
+public class MoveContext {
+
+// ==== Instance Variables ====
+
+	/**
+	 * The board the move is going to be played on. It is never modified.
+	 */
+	private HeadlessBoard board;
+
+	/**
+	 * The move as a PlayerMove. When the context is set to an encoded move,
+	 * it is only created the first time it is asked for.
+	 */
+	private PlayerMove move;
+
+	/**
+	 * Cords of the two tiles of the move, in the form of [x1, y1, x2, y2].
+	 */
+	private final int[] cords = new int[4];
+
+	/**
+	 * The board after the swap of the move, valid when swapped is set.
+	 */
+	private HeadlessBoard afterSwap;
+	private boolean swapped;
+
+	/**
+	 * Per column marks of the tiles that crush directly because of the 
+	 * swap, valid when crushesFound is set.
+	 */
+	private long[] initialCrushes;
+	private int initialCrushCount;
+	private boolean crushesFound;
+
+	/**
+	 * The board after the whole move, valid when simulated is set. Levels
+	 * and removed tiles of the simulation are kept by the simulator.
+	 */
+	private HeadlessBoard afterMove;
+	private MoveSimulator simulator;
+	private boolean simulated;
+
+
+// ==== Public Constructors ====
+
+	/**
+	 * Create a new empty MoveContext.
+	 */
+	public MoveContext() {}
+
+	/**
+	 * Create a new MoveContext for the given move on the given board.
+	 */
+	public MoveContext(HeadlessBoard board, PlayerMove move) {
+		set(board, move);
+	}
+
+
+// ==== Public Setters ====
+
+	/**
+	 * Sets the context to the given move on the given board. Any results
+	 * computed for the previous move are discarded.
+	 *
+	 * @param board The board the move is going to be played on.
+	 * @param move The move to be evaluated.
+	 * @throws NullBoardRuntimeException
+	 */
+	public void set(HeadlessBoard board, PlayerMove move)
+			throws BoardUtils.NullBoardRuntimeException
+	{
+		setBoard(board);
+
+		this.move = move;
+
+		cords[0] = move.getX1();
+		cords[1] = move.getY1();
+		cords[2] = move.getX2();
+		cords[3] = move.getY2();
+	}
+
+	/**
+	 * Sets the context to the given encoded move on the given board. Any
+	 * results computed for the previous move are discarded.
+	 *
+	 * @param board The board the move is going to be played on.
+	 * @param move The move to be evaluated, encoded by PackedMove.
+	 * @throws NullBoardRuntimeException
+	 */
+	public void set(HeadlessBoard board, int move)
+			throws BoardUtils.NullBoardRuntimeException
+	{
+		setBoard(board);
+
+		this.move = null;
+
+		cords[0] = PackedMove.getX(move);
+		cords[1] = PackedMove.getY(move);
+		cords[2] = PackedMove.getX2(move);
+		cords[3] = PackedMove.getY2(move);
+	}
+
+
+// ==== Public Getters ====
+
+	public HeadlessBoard getBoard() { return board; }
+
+	public PlayerMove getMove() {
+		if (move == null) {
+			move = new PlayerMove(board.giveTileAt(cords[0], cords[1]),
+								  board.giveTileAt(cords[2], cords[3]));
+		}
+
+		return move;
+	}
+
+	public int getX1() { return cords[0]; }
+
+	public int getY1() { return cords[1]; }
+
+	public int getX2() { return cords[2]; }
+
+	public int getY2() { return cords[3]; }
+
+
+// ==== Public Methods ====
+
+	/**
+	 * Get the board just after the two tiles of the move have been
+	 * swapped, before any tile has crushed.
+	 */
+	public HeadlessBoard getBoardAfterSwap() {
+		if (!swapped) {
+			afterSwap.copyFrom(board);
+			afterSwap.swap(cords[0], cords[1], cords[2], cords[3]);
+			swapped = true;
+		}
+
+		return afterSwap;
+	}
+
+	/**
+	 * Get the tiles that crush directly because of the swap of the move,
+	 * i.e. the ones that form a 3-or-more-in-a-row with any of its two
+	 * tiles, at their cords after the swap. They are marked per column,
+	 * as defined by BoardUtils.findMoveNPles().
+	 */
+	public long[] getInitialCrushes() {
+		findInitialCrushes();
+		return initialCrushes;
+	}
+
+	/**
+	 * Get the number of tiles that crush directly because of the swap.
+	 */
+	public int getInitialCrushCount() {
+		findInitialCrushes();
+		return initialCrushCount;
+	}
+
+	/**
+	 * Get the board after the move and all the cascades it caused.
+	 */
+	public HeadlessBoard getBoardAfterMove() {
+		simulate();
+		return afterMove;
+	}
+
+	/**
+	 * Get the number of crush steps the move caused. A move that crushes
+	 * nothing has 0 levels.
+	 */
+	public int getLevels() {
+		simulate();
+		return simulator.getLevels();
+	}
+
+	/**
+	 * Get the number of tiles removed on the given step of the move, where
+	 * 0 is the step caused directly by the swap.
+	 */
+	public int getRemovedOnLevel(int level) {
+		simulate();
+		return simulator.getRemovedOnLevel(level);
+	}
+
+	/**
+	 * Get the total number of tiles the move removes, directly and by
+	 * all the cascades it caused.
+	 */
+	public int getTotalRemoved() {
+		simulate();
+		return simulator.getTotalRemoved();
+	}
+
+
+// ==== Private Methods ====
+
+	/**
+	 * Sets the board of the context and discards any results computed for
+	 * the previous move. Buffers are only reallocated when the dimensions
+	 * of the board differ from the ones of the previous board.
+	 */
+	private void setBoard(HeadlessBoard board) throws BoardUtils.NullBoardRuntimeException {
+		if (board == null) throw new BoardUtils.NullBoardRuntimeException();
+
+		if (afterMove == null || afterMove.getCols() != board.getCols() ||
+			afterMove.getPRows() != board.getPRows() || afterMove.getRows() != board.getRows())
+		{
+			// Copies share the refill streams, which copyFrom() shares anyway.
+			afterSwap = new HeadlessBoard(board);
+			afterMove = new HeadlessBoard(board);
+			initialCrushes = new long[board.getCols()];
+			simulator = new MoveSimulator(board.getCols(), board.getPRows());
+		}
+
+		this.board = board;
+
+		swapped = false;
+		crushesFound = false;
+		simulated = false;
+	}
+
+	private void findInitialCrushes() {
+		if (!crushesFound) {
+			initialCrushCount = BoardUtils.findMoveNPles(getBoardAfterSwap(), cords, initialCrushes);
+			crushesFound = true;
+		}
+	}
+
+	private void simulate() {
+		if (!simulated) {
+			// Start from the swapped board when it is already there, so
+			// the swap is not done twice.
+			if (swapped) {
+				afterMove.copyFrom(afterSwap);
+			} else {
+				afterMove.copyFrom(board);
+				afterMove.swap(cords[0], cords[1], cords[2], cords[3]);
+			}
+
+			simulator.crushAll(afterMove);
+			simulated = true;
+		}
+	}
+}
@@ -2,6 +2,7 @@ package gr.auth.ee.dsproject.crush.player.move;
 
 import gr.auth.ee.dsproject.crush.board.CrushUtilities;
 import gr.auth.ee.dsproject.crush.board.Tile;
+import gr.auth.ee.dsproject.crush.util.PackedMove;
 
 
 /**
@@ -31,9 +32,10 @@ import gr.auth.ee.dsproject.crush.board.Tile;
  *  -public int getY2() throws EmptyMoveRuntimeException
  *  -public int[] toCordsArray() throws EmptyMoveRuntimeException
  *  -public int[] toDirArray() throws SameTilesRuntimeException, InvalidDirectionRuntimeException
+ *  -public int toPackedMove() throws SameTilesRuntimeException, InvalidDirectionRuntimeException
  *  
  * @author Dimitrios Karageorgiou
- * @version 1.1
+ * @version 1.2
  * 
  */
 public class PlayerMove {
@@ -290,6 +292,20 @@ public class PlayerMove {
 		return move;
 	}
 	
+	/**
+	 * A shortcut to get the move encoded into a single int, as defined
+	 * by PackedMove.
+	 * 
+	 * @return The encoded move.
+	 * @throws SameTilesRuntimeException
+	 * @throws InvalidDirectionRuntimeException
+	 */
+	public int toPackedMove() 
+			throws SameTilesRuntimeException, InvalidDirectionRuntimeException 
+	{
+		return PackedMove.fromDirArray(toDirArray());
+	}
+	
 	
 // Exceptions defined in PlayerMove
 	
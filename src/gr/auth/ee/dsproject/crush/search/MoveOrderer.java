@@ -0,0 +1,277 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import java.util.Arrays;
+
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+import gr.auth.ee.dsproject.crush.util.IntMoveList;
+import gr.auth.ee.dsproject.crush.util.PackedMove;
+
+
+/**
+ * MoveOrderer sorts the moves of a state before they are searched, so
+ * the ones most likely to be best are searched first and alpha-beta
+ * cutoffs happen as early as possible.
+ *
+ * Moves are ordered as follows:
+ * -The best move a previous search of the state found, if any.
+ * -The killer moves of the ply, i.e. the last two moves that caused a
+ *  cutoff on any state of the same ply.
+ * -All the rest, in descending order of their pre-score, and then of
+ *  their history score.
+ *
+ * The pre-score of a move is the number of tiles in the runs the swap
+ * creates through its two tiles, as found by looking only at their
+ * neighbours, without simulating the move. A tile that completes both a
+ * horizontal and a vertical run, as in L or T shapes, counts both runs.
+ * The history score of a move is increased every time it causes a cutoff
+ * or it is found to be the best move of a state, by the square of the
+ * depth it was searched to. History is kept separately for every side
+ * and indexed directly by the encoded move.
+ *
+ * Moves are passed encoded into a single int by PackedMove, so ordering
+ * allocates no memory. A MoveOrderer is not thread safe, so every
+ * searching thread should use its own one.
+ *
+ * Public constructors defined in MoveOrderer:
+ * -public MoveOrderer(int cols, int pRows, int maxPly)
+ *
+ * Public methods defined in MoveOrderer:
+ * -public static int getPreScore(HeadlessBoard board, int move)
+ * -public void order(HeadlessBoard board, IntMoveList moves, int ply,
+ * 		boolean side, int hashMove)
+ * -public void recordCutoff(int move, int ply, int depth, boolean side)
+ * -public void recordBest(int move, int depth, boolean side)
+ * -public int getHistoryScore(int move, boolean side)
+ * -public void newSearch()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.3
+ */
+public class MoveOrderer {
+
+//==== Private Constants ====
+
+	/**
+	 * Scores of moves that are searched before all the rest.
+	 */
+	private static final long HASH_MOVE_SCORE = Long.MAX_VALUE;
+	private static final long FIRST_KILLER_SCORE = Long.MAX_VALUE - 1;
+	private static final long SECOND_KILLER_SCORE = Long.MAX_VALUE - 2;
+
+
+//==== Private instance variables ====
+
+	/**
+	 * History scores. The score of a move of the minimizing side is kept
+	 * at its encoded value and the one of the maximizing at its encoded
+	 * value plus sideOffset.
+	 */
+	private final int[] history;
+
+	private final int sideOffset;
+
+	/**
+	 * Two killer moves for every ply. Killers of ply p are kept at indices
+	 * 2 * p and 2 * p + 1, where the first one is the most recent.
+	 */
+	private final int[] killers;
+
+	/**
+	 * Sort keys of the moves being ordered.
+	 */
+	private long[] scores;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new MoveOrderer for boards of given dimensions.
+	 *
+	 * @param cols The number of columns of the boards to be searched.
+	 * @param pRows The number of playable rows of the boards to be searched.
+	 * @param maxPly The maximum ply a search may reach.
+	 */
+	public MoveOrderer(int cols, int pRows, int maxPly) {
+		sideOffset = PackedMove.getTableSize(cols);
+		history = new int[2 * sideOffset];
+
+		killers = new int[2 * (maxPly + 1)];
+		Arrays.fill(killers, TranspositionTable.NO_MOVE);
+
+		scores = new long[64];
+	}
+
+
+//==== Public Static Methods ====
+
+	/**
+	 * Computes the pre-score of the given move on the given board, i.e.
+	 * the number of tiles in the 3-or-more-in-a-row runs that swapping its
+	 * two tiles creates through them. Cascades are not taken into account.
+	 *
+	 * @param board The board the move is going to be played on.
+	 * @param move The move encoded by PackedMove.
+	 * @return The pre-score of the move, or 0 if it creates no run.
+	 */
+	public static int getPreScore(HeadlessBoard board, int move) {
+		int x1 = PackedMove.getX(move);
+		int y1 = PackedMove.getY(move);
+		int x2 = PackedMove.getX2(move);
+		int y2 = PackedMove.getY2(move);
+
+		return runTiles(board, x1, y1, x2, y2, x2, y2, board.getColor(x1, y1)) +
+			   runTiles(board, x1, y1, x2, y2, x1, y1, board.getColor(x2, y2));
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Sorts in place the given moves of a state of the given ply, in the
+	 * order they should be searched. Moves of equal scores keep their
+	 * relative order.
+	 *
+	 * @param board The board the moves are going to be played on.
+	 * @param moves The available moves on the board, encoded by PackedMove.
+	 * @param ply The distance of the state from the root of the search.
+	 * @param side True for the maximizing side, false for the minimizing one.
+	 * @param hashMove The encoded best move of a previous search of the state,
+	 * 				   or TranspositionTable.NO_MOVE.
+	 */
+	public void order(HeadlessBoard board, IntMoveList moves, int ply,
+					  boolean side, int hashMove)
+	{
+		int n = moves.size();
+		if (n < 2) return;
+
+		if (n > scores.length) scores = new long[Math.max(n, scores.length * 2)];
+
+		int offset = side ? sideOffset : 0;
+
+		for (int i = 0; i < n; i++) {
+			int move = moves.get(i);
+
+			if (move == hashMove) scores[i] = HASH_MOVE_SCORE;
+			else if (move == killers[2 * ply]) scores[i] = FIRST_KILLER_SCORE;
+			else if (move == killers[2 * ply + 1]) scores[i] = SECOND_KILLER_SCORE;
+			else scores[i] = ((long) getPreScore(board, move) << 32) | history[offset + move];
+		}
+
+		// Insertion sort, since states have a few tens of moves at most.
+		for (int i = 1; i < n; i++) {
+			long score = scores[i];
+			int move = moves.get(i);
+			int j = i - 1;
+
+			while (j >= 0 && scores[j] < score) {
+				scores[j + 1] = scores[j];
+				moves.set(j + 1, moves.get(j));
+				j--;
+			}
+
+			scores[j + 1] = score;
+			moves.set(j + 1, move);
+		}
+	}
+
+	/**
+	 * Records that the given move caused a cutoff on a state of the
+	 * given ply, when searched to the given depth.
+	 *
+	 * @param move The move encoded by PackedMove.
+	 * @param ply The distance of the state from the root of the search.
+	 * @param depth The depth the move was searched to.
+	 * @param side The side that played the move.
+	 */
+	public void recordCutoff(int move, int ply, int depth, boolean side) {
+		if (killers[2 * ply] != move) {
+			killers[2 * ply + 1] = killers[2 * ply];
+			killers[2 * ply] = move;
+		}
+
+		recordBest(move, depth, side);
+	}
+
+	/**
+	 * Records that the given move was found to be the best one of a state,
+	 * when searched to the given depth.
+	 *
+	 * @param move The move encoded by PackedMove.
+	 * @param depth The depth the move was searched to.
+	 * @param side The side that played the move.
+	 */
+	public void recordBest(int move, int depth, boolean side) {
+		int i = (side ? sideOffset : 0) + move;
+
+		// Scores are kept positive, so they fit the lower half of sort keys.
+		history[i] = (int) Math.min(Integer.MAX_VALUE, (long) history[i] + depth * depth);
+	}
+
+	/**
+	 * Get the history score of the given move for the given side.
+	 */
+	public int getHistoryScore(int move, boolean side) {
+		return history[(side ? sideOffset : 0) + move];
+	}
+
+	/**
+	 * Prepares for the search of a new move. Killer moves are cleared, since
+	 * plies refer to a different root, and history scores are halved, so
+	 * recent results weigh more than older ones.
+	 */
+	public void newSearch() {
+		Arrays.fill(killers, TranspositionTable.NO_MOVE);
+
+		for (int i = 0; i < history.length; i++) history[i] >>>= 1;
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Computes the number of tiles in the runs of given color through tile
+	 * (x, y), after tiles (x1, y1) and (x2, y2) have been swapped. Runs
+	 * shorter than 3 are not counted, while tile (x, y) is counted once
+	 * when it belongs to both a horizontal and a vertical run.
+	 */
+	private static int runTiles(HeadlessBoard board, int x1, int y1, int x2, int y2,
+								 int x, int y, int color)
+	{
+		if (color < 0) return 0;
+
+		int horizontal = 1 + count(board, x1, y1, x2, y2, x, y, -1, 0, color) +
+							 count(board, x1, y1, x2, y2, x, y, 1, 0, color);
+		int vertical = 1 + count(board, x1, y1, x2, y2, x, y, 0, -1, color) +
+						   count(board, x1, y1, x2, y2, x, y, 0, 1, color);
+
+		if (horizontal < 3) horizontal = 0;
+		if (vertical < 3) vertical = 0;
+
+		if (horizontal > 0 && vertical > 0) return horizontal + vertical - 1;
+
+		return horizontal + vertical;
+	}
+
+	/**
+	 * Counts the consecutive tiles of given color next to (x, y), towards
+	 * (dx, dy), after tiles (x1, y1) and (x2, y2) have been swapped.
+	 */
+	private static int count(HeadlessBoard board, int x1, int y1, int x2, int y2,
+							 int x, int y, int dx, int dy, int color)
+	{
+		int n = 0;
+
+		for (x += dx, y += dy; board.isValidCords(x, y); x += dx, y += dy) {
+			int c;
+
+			if (x == x1 && y == y1) c = board.getColor(x2, y2);
+			else if (x == x2 && y == y2) c = board.getColor(x1, y1);
+			else c = board.getColor(x, y);
+
+			if (c != color) break;
+			n++;
+		}
+
+		return n;
+	}
+}
@@ -0,0 +1,85 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import gr.auth.ee.dsproject.crush.util.FlightEvent;
+
+
+/**
+ * SearchEvents defines the Java Flight Recorder events players emit for
+ * their moves, so a recording shows what the search was doing along with
+ * GC and CPU samples.
+ *
+ * -MoveDecision: One for every getNextMove() of a player, lasting as long
+ *  as the call, with the board, the depth searched, the move picked and
+ *  the nodes visited.
+ * -SearchIteration: One for every iteration of a search, lasting as long
+ *  as the iteration, with the depth, whether it was completed or aborted,
+ *  its best move and the nodes it visited.
+ *
+ * Boards are identified by their identity hash codes, so all the moves
+ * asked on the same board of a game share the same id.
+ *
+ * Constants defined in SearchEvents:
+ * -public static final FlightEvent MOVE
+ * -public static final FlightEvent ITERATION
+ *
+ * Public methods defined in SearchEvents:
+ * -public static int getBoardId(Object board)
+ * -public static String formatMove(int[] cordsMove)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public final class SearchEvents {
+
+//==== Public Constants ====
+
+	/**
+	 * Fields: player, boardId, depth, move, nodes.
+	 */
+	public static final FlightEvent MOVE = new FlightEvent(
+			"gr.auth.ee.dsproject.crush.MoveDecision", "Move Decision",
+			"A move asked from a player, from the call to the returned move")
+			.addField(String.class, "player", "Player")
+			.addField(int.class, "boardId", "Board Id")
+			.addField(int.class, "depth", "Depth")
+			.addField(String.class, "move", "Move")
+			.addField(long.class, "nodes", "Nodes")
+			.register();
+
+	/**
+	 * Fields: player, boardId, depth, completed, bestMove, nodes.
+	 */
+	public static final FlightEvent ITERATION = new FlightEvent(
+			"gr.auth.ee.dsproject.crush.SearchIteration", "Search Iteration",
+			"A search of the moves of a board to a single depth")
+			.addField(String.class, "player", "Player")
+			.addField(int.class, "boardId", "Board Id")
+			.addField(int.class, "depth", "Depth")
+			.addField(boolean.class, "completed", "Completed")
+			.addField(String.class, "bestMove", "Best Move")
+			.addField(long.class, "nodes", "Nodes")
+			.register();
+
+
+	private SearchEvents() {}
+
+
+//==== Public Static Methods ====
+
+	/**
+	 * Get the id events refer to the given board by.
+	 */
+	public static int getBoardId(Object board) {
+		return System.identityHashCode(board);
+	}
+
+	/**
+	 * Formats a move in the form of [x1, y1, x2, y2] int array, as
+	 * "(x1, y1) -> (x2, y2)", or "none" when it is null.
+	 */
+	public static String formatMove(int[] cordsMove) {
+		if (cordsMove == null) return "none";
+
+		return "(" + cordsMove[0] + ", " + cordsMove[1] + ") -> (" + cordsMove[2] + ", " + cordsMove[3] + ")";
+	}
+}
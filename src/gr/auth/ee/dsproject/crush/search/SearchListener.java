@@ -0,0 +1,27 @@
+package gr.auth.ee.dsproject.crush.search;
+
+
+/**
+ * SearchListener is notified of the statistics of every move a player
+ * searches for.
+ *
+ * A player only collects statistics while it has any listener, so
+ * searching costs nothing extra when no one listens.
+ *
+ * Public methods defined in SearchListener:
+ * -public void moveSearched(SearchStats stats)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public interface SearchListener {
+
+	/**
+	 * Called by the searching thread every time the search for a move has
+	 * been completed, before the move is returned.
+	 *
+	 * @param stats The statistics of the search of the move. A new object
+	 * 				is given for every move, so it may be kept.
+	 */
+	void moveSearched(SearchStats stats);
+}
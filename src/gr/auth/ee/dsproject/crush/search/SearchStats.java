@@ -0,0 +1,464 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+
+/**
+ * SearchStats keeps the statistics of the search of one or more moves.
+ *
+ * While a move is searched, every searching thread counts into its own
+ * SearchStats:
+ * -The nodes visited, i.e. the states the search reached, and the leaves,
+ *  i.e. the ones it evaluated without searching any deeper.
+ * -The expanded nodes and the moves generated on them, which define the
+ *  branching factor of the search.
+ * -The alpha-beta cutoffs of every ply, where ply 1 is the ply of the
+ *  children of the root.
+ * -The moves evaluated by quiescence searches past the leaves.
+ * -The moves searched again with a wider window, after a null window
+ *  search failed to prove them worse.
+ * -The probes of the transposition table, the ones that found an entry
+ *  and the ones whose entry was used in place of searching.
+ * -The time spent on heuristic evaluations and the time spent on making
+ *  and unmaking moves.
+ *
+ * When the search of the move is completed, the statistics of all the
+ * threads are added together and the move itself is recorded, i.e. the
+ * depth completed, the iterations, the total time, the bytes allocated
+ * and the garbage collections that happened while searching.
+ *
+ * Statistics of different moves can be added together as well, e.g. for
+ * all the moves of a game or of a tournament. Depths are then reported
+ * as their mean and maximum over all the moves.
+ *
+ * A SearchStats is not thread safe.
+ *
+ * Public constructors defined in SearchStats:
+ * -public SearchStats()
+ *
+ * Public methods defined in SearchStats:
+ * -public void addNode()
+ * -public void addLeaf()
+ * -public void addExpanded(int movesGenerated)
+ * -public void addCutoff(int ply)
+ * -public void addProbe(boolean hit)
+ * -public void addTableCutoff()
+ * -public void addQuiescenceNode()
+ * -public void addResearch()
+ * -public void addAspirationResearch()
+ * -public void addPonderHit()
+ * -public void addTableReuse()
+ * -public void addEvaluationTime(long nanos)
+ * -public void addSimulationTime(long nanos)
+ * -public void addAllocatedBytes(long bytes)
+ * -public void recordMove(int depth, int iterations, long elapsedNanos,
+ * 		long allocatedBytes, long gcCount, long gcMillis)
+ * -public void add(SearchStats stats)
+ * -public void reset()
+ * -public long getMoves()
+ * -public long getNodes()
+ * -public long getLeaves()
+ * -public long getExpandedNodes()
+ * -public long getMovesGenerated()
+ * -public double getBranchingFactor()
+ * -public long getCutoffs(int ply)
+ * -public long getCutoffs()
+ * -public int getMaxCutoffPly()
+ * -public long getTableProbes()
+ * -public long getTableHits()
+ * -public long getTableCutoffs()
+ * -public long getQuiescenceNodes()
+ * -public long getResearches()
+ * -public long getAspirationResearches()
+ * -public long getPonderHits()
+ * -public long getTableReuses()
+ * -public long getEvaluationNanos()
+ * -public long getSimulationNanos()
+ * -public long getElapsedNanos()
+ * -public long getAllocatedBytes()
+ * -public long getGcCount()
+ * -public long getGcMillis()
+ * -public long getIterations()
+ * -public double getMeanDepth()
+ * -public int getMaxDepth()
+ * -public double getNodesPerSecond()
+ * -public String toString()
+ * -public static long getThreadAllocatedBytes()
+ * -public static long getJvmGcCount()
+ * -public static long getJvmGcMillis()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.6
+ */
+public class SearchStats {
+
+//==== Private instance variables ====
+
+	private long moves;
+
+	private long nodes;
+
+	private long leaves;
+
+	private long expandedNodes;
+
+	private long movesGenerated;
+
+	/**
+	 * Cutoffs of every ply, indexed by the ply.
+	 */
+	private long[] cutoffs = new long[8];
+
+	private long tableProbes;
+
+	private long tableHits;
+
+	private long tableCutoffs;
+
+	private long quiescenceNodes;
+
+	private long researches;
+
+	private long aspirationResearches;
+
+	private long ponderHits;
+
+	private long tableReuses;
+
+	private long evaluationNanos;
+
+	private long simulationNanos;
+
+	private long elapsedNanos;
+
+	private long allocatedBytes;
+
+	private long gcCount;
+
+	private long gcMillis;
+
+	private long iterations;
+
+	private long depthSum;
+
+	private int maxDepth;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new SearchStats with all statistics zeroed.
+	 */
+	public SearchStats() {}
+
+
+//==== Public Methods ====
+
+	public void addNode() { nodes++; }
+
+	public void addLeaf() { leaves++; }
+
+	/**
+	 * Counts a node whose moves were generated, in order to be searched.
+	 *
+	 * @param movesGenerated The number of moves available on the node.
+	 */
+	public void addExpanded(int movesGenerated) {
+		expandedNodes++;
+		this.movesGenerated += movesGenerated;
+	}
+
+	/**
+	 * Counts an alpha-beta cutoff on a node of the given ply.
+	 */
+	public void addCutoff(int ply) {
+		if (ply >= cutoffs.length) cutoffs = Arrays.copyOf(cutoffs, Math.max(ply + 1, 2 * cutoffs.length));
+
+		cutoffs[ply]++;
+	}
+
+	/**
+	 * Counts a probe of the transposition table.
+	 *
+	 * @param hit True if the probe found an entry for the state.
+	 */
+	public void addProbe(boolean hit) {
+		tableProbes++;
+		if (hit) tableHits++;
+	}
+
+	/**
+	 * Counts a state whose value was taken out of the transposition table,
+	 * in place of searching it.
+	 */
+	public void addTableCutoff() { tableCutoffs++; }
+
+	/**
+	 * Counts a move evaluated by the quiescence search of a leaf.
+	 */
+	public void addQuiescenceNode() { quiescenceNodes++; }
+
+	/**
+	 * Counts a move searched again, with a wider window.
+	 */
+	public void addResearch() { researches++; }
+
+	/**
+	 * Counts an iteration searched again, since the value of the root
+	 * fell outside its aspiration window.
+	 */
+	public void addAspirationResearch() { aspirationResearches++; }
+
+	/**
+	 * Counts a move whose board had already been searched while pondering.
+	 */
+	public void addPonderHit() { ponderHits++; }
+
+	/**
+	 * Counts a move whose board derived from the board of the previous
+	 * move, so its search started from the transposition table of that one.
+	 */
+	public void addTableReuse() { tableReuses++; }
+
+	public void addEvaluationTime(long nanos) { evaluationNanos += nanos; }
+
+	public void addSimulationTime(long nanos) { simulationNanos += nanos; }
+
+	/**
+	 * Adds bytes allocated by a searching thread, when they are known.
+	 */
+	public void addAllocatedBytes(long bytes) {
+		if (bytes > 0) allocatedBytes += bytes;
+	}
+
+	/**
+	 * Records that the search of a move has been completed.
+	 *
+	 * @param depth The depth of the deepest completed search.
+	 * @param iterations The number of iterations started.
+	 * @param elapsedNanos The time the search took.
+	 * @param allocatedBytes The bytes allocated by the thread of the search.
+	 * @param gcCount The number of garbage collections during the search.
+	 * @param gcMillis The time spent on garbage collections during the search.
+	 */
+	public void recordMove(int depth, int iterations, long elapsedNanos,
+						   long allocatedBytes, long gcCount, long gcMillis)
+	{
+		moves++;
+		depthSum += depth;
+		maxDepth = Math.max(maxDepth, depth);
+
+		this.iterations += iterations;
+		this.elapsedNanos += elapsedNanos;
+		this.gcCount += gcCount;
+		this.gcMillis += gcMillis;
+
+		addAllocatedBytes(allocatedBytes);
+	}
+
+	/**
+	 * Adds the given statistics to these ones.
+	 */
+	public void add(SearchStats stats) {
+		moves += stats.moves;
+		nodes += stats.nodes;
+		leaves += stats.leaves;
+		expandedNodes += stats.expandedNodes;
+		movesGenerated += stats.movesGenerated;
+
+		if (stats.cutoffs.length > cutoffs.length) cutoffs = Arrays.copyOf(cutoffs, stats.cutoffs.length);
+		for (int i = 0; i < stats.cutoffs.length; i++) cutoffs[i] += stats.cutoffs[i];
+
+		tableProbes += stats.tableProbes;
+		tableHits += stats.tableHits;
+		tableCutoffs += stats.tableCutoffs;
+		quiescenceNodes += stats.quiescenceNodes;
+		researches += stats.researches;
+		aspirationResearches += stats.aspirationResearches;
+		ponderHits += stats.ponderHits;
+		tableReuses += stats.tableReuses;
+		evaluationNanos += stats.evaluationNanos;
+		simulationNanos += stats.simulationNanos;
+		elapsedNanos += stats.elapsedNanos;
+		allocatedBytes += stats.allocatedBytes;
+		gcCount += stats.gcCount;
+		gcMillis += stats.gcMillis;
+		iterations += stats.iterations;
+		depthSum += stats.depthSum;
+		maxDepth = Math.max(maxDepth, stats.maxDepth);
+	}
+
+	/**
+	 * Zeroes all statistics.
+	 */
+	public void reset() {
+		moves = nodes = leaves = expandedNodes = movesGenerated = 0;
+		Arrays.fill(cutoffs, 0);
+		tableProbes = tableHits = tableCutoffs = researches = aspirationResearches = ponderHits = 0;
+		tableReuses = quiescenceNodes = 0;
+		evaluationNanos = simulationNanos = elapsedNanos = allocatedBytes = 0;
+		gcCount = gcMillis = iterations = depthSum = 0;
+		maxDepth = 0;
+	}
+
+	/**
+	 * Get the number of moves recorded.
+	 */
+	public long getMoves() { return moves; }
+
+	public long getNodes() { return nodes; }
+
+	public long getLeaves() { return leaves; }
+
+	public long getExpandedNodes() { return expandedNodes; }
+
+	public long getMovesGenerated() { return movesGenerated; }
+
+	/**
+	 * Get the mean number of moves available on the expanded nodes.
+	 */
+	public double getBranchingFactor() {
+		return expandedNodes == 0 ? 0 : (double) movesGenerated / expandedNodes;
+	}
+
+	public long getCutoffs(int ply) {
+		return ply < cutoffs.length ? cutoffs[ply] : 0;
+	}
+
+	/**
+	 * Get the cutoffs of all plies.
+	 */
+	public long getCutoffs() {
+		long total = 0;
+		for (long c : cutoffs) total += c;
+
+		return total;
+	}
+
+	/**
+	 * Get the deepest ply any cutoff happened on, or 0 if none happened.
+	 */
+	public int getMaxCutoffPly() {
+		for (int ply = cutoffs.length - 1; ply > 0; ply--) {
+			if (cutoffs[ply] != 0) return ply;
+		}
+
+		return 0;
+	}
+
+	public long getTableProbes() { return tableProbes; }
+
+	public long getTableHits() { return tableHits; }
+
+	public long getTableCutoffs() { return tableCutoffs; }
+
+	public long getQuiescenceNodes() { return quiescenceNodes; }
+
+	public long getResearches() { return researches; }
+
+	public long getAspirationResearches() { return aspirationResearches; }
+
+	public long getPonderHits() { return ponderHits; }
+
+	public long getTableReuses() { return tableReuses; }
+
+	public long getEvaluationNanos() { return evaluationNanos; }
+
+	public long getSimulationNanos() { return simulationNanos; }
+
+	public long getElapsedNanos() { return elapsedNanos; }
+
+	public long getAllocatedBytes() { return allocatedBytes; }
+
+	public long getGcCount() { return gcCount; }
+
+	public long getGcMillis() { return gcMillis; }
+
+	public long getIterations() { return iterations; }
+
+	/**
+	 * Get the mean depth completed over all the recorded moves.
+	 */
+	public double getMeanDepth() {
+		return moves == 0 ? 0 : (double) depthSum / moves;
+	}
+
+	/**
+	 * Get the greatest depth completed on any of the recorded moves.
+	 */
+	public int getMaxDepth() { return maxDepth; }
+
+	public double getNodesPerSecond() {
+		return elapsedNanos == 0 ? 0 : nodes / (elapsedNanos / 1e9);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder plies = new StringBuilder();
+
+		for (int ply = 1; ply <= getMaxCutoffPly(); ply++) {
+			if (ply > 1) plies.append('/');
+			plies.append(cutoffs[ply]);
+		}
+
+		return String.format(
+				"moves %d, depth %.1f (max %d), nodes %d (%.0f/s), leaves %d, branching %.1f, " +
+				"cutoffs %d [%s], tt %d/%d/%d, qnodes %d, researches %d/%d, ponder hits %d, tt reuses %d, " +
+				"eval %.1f ms, sim %.1f ms, total %.1f ms, " +
+				"alloc %d KB, gc %d (%d ms)",
+				moves, getMeanDepth(), maxDepth, nodes, getNodesPerSecond(), leaves,
+				getBranchingFactor(), getCutoffs(), plies, tableProbes, tableHits, tableCutoffs, quiescenceNodes,
+				researches, aspirationResearches, ponderHits, tableReuses, evaluationNanos / 1e6, simulationNanos / 1e6, elapsedNanos / 1e6,
+				allocatedBytes >> 10, gcCount, gcMillis);
+	}
+
+
+//==== Public Static Methods ====
+
+	/**
+	 * Get the bytes allocated so far by the current thread, or -1 if the
+	 * JVM cannot tell.
+	 */
+	public static long getThreadAllocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+
+			if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+				return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Get the number of garbage collections of the JVM so far.
+	 */
+	public static long getJvmGcCount() {
+		long count = 0;
+
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+
+		return count;
+	}
+
+	/**
+	 * Get the time spent on garbage collections of the JVM so far.
+	 */
+	public static long getJvmGcMillis() {
+		long millis = 0;
+
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += Math.max(0, gc.getCollectionTime());
+		}
+
+		return millis;
+	}
+}
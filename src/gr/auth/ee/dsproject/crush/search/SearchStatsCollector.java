@@ -0,0 +1,47 @@
+package gr.auth.ee.dsproject.crush.search;
+
+
+/**
+ * SearchStatsCollector is a SearchListener that aggregates the statistics
+ * of all the moves it is notified of, e.g. the moves of all the games of
+ * a tournament.
+ *
+ * It is thread safe, so a single collector may listen to players of
+ * games played concurrently.
+ *
+ * Public methods defined in SearchStatsCollector:
+ * -public void moveSearched(SearchStats stats)
+ * -public SearchStats getTotal()
+ * -public void clear()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class SearchStatsCollector implements SearchListener {
+
+//==== Private instance variables ====
+
+	private final SearchStats total = new SearchStats();
+
+
+//==== Public Methods ====
+
+	@Override
+	public synchronized void moveSearched(SearchStats stats) {
+		total.add(stats);
+	}
+
+	/**
+	 * Get a copy of the statistics of all the moves collected so far.
+	 */
+	public synchronized SearchStats getTotal() {
+		SearchStats copy = new SearchStats();
+		copy.add(total);
+
+		return copy;
+	}
+
+	public synchronized void clear() {
+		total.reset();
+	}
+}
@@ -0,0 +1,247 @@
+package gr.auth.ee.dsproject.crush.search;
+
+
+/**
+ * TranspositionTable keeps the results of already searched states, keyed
+ * by their Zobrist keys, so a state reached again through a different
+ * sequence of moves does not have to be searched again.
+ *
+ * Every entry keeps the depth a state was searched to, whether the value
+ * found is exact or only a bound, the value itself and the best move found
+ * for the state. The table has a fixed number of entries, laid out into
+ * three primitive arrays, so storing and probing never allocate memory.
+ *
+ * Entries are grouped in buckets of two. The first entry of every bucket
+ * is depth preferred, i.e. it is only replaced by results of equal or
+ * greater depth, or by newer results of the same state. The second entry
+ * is always replaced, so recent results are kept as well.
+ *
+ * The key word of every entry is stored XORed with its value and data
+ * words, so an entry written partially by a concurrent store never passes
+ * validation. Thus, a single table may be shared among searching threads
+ * without any locking.
+ *
+ * Constants defined in TranspositionTable:
+ * -public static final int EXACT = 0
+ * -public static final int LOWER_BOUND = 1
+ * -public static final int UPPER_BOUND = 2
+ * -public static final int NO_MOVE = -1
+ * -public static final int DEFAULT_SIZE_BITS = 18
+ *
+ * Public constructors defined in TranspositionTable:
+ * -public TranspositionTable()
+ * -public TranspositionTable(int sizeBits)
+ *
+ * Public methods defined in TranspositionTable:
+ * -public int getCapacity()
+ * -public boolean probe(long key, Entry entry)
+ * -public void store(long key, int depth, int bound, double value, int bestMove)
+ * -public void clear()
+ *
+ * Public inner classes defined in TranspositionTable:
+ * -public static class Entry
+ * -public static class InvalidSizeRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class TranspositionTable {
+
+//==== Public Constants ====
+
+	/**
+	 * Bound of an entry whose value is the exact value of the state.
+	 */
+	public static final int EXACT = 0;
+
+	/**
+	 * Bound of an entry whose value is lower than or equal to the exact one.
+	 */
+	public static final int LOWER_BOUND = 1;
+
+	/**
+	 * Bound of an entry whose value is greater than or equal to the exact one.
+	 */
+	public static final int UPPER_BOUND = 2;
+
+	/**
+	 * Best move of an entry of a state where no move was searched.
+	 */
+	public static final int NO_MOVE = -1;
+
+	/**
+	 * Default size of the table, as a power of two, i.e. 2^18 entries.
+	 */
+	public static final int DEFAULT_SIZE_BITS = 18;
+
+
+//==== Private Constants ====
+
+	/**
+	 * Set on the data word of every stored entry, so empty entries can be
+	 * told apart.
+	 */
+	private static final long VALID = 1L << 16;
+
+	private static final int MAX_DEPTH = 0xFF;
+
+
+//==== Private instance variables ====
+
+	/**
+	 * Keys of the entries, XORed with their values and data.
+	 */
+	private final long[] keys;
+
+	/**
+	 * Raw bits of the values of the entries.
+	 */
+	private final long[] values;
+
+	/**
+	 * Packed depth, bound and best move of the entries.
+	 */
+	private final long[] data;
+
+	private final int mask;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new empty TranspositionTable of DEFAULT_SIZE_BITS.
+	 */
+	public TranspositionTable() {
+		this(DEFAULT_SIZE_BITS);
+	}
+
+	/**
+	 * Create a new empty TranspositionTable of 2^sizeBits entries.
+	 *
+	 * @param sizeBits The size of the table, as a power of two. It should
+	 * 				   be between 1 and 30.
+	 * @throws InvalidSizeRuntimeException
+	 */
+	public TranspositionTable(int sizeBits) throws InvalidSizeRuntimeException {
+		if (sizeBits < 1 || sizeBits > 30) throw new InvalidSizeRuntimeException();
+
+		int capacity = 1 << sizeBits;
+
+		keys = new long[capacity];
+		values = new long[capacity];
+		data = new long[capacity];
+		mask = capacity - 1;
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get the number of entries the table can keep.
+	 */
+	public int getCapacity() { return keys.length; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Looks up the entry of the state with the given key.
+	 *
+	 * @param key The Zobrist key of the state.
+	 * @param entry The object the found entry is copied to. It is left
+	 * 				unchanged when no entry is found.
+	 * @return True if an entry for the given key was found, false otherwise.
+	 */
+	public boolean probe(long key, Entry entry) {
+		int bucket = (int) key & mask & ~1;
+
+		for (int i = bucket; i < bucket + 2; i++) {
+			long d = data[i];
+			long v = values[i];
+
+			if (d != 0 && (keys[i] ^ v ^ d) == key) {
+				entry.depth = (int) (d & MAX_DEPTH);
+				entry.bound = (int) (d >>> 8) & 0x3;
+				entry.value = Double.longBitsToDouble(v);
+				entry.bestMove = (int) (d >>> 32);
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Stores the result of searching the state with the given key,
+	 * replacing any entry according to the policy of the table.
+	 *
+	 * @param key The Zobrist key of the state.
+	 * @param depth The depth the state was searched to, up to 255.
+	 * @param bound One of EXACT, LOWER_BOUND or UPPER_BOUND.
+	 * @param value The value found for the state.
+	 * @param bestMove The best move found for the state, or NO_MOVE.
+	 */
+	public void store(long key, int depth, int bound, double value, int bestMove) {
+		int bucket = (int) key & mask & ~1;
+
+		long d = ((long) bestMove << 32) | VALID | ((long) bound << 8) | Math.min(depth, MAX_DEPTH);
+		long v = Double.doubleToRawLongBits(value);
+
+		// The depth preferred entry keeps its state, unless the new result
+		// is at least as deep or it refers to the same state.
+		long preferred = data[bucket];
+		int i = bucket + 1;
+
+		if (preferred == 0 || (keys[bucket] ^ values[bucket] ^ preferred) == key ||
+			depth >= (int) (preferred & MAX_DEPTH))
+		{
+			i = bucket;
+		}
+
+		data[i] = d;
+		values[i] = v;
+		keys[i] = key ^ v ^ d;
+	}
+
+	/**
+	 * Removes all the entries of the table.
+	 */
+	public void clear() {
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = 0;
+			values[i] = 0;
+			data[i] = 0;
+		}
+	}
+
+
+//==== Public Inner Classes ====
+
+	/**
+	 * Entry holds a copy of an entry of a TranspositionTable, as found by
+	 * probe(). It is meant to be reused for every probe a search does.
+	 */
+	public static class Entry {
+
+		private int depth;
+
+		private int bound;
+
+		private double value;
+
+		private int bestMove = NO_MOVE;
+
+		public int getDepth() { return depth; }
+
+		public int getBound() { return bound; }
+
+		public double getValue() { return value; }
+
+		public int getBestMove() { return bestMove; }
+	}
+
+	public static class InvalidSizeRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -0,0 +1,328 @@
+package gr.auth.ee.dsproject.crush.tournament;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.defplayers.AbstractPlayer;
+
+
+/**
+ * Game plays a single game between two players, by the rules of the
+ * platform, without any graphics or delays.
+ *
+ * The game is played in rounds, where every player plays one move. Each
+ * round the player that moves first is asked for its move first. A valid
+ * move is played on the board, and all the tiles it crushes, directly or
+ * by the cascades it causes, are added to the score of the player. An
+ * invalid move is skipped. The game ends as soon as a player reaches the
+ * score limit, or when the step limit of rounds has been played.
+ *
+ * All the colors of the board come out of a Random of the given seed, i.e.
+ * the initial board, the tiles that fall in when tiles are removed and
+ * the boards that replace the ones with no available moves left. So, two
+ * games of the same seed are played on the same boards, as long as the
+ * players play the same moves, and games of deterministic players are
+ * fully reproducible. No global state is shared among games either, so
+ * games may be played concurrently.
+ *
+ * The board is played through its package-private methods, the same
+ * ones the platform uses, invoked by reflection.
+ *
+ * Public constructors defined in Game:
+ * -public Game(AbstractPlayer first, AbstractPlayer second, long seed,
+ * 		int rows, int scoreLimit, int stepLimit)
+ *
+ * Public methods defined in Game:
+ * -public Board getBoard()
+ * -public GameResult play() throws GameRuntimeException
+ * -public static Board createBoard(Random random, int rows) throws GameRuntimeException
+ *
+ * Public inner classes defined in Game:
+ * -public static class GameRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public class Game {
+
+//==== Private Constants ====
+
+	private static final int NUMBER_OF_COLORS = 7;
+
+	/**
+	 * Package-private methods of Board the game is played through.
+	 */
+	private static final Method SET_TILE = boardMethod(
+			"setTile", int.class, int.class, int.class, int.class, boolean.class);
+	private static final Method CHECK_FOR_TRIPLES = boardMethod("checkForTriples");
+	private static final Method VALID_MOVE = boardMethod("validMove", int[].class, ArrayList.class);
+	private static final Method MOVE_TILE = boardMethod(
+			"moveTile", int.class, int.class, int.class, int.class);
+	private static final Method FIND_CREATED_NPLES = boardMethod("findCreatedNples");
+	private static final Method PAINT_MARKED_TILES = boardMethod("paintMarkedTiles", int.class);
+	private static final Method REMOVE_MARKED_TILES = boardMethod("removeMarkedTiles");
+
+
+//==== Private instance variables ====
+
+	/**
+	 * The players, in the order they move.
+	 */
+	private final AbstractPlayer[] players;
+
+	private final Random random;
+
+	private final int rows;
+
+	private final int scoreLimit;
+
+	private final int stepLimit;
+
+	private Board board;
+
+	/**
+	 * Times of the moves of every player, in nanoseconds.
+	 */
+	private final long[][] latencies = new long[2][64];
+	private final int[] moves = new int[2];
+
+	/**
+	 * Marked tiles of every column, before and after they are removed.
+	 */
+	private int[] markedBefore;
+	private int[] markedAfter;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new Game between the given players.
+	 *
+	 * @param first The player that moves first.
+	 * @param second The player that moves second.
+	 * @param seed The seed all the colors of the boards come out of.
+	 * @param rows The number of rows of the board, including the playable ones.
+	 * @param scoreLimit The score that ends the game, once a player reaches it.
+	 * @param stepLimit The maximum number of rounds to be played.
+	 */
+	public Game(AbstractPlayer first, AbstractPlayer second, long seed,
+				int rows, int scoreLimit, int stepLimit)
+	{
+		this.players = new AbstractPlayer[] { first, second };
+		this.random = new Random(seed);
+		this.rows = rows;
+		this.scoreLimit = scoreLimit;
+		this.stepLimit = stepLimit;
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get the board currently played on, or null if the game has not started.
+	 */
+	public Board getBoard() { return board; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Plays the game to its end. A Game should only be played once.
+	 *
+	 * @return The result of the game.
+	 * @throws GameRuntimeException when the board cannot be played through
+	 * 								reflection, or a player fails.
+	 */
+	public GameResult play() throws GameRuntimeException {
+		board = createBoard(random, rows);
+
+		markedBefore = new int[board.getCols()];
+		markedAfter = new int[board.getCols()];
+
+		int round = 0;
+		boolean limitReached = false;
+
+		while (round < stepLimit && !limitReached) {
+			round++;
+
+			for (int p = 0; p < 2 && !limitReached; p++) {
+				AbstractPlayer player = players[p];
+				ArrayList<int[]> availableMoves = findAvailableMoves();
+
+				long start = System.nanoTime();
+				int[] move = player.getNextMove(availableMoves, board);
+				addLatency(p, System.nanoTime() - start);
+
+				if (move != null && (Boolean) invoke(VALID_MOVE, move, availableMoves)) {
+					invoke(MOVE_TILE, move[0], move[1], move[2], move[3]);
+					player.setScore(player.getScore() + crushAll(player.getId()));
+				}
+
+				limitReached = player.getScore() >= scoreLimit;
+			}
+		}
+
+		return new GameResult(
+				new int[] { players[0].getScore(), players[1].getScore() },
+				new long[][] { Arrays.copyOf(latencies[0], moves[0]),
+							   Arrays.copyOf(latencies[1], moves[1]) },
+				round, limitReached
+		);
+	}
+
+
+//==== Public Static Methods ====
+
+	/**
+	 * Creates a new board of random colors, where no three tiles of the
+	 * same color are in a row, as the platform does.
+	 *
+	 * @param random The Random the colors of the board come out of.
+	 * @param rows The number of rows of the board, including the playable ones.
+	 * @return The new board.
+	 * @throws GameRuntimeException when the board cannot be set through
+	 * 								reflection.
+	 */
+	public static Board createBoard(Random random, int rows) throws GameRuntimeException {
+		Board board = new Board(rows);
+		int cols = board.getCols();
+
+		int[][] colors = new int[cols][rows];
+
+		// Tiles are appended to their columns, so they are set bottom-up.
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) {
+				int color;
+
+				do {
+					color = random.nextInt(NUMBER_OF_COLORS);
+				} while ((x >= 2 && colors[x - 1][y] == color && colors[x - 2][y] == color) ||
+						 (y >= 2 && colors[x][y - 1] == color && colors[x][y - 2] == color));
+
+				colors[x][y] = color;
+				invoke(board, SET_TILE, y * cols + x, x, y, color, false);
+			}
+		}
+
+		return board;
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Finds the available moves of the board. When there are none, the
+	 * board is replaced by a new one, until one with available moves is
+	 * created.
+	 */
+	@SuppressWarnings("unchecked")
+	private ArrayList<int[]> findAvailableMoves() {
+		ArrayList<int[]> availableMoves = (ArrayList<int[]>) invoke(CHECK_FOR_TRIPLES);
+
+		while (availableMoves.isEmpty()) {
+			board = createBoard(random, rows);
+			availableMoves = (ArrayList<int[]>) invoke(CHECK_FOR_TRIPLES);
+		}
+
+		return availableMoves;
+	}
+
+	/**
+	 * Crushes all the n-ples of the board, until no more are created, and
+	 * refills the columns out of the random of the game.
+	 *
+	 * @param id The id of the player that crushes the tiles.
+	 * @return The number of tiles crushed.
+	 */
+	private int crushAll(int id) {
+		int crushed = 0;
+
+		while (true) {
+			int n = (Integer) invoke(FIND_CREATED_NPLES);
+			if (n == 0) break;
+
+			crushed += n;
+
+			invoke(PAINT_MARKED_TILES, id);
+
+			countMarked(markedBefore);
+			invoke(REMOVE_MARKED_TILES);
+			countMarked(markedAfter);
+
+			// Removed tiles have been replaced on top of their columns by
+			// tiles of Math.random() colors, which are recolored here, so
+			// the game stays reproducible.
+			for (int x = 0; x < markedBefore.length; x++) {
+				int removed = markedBefore[x] - markedAfter[x];
+
+				for (int i = 0; i < removed; i++) {
+					board.giveTileAt(x, rows - removed + i).setColor(random.nextInt(NUMBER_OF_COLORS));
+				}
+			}
+		}
+
+		return crushed;
+	}
+
+	/**
+	 * Counts the marked tiles of the playable area of every column.
+	 */
+	private void countMarked(int[] marked) {
+		for (int x = 0; x < marked.length; x++) {
+			marked[x] = 0;
+
+			for (int y = 0; y < board.getPRows(); y++) {
+				if (board.giveTileAt(x, y).getMark()) marked[x]++;
+			}
+		}
+	}
+
+	private void addLatency(int player, long latency) {
+		if (moves[player] == latencies[player].length) {
+			latencies[player] = Arrays.copyOf(latencies[player], 2 * moves[player]);
+		}
+
+		latencies[player][moves[player]++] = latency;
+	}
+
+	private Object invoke(Method method, Object... args) {
+		return invoke(board, method, args);
+	}
+
+	private static Object invoke(Board board, Method method, Object... args) {
+		try {
+			return method.invoke(board, args);
+		} catch (InvocationTargetException e) {
+			throw new GameRuntimeException(e.getCause());
+		} catch (IllegalAccessException | IllegalArgumentException e) {
+			throw new GameRuntimeException(e);
+		}
+	}
+
+	private static Method boardMethod(String name, Class<?>... parameterTypes) {
+		try {
+			Method method = Board.class.getDeclaredMethod(name, parameterTypes);
+			method.setAccessible(true);
+
+			return method;
+
+		} catch (NoSuchMethodException | SecurityException e) {
+			throw new GameRuntimeException(e);
+		}
+	}
+
+
+//==== Public Inner Classes ====
+
+	public static class GameRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public GameRuntimeException(Throwable cause) {
+			super(cause);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package gr.auth.ee.dsproject.crush.tournament;
+
+import java.util.Arrays;
+
+
+/**
+ * GameResult keeps the outcome of a single game, as played by a Game.
+ *
+ * Players are referred to by the order they move in, i.e. 0 for the
+ * player that moves first and 1 for the other one. The time every player
+ * needed for every move it was asked for is kept as well, in nanoseconds.
+ *
+ * A GameResult is immutable.
+ *
+ * Constants defined in GameResult:
+ * -public static final int DRAW = -1
+ *
+ * Public constructors defined in GameResult:
+ * -public GameResult(int[] scores, long[][] latencies, int rounds, boolean scoreLimitReached)
+ *
+ * Public methods defined in GameResult:
+ * -public int getScore(int player)
+ * -public int getMargin()
+ * -public int getWinner()
+ * -public int getRounds()
+ * -public boolean isScoreLimitReached()
+ * -public int getMoves(int player)
+ * -public long getLatency(int player, int move)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class GameResult {
+
+//==== Public Constants ====
+
+	/**
+	 * Winner of a game both players finished with the same score.
+	 */
+	public static final int DRAW = -1;
+
+
+//==== Private instance variables ====
+
+	private final int[] scores;
+
+	/**
+	 * Time of every move of every player, in nanoseconds.
+	 */
+	private final long[][] latencies;
+
+	private final int rounds;
+
+	private final boolean scoreLimitReached;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new GameResult.
+	 *
+	 * @param scores The final scores of the two players.
+	 * @param latencies The times of the moves of the two players, in
+	 * 					nanoseconds.
+	 * @param rounds The number of rounds played, where every round is a
+	 * 				 move of each player.
+	 * @param scoreLimitReached True if the game ended because a player
+	 * 							reached the score limit.
+	 */
+	public GameResult(int[] scores, long[][] latencies, int rounds, boolean scoreLimitReached) {
+		this.scores = Arrays.copyOf(scores, 2);
+		this.latencies = new long[][] { latencies[0].clone(), latencies[1].clone() };
+		this.rounds = rounds;
+		this.scoreLimitReached = scoreLimitReached;
+	}
+
+
+//==== Public Getters ====
+
+	public int getScore(int player) { return scores[player]; }
+
+	/**
+	 * Get the score of the first player minus the score of the second one.
+	 */
+	public int getMargin() { return scores[0] - scores[1]; }
+
+	/**
+	 * Get the player with the higher score, or DRAW.
+	 */
+	public int getWinner() {
+		if (scores[0] == scores[1]) return DRAW;
+
+		return scores[0] > scores[1] ? 0 : 1;
+	}
+
+	public int getRounds() { return rounds; }
+
+	public boolean isScoreLimitReached() { return scoreLimitReached; }
+
+	/**
+	 * Get the number of moves the given player was asked for.
+	 */
+	public int getMoves(int player) { return latencies[player].length; }
+
+	/**
+	 * Get the time the given player needed for the given move, in nanoseconds.
+	 */
+	public long getLatency(int player, int move) { return latencies[player][move]; }
+}
@@ -0,0 +1,36 @@
+package gr.auth.ee.dsproject.crush.tournament;
+
+import gr.auth.ee.dsproject.crush.defplayers.AbstractPlayer;
+
+
+/**
+ * PlayerFactory creates the players of a tournament. A new player is
+ * created for every game, so no state of a player is carried from one
+ * game to another and games may be played concurrently.
+ *
+ * Implementations should be thread safe, since players of games played
+ * on different threads are created concurrently.
+ *
+ * Public methods defined in PlayerFactory:
+ * -public AbstractPlayer createPlayer(int id)
+ * -public String getName()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public interface PlayerFactory {
+
+	/**
+	 * Creates a new player with the given id.
+	 *
+	 * @param id The id of the player in the game, i.e. 1 for the player
+	 * 			 that moves first and 2 for the other one.
+	 * @return A new player, with a score of 0.
+	 */
+	AbstractPlayer createPlayer(int id);
+
+	/**
+	 * Get the name the players of the factory are reported by.
+	 */
+	String getName();
+}
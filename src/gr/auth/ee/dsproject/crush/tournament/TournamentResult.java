@@ -0,0 +1,253 @@
+package gr.auth.ee.dsproject.crush.tournament;
+
+import java.util.Arrays;
+
+
+/**
+ * TournamentResult aggregates the results of the games of a tournament
+ * between two players, A and B.
+ *
+ * It reports the wins of every player, the draws, the margins of the
+ * scores and percentiles of the time every player needed for its moves.
+ * Margins are always the score of A minus the score of B, no matter which
+ * one moved first in every game.
+ *
+ * Percentiles are computed by the nearest-rank method out of the times
+ * of all the moves of a player.
+ *
+ * A TournamentResult is not thread safe, so results of concurrently
+ * played games should be added by a single thread.
+ *
+ * Constants defined in TournamentResult:
+ * -public static final int PLAYER_A = 0
+ * -public static final int PLAYER_B = 1
+ *
+ * Public constructors defined in TournamentResult:
+ * -public TournamentResult(String nameA, String nameB)
+ *
+ * Public methods defined in TournamentResult:
+ * -public void add(GameResult result, boolean firstIsA)
+ * -public String getName(int player)
+ * -public int getGames()
+ * -public int getWins(int player)
+ * -public int getDraws()
+ * -public double getWinRate(int player)
+ * -public double getMeanScore(int player)
+ * -public double getMeanMargin()
+ * -public double getMeanAbsoluteMargin()
+ * -public double getMeanRounds()
+ * -public int getScoreLimitReached()
+ * -public int getMoves(int player)
+ * -public long getLatencyPercentile(int player, double percentile)
+ * -public long getMaxLatency(int player)
+ * -public String toString()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class TournamentResult {
+
+//==== Public Constants ====
+
+	public static final int PLAYER_A = 0;
+
+	public static final int PLAYER_B = 1;
+
+
+//==== Private instance variables ====
+
+	private final String[] names;
+
+	private int games;
+
+	private final int[] wins = new int[2];
+
+	private int draws;
+
+	private final long[] scoreSums = new long[2];
+
+	private long marginSum;
+
+	private long absoluteMarginSum;
+
+	private long roundSum;
+
+	private int scoreLimitReached;
+
+	/**
+	 * Times of all the moves of every player, in nanoseconds. They are
+	 * sorted only when a percentile is asked for.
+	 */
+	private final long[][] latencies = new long[][] { new long[256], new long[256] };
+	private final int[] moves = new int[2];
+	private final boolean[] sorted = new boolean[2];
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new empty TournamentResult.
+	 *
+	 * @param nameA The name player A is reported by.
+	 * @param nameB The name player B is reported by.
+	 */
+	public TournamentResult(String nameA, String nameB) {
+		names = new String[] { nameA, nameB };
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Adds the result of a game to the tournament.
+	 *
+	 * @param result The result of the game.
+	 * @param firstIsA True if player A moved first on the game, false if
+	 * 				   player B did.
+	 */
+	public void add(GameResult result, boolean firstIsA) {
+		int a = firstIsA ? 0 : 1;
+		int b = 1 - a;
+
+		games++;
+
+		int winner = result.getWinner();
+
+		if (winner == GameResult.DRAW) draws++;
+		else wins[winner == a ? PLAYER_A : PLAYER_B]++;
+
+		int margin = result.getScore(a) - result.getScore(b);
+
+		scoreSums[PLAYER_A] += result.getScore(a);
+		scoreSums[PLAYER_B] += result.getScore(b);
+		marginSum += margin;
+		absoluteMarginSum += Math.abs(margin);
+		roundSum += result.getRounds();
+
+		if (result.isScoreLimitReached()) scoreLimitReached++;
+
+		addLatencies(PLAYER_A, result, a);
+		addLatencies(PLAYER_B, result, b);
+	}
+
+	public String getName(int player) { return names[player]; }
+
+	public int getGames() { return games; }
+
+	public int getWins(int player) { return wins[player]; }
+
+	public int getDraws() { return draws; }
+
+	/**
+	 * Get the fraction of the games the given player won, or 0 if no game
+	 * has been added.
+	 */
+	public double getWinRate(int player) {
+		return games == 0 ? 0 : (double) wins[player] / games;
+	}
+
+	public double getMeanScore(int player) {
+		return games == 0 ? 0 : (double) scoreSums[player] / games;
+	}
+
+	/**
+	 * Get the mean of the score of A minus the score of B.
+	 */
+	public double getMeanMargin() {
+		return games == 0 ? 0 : (double) marginSum / games;
+	}
+
+	/**
+	 * Get the mean of the absolute difference of the scores of the players.
+	 */
+	public double getMeanAbsoluteMargin() {
+		return games == 0 ? 0 : (double) absoluteMarginSum / games;
+	}
+
+	public double getMeanRounds() {
+		return games == 0 ? 0 : (double) roundSum / games;
+	}
+
+	/**
+	 * Get the number of games that ended because a player reached the
+	 * score limit, instead of the step limit.
+	 */
+	public int getScoreLimitReached() { return scoreLimitReached; }
+
+	/**
+	 * Get the number of moves the given player was asked for, on all games.
+	 */
+	public int getMoves(int player) { return moves[player]; }
+
+	/**
+	 * Get the given percentile of the times of the moves of the given player.
+	 *
+	 * @param player PLAYER_A or PLAYER_B.
+	 * @param percentile The percentile, between 0 and 100.
+	 * @return The time in nanoseconds, or 0 if the player has played no move.
+	 */
+	public long getLatencyPercentile(int player, double percentile) {
+		int n = moves[player];
+		if (n == 0) return 0;
+
+		if (!sorted[player]) {
+			Arrays.sort(latencies[player], 0, n);
+			sorted[player] = true;
+		}
+
+		int rank = (int) Math.ceil(percentile / 100 * n);
+
+		return latencies[player][Math.min(n, Math.max(1, rank)) - 1];
+	}
+
+	public long getMaxLatency(int player) {
+		return getLatencyPercentile(player, 100);
+	}
+
+	/**
+	 * Get a human readable report of the tournament.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder();
+
+		report.append(String.format("Games: %d, draws: %d, ended by score limit: %d, mean rounds: %.1f%n",
+				games, draws, scoreLimitReached, getMeanRounds()));
+		report.append(String.format("Mean margin (A - B): %.2f, mean absolute margin: %.2f%n",
+				getMeanMargin(), getMeanAbsoluteMargin()));
+
+		for (int p = PLAYER_A; p <= PLAYER_B; p++) {
+			report.append(String.format(
+					"%s %s: wins %d (%.1f%%), mean score %.1f, moves %d, " +
+					"latency ms p50 %.3f / p90 %.3f / p99 %.3f / max %.3f%n",
+					p == PLAYER_A ? "A" : "B", names[p], wins[p], 100 * getWinRate(p),
+					getMeanScore(p), moves[p],
+					getLatencyPercentile(p, 50) / 1e6, getLatencyPercentile(p, 90) / 1e6,
+					getLatencyPercentile(p, 99) / 1e6, getMaxLatency(p) / 1e6));
+		}
+
+		return report.toString();
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Appends the times of the moves of the given player of a game to the
+	 * ones of the given player of the tournament.
+	 */
+	private void addLatencies(int player, GameResult result, int gamePlayer) {
+		int n = result.getMoves(gamePlayer);
+
+		if (moves[player] + n > latencies[player].length) {
+			latencies[player] = Arrays.copyOf(latencies[player],
+					Math.max(moves[player] + n, 2 * latencies[player].length));
+		}
+
+		for (int i = 0; i < n; i++) {
+			latencies[player][moves[player]++] = result.getLatency(gamePlayer, i);
+		}
+
+		sorted[player] = false;
+	}
+}
@@ -0,0 +1,371 @@
+package gr.auth.ee.dsproject.crush.tournament;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.defplayers.AbstractPlayer;
+
+
+/**
+ * TournamentRunner plays a number of games between two players, A and B,
+ * without any graphics, in parallel on a fixed pool of threads, and
+ * aggregates their results into a TournamentResult.
+ *
+ * Games are played in pairs on the same seed, where A moves first on the
+ * first game of the pair and B on the second one, so no player gets an
+ * advantage out of the boards or the order of moves. The seed of every
+ * pair derives from the seed of the tournament, so a tournament of
+ * deterministic players is fully reproducible, no matter how many threads
+ * it is played on.
+ *
+ * By default, games end at the scoreLimit and are played on boards of the
+ * numOfRows defined in boardConfig.properties, as games of the platform,
+ * and last at most CrushUtilities.STEP_LIMIT rounds.
+ *
+ * It can be run from the command line as:
+ * TournamentRunner playerA playerB [games] [seed] [threads]
+ * where players are given by the names of their classes. Classes of
+ * the player and defplayers packages may be given by their simple names,
+ * e.g. MinMaxPlayer, HeuristicPlayer or RandomPlayer.
+ *
+ * Constants defined in TournamentRunner:
+ * -public static final String SCORE_LIMIT_PROPERTY = "scoreLimit"
+ * -public static final String ROWS_PROPERTY = "numOfRows"
+ * -public static final int DEFAULT_GAMES = 100
+ *
+ * Public constructors defined in TournamentRunner:
+ * -public TournamentRunner(PlayerFactory playerA, PlayerFactory playerB)
+ *
+ * Public methods defined in TournamentRunner:
+ * -public int getScoreLimit()
+ * -public void setScoreLimit(int scoreLimit)
+ * -public int getStepLimit()
+ * -public void setStepLimit(int stepLimit)
+ * -public int getRows()
+ * -public void setRows(int rows)
+ * -public int getThreads()
+ * -public void setThreads(int threads)
+ * -public TournamentResult run(int games, long seed) throws GameRuntimeException
+ * -public static long getGameSeed(long seed, int game)
+ * -public static PlayerFactory createFactory(String className) throws InvalidPlayerRuntimeException
+ * -public static void main(String[] args)
+ *
+ * Public inner classes defined in TournamentRunner:
+ * -public static class InvalidPlayerRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class TournamentRunner {
+
+//==== Public Constants ====
+
+	/**
+	 * The property of boardConfig.properties which defines the score limit.
+	 */
+	public static final String SCORE_LIMIT_PROPERTY = "scoreLimit";
+
+	/**
+	 * The property of boardConfig.properties which defines the rows of boards.
+	 */
+	public static final String ROWS_PROPERTY = "numOfRows";
+
+	public static final int DEFAULT_GAMES = 100;
+
+
+//==== Private Constants ====
+
+	/**
+	 * Packages where classes of players given by their simple names are
+	 * looked up.
+	 */
+	private static final String[] PLAYER_PACKAGES = {
+		"gr.auth.ee.dsproject.crush.player.",
+		"gr.auth.ee.dsproject.crush.defplayers."
+	};
+
+
+//==== Private instance variables ====
+
+	private final PlayerFactory[] factories;
+
+	private int scoreLimit;
+
+	private int stepLimit;
+
+	private int rows;
+
+	private int threads;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new TournamentRunner between the players of the given
+	 * factories, with the limits of boardConfig.properties, that uses as
+	 * many threads as the available processors.
+	 */
+	public TournamentRunner(PlayerFactory playerA, PlayerFactory playerB) {
+		factories = new PlayerFactory[] { playerA, playerB };
+
+		scoreLimit = (int) readProperty(SCORE_LIMIT_PROPERTY, CrushUtilities.SCORE_LIMIT);
+		rows = (int) readProperty(ROWS_PROPERTY, CrushUtilities.NUMBER_OF_ROWS);
+		stepLimit = CrushUtilities.STEP_LIMIT;
+		threads = Runtime.getRuntime().availableProcessors();
+	}
+
+
+//==== Public Getters/Setters ====
+
+	public int getScoreLimit() { return scoreLimit; }
+
+	public void setScoreLimit(int scoreLimit) { this.scoreLimit = scoreLimit; }
+
+	public int getStepLimit() { return stepLimit; }
+
+	public void setStepLimit(int stepLimit) { this.stepLimit = stepLimit; }
+
+	public int getRows() { return rows; }
+
+	public void setRows(int rows) { this.rows = rows; }
+
+	public int getThreads() { return threads; }
+
+	public void setThreads(int threads) { this.threads = Math.max(1, threads); }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Plays the given number of games and aggregates their results.
+	 *
+	 * @param games The number of games to be played.
+	 * @param seed The seed of the tournament.
+	 * @return The aggregated results of all the games.
+	 * @throws GameRuntimeException when any game fails.
+	 */
+	public TournamentResult run(int games, long seed) throws Game.GameRuntimeException {
+		TournamentResult result = new TournamentResult(factories[0].getName(), factories[1].getName());
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, games)));
+		CompletionService<PlayedGame> completion = new ExecutorCompletionService<PlayedGame>(executor);
+
+		try {
+			for (int i = 0; i < games; i++) completion.submit(createGame(i, seed));
+
+			// Results are added by this thread only, as they complete.
+			for (int i = 0; i < games; i++) {
+				PlayedGame game = completion.take().get();
+				result.add(game.getResult(), game.firstIsA);
+			}
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new Game.GameRuntimeException(e);
+
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			throw new Game.GameRuntimeException(e.getCause());
+
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return result;
+	}
+
+
+//==== Public Static Methods ====
+
+	/**
+	 * Get the seed of the boards of the given game of a tournament of the
+	 * given seed. Both games of every pair get the same one.
+	 */
+	public static long getGameSeed(long seed, int game) {
+		// Golden ratio increments, mixed by the finalizer of SplitMix64.
+		long z = seed + (game / 2 + 1) * 0x9E3779B97F4A7C15L;
+
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Creates a factory of players of the given class, which should have
+	 * a public constructor that accepts the id of the player as an Integer,
+	 * like the platform requires.
+	 *
+	 * @param className The fully qualified name of the class, or its simple
+	 * 					name for classes of the player and defplayers packages.
+	 * @return A factory of players of the class.
+	 * @throws InvalidPlayerRuntimeException when no such player exists.
+	 */
+	public static PlayerFactory createFactory(String className)
+			throws InvalidPlayerRuntimeException
+	{
+		final Constructor<? extends AbstractPlayer> constructor = findConstructor(className);
+		final String name = constructor.getDeclaringClass().getSimpleName();
+
+		return new PlayerFactory() {
+			@Override
+			public AbstractPlayer createPlayer(int id) {
+				try {
+					return constructor.newInstance(Integer.valueOf(id));
+				} catch (InvocationTargetException e) {
+					throw new Game.GameRuntimeException(e.getCause());
+				} catch (InstantiationException | IllegalAccessException e) {
+					throw new Game.GameRuntimeException(e);
+				}
+			}
+
+			@Override
+			public String getName() { return name; }
+		};
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.out.println("Usage: TournamentRunner playerA playerB [games] [seed] [threads]");
+			return;
+		}
+
+		// Boards are Swing components, though they are never shown.
+		System.setProperty("java.awt.headless", "true");
+
+		TournamentRunner runner = new TournamentRunner(createFactory(args[0]), createFactory(args[1]));
+
+		int games = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_GAMES;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+		if (args.length > 4) runner.setThreads(Integer.parseInt(args[4]));
+
+		System.out.println(String.format(
+				"%s vs %s: %d games, seed %d, %d threads, score limit %d, step limit %d, %d rows",
+				args[0], args[1], games, seed, runner.getThreads(), runner.getScoreLimit(),
+				runner.getStepLimit(), runner.getRows()));
+
+		long start = System.nanoTime();
+		TournamentResult result = runner.run(games, seed);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.print(result);
+		System.out.println(String.format("Played in %.1f s (%.0f games per hour)",
+				seconds, games / seconds * 3600));
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Creates the task that plays the given game of the tournament.
+	 */
+	private PlayedGame createGame(int game, long seed) {
+		return new PlayedGame(getGameSeed(seed, game), game % 2 == 0);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Constructor<? extends AbstractPlayer> findConstructor(String className)
+			throws InvalidPlayerRuntimeException
+	{
+		Class<?> playerClass = null;
+
+		try {
+			playerClass = Class.forName(className);
+		} catch (ClassNotFoundException e) {
+			for (String playerPackage : PLAYER_PACKAGES) {
+				try {
+					playerClass = Class.forName(playerPackage + className);
+					break;
+				} catch (ClassNotFoundException e2) {}
+			}
+		}
+
+		if (playerClass == null || !AbstractPlayer.class.isAssignableFrom(playerClass)) {
+			throw new InvalidPlayerRuntimeException(className);
+		}
+
+		try {
+			return (Constructor<? extends AbstractPlayer>) playerClass.getConstructor(Integer.class);
+		} catch (NoSuchMethodException e) {
+			throw new InvalidPlayerRuntimeException(className);
+		}
+	}
+
+	/**
+	 * Reads the value of the given property out of boardConfig.properties.
+	 *
+	 * @param property The name of the property.
+	 * @param defaultValue The value returned when the property is not defined.
+	 * @return The value of the property, or defaultValue if it is not
+	 * 		   defined or it is not a number.
+	 */
+	private static long readProperty(String property, long defaultValue) {
+		Properties boardProperties = new Properties();
+
+		try (FileInputStream in = new FileInputStream("boardConfig.properties")) {
+			boardProperties.load(in);
+
+			String value = boardProperties.getProperty(property);
+
+			return value == null ? defaultValue : Long.parseLong(value.trim());
+
+		} catch (IOException | NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+
+//==== Private Inner Classes ====
+
+	/**
+	 * Plays a single game of the tournament, with new players, and keeps
+	 * which one of them moved first.
+	 */
+	private class PlayedGame implements Callable<PlayedGame> {
+
+		private final long seed;
+
+		private final boolean firstIsA;
+
+		private GameResult result;
+
+		PlayedGame(long seed, boolean firstIsA) {
+			this.seed = seed;
+			this.firstIsA = firstIsA;
+		}
+
+		GameResult getResult() { return result; }
+
+		@Override
+		public PlayedGame call() {
+			// Ids are given by the order of moves, as the platform does.
+			AbstractPlayer first = factories[firstIsA ? 0 : 1].createPlayer(1);
+			AbstractPlayer second = factories[firstIsA ? 1 : 0].createPlayer(2);
+
+			result = new Game(first, second, seed, rows, scoreLimit, stepLimit).play();
+
+			return this;
+		}
+	}
+
+
+//==== Public Inner Classes ====
+
+	public static class InvalidPlayerRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public InvalidPlayerRuntimeException(String className) {
+			super(className);
+		}
+	}
+}
@@ -0,0 +1,346 @@
+package gr.auth.ee.dsproject.crush.util;
+
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+
+
+/**
+ * BitBoard keeps the playable area of a board as one bit mask per color,
+ * in order to detect n-ples with a few shift and AND operations instead
+ * of scanning the board tile by tile.
+ *
+ * Masks are laid out column by column, starting from the bottom of every
+ * column. Every column occupies pRows + 1 bits, where the extra bit is a
+ * guard bit that is never set, so vertical shifts never carry tiles from
+ * one column to the next. Masks longer than 64 bits are split into
+ * consecutive longs, so a 10 x 10 board needs two longs per color.
+ *
+ * A 3-in-a-row of color c starts at bit i when bits i, i + d and i + 2d
+ * are all set in the mask of c, where d is 1 for vertical and pRows + 1
+ * for horizontal runs. So, (m & m >>> d & m >>> 2d) gives the starting
+ * bit of every 3-in-a-row and shifting it back by d and 2d gives all the
+ * tiles that crush, including the ones of longer runs.
+ *
+ * Tiles of UNKNOWN color are not kept in any mask, thus they never crush.
+ *
+ * A BitBoard is meant to be reused. Loading a new board into it and finding
+ * its n-ples does not allocate any memory. When only a few columns of the
+ * loaded board change, e.g. after a crush, they can be loaded again by
+ * loadColumn(), without loading the whole board.
+ *
+ * Constants defined in BitBoard:
+ * -public static final int NUMBER_OF_COLORS
+ *
+ * Public constructors defined in BitBoard:
+ * -public BitBoard(int cols, int pRows)
+ *
+ * Public methods defined in BitBoard:
+ * -public int getCols()
+ * -public int getPRows()
+ * -public int getNumberOfWords()
+ * -public long[] newMask()
+ * -public int getBitIndex(int x, int y)
+ * -public boolean isSet(long[] mask, int x, int y)
+ * -public void load(HeadlessBoard board) throws NullBoardRuntimeException
+ * -public void loadColumn(HeadlessBoard board, int x, int fromY)
+ * -public int findNPles(long[] crushMask)
+ * -public int findColumnNPles(long[] columnMarks)
+ * -public void toColumnMarks(long[] crushMask, long[] columnMarks)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public class BitBoard {
+
+//==== Public Constants ====
+
+	/**
+	 * The number of different candy colors that may exist on a board.
+	 */
+	public static final int NUMBER_OF_COLORS = CrushUtilities.CYAN + 1;
+
+
+//==== Private instance variables ====
+
+	private final int cols;
+
+	private final int pRows;
+
+	/**
+	 * Number of bits every column occupies, including its guard bit.
+	 */
+	private final int stride;
+
+	/**
+	 * Number of longs every mask consists of.
+	 */
+	private final int words;
+
+	/**
+	 * One mask per color. Mask of color c starts at index c * words.
+	 */
+	private final long[] colorMasks;
+
+	/**
+	 * Scratch buffers used during n-ples detection.
+	 */
+	private final long[] shifted1;
+	private final long[] shifted2;
+	private final long[] starts;
+	private final long[] crushMask;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new BitBoard for boards of given dimensions.
+	 *
+	 * @param cols The number of columns of the boards to be loaded.
+	 * @param pRows The number of playable rows of the boards to be loaded.
+	 * 				It should be lower than 64.
+	 */
+	public BitBoard(int cols, int pRows) {
+		this.cols = cols;
+		this.pRows = pRows;
+		this.stride = pRows + 1;
+		this.words = (cols * stride + 63) / 64;
+
+		colorMasks = new long[NUMBER_OF_COLORS * words];
+		shifted1 = new long[words];
+		shifted2 = new long[words];
+		starts = new long[words];
+		crushMask = new long[words];
+	}
+
+
+//==== Public Getters ====
+
+	public int getCols() { return cols; }
+
+	public int getPRows() { return pRows; }
+
+	/**
+	 * Get the number of longs every mask of this BitBoard consists of.
+	 */
+	public int getNumberOfWords() { return words; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Creates a new empty mask that fits this BitBoard.
+	 *
+	 * @return An array of getNumberOfWords() longs.
+	 */
+	public long[] newMask() { return new long[words]; }
+
+	/**
+	 * Returns the index of the bit that represents the tile at given cords.
+	 */
+	public int getBitIndex(int x, int y) { return x * stride + y; }
+
+	/**
+	 * Checks whether the tile at given cords is set on the given mask.
+	 *
+	 * @param mask A mask created for this BitBoard.
+	 * @param x x cord of the tile.
+	 * @param y y cord of the tile.
+	 * @return True if the tile is set, false otherwise.
+	 */
+	public boolean isSet(long[] mask, int x, int y) {
+		int i = getBitIndex(x, y);
+
+		return (mask[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * Loads the playable area of the given board into the color masks of
+	 * this BitBoard. Any previously loaded board is discarded.
+	 *
+	 * @param board The board to be loaded. It should be of the same
+	 * 				dimensions as the ones this BitBoard has been created for.
+	 * @throws NullBoardRuntimeException
+	 */
+	public void load(HeadlessBoard board) throws BoardUtils.NullBoardRuntimeException {
+		if (board == null) throw new BoardUtils.NullBoardRuntimeException();
+
+		for (int i = 0; i < colorMasks.length; i++) colorMasks[i] = 0;
+
+		for (int x = 0; x < cols; x++) {
+			int bit = x * stride;
+
+			for (int y = 0; y < pRows; y++, bit++) {
+				int color = board.getColor(x, y);
+
+				if (color >= 0 && color < NUMBER_OF_COLORS) {
+					colorMasks[color * words + (bit >>> 6)] |= 1L << bit;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads again the tiles of column x of the given board, from row fromY
+	 * up to the top of the playable area. The rest of the loaded board is 
+	 * kept as it is.
+	 *
+	 * @param board The board the column is loaded from. It should be the
+	 * 				board that was last loaded, after a change of the column.
+	 * @param x The column to be loaded.
+	 * @param fromY The lowest row of the column that has changed.
+	 */
+	public void loadColumn(HeadlessBoard board, int x, int fromY) {
+		int first = x * stride + fromY;
+		int last = x * stride + pRows;
+
+		// Clear the changed bits of every color, a word at a time.
+		for (int bit = first; bit < last; ) {
+			int w = bit >>> 6;
+			int end = Math.min(last, (w + 1) << 6);
+			long mask = (end - bit == 64 ? -1L : ((1L << (end - bit)) - 1)) << bit;
+
+			for (int c = 0; c < NUMBER_OF_COLORS; c++) colorMasks[c * words + w] &= ~mask;
+
+			bit = end;
+		}
+
+		for (int y = fromY, bit = first; y < pRows; y++, bit++) {
+			int color = board.getColor(x, y);
+
+			if (color >= 0 && color < NUMBER_OF_COLORS) {
+				colorMasks[color * words + (bit >>> 6)] |= 1L << bit;
+			}
+		}
+	}
+
+	/**
+	 * Finds all the tiles of the loaded board that participate in a
+	 * 3-or-more-in-a-row, either horizontally or vertically.
+	 *
+	 * @param crushMask A mask created for this BitBoard, where the tiles
+	 * 					that crush will be set. Any previous content is
+	 * 					cleared.
+	 * @return The number of tiles that crush.
+	 */
+	public int findNPles(long[] crushMask) {
+		for (int w = 0; w < words; w++) crushMask[w] = 0;
+
+		for (int c = 0; c < NUMBER_OF_COLORS; c++) {
+			int offset = c * words;
+
+			markRuns(offset, 1, crushMask);      // Vertical runs.
+			markRuns(offset, stride, crushMask); // Horizontal runs.
+		}
+
+		int found = 0;
+		for (int w = 0; w < words; w++) found += Long.bitCount(crushMask[w]);
+
+		return found;
+	}
+
+	/**
+	 * Finds all the tiles of the loaded board that participate in a
+	 * 3-or-more-in-a-row, in the same way findNPles(long[]) does, but
+	 * returns them as per column marks.
+	 *
+	 * @param columnMarks An array of at least getCols() longs, where bit y
+	 * 					  of columnMarks[x] is set when tile at (x, y) crushes.
+	 * @return The number of tiles that crush.
+	 */
+	public int findColumnNPles(long[] columnMarks) {
+		int found = findNPles(crushMask);
+		toColumnMarks(crushMask, columnMarks);
+
+		return found;
+	}
+
+	/**
+	 * Converts the given mask to per column marks, where bit y of
+	 * columnMarks[x] is set when tile at (x, y) is set on the mask.
+	 *
+	 * @param crushMask A mask created for this BitBoard.
+	 * @param columnMarks An array of at least getCols() longs to be filled.
+	 */
+	public void toColumnMarks(long[] crushMask, long[] columnMarks) {
+		long rowsMask = (1L << pRows) - 1;
+
+		for (int x = 0; x < cols; x++) {
+			int bit = x * stride;
+			int w = bit >>> 6;
+			int r = bit & 63;
+
+			long marks = crushMask[w] >>> r;
+			if (r != 0 && w + 1 < words) marks |= crushMask[w + 1] << (64 - r);
+
+			columnMarks[x] = marks & rowsMask;
+		}
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Marks on crushMask all the tiles of the color mask starting at offset,
+	 * that form 3-or-more-in-a-row runs along the given bit distance.
+	 */
+	private void markRuns(int offset, int distance, long[] crushMask) {
+		shiftRight(colorMasks, offset, distance, shifted1);
+		shiftRight(colorMasks, offset, 2 * distance, shifted2);
+
+		boolean any = false;
+		for (int w = 0; w < words; w++) {
+			starts[w] = colorMasks[offset + w] & shifted1[w] & shifted2[w];
+			any |= starts[w] != 0;
+		}
+		if (!any) return;
+
+		// Extend the starting bit of every run to the two bits that follow it.
+		shiftLeft(starts, 0, distance, shifted1);
+		shiftLeft(starts, 0, 2 * distance, shifted2);
+
+		for (int w = 0; w < words; w++) {
+			crushMask[w] |= starts[w] | shifted1[w] | shifted2[w];
+		}
+	}
+
+	/**
+	 * Shifts the mask starting at src[offset] to the right, i.e. towards
+	 * lower bit indices, by n bits and stores it into dest.
+	 */
+	private void shiftRight(long[] src, int offset, int n, long[] dest) {
+		int q = n >>> 6;
+		int r = n & 63;
+
+		for (int w = 0; w < words; w++) {
+			int i = w + q;
+			long v = 0;
+
+			if (i < words) {
+				v = src[offset + i] >>> r;
+				if (r != 0 && i + 1 < words) v |= src[offset + i + 1] << (64 - r);
+			}
+
+			dest[w] = v;
+		}
+	}
+
+	/**
+	 * Shifts the mask starting at src[offset] to the left, i.e. towards
+	 * higher bit indices, by n bits and stores it into dest.
+	 */
+	private void shiftLeft(long[] src, int offset, int n, long[] dest) {
+		int q = n >>> 6;
+		int r = n & 63;
+
+		for (int w = words - 1; w >= 0; w--) {
+			int i = w - q;
+			long v = 0;
+
+			if (i >= 0) {
+				v = src[offset + i] << r;
+				if (r != 0 && i - 1 >= 0) v |= src[offset + i - 1] >>> (64 - r);
+			}
+
+			dest[w] = v;
+		}
+	}
+}
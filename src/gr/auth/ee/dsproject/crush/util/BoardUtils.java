@@ -1,9 +1,8 @@
 package gr.auth.ee.dsproject.crush.util;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 import java.util.Comparator;
 
@@ -29,6 +28,27 @@ import gr.auth.ee.dsproject.crush.board.Tile;
  * 		throws NullBoardRuntimeException
  * -public static boolean isValidCords(int x, int y)
  * 
+ * Static public methods on HeadlessBoard objects defined in BoardUtils:
+ * 
+ * -public static int findAllNPles(HeadlessBoard board, long[] columnMarks)
+ * 		throws NullBoardRuntimeException
+ * -public static int findAllNPles(HeadlessBoard board, BitBoard bitBoard, long[] columnMarks)
+ * 		throws NullBoardRuntimeException
+ * -public static int findMoveNPles(HeadlessBoard board, int[] cordsMove, long[] columnMarks)
+ * 		throws NullBoardRuntimeException, NullMoveRuntimeException
+ * -public static ArrayList<int[]> getAvailableMoves(HeadlessBoard board)
+ * 		throws NullBoardRuntimeException
+ * -public static void getAvailableMoves(HeadlessBoard board, IntMoveList moves)
+ * 		throws NullBoardRuntimeException
+ * -public static boolean isAvailableMove(HeadlessBoard board, int x, int y, int direction)
+ * 		throws InvalidDirectionsRuntimeException
+ * -public static HeadlessBoard boardAfterFirstMove(HeadlessBoard board, int[] move)
+ * 		throws NullBoardRuntimeException, NullMoveRuntimeException
+ * -public static HeadlessBoard boardAfterFirstCrush(HeadlessBoard board, int[] move)
+ * 		throws NullBoardRuntimeException, NullMoveRuntimeException
+ * -public static HeadlessBoard boardAfterFullMove(HeadlessBoard board, int[] move)
+ * 		throws NullBoardRuntimeException, NullMoveRuntimeException
+ * 
  * Comparators defined in BoardUtils:
  * -public class TileFirstByYThenByX implements Comparator<Tile> 
  *  
@@ -39,7 +59,7 @@ import gr.auth.ee.dsproject.crush.board.Tile;
  * -public static class NullMoveRuntimeException extends RuntimeException
  * 
  * @author Dimitrios Karageorgiou
- * @version 0.3
+ * @version 0.7
  */
 public class BoardUtils {
 	
@@ -52,6 +72,12 @@ public class BoardUtils {
 	private static final int[] DIRECTIONS = { CrushUtilities.UP, CrushUtilities.DOWN,
 			  								  CrushUtilities.LEFT, CrushUtilities.RIGHT };
 	
+	/**
+	 * Value of the cells of the grid findTilesThatCrush() uses, where
+	 * no tile has been given.
+	 */
+	private static final int NO_TILE = -2;
+	
 	
 // ==== Public Methods ====
 	
@@ -114,20 +140,17 @@ public class BoardUtils {
 	{
 		if (board == null) throw new NullBoardRuntimeException();
 		
+		BitBoard bitBoard = new BitBoard(board.getCols(), board.getPRows());
+		bitBoard.load(HeadlessBoard.fromBoard(board, board.getPRows()));
+		
+		long[] crushMask = bitBoard.newMask();
+		bitBoard.findNPles(crushMask);
+		
 		Set<Tile> crushTiles = new HashSet<>();
 		
 		for (int y = 0; y < board.getPRows(); y++) {
-			for (int x = 0; x < board.getCols(); x++) {				
-				Tile t = board.giveTileAt(x, y);
-				
-				if (t.getColor() != -1) {
-					Set<Tile> adjacentTiles = BoardUtils.findAdjacentSameColorTiles(
-							board, t, Integer.MAX_VALUE
-					);
-					adjacentTiles.add(t);
-					
-					crushTiles.addAll(BoardUtils.findTilesThatCrush(adjacentTiles));
-				}
+			for (int x = 0; x < board.getCols(); x++) {
+				if (bitBoard.isSet(crushMask, x, y)) crushTiles.add(board.giveTileAt(x, y));
 			}
 		}
 		
@@ -225,16 +248,16 @@ public class BoardUtils {
 	 * adjacent same color tiles to the move's ones.
 	 * 
 	 * A tile crush, means this tile forms an at least 3-in-the-row
-	 * horizontally or vertically. Tiles that got a color value of -1,
-	 * are considered as tiles of unknown color, and are automatically
-	 * excluded from tiles that crush.
+	 * horizontally or vertically, with contiguous tiles of the given set.
+	 * Tiles that got a color value of -1, are considered as tiles of
+	 * unknown color, and are automatically excluded from tiles that crush.
 	 * 
-	 * The tile set given should only contain the same color tiles
-	 * adjacent to the two tiles a move consists of. That means
-	 * the set should contain at most two different color tiles.
-	 * If tiles that don't fit these criteria are given, the
-	 * return set may contain more tiles than the ones which
-	 * actually crush. 
+	 * The given tiles are laid on a primitive grid, as big as the smallest 
+	 * rectangle that contains them all, and every row and column of it is
+	 * walked once, measuring the length of every run of same color tiles.
+	 * Cells of the grid no given tile occupies break any run. Thus, any set
+	 * of tiles may be given, though normally it should contain the same
+	 * color tiles adjacent to the two tiles a move consists of.
 	 * 
 	 * If a null argument is provided for possibleAdjacentTiles parameter,
 	 * a NullTileRuntimeException is thrown. 
@@ -249,93 +272,38 @@ public class BoardUtils {
 	{
 		if (possibleAdjacentTiles == null) throw new NullTileRuntimeException();
 		
-		// NO TIME AND BORED = VERY BAD CODE! SHOULD BE SOMETIME FIXED!
-		
 		Set<Tile> crushTiles = new HashSet<>();
+		if (possibleAdjacentTiles.isEmpty()) return crushTiles;
 		
-		// Firstly, color value of tiles is used as key for outer map, thus categorized by color.
-		// Secondly, an ArrayList of maps is used as a value. This arrayList categorizes the
-		// tiles whether they form an at least 3-in-the-row horizontally or vertically.
-		// Thirdly, the maps inside the above array, uses sameX or sameY value, thus
-		// categorizes the tiles by the row/column in which they are.
-		// Finally, all these tiles all contained inside ArrayList objects.
-		// A tile may contained in more than one ArrayLists if it is used both in a
-		// vertical and in a horizontal row. Though final set container will
-		// take care of these duplicate entries.
-		Map<Integer, ArrayList<Map<Integer, ArrayList<Tile>>>> categorizedTiles = new HashMap<>();		
-		
-		for(Tile t : possibleAdjacentTiles) {
-			// Firstly get all the tiles of the same color.
-			ArrayList<Map<Integer, ArrayList<Tile>>> byColor;
-			
-			if (categorizedTiles.containsKey(t.getColor())) {
-				byColor = categorizedTiles.get(t.getColor());
-			} else {
-				byColor = new ArrayList<>();
-				byColor.add(null);
-				byColor.add(null);
-				categorizedTiles.put(t.getColor(), byColor);
-			}
-			
-			// Get all same color tiles that crush vertically (same Xs).
-			Map<Integer, ArrayList<Tile>> byVerticalCrush;
-			
-			if (byColor.get(0) != null) {
-				byVerticalCrush = byColor.get(0);
-			} else {
-				byVerticalCrush = new HashMap<>();
-				byColor.set(0, byVerticalCrush);
-			}
-			
-			// Get all same color tiles that crush horizontally (same Ys).
-			Map<Integer, ArrayList<Tile>> byHorizontalCrush;
-			
-			if (byColor.get(1) != null) {
-				byHorizontalCrush = byColor.get(1);
-			} else {
-				byHorizontalCrush = new HashMap<>();
-				byColor.set(1, byHorizontalCrush);
-			}
-			
-			// Get all tiles of same X.
-			ArrayList<Tile> byX;
-			
-			if (byVerticalCrush.containsKey(t.getX())) {
-				byX = byVerticalCrush.get(t.getX());
-			} else {
-				byX = new ArrayList<>();
-				byVerticalCrush.put(t.getX(), byX);
-			}
-			
-			// Get all tiles of same Y.
-			ArrayList<Tile> byY;
-			
-			if (byHorizontalCrush.containsKey(t.getY())) {
-				byY = byHorizontalCrush.get(t.getY());
-			} else {
-				byY = new ArrayList<>();
-				byHorizontalCrush.put(t.getY(), byY);
-			}
-			
-			// Finally, put every tile in its right group of X and Y.
-			byX.add(t);
-			byY.add(t);
+		// Find the smallest rectangle that contains all the tiles.
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+		
+		for (Tile t : possibleAdjacentTiles) {
+			minX = Math.min(minX, t.getX());
+			minY = Math.min(minY, t.getY());
+			maxX = Math.max(maxX, t.getX());
+			maxY = Math.max(maxY, t.getY());
 		}
 		
-		// Remove tiles of unknown color.
-		if (categorizedTiles.containsKey(-1)) categorizedTiles.remove(-1);
-		
-		// Finally iterate over the categories created before and if
-		// a category contains at least 3 tiles, then these tiles crush.
-		// So, add these tiles to crushTiles set.
-		for(Map.Entry<Integer, ArrayList<Map<Integer, ArrayList<Tile>>>> byColor : categorizedTiles.entrySet()) {			
-			for(Map<Integer, ArrayList<Tile>> byCrushAxis : byColor.getValue()) {
-				for(Map.Entry<Integer, ArrayList<Tile>> byAxisValue : byCrushAxis.entrySet()) {
-					if(byAxisValue.getValue().size() > 2) {
-						crushTiles.addAll(byAxisValue.getValue());
-					}
-				}
-			}
+		int width = maxX - minX + 1;
+		int height = maxY - minY + 1;
+		
+		// Lay the colors of the tiles on the grid, column by column.
+		int[] grid = new int[width * height];
+		Arrays.fill(grid, NO_TILE);
+		
+		for (Tile t : possibleAdjacentTiles) {
+			grid[(t.getX() - minX) * height + t.getY() - minY] = t.getColor();
+		}
+		
+		boolean[] crushes = new boolean[grid.length];
+		
+		for (int x = 0; x < width; x++) markRuns(grid, crushes, x * height, 1, height);
+		for (int y = 0; y < height; y++) markRuns(grid, crushes, y, height, width);
+		
+		for (Tile t : possibleAdjacentTiles) {
+			if (crushes[(t.getX() - minX) * height + t.getY() - minY]) crushTiles.add(t);
 		}
 		
 		return crushTiles;
@@ -383,6 +351,327 @@ public class BoardUtils {
 	}
 	
 	
+// ==== Public Methods on HeadlessBoard ====
+	
+	/**
+	 * Scan the playable area of the given board for existing 3-or-more-in-a-row
+	 * same color candies horizontally or vertically. Tiles of UNKNOWN color
+	 * never crush.
+	 * 
+	 * Found tiles are marked on columnMarks, which should contain one
+	 * long per column of the board. Bit y of columnMarks[x] is set when
+	 * tile at (x, y) crushes. Any previous marks are cleared.
+	 * 
+	 * If given board is a null reference, NullBoardRuntimeException is
+	 * thrown.
+	 * 
+	 * @param board The board to be searched for adjacent same color candies.
+	 * @param columnMarks The per column marks to be filled.
+	 * @return The number of tiles that crush.
+	 * @throws NullBoardRuntimeException
+	 */
+	public static int findAllNPles(HeadlessBoard board, long[] columnMarks) 
+			throws NullBoardRuntimeException
+	{
+		if (board == null) throw new NullBoardRuntimeException();
+		
+		return findAllNPles(board, new BitBoard(board.getCols(), board.getPRows()), columnMarks);
+	}
+	
+	/**
+	 * Scan the playable area of the given board for existing 3-or-more-in-a-row
+	 * same color candies, in the same way findAllNPles(HeadlessBoard, long[])
+	 * does, using the given BitBoard. 
+	 * 
+	 * Callers that scan many boards should keep a BitBoard and pass it
+	 * here, so no memory is allocated per scan.
+	 * 
+	 * @param board The board to be searched for adjacent same color candies.
+	 * @param bitBoard A BitBoard of the same dimensions as board.
+	 * @param columnMarks The per column marks to be filled.
+	 * @return The number of tiles that crush.
+	 * @throws NullBoardRuntimeException
+	 */
+	public static int findAllNPles(HeadlessBoard board, BitBoard bitBoard, long[] columnMarks)
+			throws NullBoardRuntimeException
+	{
+		bitBoard.load(board);
+		
+		return bitBoard.findColumnNPles(columnMarks);
+	}
+	
+	/**
+	 * Find the tiles that crush because of a move which has just been
+	 * played on the given board, i.e. the tiles that form an at least
+	 * 3-in-a-row with any of the two tiles of the move. Tiles of UNKNOWN
+	 * color never crush.
+	 * 
+	 * Found tiles are marked on columnMarks in the same way 
+	 * findAllNPles(HeadlessBoard, long[]) does. Any previous marks are
+	 * cleared.
+	 * 
+	 * @param board The board on which the move has already been played.
+	 * @param cordsMove The move in the form of [x1, y1, x2, y2] int array.
+	 * @param columnMarks The per column marks to be filled.
+	 * @return The number of tiles that crush.
+	 * @throws NullBoardRuntimeException
+	 * @throws NullMoveRuntimeException
+	 */
+	public static int findMoveNPles(HeadlessBoard board, int[] cordsMove, long[] columnMarks)
+			throws NullBoardRuntimeException, NullMoveRuntimeException
+	{
+		if (board == null) throw new NullBoardRuntimeException();
+		if (cordsMove == null) throw new NullMoveRuntimeException();
+		
+		for (int x = 0; x < board.getCols(); x++) columnMarks[x] = 0;
+		
+		markRunsThrough(board, cordsMove[0], cordsMove[1], columnMarks);
+		markRunsThrough(board, cordsMove[2], cordsMove[3], columnMarks);
+		
+		int found = 0;
+		for (int x = 0; x < board.getCols(); x++) found += Long.bitCount(columnMarks[x]);
+		
+		return found;
+	}
+	
+	/**
+	 * Finds all the available moves on the given board, i.e. the moves that
+	 * cause at least a 3-in-a-row to be formed. It works in the same way
+	 * CrushUtilities.getAvailableMoves() does, though tiles of UNKNOWN color
+	 * are never considered to form a 3-in-a-row.
+	 * 
+	 * @param board The board to be searched for available moves.
+	 * @return All available moves in the form of [x, y, direction] int arrays.
+	 * @throws NullBoardRuntimeException
+	 */
+	public static ArrayList<int[]> getAvailableMoves(HeadlessBoard board)
+			throws NullBoardRuntimeException
+	{
+		IntMoveList packed = new IntMoveList();
+		getAvailableMoves(board, packed);
+		
+		ArrayList<int[]> moves = new ArrayList<>(packed.size());
+		for (int i = 0; i < packed.size(); i++) moves.add(PackedMove.toDirArray(packed.get(i)));
+		
+		return moves;
+	}
+	
+	/**
+	 * Finds all the available moves on the given board, in the same order
+	 * getAvailableMoves(HeadlessBoard) does, and keeps them into the given
+	 * list, encoded by PackedMove.
+	 * 
+	 * A new MoveGenerator is created for every call. Callers that search
+	 * many boards should keep their own MoveGenerator instead.
+	 * 
+	 * @param board The board to be searched for available moves.
+	 * @param moves The list the moves are kept into. It is cleared first.
+	 * @throws NullBoardRuntimeException
+	 */
+	public static void getAvailableMoves(HeadlessBoard board, IntMoveList moves)
+			throws NullBoardRuntimeException
+	{
+		if (board == null) throw new NullBoardRuntimeException();
+		
+		new MoveGenerator(board.getCols(), board.getPRows()).generate(board, moves);
+	}
+	
+	/**
+	 * Checks whether moving the tile at given cords to the given direction,
+	 * forms an at least 3-in-a-row.
+	 * 
+	 * @param board The board the move is checked on.
+	 * @param x x cord of the tile to be moved.
+	 * @param y y cord of the tile to be moved.
+	 * @param direction Direction of the move as defined in CrushUtilities.
+	 * @return True if the move is available, false otherwise.
+	 * @throws InvalidDirectionsRuntimeException
+	 */
+	public static boolean isAvailableMove(HeadlessBoard board, int x, int y, int direction)
+			throws InvalidDirectionsRuntimeException
+	{
+		int dx = dirDx(direction);
+		int dy = dirDy(direction);
+		
+		int color = board.getColor(x, y);
+		if (color == HeadlessBoard.UNKNOWN) return false;
+		
+		// Cords where the moved tile lands.
+		int tx = x + dx;
+		int ty = y + dy;
+		if (!board.isValidCords(tx, ty)) return false;
+		
+		// Line perpendicular to the direction of the move.
+		int px = dy;
+		int py = dx;
+		
+		return (isOfColor(board, color, tx + dx, ty + dy) && 
+				isOfColor(board, color, tx + 2 * dx, ty + 2 * dy)) ||
+			   (isOfColor(board, color, tx - 2 * px, ty - 2 * py) && 
+				isOfColor(board, color, tx - px, ty - py)) ||
+			   (isOfColor(board, color, tx - px, ty - py) && 
+				isOfColor(board, color, tx + px, ty + py)) ||
+			   (isOfColor(board, color, tx + px, ty + py) && 
+				isOfColor(board, color, tx + 2 * px, ty + 2 * py));
+	}
+	
+	/**
+	 * Returns a copy of the given board, where the given move has been
+	 * played, but no tile has crushed.
+	 * 
+	 * @param board The board to play the move on.
+	 * @param move The move in the form of [x, y, direction] int array.
+	 * @return A new board where move has been played.
+	 * @throws NullBoardRuntimeException
+	 * @throws NullMoveRuntimeException
+	 */
+	public static HeadlessBoard boardAfterFirstMove(HeadlessBoard board, int[] move)
+			throws NullBoardRuntimeException, NullMoveRuntimeException
+	{
+		if (board == null) throw new NullBoardRuntimeException();
+		if (move == null) throw new NullMoveRuntimeException();
+		
+		HeadlessBoard clone = new HeadlessBoard(board);
+		int[] cords = CrushUtilities.calculateNextMove(move);
+		clone.swap(cords[0], cords[1], cords[2], cords[3]);
+		
+		return clone;
+	}
+	
+	/**
+	 * Returns a copy of the given board, where the given move has been
+	 * played and the tiles that crushed right after it have been removed.
+	 * Chained crushes are not removed.
+	 * 
+	 * @param board The board to play the move on.
+	 * @param move The move in the form of [x, y, direction] int array.
+	 * @return A new board where move and its first crush have been played.
+	 * @throws NullBoardRuntimeException
+	 * @throws NullMoveRuntimeException
+	 */
+	public static HeadlessBoard boardAfterFirstCrush(HeadlessBoard board, int[] move)
+			throws NullBoardRuntimeException, NullMoveRuntimeException
+	{
+		HeadlessBoard clone = boardAfterFirstMove(board, move);
+		
+		long[] marks = new long[clone.getCols()];
+		findAllNPles(clone, marks);
+		clone.removeMarked(marks);
+		
+		return clone;
+	}
+	
+	/**
+	 * Returns a copy of the given board, where the given move has been
+	 * played and all the tiles that crushed, either immediately or by
+	 * chained crushes, have been removed.
+	 * 
+	 * @param board The board to play the move on.
+	 * @param move The move in the form of [x, y, direction] int array.
+	 * @return A new board where move has been fully played.
+	 * @throws NullBoardRuntimeException
+	 * @throws NullMoveRuntimeException
+	 */
+	public static HeadlessBoard boardAfterFullMove(HeadlessBoard board, int[] move)
+			throws NullBoardRuntimeException, NullMoveRuntimeException
+	{
+		if (board == null) throw new NullBoardRuntimeException();
+		
+		HeadlessBoard clone = new HeadlessBoard(board);
+		new MoveSimulator(clone.getCols(), clone.getPRows()).playMove(clone, move);
+		
+		return clone;
+	}
+
+	
+// ==== Private Methods ====
+	
+	/**
+	 * Marks on columnMarks the tiles of every 3-or-more-in-a-row, either
+	 * horizontal or vertical, the tile at given cords participates in.
+	 */
+	private static void markRunsThrough(HeadlessBoard board, int x, int y, long[] columnMarks) {
+		int color = board.getColor(x, y);
+		if (color == HeadlessBoard.UNKNOWN) return;
+		
+		// Horizontal run.
+		int left = x;
+		int right = x;
+		while (isOfColor(board, color, left - 1, y)) left--;
+		while (isOfColor(board, color, right + 1, y)) right++;
+		
+		if (right - left > 1) {
+			for (int i = left; i <= right; i++) columnMarks[i] |= 1L << y;
+		}
+		
+		// Vertical run.
+		int bottom = y;
+		int top = y;
+		while (isOfColor(board, color, x, bottom - 1)) bottom--;
+		while (isOfColor(board, color, x, top + 1)) top++;
+		
+		if (top - bottom > 1) {
+			columnMarks[x] |= ((1L << (top - bottom + 1)) - 1) << bottom;
+		}
+	}
+	
+	/**
+	 * Marks on crushes the cells of every run of 3 or more contiguous cells
+	 * of the same known color, along the line of the grid that consists
+	 * of length cells, starting at index start, every step cells.
+	 */
+	private static void markRuns(int[] grid, boolean[] crushes, int start, int step, int length) {
+		int runStart = 0;
+		int color = grid[start];
+		
+		for (int i = 1; i <= length; i++) {
+			int c = i < length ? grid[start + i * step] : NO_TILE;
+			if (i < length && c == color) continue;
+			
+			if (i - runStart >= 3 && color >= 0) {
+				for (int j = runStart; j < i; j++) crushes[start + j * step] = true;
+			}
+			
+			runStart = i;
+			color = c;
+		}
+	}
+	
+	/**
+	 * Checks whether given cords are valid on the playable area of the board
+	 * and the tile there is of the given color.
+	 */
+	private static boolean isOfColor(HeadlessBoard board, int color, int x, int y) {
+		return board.isValidCords(x, y) && board.getColor(x, y) == color;
+	}
+	
+	/**
+	 * Returns the x increment a move towards the given direction causes.
+	 */
+	private static int dirDx(int direction) throws InvalidDirectionsRuntimeException {
+		switch (direction) {
+		case CrushUtilities.LEFT: return -1;
+		case CrushUtilities.RIGHT: return 1;
+		case CrushUtilities.UP:
+		case CrushUtilities.DOWN: return 0;
+		default: throw new InvalidDirectionsRuntimeException();
+		}
+	}
+	
+	/**
+	 * Returns the y increment a move towards the given direction causes.
+	 */
+	private static int dirDy(int direction) throws InvalidDirectionsRuntimeException {
+		switch (direction) {
+		case CrushUtilities.UP: return 1;
+		case CrushUtilities.DOWN: return -1;
+		case CrushUtilities.LEFT:
+		case CrushUtilities.RIGHT: return 0;
+		default: throw new InvalidDirectionsRuntimeException();
+		}
+	}
+
+	
 // ==== Comparators defined in BoardUtils ====
 
 	/**
@@ -575,4 +864,4 @@ public class BoardUtils {
 //		
 //		return board;
 //	}
-}
\ No newline at end of file
+}
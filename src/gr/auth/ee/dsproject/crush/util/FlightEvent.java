@@ -0,0 +1,316 @@
+package gr.auth.ee.dsproject.crush.util;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * FlightEvent defines a custom event type of Java Flight Recorder, so
+ * the search shows up in recordings alongside GC and CPU samples.
+ *
+ * The project is compiled for Java 8, where jdk.jfr cannot be referred to,
+ * so event types are defined at runtime through jdk.jfr.EventFactory,
+ * by reflection. When the running JVM provides no Flight Recorder, the
+ * event type is simply unavailable and no event is ever emitted.
+ *
+ * Fields are added one by one, in the order values are later given, and
+ * the type is registered once all of them have been added:
+ * 	FlightEvent type = new FlightEvent("my.Event", "My Event", "What it means")
+ * 		.addField(int.class, "depth", "Depth")
+ * 		.register();
+ * 	Object event = type.begin();
+ * 	... the timed work ...
+ * 	type.commit(event, 4);
+ *
+ * begin() returns null whenever the event type is not enabled on any
+ * running recording, so callers can skip gathering its values altogether.
+ * Events are not thread safe, but event types are, so a type is usually
+ * kept into a constant and every thread begins its own events.
+ *
+ * Constants defined in FlightEvent:
+ * -public static final String CATEGORY = "Crush"
+ *
+ * Public constructors defined in FlightEvent:
+ * -public FlightEvent(String name, String label, String description)
+ *
+ * Public methods defined in FlightEvent:
+ * -public FlightEvent addField(Class<?> type, String name, String label)
+ * -public FlightEvent addTimespanField(String name, String label)
+ * -public FlightEvent register()
+ * -public String getName()
+ * -public boolean isAvailable()
+ * -public boolean isEnabled()
+ * -public Object begin()
+ * -public void commit(Object event, Object... values)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public final class FlightEvent {
+
+//==== Public Constants ====
+
+	/**
+	 * The category all event types are shown under.
+	 */
+	public static final String CATEGORY = "Crush";
+
+
+//==== Private Constants ====
+
+	private static final String JFR = "jdk.jfr.";
+
+	/**
+	 * Members of jdk.jfr, or null when it is not available.
+	 */
+	private static final Constructor<?> ANNOTATION_ELEMENT;
+	private static final Constructor<?> VALUE_DESCRIPTOR;
+	private static final Method CREATE;
+	private static final Method REGISTER;
+	private static final Method NEW_EVENT;
+	private static final Method BEGIN;
+	private static final Method END;
+	private static final Method SHOULD_COMMIT;
+	private static final Method COMMIT;
+	private static final Method IS_ENABLED;
+	private static final Method SET;
+
+	static {
+		Constructor<?> annotationElement = null, valueDescriptor = null;
+		Method create = null, register = null, newEvent = null, begin = null, end = null;
+		Method shouldCommit = null, commit = null, isEnabled = null, set = null;
+
+		try {
+			Class<?> factory = Class.forName(JFR + "EventFactory");
+			Class<?> event = Class.forName(JFR + "Event");
+
+			annotationElement = Class.forName(JFR + "AnnotationElement").getConstructor(Class.class, Object.class);
+			valueDescriptor = Class.forName(JFR + "ValueDescriptor").getConstructor(Class.class, String.class, List.class);
+
+			create = factory.getMethod("create", List.class, List.class);
+			register = factory.getMethod("register");
+			newEvent = factory.getMethod("newEvent");
+			begin = event.getMethod("begin");
+			end = event.getMethod("end");
+			shouldCommit = event.getMethod("shouldCommit");
+			commit = event.getMethod("commit");
+			isEnabled = event.getMethod("isEnabled");
+			set = event.getMethod("set", int.class, Object.class);
+
+		} catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+			create = null;
+		}
+
+		ANNOTATION_ELEMENT = annotationElement;
+		VALUE_DESCRIPTOR = valueDescriptor;
+		CREATE = create;
+		REGISTER = register;
+		NEW_EVENT = newEvent;
+		BEGIN = begin;
+		END = end;
+		SHOULD_COMMIT = shouldCommit;
+		COMMIT = commit;
+		IS_ENABLED = isEnabled;
+		SET = set;
+	}
+
+
+//==== Private instance variables ====
+
+	private final String name;
+
+	private final List<Object> annotations = new ArrayList<>();
+
+	private final List<Object> fields = new ArrayList<>();
+
+	/**
+	 * The jdk.jfr.EventFactory of the type, once registered.
+	 */
+	private volatile Object factory;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new event type, with no fields.
+	 *
+	 * @param name The unique name of the type, e.g. in the form of a
+	 * 			   fully qualified class name.
+	 * @param label The human readable name of the type.
+	 * @param description A sentence on what every event means.
+	 */
+	public FlightEvent(String name, String label, String description) {
+		this.name = name;
+
+		if (CREATE == null) return;
+
+		annotations.add(annotation("Name", name));
+		annotations.add(annotation("Label", label));
+		annotations.add(annotation("Description", description));
+		annotations.add(annotation("Category", new String[] { CATEGORY }));
+
+		// Stack traces would only show the reflective call of commit().
+		annotations.add(annotation("StackTrace", Boolean.FALSE));
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Adds a field of the given type, which should be a primitive type or
+	 * String, as Flight Recorder requires.
+	 *
+	 * @return This event type, so calls can be chained.
+	 */
+	public FlightEvent addField(Class<?> type, String name, String label) {
+		if (CREATE != null) {
+			fields.add(descriptor(type, name, Collections.singletonList(annotation("Label", label))));
+		}
+
+		return this;
+	}
+
+	/**
+	 * Adds a long field that keeps a duration in nanoseconds.
+	 *
+	 * @return This event type, so calls can be chained.
+	 */
+	public FlightEvent addTimespanField(String name, String label) {
+		if (CREATE != null) {
+			List<Object> fieldAnnotations = new ArrayList<>();
+			fieldAnnotations.add(annotation("Label", label));
+			fieldAnnotations.add(annotation("Timespan", "NANOSECONDS"));
+
+			fields.add(descriptor(long.class, name, fieldAnnotations));
+		}
+
+		return this;
+	}
+
+	/**
+	 * Registers the event type to Flight Recorder, so it can be enabled
+	 * on recordings, even before any event of it is emitted. No field can
+	 * be added afterwards.
+	 *
+	 * @return This event type, so calls can be chained.
+	 */
+	public FlightEvent register() {
+		if (CREATE == null || factory != null) return this;
+
+		try {
+			Object created = CREATE.invoke(null, annotations, fields);
+			REGISTER.invoke(created);
+
+			factory = created;
+
+		} catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+			// An invalid definition is no reason to fail a game, so the
+			// type just stays unavailable.
+		}
+
+		return this;
+	}
+
+	public String getName() { return name; }
+
+	/**
+	 * Checks whether the type has been registered to the Flight Recorder
+	 * of the running JVM.
+	 */
+	public boolean isAvailable() { return factory != null; }
+
+	/**
+	 * Checks whether the type is enabled on any running recording, i.e.
+	 * whether begin() would currently return an event.
+	 */
+	public boolean isEnabled() {
+		Object eventFactory = factory;
+		if (eventFactory == null) return false;
+
+		try {
+			return (Boolean) IS_ENABLED.invoke(NEW_EVENT.invoke(eventFactory));
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Creates a new event of the type and starts its timing.
+	 *
+	 * @return The event, or null when the type is not available or not
+	 * 		   enabled on any recording.
+	 */
+	public Object begin() {
+		Object eventFactory = factory;
+		if (eventFactory == null) return null;
+
+		try {
+			Object event = NEW_EVENT.invoke(eventFactory);
+			if (!(Boolean) IS_ENABLED.invoke(event)) return null;
+
+			BEGIN.invoke(event);
+
+			return event;
+
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Ends the timing of the given event, sets its fields and commits it,
+	 * if it passes the threshold of the recording.
+	 *
+	 * @param event An event returned by begin(), or null for doing nothing.
+	 * @param values The values of all the fields of the type, in the order
+	 * 				 the fields were added, boxed.
+	 */
+	public void commit(Object event, Object... values) {
+		if (event == null) return;
+
+		try {
+			END.invoke(event);
+			if (!(Boolean) SHOULD_COMMIT.invoke(event)) return;
+
+			for (int i = 0; i < values.length; i++) SET.invoke(event, i, values[i]);
+
+			COMMIT.invoke(event);
+
+		} catch (InvocationTargetException e) {
+			// Values of wrong types are rejected by jdk.jfr.Event.set().
+			if (e.getCause() instanceof IllegalArgumentException) {
+				throw (IllegalArgumentException) e.getCause();
+			}
+
+		} catch (ReflectiveOperationException e) {}
+	}
+
+
+//==== Private Static Methods ====
+
+	@SuppressWarnings("unchecked")
+	private static Object annotation(String type, Object value) {
+		try {
+			Class<? extends Annotation> annotationType =
+					(Class<? extends Annotation>) Class.forName(JFR + type);
+
+			return ANNOTATION_ELEMENT.newInstance(annotationType, value);
+
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Object descriptor(Class<?> type, String name, List<Object> fieldAnnotations) {
+		try {
+			return VALUE_DESCRIPTOR.newInstance(type, name, fieldAnnotations);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,523 @@
+package gr.auth.ee.dsproject.crush.util;
+
+import java.util.Arrays;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.Tile;
+
+
+/**
+ * HeadlessBoard provides a lightweight representation of a ThmmyCrush
+ * board, that carries only the colors of its tiles.
+ *
+ * Board objects are Swing components holding a Tile object for every
+ * single cell, which makes them too heavy to be created for every state
+ * examined during a search. HeadlessBoard packs the colors of the tiles
+ * of the playable area into a single byte array, column by column,
+ * starting from the bottom of every column.
+ *
+ * Rows above the playable ones (i.e. the lookahead rows which refill the
+ * columns after tiles crush) never change. They only fall into the
+ * playable area, one after the other, as tiles of their column crush.
+ * So, they are kept as one immutable refill stream per column, shared
+ * among a board and all the boards copied from it, and every board only
+ * keeps how far into the stream of every column it has consumed. Copying
+ * a board thus costs O(cols * pRows), no matter how many lookahead rows
+ * it keeps. A board only writes a stream it has created itself and never
+ * shared. Setting the color of a hidden tile of a shared stream copies
+ * the stream first.
+ *
+ * Cords follow the ones used by Board, so (0, 0) is the bottom left tile
+ * and y grows towards the top of the board.
+ *
+ * Tiles whose color is not known, e.g. the ones that refill a column after
+ * all known lookahead rows have been consumed, have a color value of
+ * UNKNOWN (-1).
+ *
+ * Every column also counts the tiles that have been removed from it. Since
+ * tiles above the playable area never move on their own, the hidden part
+ * of a column is fully defined by the number of tiles it has consumed, so
+ * the playable area together with these counts identify a state among all
+ * the ones that derive from the same initial board.
+ *
+ * Constants defined in HeadlessBoard:
+ * -public static final int UNKNOWN = -1
+ *
+ * Public constructors defined in HeadlessBoard:
+ * -public HeadlessBoard(int cols, int pRows, int rows)
+ * -public HeadlessBoard(HeadlessBoard board)
+ * -public HeadlessBoard(HeadlessBoard board, int rowsToKeep)
+ *
+ * Public methods defined in HeadlessBoard:
+ * -public static HeadlessBoard fromBoard(Board board) throws NullBoardRuntimeException
+ * -public static HeadlessBoard fromBoard(Board board, int rowsToKeep)
+ * 		throws NullBoardRuntimeException
+ * -public int getCols()
+ * -public int getPRows()
+ * -public int getRows()
+ * -public int getConsumed(int x)
+ * -public int getColor(int x, int y)
+ * -public void setColor(int x, int y, int color)
+ * -public Tile giveTileAt(int x, int y)
+ * -public boolean isValidCords(int x, int y)
+ * -public void copyFrom(HeadlessBoard board)
+ * -public boolean matches(HeadlessBoard board)
+ * -public void swap(int x1, int y1, int x2, int y2)
+ * -public int removeMarked(long[] columnMarks)
+ * -public int removeMarked(long[] columnMarks, byte[] removedColors, int offset)
+ * -public int restoreMarked(long[] columnMarks, byte[] removedColors, int offset)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.4
+ */
+public class HeadlessBoard {
+
+//==== Public Constants ====
+
+	/**
+	 * Color value of tiles whose color is not known.
+	 */
+	public static final int UNKNOWN = -1;
+
+
+//==== Private instance variables ====
+
+	/**
+	 * Number of columns of the board.
+	 */
+	private final int cols;
+
+	/**
+	 * Number of playable rows of the board.
+	 */
+	private final int pRows;
+
+	/**
+	 * Number of rows kept for every column, including the playable ones.
+	 */
+	private final int rows;
+
+	/**
+	 * Colors of the tiles of the playable area, packed column by column.
+	 * Color of tile at (x, y) is kept at index x * pRows + y.
+	 */
+	private final byte[] colors;
+
+	/**
+	 * Number of tiles removed from every column.
+	 */
+	private final int[] consumed;
+
+	/**
+	 * Refill streams of the columns. Element i of the stream of column x
+	 * is the color of the tile at (x, pRows + i), when column x has
+	 * consumed as many tiles as refillBases[x]. Tiles past the end of a
+	 * stream are of UNKNOWN color.
+	 */
+	private byte[][] refills;
+
+	/**
+	 * Consumed counts of the columns, when their refill streams started.
+	 */
+	private int[] refillBases;
+
+	/**
+	 * Set when the refill streams have been created by this board and
+	 * have never been shared, so they may be written in place.
+	 */
+	private boolean ownsRefills;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new HeadlessBoard whose tiles are all of UNKNOWN color.
+	 *
+	 * @param cols The number of columns of the board.
+	 * @param pRows The number of playable rows of the board.
+	 * @param rows The number of rows to be kept for every column, including
+	 * 			   the playable ones.
+	 */
+	public HeadlessBoard(int cols, int pRows, int rows) {
+		this.cols = cols;
+		this.pRows = pRows;
+		this.rows = rows;
+		this.colors = new byte[cols * pRows];
+		this.consumed = new int[cols];
+
+		Arrays.fill(colors, (byte) UNKNOWN);
+
+		refills = new byte[cols][Math.max(0, rows - pRows)];
+		for (byte[] refill : refills) Arrays.fill(refill, (byte) UNKNOWN);
+
+		refillBases = new int[cols];
+		ownsRefills = true;
+	}
+
+	/**
+	 * Create a new HeadlessBoard as a copy of the given one. Refill streams
+	 * are shared between the two boards.
+	 *
+	 * @param board The HeadlessBoard to be copied.
+	 */
+	public HeadlessBoard(HeadlessBoard board) {
+		this.cols = board.cols;
+		this.pRows = board.pRows;
+		this.rows = board.rows;
+		this.colors = board.colors.clone();
+		this.consumed = board.consumed.clone();
+
+		shareRefills(board);
+	}
+
+	/**
+	 * Create a new HeadlessBoard as a copy of the lowest rowsToKeep rows
+	 * of the given one. If more rows than the ones given board has are
+	 * requested, the extra rows are filled with UNKNOWN tiles.
+	 *
+	 * @param board The HeadlessBoard to be copied.
+	 * @param rowsToKeep The number of rows of every column to be kept.
+	 */
+	public HeadlessBoard(HeadlessBoard board, int rowsToKeep) {
+		this(board.cols, board.pRows, rowsToKeep);
+
+		int copied = Math.min(rowsToKeep, board.rows);
+		System.arraycopy(board.consumed, 0, consumed, 0, cols);
+		System.arraycopy(board.consumed, 0, refillBases, 0, cols);
+
+		for (int x = 0; x < cols; x++) {
+			for (int y = 0; y < copied; y++) {
+				if (y < pRows) colors[x * pRows + y] = (byte) board.getColor(x, y);
+				else refills[x][y - pRows] = (byte) board.getColor(x, y);
+			}
+		}
+	}
+
+
+//==== Public Static Methods ====
+
+	/**
+	 * Creates a HeadlessBoard out of all the rows of the given Board.
+	 *
+	 * @param board The Board to be converted.
+	 * @return A HeadlessBoard with the colors of all tiles of given board.
+	 * @throws NullBoardRuntimeException
+	 */
+	public static HeadlessBoard fromBoard(Board board) throws BoardUtils.NullBoardRuntimeException {
+		if (board == null) throw new BoardUtils.NullBoardRuntimeException();
+
+		return fromBoard(board, board.getRows());
+	}
+
+	/**
+	 * Creates a HeadlessBoard out of the lowest rowsToKeep rows of the
+	 * given Board, in the same way CrushUtilities.cloneBoard(board, rowsToKeep)
+	 * does for Board objects.
+	 *
+	 * @param board The Board to be converted.
+	 * @param rowsToKeep The number of rows of every column to be kept.
+	 * @return A HeadlessBoard with the colors of the kept tiles.
+	 * @throws NullBoardRuntimeException
+	 */
+	public static HeadlessBoard fromBoard(Board board, int rowsToKeep)
+			throws BoardUtils.NullBoardRuntimeException
+	{
+		if (board == null) throw new BoardUtils.NullBoardRuntimeException();
+
+		HeadlessBoard headless = new HeadlessBoard(board.getCols(), board.getPRows(), rowsToKeep);
+
+		for (int x = 0; x < headless.cols; x++) {
+			for (int y = 0; y < rowsToKeep; y++) {
+				byte color = (byte) board.giveTileAt(x, y).getColor();
+
+				if (y < headless.pRows) headless.colors[x * headless.pRows + y] = color;
+				else headless.refills[x][y - headless.pRows] = color;
+			}
+		}
+
+		return headless;
+	}
+
+
+//==== Public Getters ====
+
+	public int getCols() { return cols; }
+
+	public int getPRows() { return pRows; }
+
+	public int getRows() { return rows; }
+
+	/**
+	 * Get the number of tiles that have been removed from the given column
+	 * since this board was created.
+	 *
+	 * @param x The column.
+	 */
+	public int getConsumed(int x) { return consumed[x]; }
+
+	/**
+	 * Get the color of the tile at given cords.
+	 *
+	 * @param x The column of the tile.
+	 * @param y The row of the tile. Rows above playable ones are also valid.
+	 * @return The color of the tile, or UNKNOWN.
+	 */
+	public int getColor(int x, int y) {
+		if (y < pRows) return colors[x * pRows + y];
+
+		return getRefill(x, consumed[x] + y - pRows);
+	}
+
+
+//==== Public Setters ====
+
+	/**
+	 * Set the color of the tile at given cords.
+	 *
+	 * @param x The column of the tile.
+	 * @param y The row of the tile. Rows above playable ones are also valid.
+	 * @param color The new color of the tile.
+	 */
+	public void setColor(int x, int y, int color) {
+		if (y < pRows) {
+			colors[x * pRows + y] = (byte) color;
+			return;
+		}
+
+		// Streams never shrink, since tiles past their end are UNKNOWN anyway.
+		int i = consumed[x] - refillBases[x] + y - pRows;
+
+		if (!ownsRefills) {
+			refills = refills.clone();
+			refillBases = refillBases.clone();
+			for (int c = 0; c < cols; c++) refills[c] = refills[c].clone();
+			ownsRefills = true;
+		}
+
+		if (i >= refills[x].length) {
+			int length = refills[x].length;
+			refills[x] = Arrays.copyOf(refills[x], i + 1);
+			Arrays.fill(refills[x], length, i, (byte) UNKNOWN);
+		}
+
+		refills[x][i] = (byte) color;
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Creates a Tile object that describes the tile at given cords.
+	 *
+	 * The returned Tile is detached from this board, so changes on it
+	 * do not affect the board. It is meant to be used where the old
+	 * Tile based API is required, e.g. for creating PlayerMove objects.
+	 *
+	 * @param x The column of the tile.
+	 * @param y The row of the tile.
+	 * @return A new Tile object with the cords and the color of the tile.
+	 */
+	public Tile giveTileAt(int x, int y) {
+		return new Tile(y * cols + x, x, y, getColor(x, y), false);
+	}
+
+	/**
+	 * Checks whether the given cords are between the boundaries of the
+	 * playable area of the board.
+	 *
+	 * @param x x cord that is valid when lower than getCols() and non negative.
+	 * @param y y cord that is valid when lower than getPRows() and non negative.
+	 * @return True for valid cords, false for invalid.
+	 */
+	public boolean isValidCords(int x, int y) {
+		return x >= 0 && x < cols && y >= 0 && y < pRows;
+	}
+
+	/**
+	 * Copies the colors and the consumed counts of given board into this
+	 * one. Both boards should be of the same dimensions. Refill streams
+	 * are shared between the two boards, so only the playable area is
+	 * actually copied.
+	 *
+	 * @param board The board to copy colors from.
+	 */
+	public void copyFrom(HeadlessBoard board) {
+		System.arraycopy(board.colors, 0, colors, 0, colors.length);
+		System.arraycopy(board.consumed, 0, consumed, 0, cols);
+
+		shareRefills(board);
+	}
+
+	/**
+	 * Checks whether every tile of this board whose color is known, either
+	 * playable or not, is of the same color on the given board. Tiles of 
+	 * UNKNOWN color match any color, so a board matches the one a game
+	 * actually reaches after the moves that were simulated on it, no 
+	 * matter which tiles refilled the columns once their streams ran out.
+	 * Consumed counts are not compared.
+	 *
+	 * @param board The board to be checked, of the same dimensions.
+	 * @return True if the known tiles of this board match the given one.
+	 */
+	public boolean matches(HeadlessBoard board) {
+		if (board.cols != cols || board.pRows != pRows) return false;
+
+		// Playable areas differ far more often, so they are checked first.
+		for (int i = 0; i < colors.length; i++) {
+			if (colors[i] != UNKNOWN && colors[i] != board.colors[i]) return false;
+		}
+
+		for (int x = 0; x < cols; x++) {
+			for (int y = pRows; y < rows; y++) {
+				int color = getColor(x, y);
+				if (color != UNKNOWN && color != board.getColor(x, y)) return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Switches the colors of the two given tiles of the playable area, in
+	 * the same way Board.moveTile() does.
+	 */
+	public void swap(int x1, int y1, int x2, int y2) {
+		int i1 = x1 * pRows + y1;
+		int i2 = x2 * pRows + y2;
+
+		byte color = colors[i1];
+		colors[i1] = colors[i2];
+		colors[i2] = color;
+	}
+
+	/**
+	 * Removes the marked tiles of the playable area and lets the tiles above
+	 * them fall in their place. The top of every column is refilled with
+	 * the next tiles of its refill stream, or with UNKNOWN tiles once the
+	 * stream has been consumed.
+	 *
+	 * Marks are given per column. Bit y of columnMarks[x] is set when tile
+	 * at (x, y) should be removed.
+	 *
+	 * @param columnMarks Marks of the tiles to be removed, one long per column.
+	 * @return The number of tiles removed.
+	 */
+	public int removeMarked(long[] columnMarks) {
+		return removeMarked(columnMarks, null, 0);
+	}
+	
+	/**
+	 * Removes the marked tiles in the same way removeMarked(long[]) does,
+	 * but keeps the colors of the removed tiles into removedColors, so 
+	 * the removal can be reverted by restoreMarked().
+	 * 
+	 * Colors are kept column by column, starting from the bottom of every
+	 * column.
+	 * 
+	 * @param columnMarks Marks of the tiles to be removed, one long per column.
+	 * @param removedColors Array where the colors of removed tiles are kept.
+	 * 						It should have enough space for all of them. May
+	 * 						be null, when colors are not needed.
+	 * @param offset The index of removedColors the first color is kept at.
+	 * @return The number of tiles removed.
+	 */
+	public int removeMarked(long[] columnMarks, byte[] removedColors, int offset) {
+		int removed = 0;
+
+		for (int x = 0; x < cols; x++) {
+			long marks = columnMarks[x];
+			if (marks == 0) continue;
+
+			int base = x * pRows;
+			int dest = base + Long.numberOfTrailingZeros(marks);
+			
+			if (removedColors != null) {
+				for (long m = marks; m != 0; m &= m - 1) {
+					removedColors[offset++] = colors[base + Long.numberOfTrailingZeros(m)];
+				}
+			}
+
+			// Tiles under the lowest marked one stay where they are. Every
+			// other unmarked tile falls into the next free position.
+			for (int y = Long.numberOfTrailingZeros(marks); y < pRows; y++) {
+				if ((marks & (1L << y)) != 0) continue;
+				colors[dest++] = colors[base + y];
+			}
+
+			// Then the next tiles of the stream fall on top of them.
+			int count = Long.bitCount(marks);
+			int next = consumed[x];
+			
+			for (int i = 0; i < count; i++) colors[dest++] = (byte) getRefill(x, next + i);
+
+			consumed[x] += count;
+			removed += count;
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Reverts a removal done by removeMarked(long[], byte[], int). The board
+	 * should be in the exact state that removal left it.
+	 * 
+	 * @param columnMarks Marks of the tiles that had been removed.
+	 * @param removedColors Array where the colors of removed tiles were kept.
+	 * @param offset The index of removedColors the first color was kept at.
+	 * @return The number of tiles restored.
+	 */
+	public int restoreMarked(long[] columnMarks, byte[] removedColors, int offset) {
+		int restored = 0;
+		
+		for (int x = 0; x < cols; x++) {
+			long marks = columnMarks[x];
+			if (marks == 0) continue;
+			
+			int count = Long.bitCount(marks);
+			int base = x * pRows;
+			int lowest = Long.numberOfTrailingZeros(marks);
+			
+			// Walk the column from its top, moving every kept tile back up
+			// and putting removed ones back to their marked positions. Tiles
+			// that fell from the stream are simply dropped.
+			int src = base + pRows - count - 1;
+			int color = offset + count - 1;
+			
+			for (int y = pRows - 1; y >= lowest; y--) {
+				if ((marks & (1L << y)) != 0) colors[base + y] = removedColors[color--];
+				else colors[base + y] = colors[src--];
+			}
+			
+			consumed[x] -= count;
+			offset += count;
+			restored += count;
+		}
+		
+		return restored;
+	}
+	
+	
+//==== Private Methods ====
+	
+	/**
+	 * Get the color of the tile that falls into column x when it has
+	 * consumed the given number of tiles.
+	 */
+	private int getRefill(int x, int consumedCount) {
+		int i = consumedCount - refillBases[x];
+		byte[] refill = refills[x];
+		
+		return i >= 0 && i < refill.length ? refill[i] : UNKNOWN;
+	}
+	
+	/**
+	 * Makes this board use the refill streams of the given one. Neither
+	 * board may write them in place afterwards.
+	 */
+	private void shareRefills(HeadlessBoard board) {
+		refills = board.refills;
+		refillBases = board.refillBases;
+		ownsRefills = false;
+		board.ownsRefills = false;
+	}
+}
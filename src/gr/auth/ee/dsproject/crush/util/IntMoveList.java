@@ -0,0 +1,118 @@
+package gr.auth.ee.dsproject.crush.util;
+
+import java.util.Arrays;
+
+
+/**
+ * IntMoveList is a growable list of moves encoded by PackedMove, kept
+ * into a primitive int array.
+ *
+ * It is meant to be reused. Clearing it keeps its capacity, so filling it
+ * again with as many moves does not allocate any memory.
+ *
+ * Public constructors defined in IntMoveList:
+ * -public IntMoveList()
+ * -public IntMoveList(int capacity)
+ * -public IntMoveList(IntMoveList list)
+ *
+ * Public methods defined in IntMoveList:
+ * -public int size()
+ * -public boolean isEmpty()
+ * -public int get(int i)
+ * -public void set(int i, int move)
+ * -public void add(int move)
+ * -public void clear()
+ * -public int indexOf(int move)
+ * -public int[] toArray()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class IntMoveList {
+
+//==== Private Constants ====
+
+	private static final int DEFAULT_CAPACITY = 64;
+
+
+//==== Private instance variables ====
+
+	private int[] moves;
+
+	private int size;
+
+
+//==== Public Constructors ====
+
+	public IntMoveList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public IntMoveList(int capacity) {
+		moves = new int[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Create a new IntMoveList as a copy of the given one.
+	 */
+	public IntMoveList(IntMoveList list) {
+		moves = Arrays.copyOf(list.moves, Math.max(1, list.size));
+		size = list.size;
+	}
+
+
+//==== Public Methods ====
+
+	public int size() { return size; }
+
+	public boolean isEmpty() { return size == 0; }
+
+	/**
+	 * Get the move at index i, which should be lower than size().
+	 */
+	public int get(int i) {
+		if (i >= size) throw new IndexOutOfBoundsException(Integer.toString(i));
+
+		return moves[i];
+	}
+
+	/**
+	 * Replaces the move at index i, which should be lower than size().
+	 */
+	public void set(int i, int move) {
+		if (i >= size) throw new IndexOutOfBoundsException(Integer.toString(i));
+
+		moves[i] = move;
+	}
+
+	/**
+	 * Appends the given move to the end of the list.
+	 */
+	public void add(int move) {
+		if (size == moves.length) moves = Arrays.copyOf(moves, size * 2);
+
+		moves[size++] = move;
+	}
+
+	/**
+	 * Removes all the moves of the list, keeping its capacity.
+	 */
+	public void clear() { size = 0; }
+
+	/**
+	 * Get the index of the first occurrence of the given move, or -1 if
+	 * the list does not contain it.
+	 */
+	public int indexOf(int move) {
+		for (int i = 0; i < size; i++) {
+			if (moves[i] == move) return i;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Copies the moves of the list into a new array.
+	 */
+	public int[] toArray() { return Arrays.copyOf(moves, size); }
+}
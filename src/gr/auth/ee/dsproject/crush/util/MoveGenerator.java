@@ -0,0 +1,268 @@
+package gr.auth.ee.dsproject.crush.util;
+
+import java.util.Arrays;
+
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+
+
+/**
+ * MoveGenerator finds the available moves of a HeadlessBoard, i.e. the
+ * same moves BoardUtils.isAvailableMove() accepts, by looking up
+ * precomputed pattern tables instead of walking the board towards every
+ * direction.
+ *
+ * A move of a tile towards a direction is available when, at the cords
+ * it lands on, the tile forms an at least 3-in-a-row with the tiles of
+ * its color around them. Only six tiles around the landing cords matter:
+ * the two beyond them towards the direction of the move and the two at
+ * each side of them, perpendicularly to it. Which of these six tiles are
+ * of the color of the moved tile is packed into a 6-bit pattern, and a
+ * table of all 64 patterns tells whether the move is available.
+ *
+ * Colors of the playable area are loaded into a grid with a border of two
+ * cells around it, which is never of any color. So, patterns of tiles
+ * next to the edges of the board need no bounds checking. Neighbours of
+ * any cell are found by fixed offsets into the grid.
+ *
+ * Moves are either added, encoded by PackedMove, into an IntMoveList, in
+ * the same order CrushUtilities.getAvailableMoves() finds them, or only
+ * counted, for heuristics that only need the number of available moves.
+ *
+ * A MoveGenerator is meant to be reused. Generating or counting moves
+ * does not allocate any memory, as long as the list has enough capacity.
+ * A MoveGenerator is not thread safe, so every thread should use its own
+ * one.
+ *
+ * Public constructors defined in MoveGenerator:
+ * -public MoveGenerator(int cols, int pRows)
+ *
+ * Public methods defined in MoveGenerator:
+ * -public int getCols()
+ * -public int getPRows()
+ * -public void generate(HeadlessBoard board, IntMoveList moves) throws NullBoardRuntimeException
+ * -public int count(HeadlessBoard board) throws NullBoardRuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class MoveGenerator {
+
+//==== Private Constants ====
+
+	/**
+	 * Width of the border of the grid, i.e. the farthest a pattern reaches
+	 * from the cords a tile lands on.
+	 */
+	private static final int BORDER = 2;
+
+	/**
+	 * Color of the cells of the border, never equal to any tile color,
+	 * including UNKNOWN.
+	 */
+	private static final byte NO_TILE = -2;
+
+	/**
+	 * Directions in the order moves of every tile are generated, the same
+	 * as the one CrushUtilities.getAvailableMoves() uses.
+	 */
+	private static final int[] DIRECTIONS = { CrushUtilities.UP, CrushUtilities.DOWN,
+											  CrushUtilities.LEFT, CrushUtilities.RIGHT };
+
+	/**
+	 * Bits of a pattern. F1 and F2 are the tiles beyond the landing cords,
+	 * L1, L2 and R1, R2 the ones at either side of them, where 1 denotes
+	 * the nearest.
+	 */
+	private static final int F1 = 1, F2 = 1 << 1, L1 = 1 << 2, L2 = 1 << 3, R1 = 1 << 4, R2 = 1 << 5;
+
+	/**
+	 * Whether a move of every 6-bit pattern forms an at least 3-in-a-row.
+	 */
+	private static final boolean[] AVAILABLE = new boolean[64];
+
+	static {
+		for (int p = 0; p < AVAILABLE.length; p++) {
+			AVAILABLE[p] = (p & (F1 | F2)) == (F1 | F2) ||
+						   (p & (L1 | L2)) == (L1 | L2) ||
+						   (p & (R1 | R2)) == (R1 | R2) ||
+						   (p & (L1 | R1)) == (L1 | R1);
+		}
+	}
+
+
+//==== Private instance variables ====
+
+	private final int cols;
+
+	private final int pRows;
+
+	/**
+	 * Number of cells every column of the grid occupies, border included.
+	 */
+	private final int stride;
+
+	/**
+	 * Colors of the playable area, column by column, starting from the
+	 * bottom of every column, surrounded by a border of NO_TILE cells.
+	 */
+	private final byte[] grid;
+
+	/**
+	 * Grid offsets from a tile to the cords it lands on, for every direction
+	 * defined in CrushUtilities.
+	 */
+	private final int[] steps = new int[4];
+
+	/**
+	 * Grid offsets from the landing cords to the six tiles of the pattern,
+	 * in the order of its bits, for every direction defined in CrushUtilities.
+	 */
+	private final int[][] patternOffsets = new int[4][];
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new MoveGenerator for boards of given dimensions.
+	 *
+	 * @param cols The number of columns of the boards.
+	 * @param pRows The number of playable rows of the boards.
+	 */
+	public MoveGenerator(int cols, int pRows) {
+		this.cols = cols;
+		this.pRows = pRows;
+
+		stride = pRows + 2 * BORDER;
+		grid = new byte[(cols + 2 * BORDER) * stride];
+		Arrays.fill(grid, NO_TILE);
+
+		for (int dir : DIRECTIONS) {
+			int forward = offset(dir);
+			// Perpendicular to the direction of the move.
+			int side = (dir == CrushUtilities.UP || dir == CrushUtilities.DOWN) ? stride : 1;
+
+			steps[dir] = forward;
+			patternOffsets[dir] = new int[] { forward, 2 * forward,
+											  -side, -2 * side,
+											  side, 2 * side };
+		}
+	}
+
+
+//==== Public Getters ====
+
+	public int getCols() { return cols; }
+
+	public int getPRows() { return pRows; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Finds all the available moves on the given board and keeps them into
+	 * the given list, encoded by PackedMove, in the same order as
+	 * CrushUtilities.getAvailableMoves() finds them.
+	 *
+	 * @param board The board to be searched for available moves. It should
+	 * 				be of the dimensions the generator has been created for.
+	 * @param moves The list the moves are kept into. It is cleared first.
+	 * @throws NullBoardRuntimeException
+	 */
+	public void generate(HeadlessBoard board, IntMoveList moves)
+			throws BoardUtils.NullBoardRuntimeException
+	{
+		load(board);
+		moves.clear();
+
+		for (int x = 0; x < cols; x++) {
+			int i = (x + BORDER) * stride + BORDER;
+
+			for (int y = 0; y < pRows; y++, i++) {
+				int color = grid[i];
+				if (color == HeadlessBoard.UNKNOWN) continue;
+
+				for (int dir : DIRECTIONS) {
+					if (isAvailable(i, dir, color)) moves.add(PackedMove.encode(x, y, dir));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Counts the available moves on the given board, without keeping them.
+	 *
+	 * @param board The board to be searched for available moves. It should
+	 * 				be of the dimensions the generator has been created for.
+	 * @return The number of available moves.
+	 * @throws NullBoardRuntimeException
+	 */
+	public int count(HeadlessBoard board) throws BoardUtils.NullBoardRuntimeException {
+		load(board);
+
+		int n = 0;
+
+		for (int x = 0; x < cols; x++) {
+			int i = (x + BORDER) * stride + BORDER;
+
+			for (int y = 0; y < pRows; y++, i++) {
+				int color = grid[i];
+				if (color == HeadlessBoard.UNKNOWN) continue;
+
+				for (int dir : DIRECTIONS) {
+					if (isAvailable(i, dir, color)) n++;
+				}
+			}
+		}
+
+		return n;
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Copies the colors of the playable area of the given board into the
+	 * grid. The border is never written.
+	 */
+	private void load(HeadlessBoard board) throws BoardUtils.NullBoardRuntimeException {
+		if (board == null) throw new BoardUtils.NullBoardRuntimeException();
+
+		for (int x = 0; x < cols; x++) {
+			int i = (x + BORDER) * stride + BORDER;
+
+			for (int y = 0; y < pRows; y++) grid[i + y] = (byte) board.getColor(x, y);
+		}
+	}
+
+	/**
+	 * Checks whether moving the tile of given color at grid index i towards
+	 * the given direction is available, by looking up its pattern.
+	 */
+	private boolean isAvailable(int i, int dir, int color) {
+		int t = i + steps[dir];
+
+		// Tiles never move onto the border.
+		if (grid[t] == NO_TILE) return false;
+
+		int[] offsets = patternOffsets[dir];
+		int pattern = 0;
+
+		for (int k = 0; k < offsets.length; k++) {
+			if (grid[t + offsets[k]] == color) pattern |= 1 << k;
+		}
+
+		return AVAILABLE[pattern];
+	}
+
+	/**
+	 * Get the grid offset of the adjacent cell towards the given direction.
+	 */
+	private int offset(int dir) {
+		switch (dir) {
+		case CrushUtilities.UP: return 1;
+		case CrushUtilities.DOWN: return -1;
+		case CrushUtilities.LEFT: return -stride;
+		default: return stride;
+		}
+	}
+}
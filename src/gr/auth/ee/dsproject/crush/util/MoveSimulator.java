@@ -0,0 +1,356 @@
+package gr.auth.ee.dsproject.crush.util;
+
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+
+
+/**
+ * MoveSimulator plays moves on a HeadlessBoard in place, the same way
+ * the game does: the two tiles of the move are swapped, all the tiles
+ * that form 3-or-more-in-a-row are removed, the columns collapse and
+ * get refilled from the hidden rows above the playable area, and the
+ * crushes repeat until no 3-in-a-row is left.
+ *
+ * The number of tiles removed on every step of the cascade is recorded
+ * during the same pass and is available until the next simulation. Level
+ * 0 holds the tiles removed directly by the move and every next level
+ * the ones removed by chained crushes.
+ *
+ * Cascades are simulated iteratively, in place. The board is loaded into
+ * the bit masks as a whole only once, before the first step. After every
+ * step, only the columns that lost tiles have changed, from their lowest
+ * removed tile and above, so only those parts of them are loaded again
+ * before the masks are searched for the next step.
+ *
+ * A MoveSimulator owns all the scratch buffers it needs, so simulating
+ * a move does not allocate any memory. It is not thread safe, so every
+ * thread should use its own MoveSimulator.
+ *
+ * A common way to evaluate a move without modifying the original board
+ * is the following:
+ * "scratch.copyFrom(board); int removed = simulator.playMove(scratch, dirMove);"
+ *
+ * When the same board is used for exploring many moves, e.g. during a
+ * depth-first search, moves can instead be played by makeMove() and
+ * reverted by unmakeMove(), using an UndoRecord per depth.
+ *
+ * The Zobrist key of the board moves are made on can also be kept up to
+ * date, once startHashing() is called for it. Every swap and every step
+ * of the cascade only XOR the keys of the tiles they change, out of the
+ * key before and into it after, and unmaking a move restores the key the
+ * UndoRecord kept. So, the key of every state is known without hashing
+ * the whole board.
+ *
+ * Public constructors defined in MoveSimulator:
+ * -public MoveSimulator(int cols, int pRows)
+ *
+ * Public methods defined in MoveSimulator:
+ * -public int getLevels()
+ * -public int getRemovedOnLevel(int level)
+ * -public int getTotalRemoved()
+ * -public long getKey()
+ * -public int playMove(HeadlessBoard board, int[] dirMove)
+ * 		throws NullBoardRuntimeException, NullMoveRuntimeException
+ * -public int playMove(HeadlessBoard board, int x1, int y1, int x2, int y2)
+ * 		throws NullBoardRuntimeException
+ * -public int crushAll(HeadlessBoard board) throws NullBoardRuntimeException
+ * -public int makeMove(HeadlessBoard board, int x1, int y1, int x2, int y2, UndoRecord undo)
+ * 		throws NullBoardRuntimeException
+ * -public void unmakeMove(HeadlessBoard board, UndoRecord undo)
+ * 		throws NullBoardRuntimeException
+ * -public void startHashing(HeadlessBoard board, ZobristHash zobrist, int[] consumedBase)
+ * 		throws NullBoardRuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.4
+ */
+public class MoveSimulator {
+
+//==== Private instance variables ====
+
+	/**
+	 * Used for detecting the tiles that crush on every step.
+	 */
+	private final BitBoard bitBoard;
+
+	/**
+	 * Per column marks of the tiles that crush on the current step.
+	 */
+	private final long[] columnMarks;
+
+	/**
+	 * Tiles removed on every level of the last simulation.
+	 */
+	private int[] removedOnLevel;
+
+	/**
+	 * Number of levels the last simulation had.
+	 */
+	private int levels;
+
+	/**
+	 * Total number of tiles removed by the last simulation.
+	 */
+	private int totalRemoved;
+
+	/**
+	 * The keys the key of the board is kept by, or null when it is not kept.
+	 */
+	private ZobristHash zobrist;
+
+	/**
+	 * The consumed counts of the initial board the key is relative to,
+	 * or null for none.
+	 */
+	private int[] consumedBase;
+
+	/**
+	 * The key of the board moves are made on, for the minimizing side.
+	 */
+	private long key;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new MoveSimulator for boards of given dimensions.
+	 *
+	 * @param cols The number of columns of the boards to be simulated.
+	 * @param pRows The number of playable rows of the boards to be simulated.
+	 */
+	public MoveSimulator(int cols, int pRows) {
+		bitBoard = new BitBoard(cols, pRows);
+		columnMarks = new long[cols];
+		removedOnLevel = new int[16];
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get the number of crush steps the last simulation had. A move
+	 * that crushed nothing has 0 levels.
+	 */
+	public int getLevels() { return levels; }
+
+	/**
+	 * Get the number of tiles removed on the given step of the last
+	 * simulation.
+	 *
+	 * @param level The step of the cascade, where 0 is the step caused
+	 * 				directly by the move.
+	 * @return The number of tiles removed on the given step, or 0 for
+	 * 		   levels the last simulation did not reach.
+	 */
+	public int getRemovedOnLevel(int level) {
+		return level < levels ? removedOnLevel[level] : 0;
+	}
+
+	/**
+	 * Get the total number of tiles removed by the last simulation.
+	 */
+	public int getTotalRemoved() { return totalRemoved; }
+
+	/**
+	 * Get the Zobrist key of the current state of the board given to
+	 * startHashing(), as ZobristHash.hash(board, false, consumedBase) 
+	 * computes it.
+	 */
+	public long getKey() { return key; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Plays the given move on the given board in place, including all the
+	 * crushes it causes.
+	 *
+	 * @param board The board to play the move on. It is modified.
+	 * @param dirMove The move in the form of [x, y, direction] int array.
+	 * @return The total number of tiles removed.
+	 * @throws NullBoardRuntimeException
+	 * @throws NullMoveRuntimeException
+	 */
+	public int playMove(HeadlessBoard board, int[] dirMove)
+			throws BoardUtils.NullBoardRuntimeException, BoardUtils.NullMoveRuntimeException
+	{
+		if (dirMove == null) throw new BoardUtils.NullMoveRuntimeException();
+
+		int x2 = dirMove[0];
+		int y2 = dirMove[1];
+
+		switch (dirMove[2]) {
+		case CrushUtilities.LEFT: x2--; break;
+		case CrushUtilities.RIGHT: x2++; break;
+		case CrushUtilities.UP: y2++; break;
+		case CrushUtilities.DOWN: y2--; break;
+		default: throw new BoardUtils.InvalidDirectionsRuntimeException();
+		}
+
+		return playMove(board, dirMove[0], dirMove[1], x2, y2);
+	}
+
+	/**
+	 * Plays the move that swaps the two given tiles on the given board in
+	 * place, including all the crushes it causes.
+	 *
+	 * @param board The board to play the move on. It is modified.
+	 * @return The total number of tiles removed.
+	 * @throws NullBoardRuntimeException
+	 */
+	public int playMove(HeadlessBoard board, int x1, int y1, int x2, int y2)
+			throws BoardUtils.NullBoardRuntimeException
+	{
+		if (board == null) throw new BoardUtils.NullBoardRuntimeException();
+
+		board.swap(x1, y1, x2, y2);
+
+		return crushAll(board);
+	}
+
+	/**
+	 * Removes in place all the tiles of the given board that form
+	 * 3-or-more-in-a-row, and keeps doing so until none is left.
+	 *
+	 * @param board The board to be crushed. It is modified.
+	 * @return The total number of tiles removed.
+	 * @throws NullBoardRuntimeException
+	 */
+	public int crushAll(HeadlessBoard board) throws BoardUtils.NullBoardRuntimeException {
+		return crushAll(board, null);
+	}
+	
+	/**
+	 * Plays the move that swaps the two given tiles on the given board in
+	 * place, in the same way playMove() does, while recording into undo all
+	 * the data needed to revert it.
+	 * 
+	 * @param board The board to play the move on. It is modified.
+	 * @param undo The record to keep the data needed for reverting the move.
+	 * 			   Any previous data is discarded.
+	 * @return The total number of tiles removed.
+	 * @throws NullBoardRuntimeException
+	 */
+	public int makeMove(HeadlessBoard board, int x1, int y1, int x2, int y2, UndoRecord undo)
+			throws BoardUtils.NullBoardRuntimeException
+	{
+		if (board == null) throw new BoardUtils.NullBoardRuntimeException();
+		
+		undo.clear();
+		undo.x1 = x1;
+		undo.y1 = y1;
+		undo.x2 = x2;
+		undo.y2 = y2;
+		undo.key = key;
+		
+		if (zobrist != null) key ^= zobrist.hashTile(board, x1, y1) ^ zobrist.hashTile(board, x2, y2);
+		board.swap(x1, y1, x2, y2);
+		if (zobrist != null) key ^= zobrist.hashTile(board, x1, y1) ^ zobrist.hashTile(board, x2, y2);
+		
+		return crushAll(board, undo);
+	}
+	
+	/**
+	 * Reverts on the given board the move recorded into undo. The board
+	 * should be in the exact state makeMove() left it.
+	 * 
+	 * @param board The board to revert the move on. It is modified.
+	 * @param undo The record makeMove() filled.
+	 * @throws NullBoardRuntimeException
+	 */
+	public void unmakeMove(HeadlessBoard board, UndoRecord undo) 
+			throws BoardUtils.NullBoardRuntimeException
+	{
+		if (board == null) throw new BoardUtils.NullBoardRuntimeException();
+		
+		undo.restoreLevels(board, columnMarks);
+		board.swap(undo.x1, undo.y1, undo.x2, undo.y2);
+		
+		key = undo.key;
+	}
+	
+	/**
+	 * Starts keeping the Zobrist key of the given board, while moves are
+	 * made on it by makeMove() and unmade by unmakeMove(). Moves should 
+	 * then be made on no other board, while moves played by playMove() or
+	 * crushAll() are not followed.
+	 * 
+	 * @param board The board whose key should be kept.
+	 * @param zobrist The keys of the board, or null for keeping no key.
+	 * @param consumedBase The tiles every column of the initial board of
+	 * 					   the given one had consumed, or null for none.
+	 * @throws NullBoardRuntimeException
+	 */
+	public void startHashing(HeadlessBoard board, ZobristHash zobrist, int[] consumedBase)
+			throws BoardUtils.NullBoardRuntimeException
+	{
+		if (board == null) throw new BoardUtils.NullBoardRuntimeException();
+		
+		this.zobrist = zobrist;
+		this.consumedBase = consumedBase;
+		
+		key = zobrist == null ? 0 : zobrist.hash(board, false, consumedBase);
+	}
+	
+	
+//==== Private Methods ====
+	
+	/**
+	 * Removes in place all the tiles of the given board that form
+	 * 3-or-more-in-a-row, until none is left, recording every step
+	 * into undo, if one is given.
+	 */
+	private int crushAll(HeadlessBoard board, UndoRecord undo) {
+		levels = 0;
+		totalRemoved = 0;
+
+		bitBoard.load(board);
+
+		boolean hashing = undo != null && zobrist != null;
+
+		int found;
+		while ((found = bitBoard.findColumnNPles(columnMarks)) != 0) {
+			// Only the marked columns change, from their lowest removed
+			// tile and above, along with their consumed counts.
+			if (hashing) key ^= hashMarkedColumns(board);
+
+			if (undo != null) undo.removeLevel(board, columnMarks, found);
+			else board.removeMarked(columnMarks);
+
+			if (hashing) key ^= hashMarkedColumns(board);
+
+			for (int x = 0; x < columnMarks.length; x++) {
+				if (columnMarks[x] != 0) {
+					bitBoard.loadColumn(board, x, Long.numberOfTrailingZeros(columnMarks[x]));
+				}
+			}
+
+			if (levels == removedOnLevel.length) {
+				int[] grown = new int[levels * 2];
+				System.arraycopy(removedOnLevel, 0, grown, 0, levels);
+				removedOnLevel = grown;
+			}
+
+			removedOnLevel[levels++] = found;
+			totalRemoved += found;
+		}
+
+		return totalRemoved;
+	}
+
+	/**
+	 * Computes the XOR of the keys of the marked columns of the given
+	 * board, from their lowest marked tile and above.
+	 */
+	private long hashMarkedColumns(HeadlessBoard board) {
+		long columnsKey = 0;
+
+		for (int x = 0; x < columnMarks.length; x++) {
+			if (columnMarks[x] == 0) continue;
+
+			columnsKey ^= zobrist.hashColumn(board, x, Long.numberOfTrailingZeros(columnMarks[x]),
+											 consumedBase == null ? 0 : consumedBase[x]);
+		}
+
+		return columnsKey;
+	}
+}
@@ -0,0 +1,125 @@
+package gr.auth.ee.dsproject.crush.util;
+
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+
+
+/**
+ * PackedMove provides the encoding of a move into a single int, so moves
+ * can be kept into primitive containers and tables, instead of int arrays
+ * or PlayerMove objects.
+ *
+ * A move of the tile at (x, y) towards direction dir, as defined in
+ * CrushUtilities, is encoded as:
+ * 	"(x << 8) | (y << 2) | dir"
+ * So, y should be lower than 64, as required by BitBoard as well, and
+ * x lower than 2^23. Encoded moves are non negative and dense enough
+ * to be used directly as indices of arrays of getTableSize() elements.
+ *
+ * Public methods defined in PackedMove:
+ * -public static int encode(int x, int y, int direction)
+ * -public static int fromDirArray(int[] dirMove) throws NullMoveRuntimeException
+ * -public static int getX(int move)
+ * -public static int getY(int move)
+ * -public static int getDirection(int move)
+ * -public static int getX2(int move)
+ * -public static int getY2(int move)
+ * -public static int[] toDirArray(int move)
+ * -public static int[] toCordsArray(int move)
+ * -public static int getTableSize(int cols)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public final class PackedMove {
+
+//==== Private Constants ====
+
+	private static final int Y_SHIFT = 2;
+
+	private static final int X_SHIFT = 8;
+
+	private static final int DIRECTION_MASK = 0x3;
+
+	private static final int Y_MASK = 0x3F;
+
+
+	private PackedMove() {}
+
+
+//==== Public Static Methods ====
+
+	/**
+	 * Encodes the move of the tile at (x, y) towards the given direction.
+	 */
+	public static int encode(int x, int y, int direction) {
+		return (x << X_SHIFT) | (y << Y_SHIFT) | direction;
+	}
+
+	/**
+	 * Encodes a move in the form of [x, y, direction] int array.
+	 *
+	 * @throws NullMoveRuntimeException
+	 */
+	public static int fromDirArray(int[] dirMove) throws BoardUtils.NullMoveRuntimeException {
+		if (dirMove == null) throw new BoardUtils.NullMoveRuntimeException();
+
+		return encode(dirMove[0], dirMove[1], dirMove[2]);
+	}
+
+	/**
+	 * Get the x cord of the moved tile.
+	 */
+	public static int getX(int move) { return move >>> X_SHIFT; }
+
+	/**
+	 * Get the y cord of the moved tile.
+	 */
+	public static int getY(int move) { return (move >>> Y_SHIFT) & Y_MASK; }
+
+	/**
+	 * Get the direction of the move, as defined in CrushUtilities.
+	 */
+	public static int getDirection(int move) { return move & DIRECTION_MASK; }
+
+	/**
+	 * Get the x cord of the tile the moved one is swapped with.
+	 */
+	public static int getX2(int move) {
+		switch (getDirection(move)) {
+		case CrushUtilities.LEFT: return getX(move) - 1;
+		case CrushUtilities.RIGHT: return getX(move) + 1;
+		default: return getX(move);
+		}
+	}
+
+	/**
+	 * Get the y cord of the tile the moved one is swapped with.
+	 */
+	public static int getY2(int move) {
+		switch (getDirection(move)) {
+		case CrushUtilities.DOWN: return getY(move) - 1;
+		case CrushUtilities.UP: return getY(move) + 1;
+		default: return getY(move);
+		}
+	}
+
+	/**
+	 * Decodes the move into a new [x, y, direction] int array.
+	 */
+	public static int[] toDirArray(int move) {
+		return new int[] { getX(move), getY(move), getDirection(move) };
+	}
+
+	/**
+	 * Decodes the move into a new [x1, y1, x2, y2] int array.
+	 */
+	public static int[] toCordsArray(int move) {
+		return new int[] { getX(move), getY(move), getX2(move), getY2(move) };
+	}
+
+	/**
+	 * Get the size of an array that is indexed by the encoded moves of a
+	 * board of the given number of columns.
+	 */
+	public static int getTableSize(int cols) { return cols << X_SHIFT; }
+}
@@ -0,0 +1,146 @@
+package gr.auth.ee.dsproject.crush.util;
+
+
+/**
+ * UndoRecord keeps everything needed to revert a move played on a
+ * HeadlessBoard by MoveSimulator.makeMove(), i.e. the two swapped tiles,
+ * the key of the board before the move and for every step of the cascade
+ * the marks of the removed tiles and their colors. Column shifts are not
+ * kept, since they are fully defined by the marks.
+ *
+ * All data are kept into primitive arrays that only grow when a longer
+ * cascade than any previous one is recorded, so a single UndoRecord can
+ * be reused for every move played on the same depth of a search.
+ *
+ * Public constructors defined in UndoRecord:
+ * -public UndoRecord(int cols)
+ *
+ * Public methods defined in UndoRecord:
+ * -public int getLevels()
+ * -public int getTotalRemoved()
+ * -public void clear()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public class UndoRecord {
+
+//==== Package-private instance variables ====
+
+	/**
+	 * The cords of the two swapped tiles.
+	 */
+	int x1, y1, x2, y2;
+
+	/**
+	 * The key MoveSimulator kept for the board before the move.
+	 */
+	long key;
+
+	/**
+	 * Number of columns of the boards recorded.
+	 */
+	final int cols;
+
+	/**
+	 * Number of cascade steps recorded.
+	 */
+	int levels;
+
+	/**
+	 * Marks of removed tiles. Marks of step l start at index l * cols.
+	 */
+	long[] marks;
+
+	/**
+	 * Colors of removed tiles of all steps, one after the other.
+	 */
+	byte[] colors;
+
+	/**
+	 * Index of colors where the colors of every step start. The entry
+	 * after the last step holds the total number of removed tiles.
+	 */
+	int[] colorsStart;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new empty UndoRecord.
+	 *
+	 * @param cols The number of columns of the boards to be recorded.
+	 */
+	public UndoRecord(int cols) {
+		this.cols = cols;
+		this.marks = new long[cols * 4];
+		this.colors = new byte[64];
+		this.colorsStart = new int[5];
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get the number of cascade steps recorded.
+	 */
+	public int getLevels() { return levels; }
+
+	/**
+	 * Get the total number of tiles removed by the recorded move.
+	 */
+	public int getTotalRemoved() { return colorsStart[levels]; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Discards any recorded data.
+	 */
+	public void clear() {
+		levels = 0;
+		colorsStart[0] = 0;
+	}
+
+
+//==== Package-private Methods ====
+
+	/**
+	 * Records a new step of the cascade and removes its marked tiles from
+	 * the given board.
+	 */
+	void removeLevel(HeadlessBoard board, long[] columnMarks, int found) {
+		if ((levels + 1) * cols > marks.length) {
+			long[] grownMarks = new long[marks.length * 2];
+			System.arraycopy(marks, 0, grownMarks, 0, marks.length);
+			marks = grownMarks;
+
+			int[] grownStart = new int[colorsStart.length * 2];
+			System.arraycopy(colorsStart, 0, grownStart, 0, colorsStart.length);
+			colorsStart = grownStart;
+		}
+
+		int start = colorsStart[levels];
+		if (start + found > colors.length) {
+			byte[] grown = new byte[Math.max(colors.length * 2, start + found)];
+			System.arraycopy(colors, 0, grown, 0, start);
+			colors = grown;
+		}
+
+		System.arraycopy(columnMarks, 0, marks, levels * cols, cols);
+		board.removeMarked(columnMarks, colors, start);
+
+		levels++;
+		colorsStart[levels] = start + found;
+	}
+
+	/**
+	 * Restores on the given board all the recorded steps, in reverse order.
+	 */
+	void restoreLevels(HeadlessBoard board, long[] scratchMarks) {
+		for (int l = levels - 1; l >= 0; l--) {
+			System.arraycopy(marks, l * cols, scratchMarks, 0, cols);
+			board.restoreMarked(scratchMarks, colors, colorsStart[l]);
+		}
+	}
+}
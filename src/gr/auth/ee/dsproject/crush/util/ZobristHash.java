@@ -0,0 +1,232 @@
+package gr.auth.ee.dsproject.crush.util;
+
+import java.util.Random;
+
+
+/**
+ * ZobristHash computes 64-bit keys for HeadlessBoard states, in order to
+ * recognize the same state when it is reached through different moves.
+ *
+ * A random key is assigned to every color, including UNKNOWN, of every
+ * tile of the playable area and to every possible consumed count of every
+ * column. The key of a board is the XOR of the keys of its tiles and its
+ * consumed counts. Since the hidden rows of a column are defined by the
+ * number of tiles it has consumed, two boards that derive from the same
+ * initial board have the same key when they are the same. Boards that
+ * derive from different initial boards should never be compared.
+ *
+ * A board may also be hashed as if it derived from an earlier board, by
+ * giving the consumed counts of its initial board relative to that one,
+ * so boards of different searches get the same keys when the initial
+ * board of one of them derives from the other's.
+ *
+ * An extra key is provided for distinguishing the side to move, since
+ * the same board is searched differently by the maximizing and the
+ * minimizing player.
+ *
+ * Keys of single tiles and of parts of columns are provided as well, so
+ * the key of a board can be kept up to date while moves are played on it,
+ * by XORing out the keys of the parts a move changes before it and in
+ * again after it, as MoveSimulator does.
+ *
+ * Keys are created from a fixed seed, so the same board always gets the
+ * same key. A ZobristHash is immutable and may be shared among threads.
+ *
+ * Public constructors defined in ZobristHash:
+ * -public ZobristHash(int cols, int pRows, int rows)
+ *
+ * Public methods defined in ZobristHash:
+ * -public long getSideKey()
+ * -public long hash(HeadlessBoard board) throws NullBoardRuntimeException
+ * -public long hash(HeadlessBoard board, boolean side) throws NullBoardRuntimeException
+ * -public long hash(HeadlessBoard board, boolean side, int[] consumedBase)
+ * 		throws NullBoardRuntimeException
+ * -public long hashTile(HeadlessBoard board, int x, int y) throws NullBoardRuntimeException
+ * -public long hashColumn(HeadlessBoard board, int x, int fromY, int consumedBase)
+ * 		throws NullBoardRuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.3
+ */
+public class ZobristHash {
+
+//==== Private Constants ====
+
+	private static final long SEED = 0x5DEECE66DL;
+
+	/**
+	 * Number of different values a tile may have, i.e. all colors and UNKNOWN.
+	 */
+	private static final int TILE_VALUES = BitBoard.NUMBER_OF_COLORS + 1;
+
+
+//==== Private instance variables ====
+
+	private final int cols;
+
+	private final int pRows;
+
+	/**
+	 * Maximum consumed count a column may have.
+	 */
+	private final int rows;
+
+	/**
+	 * Keys of tiles. Key of color c at (x, y) is kept at index
+	 * (x * pRows + y) * TILE_VALUES + c + 1.
+	 */
+	private final long[] tileKeys;
+
+	/**
+	 * Keys of consumed counts. Key of count n of column x is kept at index
+	 * x * (rows + 1) + n.
+	 */
+	private final long[] consumedKeys;
+
+	private final long sideKey;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new ZobristHash for boards of given dimensions.
+	 *
+	 * @param cols The number of columns of the boards to be hashed.
+	 * @param pRows The number of playable rows of the boards to be hashed.
+	 * @param rows The number of rows kept for every column of the boards
+	 * 			   to be hashed, including the playable ones.
+	 */
+	public ZobristHash(int cols, int pRows, int rows) {
+		this.cols = cols;
+		this.pRows = pRows;
+		this.rows = rows;
+
+		Random random = new Random(SEED);
+
+		tileKeys = new long[cols * pRows * TILE_VALUES];
+		for (int i = 0; i < tileKeys.length; i++) tileKeys[i] = random.nextLong();
+
+		consumedKeys = new long[cols * (rows + 1)];
+		for (int i = 0; i < consumedKeys.length; i++) consumedKeys[i] = random.nextLong();
+
+		sideKey = random.nextLong();
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get the key that is XORed into the key of a board when it is
+	 * searched by the maximizing side.
+	 */
+	public long getSideKey() { return sideKey; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Computes the key of the given board.
+	 *
+	 * @param board The board to be hashed. It should be of the same
+	 * 				dimensions as the ones this ZobristHash has been created for.
+	 * @return The 64-bit key of the board.
+	 * @throws NullBoardRuntimeException
+	 */
+	public long hash(HeadlessBoard board) throws BoardUtils.NullBoardRuntimeException {
+		return hash(board, null);
+	}
+
+	/**
+	 * Computes the key of the given board when it is searched by the
+	 * given side.
+	 *
+	 * @param board The board to be hashed.
+	 * @param side True for the maximizing side, false for the minimizing one.
+	 * @return The 64-bit key of the board for the given side.
+	 * @throws NullBoardRuntimeException
+	 */
+	public long hash(HeadlessBoard board, boolean side) throws BoardUtils.NullBoardRuntimeException {
+		long key = hash(board, null);
+
+		return side ? key ^ sideKey : key;
+	}
+
+	/**
+	 * Computes the key of the given board when it is searched by the
+	 * given side, as if its consumed counts were added to the given ones.
+	 *
+	 * @param board The board to be hashed.
+	 * @param side True for the maximizing side, false for the minimizing one.
+	 * @param consumedBase The tiles every column of the initial board of
+	 * 					   the given one had consumed, or null for none.
+	 * @return The 64-bit key of the board for the given side.
+	 * @throws NullBoardRuntimeException
+	 */
+	public long hash(HeadlessBoard board, boolean side, int[] consumedBase)
+			throws BoardUtils.NullBoardRuntimeException
+	{
+		long key = hash(board, consumedBase);
+
+		return side ? key ^ sideKey : key;
+	}
+
+	/**
+	 * Get the key of the tile of the given board at the given cords of
+	 * the playable area.
+	 *
+	 * @throws NullBoardRuntimeException
+	 */
+	public long hashTile(HeadlessBoard board, int x, int y) throws BoardUtils.NullBoardRuntimeException {
+		if (board == null) throw new BoardUtils.NullBoardRuntimeException();
+
+		return tileKeys[(x * pRows + y) * TILE_VALUES + board.getColor(x, y) + 1];
+	}
+
+	/**
+	 * Computes the XOR of the keys of the tiles of the given column of the
+	 * given board, from the given row to the top of the playable area,
+	 * along with the key of the consumed count of the column. It is the
+	 * part of the key of the board a move changes, when it removes tiles
+	 * of the column no lower than the given row.
+	 *
+	 * @param board The board whose column should be hashed.
+	 * @param x The column.
+	 * @param fromY The lowest row to be hashed.
+	 * @param consumedBase The tiles the column of the initial board of the
+	 * 					   given one had consumed.
+	 * @return The XOR of the keys.
+	 * @throws NullBoardRuntimeException
+	 */
+	public long hashColumn(HeadlessBoard board, int x, int fromY, int consumedBase)
+			throws BoardUtils.NullBoardRuntimeException
+	{
+		if (board == null) throw new BoardUtils.NullBoardRuntimeException();
+
+		long key = 0;
+		int base = (x * pRows + fromY) * TILE_VALUES + 1;
+
+		for (int y = fromY; y < pRows; y++, base += TILE_VALUES) {
+			key ^= tileKeys[base + board.getColor(x, y)];
+		}
+
+		// A column can never consume more tiles than the ones it had.
+		int consumed = Math.min(board.getConsumed(x) + consumedBase, rows);
+
+		return key ^ consumedKeys[x * (rows + 1) + consumed];
+	}
+
+
+//==== Private Methods ====
+
+	private long hash(HeadlessBoard board, int[] consumedBase) {
+		if (board == null) throw new BoardUtils.NullBoardRuntimeException();
+
+		long key = 0;
+
+		for (int x = 0; x < cols; x++) {
+			key ^= hashColumn(board, x, 0, consumedBase == null ? 0 : consumedBase[x]);
+		}
+
+		return key;
+	}
+}
@@ -0,0 +1,156 @@
+package tests.gr.auth.ee.dsproject.crush.heuristics;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.heuristics.CompiledHeuristicsEngine;
+import gr.auth.ee.dsproject.crush.heuristics.Heuristic;
+import gr.auth.ee.dsproject.crush.heuristics.HeuristicsCompiler;
+import gr.auth.ee.dsproject.crush.heuristics.HeuristicsEngine;
+import gr.auth.ee.dsproject.crush.heuristics.HeuristicsMathModel;
+import gr.auth.ee.dsproject.crush.heuristics.ReusableHeuristic;
+import gr.auth.ee.dsproject.crush.heuristics.SliderMathModel;
+
+
+public class CompiledHeuristicsEngineTest {
+	
+	/**
+	 * A reusable heuristic that scores its input multiplied by a factor.
+	 */
+	class ScaleHeuristic implements ReusableHeuristic<Double> {
+		private final double factor;
+		
+		public ScaleHeuristic(double factor) {
+			this.factor = factor;
+		}
+		
+		public double evaluate(Double input) {
+			return input * factor;
+		}
+	}
+	
+	/**
+	 * The same heuristic as ScaleHeuristic, for a HeuristicsEngine.
+	 */
+	class FixedScaleHeuristic extends Heuristic {
+		private final double input;
+		private final double factor;
+		
+		public FixedScaleHeuristic(double input, double factor) {
+			this.input = input;
+			this.factor = factor;
+		}
+		
+		public double evaluate() {
+			return input * factor;
+		}
+	}
+	
+	@Test
+	public void testCompile() {
+		SliderMathModel model = new SliderMathModel(1.7);
+		
+		CompiledHeuristicsEngine<Double> engine = new HeuristicsCompiler<Double>(model)
+				.add(new ScaleHeuristic(1.0), SliderMathModel.VERY_HIGH)
+				.add(new ScaleHeuristic(2.0), SliderMathModel.VERY_LOW)
+				.add(new ScaleHeuristic(3.0), SliderMathModel.VERY_HIGH)
+				.compile();
+		
+		assertEquals(3, engine.getNumberOfHeuristics());
+		assertEquals(2, engine.getNumberOfGroups());
+		
+		// Groups are kept in ascending order of scales.
+		Set<Integer> scales = new HashSet<>();
+		scales.add(SliderMathModel.VERY_LOW);
+		scales.add(SliderMathModel.VERY_HIGH);
+		Map<Integer, Double> weights = model.calculateWeights(scales);
+		
+		assertEquals(weights.get(SliderMathModel.VERY_LOW), engine.getGroupWeight(0), 0.0);
+		assertEquals(weights.get(SliderMathModel.VERY_HIGH), engine.getGroupWeight(1), 0.0);
+	}
+	
+	@Test
+	public void testIllegalWeight() {
+		boolean ex = false;
+		
+		HeuristicsCompiler<Double> compiler = new HeuristicsCompiler<>(new SliderMathModel(1.0));
+		compiler.add(new ScaleHeuristic(1.0), 42);
+		
+		try {
+			compiler.compile();
+		} catch (HeuristicsMathModel.IllegalWeightRuntimeException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+	}
+	
+	@Test
+	public void testEvaluateSameAsHeuristicsEngine() {
+		double[] factors = { 1.0, 0.5, 0.25, 0.8, 0.1 };
+		int[] scales = { SliderMathModel.VERY_HIGH, SliderMathModel.LOW, SliderMathModel.VERY_HIGH,
+						 SliderMathModel.MID, SliderMathModel.VERY_LOW };
+		
+		HeuristicsCompiler<Double> compiler = new HeuristicsCompiler<>(new SliderMathModel(1.7));
+		for (int i = 0; i < factors.length; i++) {
+			compiler.add(new ScaleHeuristic(factors[i]), scales[i]);
+		}
+		
+		CompiledHeuristicsEngine<Double> compiled = compiler.compile();
+		
+		// A compiled engine should be reusable on any number of inputs, 
+		// giving exactly the scores a new engine gives for every one.
+		for (double input = 0.0; input <= 100.0; input += 12.5) {
+			HeuristicsEngine engine = new HeuristicsEngine(new SliderMathModel(1.7));
+			for (int i = 0; i < factors.length; i++) {
+				engine.add(new FixedScaleHeuristic(input, factors[i]), scales[i]);
+			}
+			
+			assertEquals(engine.evaluate(), compiled.evaluate(input), 0.0);
+		}
+	}
+	
+	@Test
+	public void testCompiledEngineIsFrozen() {
+		HeuristicsCompiler<Double> compiler = new HeuristicsCompiler<>(new SliderMathModel(1.0));
+		compiler.add(new ScaleHeuristic(1.0), SliderMathModel.HIGH);
+		
+		CompiledHeuristicsEngine<Double> engine = compiler.compile();
+		double score = engine.evaluate(50.0);
+		
+		// Heuristics added after compilation should not affect the engine.
+		compiler.add(new ScaleHeuristic(0.0), SliderMathModel.LOW);
+		
+		assertEquals(1, engine.getNumberOfHeuristics());
+		assertEquals(score, engine.evaluate(50.0), 0.0);
+		assertEquals(2, compiler.compile().getNumberOfGroups());
+	}
+	
+	@Test
+	public void testTimedEvaluate() {
+		ScaleHeuristic low = new ScaleHeuristic(0.5);
+		
+		CompiledHeuristicsEngine<Double> engine = new HeuristicsCompiler<Double>(new SliderMathModel(1.7))
+				.add(new ScaleHeuristic(1.0), SliderMathModel.VERY_HIGH)
+				.add(low, SliderMathModel.VERY_LOW)
+				.add(new ScaleHeuristic(3.0), SliderMathModel.VERY_HIGH)
+				.compile();
+		
+		// Heuristics are kept group after group.
+		assertSame(low, engine.getHeuristic(0));
+		assertEquals(0, engine.getGroupOf(0));
+		assertEquals(1, engine.getGroupOf(1));
+		assertEquals(1, engine.getGroupOf(2));
+		
+		double[] scores = new double[3];
+		long[] nanos = new long[3];
+		
+		assertEquals(engine.evaluate(10.0), engine.evaluate(10.0, scores, nanos), 0.0);
+		assertArrayEquals(new double[] { 5.0, 10.0, 30.0 }, scores, 0.0);
+		
+		for (long n : nanos) assertTrue(n >= 0);
+	}
+}
@@ -0,0 +1,64 @@
+package tests.gr.auth.ee.dsproject.crush.heuristics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.heuristics.CompiledHeuristicsEngine;
+import gr.auth.ee.dsproject.crush.heuristics.EvaluationSampler;
+import gr.auth.ee.dsproject.crush.heuristics.HeuristicsCompiler;
+import gr.auth.ee.dsproject.crush.heuristics.ReusableHeuristic;
+import gr.auth.ee.dsproject.crush.heuristics.SliderMathModel;
+
+
+public class EvaluationSamplerTest {
+
+	class ScaleHeuristic implements ReusableHeuristic<Double> {
+		private final double factor;
+
+		public ScaleHeuristic(double factor) {
+			this.factor = factor;
+		}
+
+		public double evaluate(Double input) {
+			return input * factor;
+		}
+	}
+
+	private CompiledHeuristicsEngine<Double> createEngine() {
+		return new HeuristicsCompiler<Double>(new SliderMathModel(1.7))
+				.add(new ScaleHeuristic(1.0), SliderMathModel.VERY_HIGH)
+				.add(new ScaleHeuristic(0.5), SliderMathModel.VERY_LOW)
+				.compile();
+	}
+
+	@Test
+	public void testInvalidPeriod() {
+		boolean ex = false;
+
+		try {
+			new EvaluationSampler<Double>(createEngine(), 0);
+		} catch (IllegalArgumentException e) {
+			ex = true;
+		}
+
+		assertTrue(ex);
+		assertEquals(EvaluationSampler.DEFAULT_PERIOD, new EvaluationSampler<Double>(createEngine()).getPeriod());
+	}
+
+	@Test
+	public void testSameScoresAsEngine() {
+		CompiledHeuristicsEngine<Double> engine = createEngine();
+
+		// Sampled evaluations should score the same as the rest.
+		EvaluationSampler<Double> everyOne = new EvaluationSampler<>(engine, 1);
+		EvaluationSampler<Double> everyThird = new EvaluationSampler<>(engine, 3);
+
+		for (double input = 0.0; input <= 100.0; input += 12.5) {
+			assertEquals(engine.evaluate(input), everyOne.evaluate(input), 0.0);
+			assertEquals(engine.evaluate(input), everyThird.evaluate(input), 0.0);
+		}
+
+		assertSame(engine, everyOne.getEngine());
+	}
+}
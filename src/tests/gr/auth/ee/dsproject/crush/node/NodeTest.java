@@ -9,6 +9,7 @@ import org.junit.Test;
 import gr.auth.ee.dsproject.crush.board.*;
 import gr.auth.ee.dsproject.crush.node.*;
 import gr.auth.ee.dsproject.crush.player.move.*;
+import gr.auth.ee.dsproject.crush.util.*;
 
 
 public class NodeTest {
@@ -46,7 +47,7 @@ public class NodeTest {
 	@Test
 	public void testParentAndBoardArgumentsConstructor() {
 		Node parent = new Node();
-		Board board = new Board(10);
+		HeadlessBoard board = new HeadlessBoard(10, 10, 10);
 		
 		Node n = new Node(parent, board);
 		
@@ -63,7 +64,7 @@ public class NodeTest {
 	@Test
 	public void testParentBoardAndMoveArgumentsConstructor() {
 		Node parent = new Node();
-		Board board = new Board(10);
+		HeadlessBoard board = new HeadlessBoard(10, 10, 10);
 		PlayerMove move = new PlayerMove();
 		
 		Node n = new Node(parent, board, move);
@@ -89,7 +90,7 @@ public class NodeTest {
 	
 	@Test
 	public void testSetNodeBoard() {
-		Board board = new Board(10);
+		HeadlessBoard board = new HeadlessBoard(10, 10, 10);
 		
 		Node n = new Node();
 		n.setNodeBoard(board);
@@ -172,4 +173,62 @@ public class NodeTest {
 		assertEquals(2, n.getChildren().size());
 		assertTrue(n.getChildren().contains(child));
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void testChildIterator() {
+		// Two separate crushes are available on the second row from the top.
+		HeadlessBoard board = new HeadlessBoard(5, 5, 8);
+		int[][] scheme = {
+			{ 0, 1, 2, 3, 4 },
+			{ 5, 5, 6, 5, 0 },
+			{ 1, 2, 5, 4, 3 },
+			{ 2, 3, 4, 1, 2 },
+			{ 3, 4, 0, 2, 1 }
+		};
+		for (int y = 0; y < 5; y++) {
+			for (int x = 0; x < 5; x++) board.setColor(x, y, scheme[4 - y][x]);
+		}
+		
+		Node eager = new Node(null, board);
+		eager.createChildren();
+		
+		Node lazy = new Node(null, board);
+		Iterator<Node> it = lazy.childIterator();
+		
+		// No child should exist before it is requested.
+		assertEquals(0, lazy.getChildren().size());
+		assertTrue(it.hasNext());
+		
+		Node first = it.next();
+		assertEquals(1, lazy.getChildren().size());
+		assertSame(lazy, first.getParent());
+		
+		while (it.hasNext()) it.next();
+		
+		// Children should be the same as the ones createChildren() creates.
+		assertEquals(eager.getChildren().size(), lazy.getChildren().size());
+		
+		for (int i = 0; i < eager.getChildren().size(); i++) {
+			Node c1 = eager.getChildren().get(i);
+			Node c2 = lazy.getChildren().get(i);
+			
+			assertArrayEquals(c1.getNodeMove().toCordsArray(), c2.getNodeMove().toCordsArray());
+			
+			for (int x = 0; x < 5; x++) {
+				for (int y = 0; y < 8; y++) {
+					assertEquals(c1.getNodeBoard().getColor(x, y), c2.getNodeBoard().getColor(x, y));
+				}
+			}
+		}
+		
+		boolean ex = false;
+		
+		try {
+			it.next();
+		} catch (NoSuchElementException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+	}
+}
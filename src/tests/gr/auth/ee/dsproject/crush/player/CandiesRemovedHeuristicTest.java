@@ -14,6 +14,8 @@ import gr.auth.ee.dsproject.crush.board.*;
 import gr.auth.ee.dsproject.crush.player.move.*;
 
 import gr.auth.ee.dsproject.crush.player.CandiesRemovedHeuristic;
+import gr.auth.ee.dsproject.crush.player.MoveContext;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
 
 
 public class CandiesRemovedHeuristicTest {
@@ -308,6 +310,16 @@ public class CandiesRemovedHeuristicTest {
 		int chainCount = heur.countChainedCandiesRemoved(afterCrush);
 		
 		assertEquals(9, chainCount);
+		
+		// Every level of the chain should be reported separately.
+		assertEquals(3, heur.getChainedLevels());
+		for (int level = 0; level < 3; level++) {
+			assertEquals(3, heur.getChainedRemovedOnLevel(level));
+		}
+		assertEquals(0, heur.getChainedRemovedOnLevel(3));
+		
+		// The buffer should be reused, without affecting later counts.
+		assertEquals(9, heur.countChainedCandiesRemoved(afterCrush));
 	}
 	
 	@Test
@@ -436,6 +448,78 @@ public class CandiesRemovedHeuristicTest {
 		assertEquals(score, heur.evaluate(), 0.1);
 	}
 	
+@Test
+	public void testEvaluateMoveContext() {
+		int[][] boardScheme = {
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 4, 6, 4, 1, 2, 3 },
+				{ 2, 3, 4, 5, 5, 0, 5, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 0, 1, 2, 3, 4, 5, 6 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 }, 
+		};
+		
+		Board board = createBoard(boardScheme);
+		HeadlessBoard headless = HeadlessBoard.fromBoard(board);
+		HeadlessBoard original = new HeadlessBoard(headless);
+		
+		// A single empty heuristic and a single context should evaluate
+		// every move the same way a heuristic created for it does.
+		CandiesRemovedHeuristic reusable = new CandiesRemovedHeuristic();
+		MoveContext context = new MoveContext();
+		
+		PlayerMove move = new PlayerMove(board.giveTileAt(5, 7), board.giveTileAt(6, 7));
+		context.set(headless, move);
+		assertEquals(6 * 4.0 + 6 * 2.0, reusable.evaluate(context), 0.1);
+		
+		move = new PlayerMove(board.giveTileAt(3, 8), board.giveTileAt(4, 8));
+		context.set(headless, move);
+		assertEquals(new CandiesRemovedHeuristic(move, board).evaluate(), 
+					 reusable.evaluate(context), 0.0);
+		
+		// The board of the context should never be modified.
+		for (int x = 0; x < 10; x++) {
+			for (int y = 0; y < 10; y++) {
+				assertEquals(original.getColor(x, y), headless.getColor(x, y));
+			}
+		}
+	}
+	
+	@Test
+	public void testEvaluateIndependentOfLookaheadRows() throws Exception {
+		Method init = Board.class.getDeclaredMethod("initializeBoard");
+		init.setAccessible(true);
+		
+		CandiesRemovedHeuristic reusable = new CandiesRemovedHeuristic();
+		MoveContext context = new MoveContext();
+		
+		// Every move should score the same, whether the board keeps all its
+		// lookahead rows or only the ones minimax used to search on.
+		for (int i = 0; i < 50; i++) {
+			Board board = new Board(500);
+			init.invoke(board);
+			
+			HeadlessBoard full = HeadlessBoard.fromBoard(board);
+			HeadlessBoard cut = HeadlessBoard.fromBoard(board, CandiesRemovedHeuristic.SCORE_ROWS);
+			
+			for (int[] available : CrushUtilities.getAvailableMoves(board)) {
+				int[] cords = CrushUtilities.calculateNextMove(available);
+				PlayerMove move = new PlayerMove(board.giveTileAt(cords[0], cords[1]), 
+												 board.giveTileAt(cords[2], cords[3]));
+				
+				context.set(full, move);
+				double score = reusable.evaluate(context);
+				
+				context.set(cut, move);
+				assertEquals(score, reusable.evaluate(context), 0.0);
+			}
+		}
+	}
+	
 //==== Tests for legacy code ====
 //	
 //	@Test 
@@ -3,14 +3,82 @@ package tests.gr.auth.ee.dsproject.crush.player;
 import static org.junit.Assert.*;
 
 import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.defplayers.AbstractPlayer;
+import gr.auth.ee.dsproject.crush.player.HeuristicPlayer;
 import gr.auth.ee.dsproject.crush.player.MinMaxPlayer;
+import gr.auth.ee.dsproject.crush.search.SearchStats;
+import gr.auth.ee.dsproject.crush.search.SearchStatsCollector;
+import gr.auth.ee.dsproject.crush.tournament.Game;
+import gr.auth.ee.dsproject.crush.tournament.GameResult;
 
 
 public class MinMaxPlayerTest {
+	
+	private Board createRandomBoard() throws Exception {
+		Board board = new Board(100);
+		
+		Method init = Board.class.getDeclaredMethod("initializeBoard");
+		init.setAccessible(true);
+		init.invoke(board);
+		
+		return board;
+	}
+	
+	/**
+	 * Creates a board of 500 rows the way a game does, out of the given
+	 * seed, so any failure on it can be reproduced.
+	 */
+	private Board createSeededBoard(long seed) {
+		return Game.createBoard(new Random(seed), 500);
+	}
+	
+	private boolean isAvailable(int[] cordsMove, ArrayList<int[]> availableMoves) {
+		for (int[] move : availableMoves) {
+			int[] cords = CrushUtilities.calculateNextMove(move);
+			
+			if (java.util.Arrays.equals(cords, cordsMove)) return true;
+		}
+		
+		return false;
+	}
+
+	/**
+	 * Creates a HeuristicPlayer which waits on every move for the pondering
+	 * of the given player to finish, so every reply has been pondered.
+	 */
+	private AbstractPlayer createWaitingPlayer(int id, final MinMaxPlayer opponent) throws Exception {
+		final HeuristicPlayer player = new HeuristicPlayer(id);
+		
+		final Method awaitPondering = MinMaxPlayer.class.getDeclaredMethod("awaitPondering");
+		awaitPondering.setAccessible(true);
+		
+		return new AbstractPlayer() {
+			public void setId(int id) { player.setId(id); }
+			public int getId() { return player.getId(); }
+			public void setName(String name) { player.setName(name); }
+			public String getName() { return player.getName(); }
+			public void setScore(int score) { player.setScore(score); }
+			public int getScore() { return player.getScore(); }
+			
+			public int[] getNextMove(ArrayList<int[]> availableMoves, Board board) {
+				try {
+					awaitPondering.invoke(opponent);
+				} catch (ReflectiveOperationException e) {
+					throw new RuntimeException(e);
+				}
+				
+				return player.getNextMove(availableMoves, board);
+			}
+		};
+	}
 
 	@Before
 	public void setUp() throws Exception {
@@ -48,4 +116,339 @@ public class MinMaxPlayerTest {
 		}
 	}
 
+	@Test
+	public void testTimeBudgetConstructor() {
+		assertEquals(250, new MinMaxPlayer(0, 250).getTimeBudget());
+		assertEquals(0, new MinMaxPlayer(0, 0).getTimeBudget());
+	}
+	
+	@Test
+	public void testFixedDepthSearch() throws Exception {
+		Board board = createRandomBoard();
+		ArrayList<int[]> moves = CrushUtilities.getAvailableMoves(board);
+		
+		MinMaxPlayer player = new MinMaxPlayer(1, 0);
+		
+		assertTrue(isAvailable(player.getNextMove(moves, board), moves));
+		assertEquals(MinMaxPlayer.MINIMAX_DEPTH, player.getLastSearchDepth());
+		
+		player.setSearchDepth(2);
+		
+		assertTrue(isAvailable(player.getNextMove(moves, board), moves));
+		assertEquals(2, player.getSearchDepth());
+		assertEquals(2, player.getLastSearchDepth());
+		
+		boolean ex = false;
+		
+		try {
+			player.setSearchDepth(MinMaxPlayer.MAX_SEARCH_DEPTH + 1);
+		} catch (IllegalArgumentException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+		assertEquals(2, player.getSearchDepth());
+	}
+	
+	@Test
+	public void testIterativeDeepeningSearch() throws Exception {
+		Board board = createRandomBoard();
+		ArrayList<int[]> moves = CrushUtilities.getAvailableMoves(board);
+		
+		// Even a budget too short for any search should return a move
+		// out of the first iteration.
+		MinMaxPlayer hurried = new MinMaxPlayer(1, 1);
+		
+		assertTrue(isAvailable(hurried.getNextMove(moves, board), moves));
+		assertTrue(hurried.getLastSearchDepth() >= 1);
+		
+		MinMaxPlayer player = new MinMaxPlayer(1, 300);
+		player.addSearchListener(new SearchStatsCollector());
+		
+		long start = System.nanoTime();
+		int[] move = player.getNextMove(moves, board);
+		long elapsed = (System.nanoTime() - start) / 1000000;
+		
+		assertTrue(isAvailable(move, moves));
+		
+		// An iteration is only aborted once the deadline has passed, and
+		// the move returned is the one of the iteration before it.
+		SearchStats stats = player.getLastSearchStats();
+		
+		assertTrue(elapsed >= 300);
+		assertEquals(player.getLastSearchDepth() + 1, stats.getIterations());
+		assertEquals(player.getLastSearchDepth(), stats.getMaxDepth());
+		
+		// The search should stop soon after the deadline, though how soon
+		// depends on the machine.
+		assertTrue(elapsed < 300 + 5000);
+	}
+	
+	@Test
+	public void testParallelismConstructor() {
+		assertEquals(1, new MinMaxPlayer(0, 0).getParallelism());
+		assertEquals(4, new MinMaxPlayer(0, 0, 4).getParallelism());
+		
+		boolean ex = false;
+		
+		try {
+			new MinMaxPlayer(0, 0, 0);
+		} catch (IllegalArgumentException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+	}
+	
+	@Test
+	public void testParallelSearch() throws Exception {
+		MinMaxPlayer sequential = new MinMaxPlayer(1, 0, 1);
+		MinMaxPlayer parallel = new MinMaxPlayer(1, 0, 4);
+		
+		// Both searches should pick the same move on every board.
+		for (long seed = 0; seed < 5; seed++) {
+			Board board = createSeededBoard(seed);
+			ArrayList<int[]> moves = CrushUtilities.getAvailableMoves(board);
+			
+			int[] move = parallel.getNextMove(moves, board);
+			
+			assertTrue(isAvailable(move, moves));
+			assertArrayEquals(sequential.getNextMove(moves, board), move);
+		}
+	}
+	
+	@Test
+	public void testSearchStats() throws Exception {
+		Board board = createSeededBoard(0);
+		ArrayList<int[]> moves = CrushUtilities.getAvailableMoves(board);
+		
+		MinMaxPlayer silent = new MinMaxPlayer(1, 0, 1);
+		MinMaxPlayer listened = new MinMaxPlayer(1, 0, 1);
+		MinMaxPlayer parallel = new MinMaxPlayer(1, 0, 4);
+		
+		SearchStatsCollector collector = new SearchStatsCollector();
+		listened.addSearchListener(collector);
+		parallel.addSearchListener(collector);
+		
+		int[] move = silent.getNextMove(moves, board);
+		assertNull(silent.getLastSearchStats());
+		
+		// Collecting statistics should not change the search.
+		assertArrayEquals(move, listened.getNextMove(moves, board));
+		assertArrayEquals(move, parallel.getNextMove(moves, board));
+		
+		SearchStats stats = listened.getLastSearchStats();
+		
+		assertEquals(1, stats.getMoves());
+		assertEquals(MinMaxPlayer.MINIMAX_DEPTH, stats.getMaxDepth());
+		assertEquals(1, stats.getIterations());
+		assertTrue(stats.getNodes() > stats.getLeaves());
+		assertTrue(stats.getLeaves() > 0);
+		assertTrue(stats.getBranchingFactor() > 1);
+		assertTrue(stats.getCutoffs() > 0);
+		assertTrue(stats.getTableProbes() >= stats.getTableHits());
+		assertTrue(stats.getElapsedNanos() >= stats.getEvaluationNanos());
+		
+		// The states the parallel search prunes depend on the order its
+		// threads finish in, so only its total is checked.
+		SearchStats parallelStats = parallel.getLastSearchStats();
+		assertTrue(parallelStats.getNodes() > parallelStats.getLeaves());
+		assertEquals(stats.getNodes() + parallelStats.getNodes(), collector.getTotal().getNodes());
+		assertEquals(2, collector.getTotal().getMoves());
+		
+		listened.removeSearchListener(collector);
+		listened.getNextMove(moves, board);
+		
+		assertNull(listened.getLastSearchStats());
+		assertEquals(2, collector.getTotal().getMoves());
+	}
+	
+	@Test
+	public void testPrincipalVariationSearch() throws Exception {
+		MinMaxPlayer alphaBeta = new MinMaxPlayer(1, 0, 1);
+		MinMaxPlayer pvs = new MinMaxPlayer(1, 0, 1);
+		MinMaxPlayer parallelPvs = new MinMaxPlayer(1, 0, 4);
+		
+		assertEquals(MinMaxPlayer.ALPHA_BETA, alphaBeta.getAlgorithm());
+		
+		pvs.setAlgorithm(MinMaxPlayer.PVS);
+		parallelPvs.setAlgorithm(MinMaxPlayer.PVS);
+		
+		SearchStatsCollector alphaBetaStats = new SearchStatsCollector();
+		SearchStatsCollector pvsStats = new SearchStatsCollector();
+		alphaBeta.addSearchListener(alphaBetaStats);
+		pvs.addSearchListener(pvsStats);
+		
+		// Both algorithms should pick the same move on every board. On the
+		// board of seed 36, a null window of sequential PVS used to fail
+		// low a few ulps above the best evaluation, picking a worse move.
+		for (long seed : new long[] { 36, 1, 2, 3, 4 }) {
+			Board board = createSeededBoard(seed);
+			ArrayList<int[]> moves = CrushUtilities.getAvailableMoves(board);
+			
+			int[] move = alphaBeta.getNextMove(moves, board);
+			
+			assertArrayEquals(move, pvs.getNextMove(moves, board));
+			assertArrayEquals(move, parallelPvs.getNextMove(moves, board));
+		}
+		
+		assertTrue(pvsStats.getTotal().getNodes() < alphaBetaStats.getTotal().getNodes());
+		
+		boolean ex = false;
+		
+		try {
+			pvs.setAlgorithm(2);
+		} catch (IllegalArgumentException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+		assertEquals(MinMaxPlayer.PVS, pvs.getAlgorithm());
+	}
+	
+	@Test
+	public void testPondering() throws Exception {
+		MinMaxPlayer pondering = new MinMaxPlayer(1, 0, 1);
+		MinMaxPlayer plain = new MinMaxPlayer(1, 0, 1);
+		
+		assertFalse(pondering.isPondering());
+		pondering.setPondering(true);
+		assertTrue(pondering.isPondering());
+		
+		SearchStatsCollector collector = new SearchStatsCollector();
+		pondering.addSearchListener(collector);
+		
+		GameResult ponderedGame = new Game(pondering, createWaitingPlayer(2, pondering), 4, 100, 
+										   Integer.MAX_VALUE, 5).play();
+		GameResult plainGame = new Game(plain, createWaitingPlayer(2, plain), 4, 100, 
+										Integer.MAX_VALUE, 5).play();
+		
+		// Moves found by pondering should be the ones searching finds.
+		assertEquals(plainGame.getScore(0), ponderedGame.getScore(0));
+		assertEquals(plainGame.getScore(1), ponderedGame.getScore(1));
+		
+		assertTrue(collector.getTotal().getPonderHits() > 0);
+		assertEquals(MinMaxPlayer.MINIMAX_DEPTH, pondering.getLastSearchDepth());
+		
+		pondering.setPondering(false);
+		assertFalse(pondering.isPondering());
+	}
+	
+	@Test
+	public void testTableReuse() throws Exception {
+		MinMaxPlayer player = new MinMaxPlayer(1, 0, 1);
+		
+		SearchStatsCollector collector = new SearchStatsCollector();
+		player.addSearchListener(collector);
+		
+		new Game(player, new HeuristicPlayer(2), 5, 100, Integer.MAX_VALUE, 5).play();
+		
+		// Every board but the ones the game replaced derives from the
+		// previous one.
+		SearchStats total = collector.getTotal();
+		assertEquals(5, total.getMoves());
+		assertTrue(total.getTableReuses() > 0);
+	}
+	
+	@Test
+	public void testQuiescence() throws Exception {
+		MinMaxPlayer alphaBeta = new MinMaxPlayer(1, 0, 1);
+		MinMaxPlayer pvs = new MinMaxPlayer(1, 0, 1);
+		MinMaxPlayer parallelPvs = new MinMaxPlayer(1, 0, 4);
+		
+		assertEquals(0, alphaBeta.getQuiescenceNodes());
+		
+		for (MinMaxPlayer player : new MinMaxPlayer[] { alphaBeta, pvs, parallelPvs }) {
+			player.setSearchDepth(2);
+			player.setQuiescenceNodes(32);
+		}
+		pvs.setAlgorithm(MinMaxPlayer.PVS);
+		parallelPvs.setAlgorithm(MinMaxPlayer.PVS);
+		
+		SearchStatsCollector collector = new SearchStatsCollector();
+		alphaBeta.addSearchListener(collector);
+		
+		// Values of leaves only depend on their boards, so all of them
+		// should still pick the same move.
+		for (long seed = 0; seed < 5; seed++) {
+			Board board = createSeededBoard(seed);
+			ArrayList<int[]> moves = CrushUtilities.getAvailableMoves(board);
+			
+			int[] move = alphaBeta.getNextMove(moves, board);
+			
+			assertTrue(isAvailable(move, moves));
+			assertArrayEquals(move, pvs.getNextMove(moves, board));
+			assertArrayEquals(move, parallelPvs.getNextMove(moves, board));
+		}
+		
+		assertTrue(collector.getTotal().getQuiescenceNodes() > 0);
+		
+		boolean ex = false;
+		
+		try {
+			alphaBeta.setQuiescenceNodes(-1);
+		} catch (IllegalArgumentException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+		assertEquals(32, alphaBeta.getQuiescenceNodes());
+	}
+	
+	@Test
+	public void testAspirationWindows() throws Exception {
+		// A budget no search reaches, so deepening always stops at the
+		// search depth, no matter how fast the machine is.
+		MinMaxPlayer player = new MinMaxPlayer(1, 3600000);
+		player.setAlgorithm(MinMaxPlayer.PVS);
+		player.setSearchDepth(4);
+		
+		MinMaxPlayer unbounded = new MinMaxPlayer(1, 3600000);
+		unbounded.setAlgorithm(MinMaxPlayer.PVS);
+		unbounded.setSearchDepth(4);
+		unbounded.setAspirationWindows();
+		
+		assertEquals(MinMaxPlayer.MAX_SEARCH_DEPTH, new MinMaxPlayer(1, 300).getSearchDepth());
+		
+		SearchStatsCollector collector = new SearchStatsCollector();
+		player.addSearchListener(collector);
+		
+		// Windows this narrow should fail on almost every iteration.
+		player.setAspirationWindows(1e-6, 1e-3);
+		
+		for (long seed = 0; seed < 3; seed++) {
+			Board board = createSeededBoard(seed);
+			ArrayList<int[]> moves = CrushUtilities.getAvailableMoves(board);
+			
+			int[] move = player.getNextMove(moves, board);
+			
+			assertTrue(isAvailable(move, moves));
+			assertEquals(4, player.getLastSearchDepth());
+			assertArrayEquals(unbounded.getNextMove(moves, board), move);
+		}
+		
+		assertTrue(collector.getTotal().getAspirationResearches() > 0);
+		
+		double[] windows = player.getAspirationWindows();
+		windows[0] = 5;
+		assertEquals(1e-6, player.getAspirationWindows()[0], 0);
+		
+		player.setAspirationWindows();
+		assertEquals(0, player.getAspirationWindows().length);
+		
+		double[][] invalid = { null, { 0 }, { -1 }, { 4, 2 }, { 2, 2 }, { Double.NaN } };
+		
+		for (double[] halfWidths : invalid) {
+			boolean ex = false;
+			
+			try {
+				player.setAspirationWindows(halfWidths);
+			} catch (IllegalArgumentException e) {
+				ex = true;
+			}
+			
+			assertTrue(ex);
+		}
+	}
+
 }
@@ -0,0 +1,158 @@
+package tests.gr.auth.ee.dsproject.crush.player;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.player.MoveContext;
+import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+import gr.auth.ee.dsproject.crush.util.MoveSimulator;
+import gr.auth.ee.dsproject.crush.util.PackedMove;
+
+
+public class MoveContextTest {
+	
+	private HeadlessBoard createBoard(int[][] boardScheme, int pRows) {
+		int rows = boardScheme.length;
+		int cols = boardScheme[0].length;
+		
+		HeadlessBoard board = new HeadlessBoard(cols, pRows, rows);
+		
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) {
+				board.setColor(x, y, boardScheme[rows - y - 1][x]);
+			}
+		}
+		
+		return board;
+	}
+	
+	private HeadlessBoard createCascadeBoard() {
+		// Two hidden rows on top of a 5 x 4 playable area.
+		int[][] scheme = {
+				{ 4, 5, 6, 0, 1 },
+				{ 2, 3, 4, 5, 6 },
+				{ 0, 1, 3, 3, 4 },
+				{ 5, 6, 0, 1, 3 },
+				{ 3, 4, 1, 6, 0 },
+				{ 1, 1, 0, 1, 2 }, 
+		};
+		
+		return createBoard(scheme, 4);
+	}
+	
+	private void assertSameBoards(HeadlessBoard expected, HeadlessBoard actual) {
+		for (int x = 0; x < expected.getCols(); x++) {
+			for (int y = 0; y < expected.getRows(); y++) {
+				assertEquals(expected.getColor(x, y), actual.getColor(x, y));
+			}
+		}
+	}
+	
+	@Test
+	public void testNullBoardException() {
+		boolean ex = false;
+		
+		try {
+			new MoveContext().set(null, new PlayerMove());
+		} catch (BoardUtils.NullBoardRuntimeException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+	}
+	
+	@Test
+	public void testMoveResults() {
+		HeadlessBoard board = createCascadeBoard();
+		HeadlessBoard original = new HeadlessBoard(board);
+		
+		// Moving the 0 at (2, 0) to the top lets the 1s of the bottom row
+		// crush, and the 3s of row 3 fall next to the 3 at (4, 2).
+		int[] dirMove = { 2, 0, CrushUtilities.UP };
+		PlayerMove move = new PlayerMove(board.giveTileAt(2, 0), board.giveTileAt(2, 1));
+		MoveContext context = new MoveContext(board, move);
+		
+		assertEquals(7, context.getTotalRemoved());
+		assertEquals(2, context.getLevels());
+		assertEquals(4, context.getRemovedOnLevel(0));
+		assertEquals(3, context.getRemovedOnLevel(1));
+		assertEquals(0, context.getRemovedOnLevel(2));
+		
+		HeadlessBoard afterMove = new HeadlessBoard(board);
+		new MoveSimulator(5, 4).playMove(afterMove, dirMove);
+		assertSameBoards(afterMove, context.getBoardAfterMove());
+		
+		HeadlessBoard afterSwap = BoardUtils.boardAfterFirstMove(board, dirMove);
+		assertSameBoards(afterSwap, context.getBoardAfterSwap());
+		
+		long[] marks = new long[5];
+		int found = BoardUtils.findMoveNPles(afterSwap, new int[] { 2, 0, 2, 1 }, marks);
+		assertEquals(4, found);
+		assertEquals(found, context.getInitialCrushCount());
+		assertArrayEquals(marks, context.getInitialCrushes());
+		
+		// The board of the context should never be modified.
+		assertSameBoards(original, board);
+	}
+	
+	@Test
+	public void testResultsAreMemoized() {
+		HeadlessBoard board = createCascadeBoard();
+		PlayerMove move = new PlayerMove(board.giveTileAt(2, 0), board.giveTileAt(2, 1));
+		MoveContext context = new MoveContext(board, move);
+		
+		// Results should be computed once and then kept.
+		HeadlessBoard afterMove = context.getBoardAfterMove();
+		HeadlessBoard afterSwap = context.getBoardAfterSwap();
+		long[] marks = context.getInitialCrushes();
+		
+		assertSame(afterMove, context.getBoardAfterMove());
+		assertSame(afterSwap, context.getBoardAfterSwap());
+		assertSame(marks, context.getInitialCrushes());
+		assertEquals(7, context.getTotalRemoved());
+	}
+	
+	@Test
+	public void testSetDiscardsResults() {
+		HeadlessBoard board = createCascadeBoard();
+		MoveContext context = new MoveContext();
+		
+		context.set(board, new PlayerMove(board.giveTileAt(2, 0), board.giveTileAt(2, 1)));
+		assertEquals(7, context.getTotalRemoved());
+		
+		// Swapping the two bottom left tiles crushes nothing.
+		context.set(board, new PlayerMove(board.giveTileAt(0, 0), board.giveTileAt(1, 0)));
+		assertEquals(0, context.getTotalRemoved());
+		assertEquals(0, context.getLevels());
+		assertEquals(0, context.getInitialCrushCount());
+		assertSameBoards(board, context.getBoardAfterMove());
+		
+		// A board of other dimensions should be handled as well.
+		HeadlessBoard other = new HeadlessBoard(10, 10, 10);
+		context.set(other, new PlayerMove(other.giveTileAt(0, 0), other.giveTileAt(1, 0)));
+		assertEquals(0, context.getTotalRemoved());
+		assertEquals(10, context.getBoardAfterSwap().getCols());
+	}
+	
+	@Test
+	public void testSetPackedMove() {
+		HeadlessBoard board = createCascadeBoard();
+		MoveContext context = new MoveContext();
+		
+		context.set(board, PackedMove.encode(2, 0, CrushUtilities.UP));
+		assertEquals(2, context.getX1());
+		assertEquals(0, context.getY1());
+		assertEquals(2, context.getX2());
+		assertEquals(1, context.getY2());
+		assertEquals(7, context.getTotalRemoved());
+		
+		// The PlayerMove should only be created when asked for.
+		PlayerMove move = context.getMove();
+		assertEquals(2, move.getX2());
+		assertEquals(1, move.getY2());
+		assertSame(move, context.getMove());
+	}
+}
@@ -0,0 +1,147 @@
+package tests.gr.auth.ee.dsproject.crush.search;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.search.MoveOrderer;
+import gr.auth.ee.dsproject.crush.search.TranspositionTable;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+import gr.auth.ee.dsproject.crush.util.IntMoveList;
+import gr.auth.ee.dsproject.crush.util.PackedMove;
+
+
+public class MoveOrdererTest {
+
+	/**
+	 * Creates a 5 x 5 board out of the given scheme, where row 0 of the
+	 * scheme is the top row of the board.
+	 */
+	private HeadlessBoard createBoard(int[][] scheme) {
+		int rows = scheme.length;
+		int cols = scheme[0].length;
+
+		HeadlessBoard board = new HeadlessBoard(cols, rows, rows);
+
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) board.setColor(x, y, scheme[rows - y - 1][x]);
+		}
+
+		return board;
+	}
+
+	private int[][] scheme = {
+		{ 4, 5, 6, 4, 5 },
+		{ 5, 6, 1, 5, 6 },
+		{ 1, 1, 2, 1, 0 },
+		{ 6, 4, 2, 5, 4 },
+		{ 2, 2, 0, 2, 2 }
+	};
+
+	@Test
+	public void testPreScore() {
+		HeadlessBoard board = createBoard(scheme);
+
+		// Moving (1, 3) down creates no run.
+		assertEquals(0, MoveOrderer.getPreScore(board, PackedMove.encode(1, 3, CrushUtilities.DOWN)));
+
+		// Moving (2, 2) down creates 2 2 2 2 2 on the bottom row.
+		assertEquals(5, MoveOrderer.getPreScore(board, PackedMove.encode(2, 1, CrushUtilities.DOWN)));
+
+		// Moving (2, 3) down creates 1 1 1 1 on the middle row.
+		assertEquals(4, MoveOrderer.getPreScore(board, PackedMove.encode(2, 3, CrushUtilities.DOWN)));
+	}
+
+	@Test
+	public void testPreScoreOfTwoRuns() {
+		HeadlessBoard board = createBoard(new int[][] {
+			{ 3, 4, 5, 6, 0 },
+			{ 1, 5, 6, 0, 3 },
+			{ 2, 1, 1, 4, 5 },
+			{ 1, 6, 0, 3, 4 },
+			{ 1, 0, 3, 5, 6 }
+		});
+
+		// Moving (0, 3) down creates an L of 1s, a run on the middle row
+		// and another one on the left column, sharing the corner tile.
+		assertEquals(5, MoveOrderer.getPreScore(board, PackedMove.encode(0, 3, CrushUtilities.DOWN)));
+
+		board = createBoard(new int[][] {
+			{ 3, 4, 5, 6, 0 },
+			{ 4, 2, 1, 0, 3 },
+			{ 2, 1, 2, 1, 5 },
+			{ 4, 6, 1, 3, 4 },
+			{ 5, 0, 1, 5, 6 }
+		});
+
+		// Moving (2, 3) down creates a T of 1s.
+		assertEquals(5, MoveOrderer.getPreScore(board, PackedMove.encode(2, 3, CrushUtilities.DOWN)));
+	}
+
+	@Test
+	public void testOrder() {
+		HeadlessBoard board = createBoard(scheme);
+		MoveOrderer orderer = new MoveOrderer(5, 5, 4);
+
+		int none = PackedMove.encode(1, 3, CrushUtilities.DOWN);
+		int four = PackedMove.encode(2, 3, CrushUtilities.DOWN);
+		int five = PackedMove.encode(2, 1, CrushUtilities.DOWN);
+
+		IntMoveList moves = new IntMoveList();
+		moves.add(none);
+		moves.add(four);
+		moves.add(five);
+
+		// Moves should be ordered by the runs they create.
+		orderer.order(board, moves, 0, true, TranspositionTable.NO_MOVE);
+		assertEquals(five, moves.get(0));
+		assertEquals(four, moves.get(1));
+		assertEquals(none, moves.get(2));
+
+		// Killers of the ply should go before them.
+		orderer.recordCutoff(none, 1, 2, true);
+		orderer.order(board, moves, 1, true, TranspositionTable.NO_MOVE);
+		assertEquals(none, moves.get(0));
+		assertEquals(five, moves.get(1));
+
+		// But killers of other plies should not.
+		orderer.order(board, moves, 0, true, TranspositionTable.NO_MOVE);
+		assertEquals(five, moves.get(0));
+
+		// The hash move should always go first.
+		orderer.order(board, moves, 1, true, four);
+		assertEquals(four, moves.get(0));
+		assertEquals(none, moves.get(1));
+		assertEquals(five, moves.get(2));
+	}
+
+	@Test
+	public void testHistory() {
+		HeadlessBoard board = createBoard(scheme);
+		MoveOrderer orderer = new MoveOrderer(5, 5, 4);
+
+		int m1 = PackedMove.encode(0, 0, CrushUtilities.UP);
+		int m2 = PackedMove.encode(4, 4, CrushUtilities.DOWN);
+
+		orderer.recordBest(m2, 3, false);
+		assertEquals(9, orderer.getHistoryScore(m2, false));
+		assertEquals(0, orderer.getHistoryScore(m2, true));
+
+		// Between moves of equal pre-score, history should decide.
+		IntMoveList moves = new IntMoveList();
+		moves.add(m1);
+		moves.add(m2);
+
+		orderer.order(board, moves, 0, true, TranspositionTable.NO_MOVE);
+		assertEquals(m1, moves.get(0));
+
+		orderer.order(board, moves, 0, false, TranspositionTable.NO_MOVE);
+		assertEquals(m2, moves.get(0));
+
+		// A new search should age history and forget killers.
+		orderer.recordCutoff(m1, 0, 2, false);
+		orderer.newSearch();
+		assertEquals(4, orderer.getHistoryScore(m2, false));
+		assertEquals(2, orderer.getHistoryScore(m1, false));
+	}
+}
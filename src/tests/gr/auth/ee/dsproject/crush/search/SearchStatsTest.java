@@ -0,0 +1,145 @@
+package tests.gr.auth.ee.dsproject.crush.search;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.search.SearchStats;
+import gr.auth.ee.dsproject.crush.search.SearchStatsCollector;
+
+
+public class SearchStatsTest {
+
+	private SearchStats createMove(int depth) {
+		SearchStats stats = new SearchStats();
+
+		for (int i = 0; i < 10; i++) stats.addNode();
+		for (int i = 0; i < 6; i++) stats.addLeaf();
+
+		stats.addExpanded(3);
+		stats.addExpanded(5);
+		stats.addCutoff(1);
+		stats.addCutoff(2);
+		stats.addCutoff(2);
+		stats.addProbe(true);
+		stats.addProbe(false);
+		stats.addTableCutoff();
+		stats.addQuiescenceNode();
+		stats.addResearch();
+		stats.addAspirationResearch();
+		stats.addPonderHit();
+		stats.addTableReuse();
+		stats.addEvaluationTime(300);
+		stats.addSimulationTime(200);
+
+		stats.recordMove(depth, 2, 1000000000L, 1024, 1, 5);
+
+		return stats;
+	}
+
+	@Test
+	public void testMoveStats() {
+		SearchStats stats = createMove(4);
+
+		assertEquals(1, stats.getMoves());
+		assertEquals(10, stats.getNodes());
+		assertEquals(6, stats.getLeaves());
+		assertEquals(2, stats.getExpandedNodes());
+		assertEquals(4.0, stats.getBranchingFactor(), 0);
+		assertEquals(0, stats.getCutoffs(0));
+		assertEquals(1, stats.getCutoffs(1));
+		assertEquals(2, stats.getCutoffs(2));
+		assertEquals(3, stats.getCutoffs());
+		assertEquals(2, stats.getMaxCutoffPly());
+		assertEquals(2, stats.getTableProbes());
+		assertEquals(1, stats.getTableHits());
+		assertEquals(1, stats.getTableCutoffs());
+		assertEquals(1, stats.getQuiescenceNodes());
+		assertEquals(1, stats.getResearches());
+		assertEquals(1, stats.getAspirationResearches());
+		assertEquals(1, stats.getPonderHits());
+		assertEquals(1, stats.getTableReuses());
+		assertEquals(300, stats.getEvaluationNanos());
+		assertEquals(200, stats.getSimulationNanos());
+		assertEquals(1024, stats.getAllocatedBytes());
+		assertEquals(4.0, stats.getMeanDepth(), 0);
+		assertEquals(4, stats.getMaxDepth());
+		assertEquals(10.0, stats.getNodesPerSecond(), 1e-9);
+
+		// Unknown allocations are not counted.
+		stats.addAllocatedBytes(-1);
+		assertEquals(1024, stats.getAllocatedBytes());
+	}
+
+	@Test
+	public void testCutoffsOfDeepPlies() {
+		SearchStats stats = new SearchStats();
+
+		stats.addCutoff(50);
+
+		assertEquals(1, stats.getCutoffs(50));
+		assertEquals(0, stats.getCutoffs(100));
+		assertEquals(50, stats.getMaxCutoffPly());
+
+		SearchStats total = new SearchStats();
+		total.add(stats);
+
+		assertEquals(1, total.getCutoffs(50));
+	}
+
+	@Test
+	public void testAddAndReset() {
+		SearchStats total = new SearchStats();
+
+		assertEquals(0, total.getBranchingFactor(), 0);
+		assertEquals(0, total.getMeanDepth(), 0);
+		assertEquals(0, total.getNodesPerSecond(), 0);
+
+		total.add(createMove(2));
+		total.add(createMove(5));
+
+		assertEquals(2, total.getMoves());
+		assertEquals(20, total.getNodes());
+		assertEquals(4.0, total.getBranchingFactor(), 0);
+		assertEquals(4, total.getCutoffs(2));
+		assertEquals(4, total.getIterations());
+		assertEquals(2, total.getResearches());
+		assertEquals(2, total.getAspirationResearches());
+		assertEquals(2, total.getPonderHits());
+		assertEquals(2, total.getTableReuses());
+		assertEquals(2, total.getQuiescenceNodes());
+		assertEquals(2, total.getGcCount());
+		assertEquals(10, total.getGcMillis());
+		assertEquals(3.5, total.getMeanDepth(), 0);
+		assertEquals(5, total.getMaxDepth());
+
+		total.reset();
+
+		assertEquals(0, total.getMoves());
+		assertEquals(0, total.getNodes());
+		assertEquals(0, total.getCutoffs());
+		assertEquals(0, total.getResearches());
+		assertEquals(0, total.getAspirationResearches());
+		assertEquals(0, total.getPonderHits());
+		assertEquals(0, total.getTableReuses());
+		assertEquals(0, total.getQuiescenceNodes());
+		assertEquals(0, total.getMaxDepth());
+	}
+
+	@Test
+	public void testCollector() {
+		SearchStatsCollector collector = new SearchStatsCollector();
+
+		collector.moveSearched(createMove(3));
+		collector.moveSearched(createMove(3));
+
+		SearchStats total = collector.getTotal();
+		assertEquals(2, total.getMoves());
+
+		// The total given is a copy.
+		total.reset();
+		assertEquals(2, collector.getTotal().getMoves());
+
+		collector.clear();
+		assertEquals(0, collector.getTotal().getMoves());
+	}
+}
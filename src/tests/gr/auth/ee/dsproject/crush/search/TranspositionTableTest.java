@@ -0,0 +1,90 @@
+package tests.gr.auth.ee.dsproject.crush.search;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.search.TranspositionTable;
+
+
+public class TranspositionTableTest {
+
+	@Test
+	public void testInvalidSizeException() {
+		boolean ex = false;
+
+		try {
+			new TranspositionTable(0);
+		} catch (TranspositionTable.InvalidSizeRuntimeException e) {
+			ex = true;
+		}
+
+		assertTrue(ex);
+		assertEquals(1 << TranspositionTable.DEFAULT_SIZE_BITS, new TranspositionTable().getCapacity());
+	}
+
+	@Test
+	public void testStoreAndProbe() {
+		TranspositionTable table = new TranspositionTable(4);
+		TranspositionTable.Entry entry = new TranspositionTable.Entry();
+
+		assertFalse(table.probe(0x1234L, entry));
+		assertEquals(TranspositionTable.NO_MOVE, entry.getBestMove());
+
+		table.store(0x1234L, 3, TranspositionTable.UPPER_BOUND, -12.5, 0x00030201);
+
+		assertTrue(table.probe(0x1234L, entry));
+		assertEquals(3, entry.getDepth());
+		assertEquals(TranspositionTable.UPPER_BOUND, entry.getBound());
+		assertEquals(-12.5, entry.getValue(), 0);
+		assertEquals(0x00030201, entry.getBestMove());
+
+		// A key of the same bucket but of a different state should miss.
+		assertFalse(table.probe(0x1234L + 16, entry));
+
+		table.store(0x1234L, 2, TranspositionTable.EXACT, 7.0, TranspositionTable.NO_MOVE);
+
+		assertTrue(table.probe(0x1234L, entry));
+		assertEquals(2, entry.getDepth());
+		assertEquals(TranspositionTable.EXACT, entry.getBound());
+		assertEquals(TranspositionTable.NO_MOVE, entry.getBestMove());
+	}
+
+	@Test
+	public void testReplacementPolicy() {
+		TranspositionTable table = new TranspositionTable(4);
+		TranspositionTable.Entry entry = new TranspositionTable.Entry();
+
+		// Keys 0x10, 0x20, 0x30 fall into the same bucket.
+		table.store(0x10L, 5, TranspositionTable.EXACT, 1, 1);
+		table.store(0x20L, 2, TranspositionTable.EXACT, 2, 2);
+
+		assertTrue(table.probe(0x10L, entry));
+		assertTrue(table.probe(0x20L, entry));
+
+		// A shallower result should only replace the always replaced entry.
+		table.store(0x30L, 1, TranspositionTable.EXACT, 3, 3);
+
+		assertTrue(table.probe(0x10L, entry));
+		assertFalse(table.probe(0x20L, entry));
+		assertTrue(table.probe(0x30L, entry));
+
+		// A deeper result should replace the depth preferred entry.
+		table.store(0x20L, 6, TranspositionTable.EXACT, 2, 2);
+
+		assertFalse(table.probe(0x10L, entry));
+		assertTrue(table.probe(0x20L, entry));
+		assertEquals(6, entry.getDepth());
+	}
+
+	@Test
+	public void testClear() {
+		TranspositionTable table = new TranspositionTable(4);
+		TranspositionTable.Entry entry = new TranspositionTable.Entry();
+
+		table.store(0L, 1, TranspositionTable.EXACT, 0, 0);
+		assertTrue(table.probe(0L, entry));
+
+		table.clear();
+		assertFalse(table.probe(0L, entry));
+	}
+}
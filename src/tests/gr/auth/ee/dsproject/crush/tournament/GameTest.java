@@ -0,0 +1,57 @@
+package tests.gr.auth.ee.dsproject.crush.tournament;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.player.HeuristicPlayer;
+import gr.auth.ee.dsproject.crush.tournament.Game;
+import gr.auth.ee.dsproject.crush.tournament.GameResult;
+
+
+public class GameTest {
+
+	private GameResult play(long seed, int scoreLimit, int stepLimit) {
+		return new Game(new HeuristicPlayer(1), new HeuristicPlayer(2),
+						seed, 100, scoreLimit, stepLimit).play();
+	}
+
+	@Test
+	public void testSameSeedSameGame() {
+		for (long seed = 0; seed < 5; seed++) {
+			GameResult r1 = play(seed, CrushUtilities.SCORE_LIMIT, CrushUtilities.STEP_LIMIT);
+			GameResult r2 = play(seed, CrushUtilities.SCORE_LIMIT, CrushUtilities.STEP_LIMIT);
+
+			assertEquals(r1.getScore(0), r2.getScore(0));
+			assertEquals(r1.getScore(1), r2.getScore(1));
+			assertEquals(r1.getRounds(), r2.getRounds());
+		}
+	}
+
+	@Test
+	public void testScoreLimit() {
+		GameResult result = play(1, 50, CrushUtilities.STEP_LIMIT);
+
+		assertTrue(result.isScoreLimitReached());
+		assertNotEquals(GameResult.DRAW, result.getWinner());
+		assertTrue(result.getScore(result.getWinner()) >= 50);
+		assertTrue(result.getScore(1 - result.getWinner()) < 50);
+
+		// The game ends on the move that reaches the limit.
+		if (result.getWinner() == 0) assertEquals(result.getMoves(0), result.getMoves(1) + 1);
+		else assertEquals(result.getMoves(0), result.getMoves(1));
+	}
+
+	@Test
+	public void testStepLimit() {
+		GameResult result = play(2, Integer.MAX_VALUE, 3);
+
+		assertFalse(result.isScoreLimitReached());
+		assertEquals(3, result.getRounds());
+		assertEquals(3, result.getMoves(0));
+		assertEquals(3, result.getMoves(1));
+		assertEquals(result.getScore(0) - result.getScore(1), result.getMargin());
+
+		for (int i = 0; i < 3; i++) assertTrue(result.getLatency(0, i) >= 0);
+	}
+}
@@ -0,0 +1,72 @@
+package tests.gr.auth.ee.dsproject.crush.tournament;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.tournament.GameResult;
+import gr.auth.ee.dsproject.crush.tournament.TournamentResult;
+
+
+public class TournamentResultTest {
+
+	private GameResult createResult(int score1, int score2, long... latencies) {
+		return new GameResult(new int[] { score1, score2 },
+							  new long[][] { latencies, new long[] { 1000 } }, 10, true);
+	}
+
+	@Test
+	public void testEmpty() {
+		TournamentResult result = new TournamentResult("a", "b");
+
+		assertEquals(0, result.getGames());
+		assertEquals(0, result.getWinRate(TournamentResult.PLAYER_A), 0);
+		assertEquals(0, result.getMeanMargin(), 0);
+		assertEquals(0, result.getLatencyPercentile(TournamentResult.PLAYER_A, 50));
+	}
+
+	@Test
+	public void testWinsAndMargins() {
+		TournamentResult result = new TournamentResult("a", "b");
+
+		result.add(createResult(300, 200, 1), true);	// A moved first and won.
+		result.add(createResult(300, 250, 1), false);	// B moved first and won.
+		result.add(createResult(100, 300, 1), false);	// A moved second and won.
+		result.add(createResult(150, 150, 1), true);
+
+		assertEquals(4, result.getGames());
+		assertEquals(2, result.getWins(TournamentResult.PLAYER_A));
+		assertEquals(1, result.getWins(TournamentResult.PLAYER_B));
+		assertEquals(1, result.getDraws());
+		assertEquals(0.5, result.getWinRate(TournamentResult.PLAYER_A), 0);
+
+		// Margins are A - B: 100, -50, 200, 0.
+		assertEquals(62.5, result.getMeanMargin(), 1e-9);
+		assertEquals(87.5, result.getMeanAbsoluteMargin(), 1e-9);
+		assertEquals(250, result.getMeanScore(TournamentResult.PLAYER_A), 1e-9);
+		assertEquals(4, result.getScoreLimitReached());
+		assertEquals(10, result.getMeanRounds(), 0);
+	}
+
+	@Test
+	public void testLatencyPercentiles() {
+		TournamentResult result = new TournamentResult("a", "b");
+
+		long[] latencies = new long[100];
+		for (int i = 0; i < 100; i++) latencies[i] = 100 - i;
+
+		result.add(createResult(1, 0, latencies), true);
+
+		assertEquals(100, result.getMoves(TournamentResult.PLAYER_A));
+		assertEquals(50, result.getLatencyPercentile(TournamentResult.PLAYER_A, 50));
+		assertEquals(90, result.getLatencyPercentile(TournamentResult.PLAYER_A, 90));
+		assertEquals(1, result.getLatencyPercentile(TournamentResult.PLAYER_A, 0));
+		assertEquals(100, result.getMaxLatency(TournamentResult.PLAYER_A));
+
+		// Adding moves after a percentile has been asked for.
+		result.add(createResult(1, 0, 1000), false);
+
+		assertEquals(1000, result.getMaxLatency(TournamentResult.PLAYER_A));
+		assertEquals(1000, result.getMaxLatency(TournamentResult.PLAYER_B));
+		assertEquals(2, result.getMoves(TournamentResult.PLAYER_B));
+	}
+}
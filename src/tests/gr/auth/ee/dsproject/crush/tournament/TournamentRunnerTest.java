@@ -0,0 +1,77 @@
+package tests.gr.auth.ee.dsproject.crush.tournament;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.tournament.PlayerFactory;
+import gr.auth.ee.dsproject.crush.tournament.TournamentResult;
+import gr.auth.ee.dsproject.crush.tournament.TournamentRunner;
+
+
+public class TournamentRunnerTest {
+
+	@Test
+	public void testInvalidPlayerException() {
+		boolean ex = false;
+
+		try {
+			TournamentRunner.createFactory("NoSuchPlayer");
+		} catch (TournamentRunner.InvalidPlayerRuntimeException e) {
+			ex = true;
+		}
+
+		assertTrue(ex);
+
+		// Classes that are no players are rejected as well.
+		ex = false;
+
+		try {
+			TournamentRunner.createFactory("java.lang.String");
+		} catch (TournamentRunner.InvalidPlayerRuntimeException e) {
+			ex = true;
+		}
+
+		assertTrue(ex);
+	}
+
+	@Test
+	public void testCreateFactory() {
+		PlayerFactory factory = TournamentRunner.createFactory("HeuristicPlayer");
+
+		assertEquals("HeuristicPlayer", factory.getName());
+		assertEquals(2, factory.createPlayer(2).getId());
+		assertEquals("RandomPlayer", TournamentRunner.createFactory("RandomPlayer").getName());
+	}
+
+	@Test
+	public void testGameSeeds() {
+		// Both games of a pair are played on the same boards.
+		assertEquals(TournamentRunner.getGameSeed(5, 0), TournamentRunner.getGameSeed(5, 1));
+		assertNotEquals(TournamentRunner.getGameSeed(5, 1), TournamentRunner.getGameSeed(5, 2));
+		assertNotEquals(TournamentRunner.getGameSeed(5, 0), TournamentRunner.getGameSeed(6, 0));
+	}
+
+	@Test
+	public void testSameResultOnAnyThreads() {
+		PlayerFactory factory = TournamentRunner.createFactory("HeuristicPlayer");
+		TournamentResult[] results = new TournamentResult[2];
+
+		for (int i = 0; i < 2; i++) {
+			TournamentRunner runner = new TournamentRunner(factory, factory);
+			runner.setRows(100);
+			runner.setThreads(1 + 3 * i);
+
+			results[i] = runner.run(8, 42);
+		}
+
+		for (TournamentResult result : results) {
+			assertEquals(8, result.getGames());
+			assertEquals(8, result.getWins(TournamentResult.PLAYER_A) +
+							result.getWins(TournamentResult.PLAYER_B) + result.getDraws());
+		}
+
+		assertEquals(results[0].getWins(TournamentResult.PLAYER_A), results[1].getWins(TournamentResult.PLAYER_A));
+		assertEquals(results[0].getMeanMargin(), results[1].getMeanMargin(), 0);
+		assertEquals(results[0].getMeanRounds(), results[1].getMeanRounds(), 0);
+	}
+}
@@ -0,0 +1,181 @@
+package tests.gr.auth.ee.dsproject.crush.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Random;
+
+import gr.auth.ee.dsproject.crush.util.BitBoard;
+import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+
+
+public class BitBoardTest {
+	
+	private HeadlessBoard createBoard(int[][] boardScheme) {
+		int rows = boardScheme.length;
+		int cols = boardScheme[0].length;
+		
+		HeadlessBoard board = new HeadlessBoard(cols, rows, rows);
+		
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) {
+				board.setColor(x, y, boardScheme[rows - y - 1][x]);
+			}
+		}
+		
+		return board;
+	}
+	
+	/**
+	 * Checks whether tile at (x, y) is part of a 3-or-more-in-a-row by
+	 * walking the board tile by tile.
+	 */
+	private boolean crushes(HeadlessBoard board, int x, int y) {
+		int color = board.getColor(x, y);
+		if (color == HeadlessBoard.UNKNOWN) return false;
+		
+		int left = x, right = x, bottom = y, top = y;
+		while (left > 0 && board.getColor(left - 1, y) == color) left--;
+		while (right < board.getCols() - 1 && board.getColor(right + 1, y) == color) right++;
+		while (bottom > 0 && board.getColor(x, bottom - 1) == color) bottom--;
+		while (top < board.getPRows() - 1 && board.getColor(x, top + 1) == color) top++;
+		
+		return right - left >= 2 || top - bottom >= 2;
+	}
+	
+	@Test
+	public void testNumberOfWords() {
+		assertEquals(2, new BitBoard(10, 10).getNumberOfWords());
+		assertEquals(1, new BitBoard(4, 10).getNumberOfWords());
+	}
+	
+	@Test
+	public void testLoadNullBoardException() {
+		boolean ex = false;
+		
+		try {
+			new BitBoard(10, 10).load(null);
+		} catch (BoardUtils.NullBoardRuntimeException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+	}
+	
+	@Test
+	public void testFindNPles() {
+		int[][] scheme = {
+				{ 0, 1, 2, 3, 4, 2, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 2, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 2, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 0, 1, 2, 3, 4, 5, 6 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 3, 3, 3, 3, 3, 4, 5 }, 
+		};
+		
+		BitBoard bitBoard = new BitBoard(10, 10);
+		bitBoard.load(createBoard(scheme));
+		
+		long[] crushMask = bitBoard.newMask();
+		
+		// Column 5 is split between the two words of the masks.
+		assertEquals(8, bitBoard.findNPles(crushMask));
+		assertTrue(bitBoard.isSet(crushMask, 5, 9));
+		assertTrue(bitBoard.isSet(crushMask, 5, 8));
+		assertTrue(bitBoard.isSet(crushMask, 5, 7));
+		assertFalse(bitBoard.isSet(crushMask, 5, 6));
+		
+		long[] columnMarks = new long[10];
+		bitBoard.toColumnMarks(crushMask, columnMarks);
+		
+		assertEquals(0x380L, columnMarks[5] & ~1L);
+		assertEquals(1L, columnMarks[3]);
+		assertEquals(1L, columnMarks[7]);
+		assertEquals(0L, columnMarks[8]);
+	}
+	
+	@Test
+	public void testUnknownCandiesNeverCrush() {
+		HeadlessBoard board = new HeadlessBoard(10, 10, 10);
+		
+		BitBoard bitBoard = new BitBoard(10, 10);
+		bitBoard.load(board);
+		
+		assertEquals(0, bitBoard.findColumnNPles(new long[10]));
+	}
+	
+	@Test
+	public void testFindColumnNPlesOnRandomBoards() {
+		Random random = new Random(1821);
+		BitBoard bitBoard = new BitBoard(10, 10);
+		long[] columnMarks = new long[10];
+		
+		for (int i = 0; i < 200; i++) {
+			HeadlessBoard board = new HeadlessBoard(10, 10, 10);
+			for (int x = 0; x < 10; x++) {
+				for (int y = 0; y < 10; y++) board.setColor(x, y, random.nextInt(5) - 1);
+			}
+			
+			bitBoard.load(board);
+			int found = bitBoard.findColumnNPles(columnMarks);
+			
+			int expected = 0;
+			for (int x = 0; x < 10; x++) {
+				for (int y = 0; y < 10; y++) {
+					boolean crushes = crushes(board, x, y);
+					if (crushes) expected++;
+					
+					assertEquals(crushes, (columnMarks[x] & (1L << y)) != 0);
+				}
+			}
+			
+			assertEquals(expected, found);
+		}
+	}
+	
+	@Test
+	public void testLoadColumn() {
+		Random random = new Random(7);
+		
+		// Boards of more than one word per mask and of pRows 63 should
+		// have their columns updated across word boundaries.
+		int[][] dimensions = { { 10, 10 }, { 3, 63 }, { 7, 9 } };
+		
+		for (int[] dim : dimensions) {
+			int cols = dim[0];
+			int pRows = dim[1];
+			
+			HeadlessBoard board = new HeadlessBoard(cols, pRows, pRows);
+			for (int x = 0; x < cols; x++) {
+				for (int y = 0; y < pRows; y++) board.setColor(x, y, random.nextInt(7));
+			}
+			
+			BitBoard bitBoard = new BitBoard(cols, pRows);
+			BitBoard fresh = new BitBoard(cols, pRows);
+			bitBoard.load(board);
+			
+			for (int i = 0; i < 50; i++) {
+				int x = random.nextInt(cols);
+				int fromY = random.nextInt(pRows);
+				
+				for (int y = fromY; y < pRows; y++) {
+					board.setColor(x, y, random.nextInt(8) - 1);
+				}
+				
+				bitBoard.loadColumn(board, x, fromY);
+				fresh.load(board);
+				
+				long[] expected = new long[cols];
+				long[] found = new long[cols];
+				
+				assertEquals(fresh.findColumnNPles(expected), bitBoard.findColumnNPles(found));
+				assertArrayEquals(expected, found);
+			}
+		}
+	}
+}
@@ -10,6 +10,7 @@ import java.util.*;
 
 import gr.auth.ee.dsproject.crush.board.Board;
 import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
 import gr.auth.ee.dsproject.crush.board.Tile;
 import gr.auth.ee.dsproject.crush.board.CrushUtilities;
 
@@ -368,6 +369,42 @@ public class BoardUtilsTest {
 		assertTrue(allAdjacent.contains(board.giveTileAt(6, 7)));
 	}
 	
+	@Test
+	public void testFindTilesThatCrushOnlyContiguous() {
+		int[][] scheme = {
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 6, 6, 2, 6, 4, 5, 6, 6, 6, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 0, 1, 2, 3, 4, 5, 6 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 }, 
+		};
+		
+		Board board = createBoard(scheme);
+		
+		// All the 6s of row 7, where only the last three are contiguous.
+		Set<Tile> sameRow = new HashSet<>();
+		int[] xs = { 0, 1, 3, 6, 7, 8 };
+		for (int x : xs) sameRow.add(board.giveTileAt(x, 7));
+		
+		Set<Tile> crushTiles = BoardUtils.findTilesThatCrush(sameRow);
+		
+		assertEquals(3, crushTiles.size());
+		assertTrue(crushTiles.contains(board.giveTileAt(6, 7)));
+		assertTrue(crushTiles.contains(board.giveTileAt(7, 7)));
+		assertTrue(crushTiles.contains(board.giveTileAt(8, 7)));
+		
+		// A gap of a tile not in the set breaks a run as well.
+		sameRow.remove(board.giveTileAt(7, 7));
+		assertEquals(0, BoardUtils.findTilesThatCrush(sameRow).size());
+		
+		assertEquals(0, BoardUtils.findTilesThatCrush(new HashSet<Tile>()).size());
+	}
+	
 	@Test
 	public void testFindAllNPlesException() {
 		boolean ex = false;
@@ -492,6 +529,153 @@ public class BoardUtilsTest {
 	}
 	
 
+	@Test
+	public void testFindAllNPlesOnHeadlessBoardException() {
+		boolean ex = false;
+		
+		try {
+			BoardUtils.findAllNPles((HeadlessBoard) null, new long[10]);
+		} catch (BoardUtils.NullBoardRuntimeException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+	}
+	
+	@Test
+	public void testFindAllNPlesOnHeadlessBoard() {
+		int[][] boardScheme = {
+				{ 1, 1, 1, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 1, 4, 5, 6, 0, 1, 2, 3 },
+				{ 1, 3, 1, 5, 6, 0, 1, 2, 3, 4 },
+				{ 1, 4, 5, 6, 0, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 1, 1, 1, 3, 1, 1, 1 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 5 },
+				{ 3, 3, 3, 4, 5, 6, 0, 1, 2, 5 },
+				{ 3, 3, 4, 5, 6, 0, 1, 2, 3, 5 },
+				{ 3, 4, 5, 6, 0, 1, 2, 5, 5, 5 }, 
+		};
+		
+		Board board = createBoard(boardScheme);
+		long[] marks = new long[10];
+		
+		assertEquals(25, BoardUtils.findAllNPles(HeadlessBoard.fromBoard(board), marks));
+		
+		// Marks should point to the same tiles the old implementation finds.
+		Set<Tile> tiles = BoardUtils.findAllNPles(board);
+		for (Tile t : tiles) {
+			assertTrue((marks[t.getX()] & (1L << t.getY())) != 0);
+		}
+	}
+	
+	@Test
+	public void testFindAllNPlesOnHeadlessBoardWithUnknownCandies() {
+		int[][] boardScheme = {
+				{-1, 1, 1, 3,-1, 5, 6, 0, 1,-1 },
+				{-1, 2, 1, 4,-1, 6, 0, 1, 2,-1 },
+				{ 1, 3, 1, 5,-1, 0, 1, 2, 3,-1 },
+				{ 1, 4, 5, 6,-1, 1, 2, 3, 4,-1 },
+				{ 4, 5, 6, 1,-1, 1, 3, 1, 1,-1 },
+				{ 5, 6, 0, 1,-1, 3, 4, 5, 6,-1 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1,-1 },
+				{ 3, 3, 3, 4, 5, 6, 0, 1, 2, 5 },
+				{ 3, 3, 4, 5, 6, 0, 1, 2, 3, 5 },
+				{ 3, 4, 5, 6, 0, 1, 2, 5, 5, 5 }, 
+		};
+		
+		Board board = createBoard(boardScheme);
+		long[] marks = new long[10];
+		
+		assertEquals(13, BoardUtils.findAllNPles(HeadlessBoard.fromBoard(board), marks));
+		assertEquals(0, marks[4]);
+		assertEquals(0x7L, marks[9]);
+	}
+	
+	@Test
+	public void testFindMoveNPlesOnHeadlessBoard() {
+		int[][] scheme = {
+				{ 0, 1, 2, 3, 6, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 2, 6, 6, 0, 1, 2, 3 },
+				{ 1, 2, 2, 6, 2, 6, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 6, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 0, 6, 2, 3, 4, 5, 6 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 }, 
+		};
+		
+		HeadlessBoard board = BoardUtils.boardAfterFirstMove(
+				HeadlessBoard.fromBoard(createBoard(scheme)), new int[] { 3, 7, CrushUtilities.RIGHT }
+		);
+		long[] marks = new long[10];
+		
+		assertEquals(8, BoardUtils.findMoveNPles(board, new int[] { 3, 7, 4, 7 }, marks));
+		assertEquals(1L << 7, marks[1]);
+		assertEquals(1L << 7, marks[2]);
+		assertEquals(1L << 7, marks[3]);
+		assertEquals(0x1fL << 5, marks[4]);
+	}
+	
+	@Test
+	public void testGetAvailableMovesOnHeadlessBoard() {
+		assertEquals(0, BoardUtils.getAvailableMoves(HeadlessBoard.fromBoard(noMoveBoard)).size());
+		
+		int[][] scheme = {
+				{ 0, 1, 2, 3, 6, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 2, 6, 6, 0, 1, 2, 3 },
+				{ 1, 2, 2, 6, 2, 6, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 6, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 0, 6, 2, 3, 4, 5, 6 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 }, 
+		};
+		
+		Board board = createBoard(scheme);
+		
+		ArrayList<int[]> expected = CrushUtilities.getAvailableMoves(board);
+		ArrayList<int[]> moves = BoardUtils.getAvailableMoves(HeadlessBoard.fromBoard(board));
+		
+		assertEquals(expected.size(), moves.size());
+		for (int i = 0; i < moves.size(); i++) {
+			assertArrayEquals(expected.get(i), moves.get(i));
+		}
+	}
+	
+	@Test
+	public void testBoardAfterFirstCrushOnHeadlessBoard() {
+		int[][] scheme = {
+				{ 0, 1, 2, 3, 6, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 2, 6, 6, 0, 1, 2, 3 },
+				{ 1, 2, 2, 6, 2, 6, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 6, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 0, 6, 2, 3, 4, 5, 6 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 }, 
+		};
+		
+		Board board = createBoard(scheme);
+		int[] move = { 3, 7, CrushUtilities.RIGHT };
+		
+		Board expected = CrushUtilities.boardAfterFirstCrush(board, move);
+		HeadlessBoard after = BoardUtils.boardAfterFirstCrush(HeadlessBoard.fromBoard(board), move);
+		
+		for (int x = 0; x < 10; x++) {
+			for (int y = 0; y < 10; y++) {
+				assertEquals(expected.giveTileAt(x, y).getColor(), after.getColor(x, y));
+			}
+		}
+	}
+	
+
 // ==== Tests for legacy code ====
 //	
 //	@Test
@@ -0,0 +1,32 @@
+package tests.gr.auth.ee.dsproject.crush.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.util.FlightEvent;
+
+
+public class FlightEventTest {
+
+	@Test
+	public void testNotRecording() {
+		FlightEvent type = new FlightEvent("tests.FlightEventTest", "Test", "An event of the tests")
+				.addField(int.class, "value", "Value")
+				.addTimespanField("time", "Time")
+				.register();
+
+		assertEquals("tests.FlightEventTest", type.getName());
+
+		// No recording runs while testing, whether Flight Recorder is
+		// available or not, so no event should ever be begun.
+		assertFalse(type.isEnabled());
+		assertNull(type.begin());
+
+		// Committing no event does nothing.
+		type.commit(null, 42, 100L);
+
+		// Registering again is harmless.
+		assertSame(type, type.register());
+	}
+}
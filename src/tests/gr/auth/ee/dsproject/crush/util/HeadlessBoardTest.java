@@ -0,0 +1,294 @@
+package tests.gr.auth.ee.dsproject.crush.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.lang.reflect.*;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.Tile;
+import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+
+
+public class HeadlessBoardTest {
+	
+	private Board createBoard(int[][] boardScheme) {		
+		int rows = boardScheme.length;
+		int cols = boardScheme[0].length;
+		
+		Board board = new Board(rows);
+		Method setTile = null;
+				
+		try {
+			setTile = board.getClass().getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException e) {
+			e.printStackTrace();
+		}
+		
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) {
+				try {
+					setTile.invoke(board, y * 10 + x, x, y, boardScheme[rows - y - 1][x], false);
+				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		
+		return board;
+	}
+	
+	private int[][] scheme = {
+			{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+			{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+			{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+			{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 },
+			{ 4, 5, 6, 0, 1, 2, 3, 4, 5, 6 },
+			{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+			{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+			{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+			{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+			{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 }, 
+	};
+	
+	@Test
+	public void testDimensionsConstructor() {
+		HeadlessBoard board = new HeadlessBoard(10, 10, 12);
+		
+		assertEquals(10, board.getCols());
+		assertEquals(10, board.getPRows());
+		assertEquals(12, board.getRows());
+		
+		for (int x = 0; x < 10; x++) {
+			for (int y = 0; y < 12; y++) {
+				assertEquals(HeadlessBoard.UNKNOWN, board.getColor(x, y));
+			}
+		}
+	}
+	
+	@Test
+	public void testFromBoardNullBoardException() {
+		boolean ex = false;
+		
+		try {
+			HeadlessBoard.fromBoard(null);
+		} catch (BoardUtils.NullBoardRuntimeException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+	}
+	
+	@Test
+	public void testFromBoard() {
+		Board board = createBoard(scheme);
+		HeadlessBoard headless = HeadlessBoard.fromBoard(board);
+		
+		assertEquals(board.getCols(), headless.getCols());
+		assertEquals(board.getPRows(), headless.getPRows());
+		assertEquals(board.getRows(), headless.getRows());
+		
+		for (int x = 0; x < 10; x++) {
+			for (int y = 0; y < 10; y++) {
+				assertEquals(board.giveTileAt(x, y).getColor(), headless.getColor(x, y));
+			}
+		}
+	}
+	
+	@Test
+	public void testCopyConstructors() {
+		HeadlessBoard board = HeadlessBoard.fromBoard(createBoard(scheme));
+		
+		HeadlessBoard copy = new HeadlessBoard(board);
+		copy.setColor(0, 0, 6);
+		
+		assertEquals(3, board.getColor(0, 0));
+		assertEquals(6, copy.getColor(0, 0));
+		
+		HeadlessBoard extended = new HeadlessBoard(board, 12);
+		
+		assertEquals(12, extended.getRows());
+		assertEquals(board.getColor(5, 9), extended.getColor(5, 9));
+		assertEquals(HeadlessBoard.UNKNOWN, extended.getColor(5, 10));
+		assertEquals(HeadlessBoard.UNKNOWN, extended.getColor(5, 11));
+	}
+	
+	@Test
+	public void testGiveTileAt() {
+		HeadlessBoard board = HeadlessBoard.fromBoard(createBoard(scheme));
+		Tile t = board.giveTileAt(4, 7);
+		
+		assertEquals(4, t.getX());
+		assertEquals(7, t.getY());
+		assertEquals(board.getColor(4, 7), t.getColor());
+	}
+	
+	@Test
+	public void testSwap() {
+		HeadlessBoard board = HeadlessBoard.fromBoard(createBoard(scheme));
+		int c1 = board.getColor(2, 3);
+		int c2 = board.getColor(2, 4);
+		
+		board.swap(2, 3, 2, 4);
+		
+		assertEquals(c2, board.getColor(2, 3));
+		assertEquals(c1, board.getColor(2, 4));
+	}
+	
+	@Test
+	public void testRemoveMarked() {
+		HeadlessBoard board = HeadlessBoard.fromBoard(createBoard(scheme));
+		HeadlessBoard original = new HeadlessBoard(board);
+		
+		long[] marks = new long[10];
+		marks[3] = (1L << 2) | (1L << 3) | (1L << 6);
+		marks[7] = 1L << 9;
+		
+		assertEquals(4, board.removeMarked(marks));
+		
+		// Tiles under the lowest removed one should stay in place.
+		assertEquals(original.getColor(3, 0), board.getColor(3, 0));
+		assertEquals(original.getColor(3, 1), board.getColor(3, 1));
+		
+		// Tiles above removed ones should fall.
+		assertEquals(original.getColor(3, 4), board.getColor(3, 2));
+		assertEquals(original.getColor(3, 5), board.getColor(3, 3));
+		assertEquals(original.getColor(3, 7), board.getColor(3, 4));
+		assertEquals(original.getColor(3, 9), board.getColor(3, 6));
+		
+		// Top of the columns should be refilled with unknown tiles.
+		assertEquals(HeadlessBoard.UNKNOWN, board.getColor(3, 7));
+		assertEquals(HeadlessBoard.UNKNOWN, board.getColor(3, 9));
+		assertEquals(HeadlessBoard.UNKNOWN, board.getColor(7, 9));
+		assertEquals(original.getColor(7, 8), board.getColor(7, 8));
+		
+		// Unmarked columns should be left untouched.
+		for (int y = 0; y < 10; y++) {
+			assertEquals(original.getColor(0, y), board.getColor(0, y));
+		}
+	}
+	
+	@Test
+	public void testRestoreMarked() {
+		HeadlessBoard board = new HeadlessBoard(HeadlessBoard.fromBoard(createBoard(scheme)), 14);
+		for (int x = 0; x < 10; x++) board.setColor(x, 12, x % 7);
+		
+		HeadlessBoard original = new HeadlessBoard(board);
+		
+		long[] marks = new long[10];
+		marks[0] = 1L;
+		marks[3] = (1L << 2) | (1L << 3) | (1L << 6);
+		marks[9] = (1L << 7) | (1L << 8) | (1L << 9);
+		
+		byte[] removed = new byte[7];
+		
+		assertEquals(7, board.removeMarked(marks, removed, 0));
+		assertEquals(original.getColor(3, 2), removed[1]);
+		assertEquals(original.getColor(3, 6), removed[3]);
+		assertEquals(original.getColor(3, 12), board.getColor(3, 9));
+		
+		assertEquals(7, board.restoreMarked(marks, removed, 0));
+		
+		for (int x = 0; x < 10; x++) {
+			for (int y = 0; y < 14; y++) {
+				assertEquals(original.getColor(x, y), board.getColor(x, y));
+			}
+		}
+	}
+	
+	@Test
+	public void testMatches() {
+		HeadlessBoard board = new HeadlessBoard(HeadlessBoard.fromBoard(createBoard(scheme)), 14);
+		for (int x = 0; x < 10; x++) board.setColor(x, 12, x % 7);
+		
+		HeadlessBoard copy = new HeadlessBoard(board);
+		assertTrue(copy.matches(board));
+		
+		// Tiles refilled after the stream ran out are unknown, so they
+		// should match whatever the actual board got.
+		long[] marks = new long[10];
+		marks[3] = (1L << 2) | (1L << 3) | (1L << 6);
+		copy.removeMarked(marks);
+		
+		HeadlessBoard actual = new HeadlessBoard(copy, 14);
+		actual.setColor(3, 7, 6);
+		actual.setColor(3, 13, 2);
+		
+		assertEquals(HeadlessBoard.UNKNOWN, copy.getColor(3, 7));
+		assertTrue(copy.matches(actual));
+		assertFalse(actual.matches(copy));
+		
+		actual.setColor(3, 4, (copy.getColor(3, 4) + 1) % 7);
+		assertFalse(copy.matches(actual));
+		
+		assertFalse(board.matches(new HeadlessBoard(10, 9, 14)));
+	}
+	
+	@Test
+	public void testConsumed() {
+		HeadlessBoard board = HeadlessBoard.fromBoard(createBoard(scheme));
+		
+		for (int x = 0; x < 10; x++) assertEquals(0, board.getConsumed(x));
+		
+		long[] marks = new long[10];
+		marks[3] = (1L << 2) | (1L << 3) | (1L << 6);
+		marks[7] = 1L << 9;
+		
+		byte[] removed = new byte[4];
+		board.removeMarked(marks, removed, 0);
+		
+		assertEquals(3, board.getConsumed(3));
+		assertEquals(1, board.getConsumed(7));
+		assertEquals(0, board.getConsumed(0));
+		
+		// Counts should follow the board when it is copied.
+		HeadlessBoard copy = new HeadlessBoard(board);
+		assertEquals(3, copy.getConsumed(3));
+		
+		HeadlessBoard other = new HeadlessBoard(10, 10, 10);
+		other.copyFrom(board);
+		assertEquals(1, other.getConsumed(7));
+		
+		board.restoreMarked(marks, removed, 0);
+		
+		assertEquals(0, board.getConsumed(3));
+		assertEquals(0, board.getConsumed(7));
+	}
+	
+	@Test
+	public void testRefillStreams() {
+		HeadlessBoard board = new HeadlessBoard(HeadlessBoard.fromBoard(createBoard(scheme)), 14);
+		for (int y = 10; y < 14; y++) board.setColor(2, y, y % 7);
+		
+		HeadlessBoard copy = new HeadlessBoard(board);
+		
+		// Removed tiles should be replaced by the next tiles of the stream.
+		long[] marks = new long[10];
+		marks[2] = (1L << 0) | (1L << 1);
+		copy.removeMarked(marks);
+		
+		assertEquals(10 % 7, copy.getColor(2, 8));
+		assertEquals(11 % 7, copy.getColor(2, 9));
+		assertEquals(12 % 7, copy.getColor(2, 10));
+		assertEquals(13 % 7, copy.getColor(2, 11));
+		assertEquals(HeadlessBoard.UNKNOWN, copy.getColor(2, 12));
+		
+		// Writing a shared stream should not affect the other board.
+		copy.setColor(2, 10, 6);
+		assertEquals(6, copy.getColor(2, 10));
+		assertEquals(12 % 7, board.getColor(2, 12));
+		
+		board.setColor(2, 13, 0);
+		assertEquals(13 % 7, copy.getColor(2, 11));
+		
+		// Copying into another board should share the streams as well.
+		HeadlessBoard other = new HeadlessBoard(10, 10, 14);
+		other.copyFrom(copy);
+		
+		for (int y = 0; y < 14; y++) assertEquals(copy.getColor(2, y), other.getColor(2, y));
+	}
+}
@@ -0,0 +1,60 @@
+package tests.gr.auth.ee.dsproject.crush.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.util.IntMoveList;
+
+
+public class IntMoveListTest {
+
+	@Test
+	public void testAddGrows() {
+		IntMoveList list = new IntMoveList(2);
+		assertTrue(list.isEmpty());
+
+		for (int i = 0; i < 100; i++) list.add(i * 3);
+
+		assertEquals(100, list.size());
+		for (int i = 0; i < 100; i++) assertEquals(i * 3, list.get(i));
+
+		assertEquals(30, list.indexOf(90));
+		assertEquals(-1, list.indexOf(91));
+	}
+
+	@Test
+	public void testSetAndClear() {
+		IntMoveList list = new IntMoveList();
+		list.add(1);
+		list.add(2);
+		list.set(0, 5);
+
+		assertArrayEquals(new int[] { 5, 2 }, list.toArray());
+
+		// Copies should not share their moves.
+		IntMoveList copy = new IntMoveList(list);
+		copy.set(1, 7);
+		assertEquals(2, list.get(1));
+
+		list.clear();
+		assertTrue(list.isEmpty());
+		assertEquals(2, copy.size());
+	}
+
+	@Test
+	public void testOutOfBoundsException() {
+		IntMoveList list = new IntMoveList();
+		list.add(1);
+		list.clear();
+
+		boolean ex = false;
+
+		try {
+			list.get(0);
+		} catch (IndexOutOfBoundsException e) {
+			ex = true;
+		}
+
+		assertTrue(ex);
+	}
+}
@@ -0,0 +1,102 @@
+package tests.gr.auth.ee.dsproject.crush.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Random;
+
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+import gr.auth.ee.dsproject.crush.util.IntMoveList;
+import gr.auth.ee.dsproject.crush.util.MoveGenerator;
+import gr.auth.ee.dsproject.crush.util.PackedMove;
+
+
+public class MoveGeneratorTest {
+
+	/**
+	 * Creates a random board of given dimensions, with a few tiles of
+	 * UNKNOWN color and only a few colors, so many moves are available.
+	 */
+	private HeadlessBoard createRandomBoard(int cols, int pRows, long seed) {
+		Random random = new Random(seed);
+		HeadlessBoard board = new HeadlessBoard(cols, pRows, pRows);
+
+		for (int x = 0; x < cols; x++) {
+			for (int y = 0; y < pRows; y++) {
+				int color = random.nextInt(10) == 0 ? HeadlessBoard.UNKNOWN : random.nextInt(3);
+				board.setColor(x, y, color);
+			}
+		}
+
+		return board;
+	}
+
+	@Test
+	public void testNullBoardException() {
+		boolean ex = false;
+
+		try {
+			new MoveGenerator(10, 10).count(null);
+		} catch (BoardUtils.NullBoardRuntimeException e) {
+			ex = true;
+		}
+
+		assertTrue(ex);
+	}
+
+	@Test
+	public void testSameAsAvailableMove() {
+		int[] directions = { CrushUtilities.UP, CrushUtilities.DOWN,
+							 CrushUtilities.LEFT, CrushUtilities.RIGHT };
+
+		int[][] dimensions = { { 10, 10 }, { 3, 7 }, { 1, 5 }, { 6, 1 } };
+
+		for (int[] d : dimensions) {
+			MoveGenerator generator = new MoveGenerator(d[0], d[1]);
+			IntMoveList moves = new IntMoveList();
+
+			for (long seed = 0; seed < 50; seed++) {
+				HeadlessBoard board = createRandomBoard(d[0], d[1], seed);
+				generator.generate(board, moves);
+
+				// Moves should be the same and in the same order as
+				// checking every one of them finds.
+				int i = 0;
+
+				for (int x = 0; x < d[0]; x++) {
+					for (int y = 0; y < d[1]; y++) {
+						for (int dir : directions) {
+							if (!BoardUtils.isAvailableMove(board, x, y, dir)) continue;
+
+							assertEquals(PackedMove.encode(x, y, dir), moves.get(i++));
+						}
+					}
+				}
+
+				assertEquals(i, moves.size());
+				assertEquals(i, generator.count(board));
+			}
+		}
+	}
+
+	@Test
+	public void testNoMoves() {
+		HeadlessBoard board = new HeadlessBoard(4, 4, 4);
+
+		// A checkered board of four colors has no available moves.
+		for (int x = 0; x < 4; x++) {
+			for (int y = 0; y < 4; y++) board.setColor(x, y, (x % 2) * 2 + (y % 2));
+		}
+
+		IntMoveList moves = new IntMoveList();
+		moves.add(0);
+
+		MoveGenerator generator = new MoveGenerator(4, 4);
+		generator.generate(board, moves);
+
+		assertTrue(moves.isEmpty());
+		assertEquals(0, generator.count(board));
+	}
+}
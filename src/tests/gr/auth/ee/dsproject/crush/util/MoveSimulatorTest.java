@@ -0,0 +1,230 @@
+package tests.gr.auth.ee.dsproject.crush.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.lang.reflect.*;
+import java.util.ArrayList;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+import gr.auth.ee.dsproject.crush.util.MoveSimulator;
+import gr.auth.ee.dsproject.crush.util.UndoRecord;
+import gr.auth.ee.dsproject.crush.util.ZobristHash;
+
+
+public class MoveSimulatorTest {
+	
+	private HeadlessBoard createBoard(int[][] boardScheme, int pRows) {
+		int rows = boardScheme.length;
+		int cols = boardScheme[0].length;
+		
+		HeadlessBoard board = new HeadlessBoard(cols, pRows, rows);
+		
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) {
+				board.setColor(x, y, boardScheme[rows - y - 1][x]);
+			}
+		}
+		
+		return board;
+	}
+	
+	@Test
+	public void testPlayMoveNullBoardException() {
+		boolean ex = false;
+		
+		try {
+			new MoveSimulator(10, 10).playMove(null, new int[] { 0, 0, CrushUtilities.UP });
+		} catch (BoardUtils.NullBoardRuntimeException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+	}
+	
+	@Test
+	public void testPlayMoveNullMoveException() {
+		boolean ex = false;
+		
+		try {
+			new MoveSimulator(10, 10).playMove(new HeadlessBoard(10, 10, 10), null);
+		} catch (BoardUtils.NullMoveRuntimeException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+	}
+	
+	@Test
+	public void testPlayMoveWithCascade() {
+		// Two hidden rows on top of a 5 x 4 playable area.
+		int[][] scheme = {
+				{ 4, 5, 6, 0, 1 },
+				{ 2, 3, 4, 5, 6 },
+				{ 0, 1, 3, 3, 4 },
+				{ 5, 6, 0, 1, 3 },
+				{ 3, 4, 1, 6, 0 },
+				{ 1, 1, 0, 1, 2 }, 
+		};
+		
+		HeadlessBoard board = createBoard(scheme, 4);
+		MoveSimulator simulator = new MoveSimulator(5, 4);
+		
+		// Moving the 0 at (2, 0) to the top lets the 1s of the bottom row
+		// crush, and the 3s of row 3 fall next to the 3 at (4, 2).
+		int removed = simulator.playMove(board, new int[] { 2, 0, CrushUtilities.UP });
+		
+		assertEquals(7, removed);
+		assertEquals(2, simulator.getLevels());
+		assertEquals(4, simulator.getRemovedOnLevel(0));
+		assertEquals(3, simulator.getRemovedOnLevel(1));
+		assertEquals(0, simulator.getRemovedOnLevel(2));
+		assertEquals(removed, simulator.getTotalRemoved());
+		
+		// The bottom row should now be refilled from the rows above.
+		assertEquals(3, board.getColor(0, 0));
+		assertEquals(HeadlessBoard.UNKNOWN, board.getColor(0, 5));
+	}
+	
+	@Test
+	public void testPlayMoveWithoutCrushes() {
+		HeadlessBoard board = new HeadlessBoard(10, 10, 10);
+		MoveSimulator simulator = new MoveSimulator(10, 10);
+		
+		assertEquals(0, simulator.playMove(board, 0, 0, 1, 0));
+		assertEquals(0, simulator.getLevels());
+	}
+	
+	@Test
+	public void testPlayMoveMatchesCrushUtilities() throws Exception {
+		Board board = new Board(60);
+		Method init = Board.class.getDeclaredMethod("initializeBoard");
+		init.setAccessible(true);
+		init.invoke(board);
+		
+		HeadlessBoard headless = HeadlessBoard.fromBoard(board);
+		HeadlessBoard scratch = new HeadlessBoard(headless);
+		MoveSimulator simulator = new MoveSimulator(headless.getCols(), headless.getPRows());
+		
+		ArrayList<int[]> moves = CrushUtilities.getAvailableMoves(board);
+		
+		for (int[] move : moves) {
+			Board expected = CrushUtilities.boardAfterFullMove(board, move);
+			
+			scratch.copyFrom(headless);
+			assertTrue(simulator.playMove(scratch, move) >= 3);
+			
+			for (int x = 0; x < headless.getCols(); x++) {
+				for (int y = 0; y < headless.getPRows(); y++) {
+					assertEquals(expected.giveTileAt(x, y).getColor(), scratch.getColor(x, y));
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testMakeAndUnmakeMove() throws Exception {
+		Board board = new Board(60);
+		Method init = Board.class.getDeclaredMethod("initializeBoard");
+		init.setAccessible(true);
+		init.invoke(board);
+		
+		HeadlessBoard headless = HeadlessBoard.fromBoard(board);
+		HeadlessBoard original = new HeadlessBoard(headless);
+		HeadlessBoard expected = new HeadlessBoard(headless);
+		
+		MoveSimulator simulator = new MoveSimulator(headless.getCols(), headless.getPRows());
+		UndoRecord undo = new UndoRecord(headless.getCols());
+		UndoRecord nestedUndo = new UndoRecord(headless.getCols());
+		
+		for (int[] move : BoardUtils.getAvailableMoves(headless)) {
+			int[] cords = CrushUtilities.calculateNextMove(move);
+			
+			expected.copyFrom(original);
+			int expectedRemoved = simulator.playMove(expected, move);
+			
+			int removed = simulator.makeMove(headless, cords[0], cords[1], cords[2], cords[3], undo);
+			
+			assertEquals(expectedRemoved, removed);
+			assertEquals(removed, undo.getTotalRemoved());
+			assertEquals(simulator.getLevels(), undo.getLevels());
+			assertBoardsEqual(expected, headless);
+			
+			// Moves made on top of others should be reverted too.
+			for (int[] nested : BoardUtils.getAvailableMoves(headless)) {
+				int[] c = CrushUtilities.calculateNextMove(nested);
+				
+				simulator.makeMove(headless, c[0], c[1], c[2], c[3], nestedUndo);
+				simulator.unmakeMove(headless, nestedUndo);
+				
+				assertBoardsEqual(expected, headless);
+			}
+			
+			simulator.unmakeMove(headless, undo);
+			
+			assertBoardsEqual(original, headless);
+		}
+	}
+	
+	@Test
+	public void testStartHashing() throws Exception {
+		Board board = new Board(60);
+		Method init = Board.class.getDeclaredMethod("initializeBoard");
+		init.setAccessible(true);
+		init.invoke(board);
+		
+		HeadlessBoard headless = HeadlessBoard.fromBoard(board);
+		int cols = headless.getCols();
+		
+		ZobristHash zobrist = new ZobristHash(cols, headless.getPRows(), 2 * headless.getRows());
+		MoveSimulator simulator = new MoveSimulator(cols, headless.getPRows());
+		UndoRecord undo = new UndoRecord(cols);
+		UndoRecord nestedUndo = new UndoRecord(cols);
+		
+		int[] base = new int[cols];
+		for (int x = 0; x < cols; x++) base[x] = x;
+		
+		simulator.startHashing(headless, zobrist, base);
+		long key = simulator.getKey();
+		
+		assertEquals(zobrist.hash(headless, false, base), key);
+		
+		// Keys kept while making and unmaking moves should always be the
+		// ones of hashing the whole board.
+		for (int[] move : BoardUtils.getAvailableMoves(headless)) {
+			int[] cords = CrushUtilities.calculateNextMove(move);
+			
+			simulator.makeMove(headless, cords[0], cords[1], cords[2], cords[3], undo);
+			long moveKey = simulator.getKey();
+			
+			assertEquals(zobrist.hash(headless, false, base), moveKey);
+			
+			for (int[] nested : BoardUtils.getAvailableMoves(headless)) {
+				int[] c = CrushUtilities.calculateNextMove(nested);
+				
+				simulator.makeMove(headless, c[0], c[1], c[2], c[3], nestedUndo);
+				assertEquals(zobrist.hash(headless, false, base), simulator.getKey());
+				
+				simulator.unmakeMove(headless, nestedUndo);
+				assertEquals(moveKey, simulator.getKey());
+			}
+			
+			simulator.unmakeMove(headless, undo);
+			assertEquals(key, simulator.getKey());
+		}
+		
+		simulator.startHashing(headless, null, null);
+		assertEquals(0, simulator.getKey());
+	}
+	
+	private void assertBoardsEqual(HeadlessBoard expected, HeadlessBoard actual) {
+		for (int x = 0; x < expected.getCols(); x++) {
+			for (int y = 0; y < expected.getRows(); y++) {
+				assertEquals(expected.getColor(x, y), actual.getColor(x, y));
+			}
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package tests.gr.auth.ee.dsproject.crush.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+import gr.auth.ee.dsproject.crush.util.IntMoveList;
+import gr.auth.ee.dsproject.crush.util.PackedMove;
+
+
+public class PackedMoveTest {
+
+	@Test
+	public void testNullMoveException() {
+		boolean ex = false;
+
+		try {
+			PackedMove.fromDirArray(null);
+		} catch (BoardUtils.NullMoveRuntimeException e) {
+			ex = true;
+		}
+
+		assertTrue(ex);
+	}
+
+	@Test
+	public void testEncodeDecode() {
+		int[] directions = { CrushUtilities.LEFT, CrushUtilities.DOWN,
+							 CrushUtilities.RIGHT, CrushUtilities.UP };
+
+		for (int x = 0; x < 10; x++) {
+			for (int y = 0; y < 63; y++) {
+				for (int dir : directions) {
+					int move = PackedMove.encode(x, y, dir);
+
+					assertTrue(move >= 0 && move < PackedMove.getTableSize(10));
+					assertEquals(x, PackedMove.getX(move));
+					assertEquals(y, PackedMove.getY(move));
+					assertEquals(dir, PackedMove.getDirection(move));
+					assertEquals(move, PackedMove.fromDirArray(new int[] { x, y, dir }));
+
+					// Destination should be the one CrushUtilities calculates.
+					int[] cords = CrushUtilities.calculateNextMove(new int[] { x, y, dir });
+					assertArrayEquals(cords, PackedMove.toCordsArray(move));
+					assertEquals(cords[2], PackedMove.getX2(move));
+					assertEquals(cords[3], PackedMove.getY2(move));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testAvailableMovesMatch() {
+		HeadlessBoard board = new HeadlessBoard(10, 10, 10);
+		Random random = new Random(7);
+
+		for (int x = 0; x < 10; x++) {
+			for (int y = 0; y < 10; y++) board.setColor(x, y, random.nextInt(7));
+		}
+
+		ArrayList<int[]> moves = BoardUtils.getAvailableMoves(board);
+		IntMoveList packed = new IntMoveList(1);
+		BoardUtils.getAvailableMoves(board, packed);
+
+		assertEquals(moves.size(), packed.size());
+		for (int i = 0; i < moves.size(); i++) {
+			assertTrue(Arrays.equals(moves.get(i), PackedMove.toDirArray(packed.get(i))));
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package tests.gr.auth.ee.dsproject.crush.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+import gr.auth.ee.dsproject.crush.util.MoveSimulator;
+import gr.auth.ee.dsproject.crush.util.UndoRecord;
+
+
+public class UndoRecordTest {
+	
+	@Test
+	public void testEmptyRecord() {
+		UndoRecord undo = new UndoRecord(10);
+		
+		assertEquals(0, undo.getLevels());
+		assertEquals(0, undo.getTotalRemoved());
+	}
+	
+	@Test
+	public void testClear() {
+		// A column full of the same color crushes as a whole.
+		HeadlessBoard board = new HeadlessBoard(3, 10, 10);
+		for (int y = 0; y < 10; y++) board.setColor(1, y, 2);
+		
+		UndoRecord undo = new UndoRecord(3);
+		new MoveSimulator(3, 10).makeMove(board, 0, 0, 2, 0, undo);
+		
+		assertEquals(1, undo.getLevels());
+		assertEquals(10, undo.getTotalRemoved());
+		
+		undo.clear();
+		
+		assertEquals(0, undo.getLevels());
+		assertEquals(0, undo.getTotalRemoved());
+	}
+	
+	@Test
+	public void testLongCascadeGrowsRecord() {
+		// A single column, where every crush lets the next 3 tiles
+		// of the same color fall into the playable area.
+		HeadlessBoard board = new HeadlessBoard(1, 3, 3 * 20);
+		for (int y = 0; y < 3 * 20; y++) board.setColor(0, y, (y / 3) % 2);
+		
+		HeadlessBoard original = new HeadlessBoard(board);
+		
+		MoveSimulator simulator = new MoveSimulator(1, 3);
+		UndoRecord undo = new UndoRecord(1);
+		
+		assertEquals(3 * 20, simulator.makeMove(board, 0, 0, 0, 0, undo));
+		assertEquals(20, undo.getLevels());
+		
+		simulator.unmakeMove(board, undo);
+		
+		for (int y = 0; y < 3 * 20; y++) {
+			assertEquals(original.getColor(0, y), board.getColor(0, y));
+		}
+	}
+}
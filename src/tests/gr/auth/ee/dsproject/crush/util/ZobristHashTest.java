@@ -0,0 +1,157 @@
+package tests.gr.auth.ee.dsproject.crush.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.util.BoardUtils;
+import gr.auth.ee.dsproject.crush.util.HeadlessBoard;
+import gr.auth.ee.dsproject.crush.util.MoveSimulator;
+import gr.auth.ee.dsproject.crush.util.UndoRecord;
+import gr.auth.ee.dsproject.crush.util.ZobristHash;
+
+
+public class ZobristHashTest {
+
+	private HeadlessBoard createRandomBoard(long seed) {
+		Random random = new Random(seed);
+		HeadlessBoard board = new HeadlessBoard(10, 10, 30);
+
+		for (int x = 0; x < 10; x++) {
+			for (int y = 0; y < 30; y++) board.setColor(x, y, random.nextInt(7));
+		}
+
+		return board;
+	}
+
+	@Test
+	public void testNullBoardException() {
+		boolean ex = false;
+
+		try {
+			new ZobristHash(10, 10, 30).hash(null);
+		} catch (BoardUtils.NullBoardRuntimeException e) {
+			ex = true;
+		}
+
+		assertTrue(ex);
+	}
+
+	@Test
+	public void testSameBoardSameKey() {
+		HeadlessBoard board = createRandomBoard(1);
+
+		// Keys should not depend on the instance that computed them.
+		long key = new ZobristHash(10, 10, 30).hash(board);
+
+		assertEquals(key, new ZobristHash(10, 10, 30).hash(new HeadlessBoard(board)));
+	}
+
+	@Test
+	public void testDifferentBoardsDifferentKeys() {
+		ZobristHash zobrist = new ZobristHash(10, 10, 30);
+		HeadlessBoard board = createRandomBoard(2);
+		long key = zobrist.hash(board);
+
+		HeadlessBoard other = new HeadlessBoard(board);
+		other.setColor(4, 4, (board.getColor(4, 4) + 1) % 7);
+		assertNotEquals(key, zobrist.hash(other));
+
+		// Tiles above the playable area are defined by consumed counts only.
+		other = new HeadlessBoard(board);
+		other.setColor(4, 20, (board.getColor(4, 20) + 1) % 7);
+		assertEquals(key, zobrist.hash(other));
+	}
+
+	@Test
+	public void testSideKey() {
+		ZobristHash zobrist = new ZobristHash(10, 10, 30);
+		HeadlessBoard board = createRandomBoard(3);
+
+		assertEquals(zobrist.hash(board), zobrist.hash(board, false));
+		assertEquals(zobrist.hash(board) ^ zobrist.getSideKey(), zobrist.hash(board, true));
+	}
+
+	@Test
+	public void testConsumedBase() {
+		ZobristHash zobrist = new ZobristHash(10, 10, 60);
+		MoveSimulator simulator = new MoveSimulator(10, 10);
+
+		HeadlessBoard board = createRandomBoard(4);
+		simulator.crushAll(board);
+		simulator.playMove(board, BoardUtils.getAvailableMoves(board).get(0));
+
+		// The same tiles, as a board of its own, which consumed nothing.
+		HeadlessBoard root = new HeadlessBoard(10, 10, 30);
+		int[] base = new int[10];
+
+		for (int x = 0; x < 10; x++) {
+			base[x] = board.getConsumed(x);
+			for (int y = 0; y < 30; y++) root.setColor(x, y, board.getColor(x, y));
+		}
+
+		assertEquals(zobrist.hash(root, true), zobrist.hash(root, true, null));
+		assertNotEquals(zobrist.hash(board, true), zobrist.hash(root, true));
+		assertEquals(zobrist.hash(board, true), zobrist.hash(root, true, base));
+
+		// Boards derived from both should keep getting the same keys.
+		int[] move = BoardUtils.getAvailableMoves(root).get(0);
+		simulator.playMove(board, move);
+		simulator.playMove(root, move);
+
+		assertEquals(zobrist.hash(board, false), zobrist.hash(root, false, base));
+	}
+
+	@Test
+	public void testTranspositions() {
+		ZobristHash zobrist = new ZobristHash(10, 10, 30);
+		MoveSimulator simulator = new MoveSimulator(10, 10);
+		UndoRecord undo = new UndoRecord(10);
+
+		int found = 0;
+
+		// Whenever two different sequences of moves lead to boards of the
+		// same key, the boards should be the same, hidden rows included.
+		for (long seed = 0; seed < 20; seed++) {
+			HeadlessBoard board = createRandomBoard(seed);
+			simulator.crushAll(board);
+
+			ArrayList<int[]> moves = BoardUtils.getAvailableMoves(board);
+
+			for (int i = 0; i < moves.size(); i++) {
+				for (int j = i + 1; j < moves.size(); j++) {
+					HeadlessBoard b1 = new HeadlessBoard(board);
+					HeadlessBoard b2 = new HeadlessBoard(board);
+
+					simulator.playMove(b1, moves.get(i));
+					simulator.playMove(b1, moves.get(j));
+					simulator.playMove(b2, moves.get(j));
+					simulator.playMove(b2, moves.get(i));
+
+					if (zobrist.hash(b1) != zobrist.hash(b2)) continue;
+					found++;
+
+					for (int x = 0; x < 10; x++) {
+						assertEquals(b1.getConsumed(x), b2.getConsumed(x));
+						for (int y = 0; y < 30; y++) assertEquals(b1.getColor(x, y), b2.getColor(x, y));
+					}
+				}
+			}
+
+			// Making and unmaking a move should restore the key.
+			long key = zobrist.hash(board);
+
+			if (!moves.isEmpty()) {
+				int[] cords = CrushUtilities.calculateNextMove(moves.get(0));
+				simulator.makeMove(board, cords[0], cords[1], cords[2], cords[3], undo);
+				simulator.unmakeMove(board, undo);
+				assertEquals(key, zobrist.hash(board));
+			}
+		}
+
+		assertTrue(found > 0);
+	}
+}